@@ -0,0 +1,86 @@
+package com.techbookstore.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retention limits for the aggregation_cache table (app.aggregation-cache.*).
+ * The default row and byte limits apply to every aggregation type; entries under
+ * "types" override them for a single type. A limit of 0 disables that bound.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.aggregation-cache")
+public class AggregationCacheProperties {
+
+    /** Rows deleted per statement, so no sweep holds locks on more rows than this */
+    private int sweepBatchSize = 500;
+
+    private Limit defaults = new Limit(10_000, 64L * 1024 * 1024);
+
+    private Map<String, Limit> types = new HashMap<>();
+
+    public Limit limitFor(String aggregationType) {
+        Limit limit = types.get(aggregationType);
+        if (limit == null) {
+            return defaults;
+        }
+        return new Limit(limit.maxRows != null ? limit.maxRows : defaults.maxRows,
+                         limit.maxBytes != null ? limit.maxBytes : defaults.maxBytes);
+    }
+
+    public int getSweepBatchSize() {
+        return sweepBatchSize;
+    }
+
+    public void setSweepBatchSize(int sweepBatchSize) {
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    public Limit getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limit defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limit> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Map<String, Limit> types) {
+        this.types = types;
+    }
+
+    public static class Limit {
+        private Long maxRows;
+        private Long maxBytes;
+
+        public Limit() {
+        }
+
+        public Limit(long maxRows, long maxBytes) {
+            this.maxRows = maxRows;
+            this.maxBytes = maxBytes;
+        }
+
+        public Long getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(Long maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public Long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(Long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.techbookstore.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Time limits of the integrated analysis phases run in parallel (app.analysis.*).
+ * A phase's limit counts from its submission, so time spent queued for a phase thread counts.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.analysis")
+public class AnalysisPhaseProperties {
+
+    /** Limit of phases without their own entry */
+    private Duration phaseTimeout = Duration.ofSeconds(30);
+
+    /** Limit per phase, keyed by lower-case phase name (base_report, advanced_analysis, forecasting, optimization) */
+    private Map<String, Duration> phaseTimeouts = new HashMap<>();
+
+    public Duration timeoutFor(String phase) {
+        return phaseTimeouts.getOrDefault(phase.toLowerCase(Locale.ROOT), phaseTimeout);
+    }
+
+    public Duration getPhaseTimeout() {
+        return phaseTimeout;
+    }
+
+    public void setPhaseTimeout(Duration phaseTimeout) {
+        this.phaseTimeout = phaseTimeout;
+    }
+
+    public Map<String, Duration> getPhaseTimeouts() {
+        return phaseTimeouts;
+    }
+
+    public void setPhaseTimeouts(Map<String, Duration> phaseTimeouts) {
+        this.phaseTimeouts = phaseTimeouts;
+    }
+}
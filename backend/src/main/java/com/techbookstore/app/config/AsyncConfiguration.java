@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Async configuration for Phase 4 integrated analysis
@@ -33,6 +34,26 @@ public class AsyncConfiguration {
         return executor;
     }
     
+    /**
+     * Executor for the phases of one integrated analysis run in parallel (AnalysisPhaseRunner)
+     * Bounded on its own so analysis branches never queue behind parallel streams on the common
+     * pool; when it is saturated the submitting analysis thread runs the phase itself
+     */
+    @Bean(name = "analysisPhaseExecutor")
+    public ThreadPoolTaskExecutor analysisPhaseExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(32);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("AnalysisPhase-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+    
     /**
      * Executor for dashboard data processing
      * Fast executor for real-time dashboard updates
@@ -53,7 +74,8 @@ public class AsyncConfiguration {
     
     /**
      * Executor for batch processing
-     * Heavy-duty executor for batch optimization tasks
+     * Heavy-duty executor for batch optimization tasks (analysis jobs); once the queue is full
+     * new tasks are rejected, which the jobs API reports as 429
      */
     @Bean(name = "batchProcessingExecutor")
     public Executor batchProcessingExecutor() {
@@ -63,9 +85,31 @@ public class AsyncConfiguration {
         executor.setQueueCapacity(200);
         executor.setKeepAliveSeconds(120);
         executor.setThreadNamePrefix("BatchProcessing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(120);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Executor for the parallel steps of the scheduled batches (BatchJobEngine)
+     * Kept apart from batchProcessingExecutor so a backlog of analysis jobs never delays a batch
+     * stage, and sized for the widest stage; a step rejected when it is busy runs on the thread
+     * running the job
+     */
+    @Bean(name = "batchJobExecutor")
+    public Executor batchJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(8);
+        executor.setKeepAliveSeconds(120);
+        executor.setThreadNamePrefix("BatchJob-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(120);
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+}
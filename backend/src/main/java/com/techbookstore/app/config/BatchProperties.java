@@ -0,0 +1,101 @@
+package com.techbookstore.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Period;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Chunking, retries and retention of the scheduled batches (app.batch.*).
+ * Every chunk of a step is written and checkpointed in one transaction, so the chunk size
+ * bounds both the work redone after a failure and how long a transaction stays open.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.batch")
+public class BatchProperties {
+
+    /** Items per chunk of steps without their own entry */
+    private int chunkSize = 100;
+
+    /** Items per chunk, keyed by lower-case step name (e.g. sales_fact_rebuild counts days) */
+    private Map<String, Integer> chunkSizes = new HashMap<>();
+
+    /** Times a chunk is retried after a transient database failure (deadlock, lock timeout) */
+    private int chunkRetryLimit = 2;
+
+    /** Checkpoints of runs older than this are deleted when a batch starts */
+    private Duration checkpointRetention = Duration.ofDays(90);
+
+    /** Run history (batch_runs, batch_step_runs) older than this is deleted when a batch starts */
+    private Duration historyRetention = Duration.ofDays(180);
+
+    /** Settled orders and inventory transactions older than this are moved to the archive tables monthly */
+    private Period archiveAfter = Period.ofYears(2);
+
+    /** Incremental aggregations re-read changes this far before their last read, to cover late commits */
+    private Duration watermarkOverlap = Duration.ofMinutes(10);
+
+    public int chunkSizeFor(String step) {
+        return Math.max(1, chunkSizes.getOrDefault(step.toLowerCase(Locale.ROOT), chunkSize));
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Map<String, Integer> getChunkSizes() {
+        return chunkSizes;
+    }
+
+    public void setChunkSizes(Map<String, Integer> chunkSizes) {
+        this.chunkSizes = chunkSizes;
+    }
+
+    public int getChunkRetryLimit() {
+        return chunkRetryLimit;
+    }
+
+    public void setChunkRetryLimit(int chunkRetryLimit) {
+        this.chunkRetryLimit = chunkRetryLimit;
+    }
+
+    public Duration getCheckpointRetention() {
+        return checkpointRetention;
+    }
+
+    public void setCheckpointRetention(Duration checkpointRetention) {
+        this.checkpointRetention = checkpointRetention;
+    }
+
+    public Duration getHistoryRetention() {
+        return historyRetention;
+    }
+
+    public void setHistoryRetention(Duration historyRetention) {
+        this.historyRetention = historyRetention;
+    }
+
+    public Period getArchiveAfter() {
+        return archiveAfter;
+    }
+
+    public void setArchiveAfter(Period archiveAfter) {
+        this.archiveAfter = archiveAfter;
+    }
+
+    public Duration getWatermarkOverlap() {
+        return watermarkOverlap;
+    }
+
+    public void setWatermarkOverlap(Duration watermarkOverlap) {
+        this.watermarkOverlap = watermarkOverlap;
+    }
+}
@@ -0,0 +1,36 @@
+package com.techbookstore.app.config;
+
+import com.techbookstore.app.event.DomainEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which domain events invalidate which caches.
+ * Caches without a rule are refreshed by TTL only.
+ */
+public class CacheInvalidationRules {
+
+    private final Map<String, Set<Class<? extends DomainEvent>>> eventsByCache = new LinkedHashMap<>();
+
+    @SafeVarargs
+    public final CacheInvalidationRules invalidate(String cacheName, Class<? extends DomainEvent>... eventTypes) {
+        eventsByCache.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).addAll(Arrays.asList(eventTypes));
+        return this;
+    }
+
+    public List<String> cachesInvalidatedBy(DomainEvent event) {
+        List<String> cacheNames = new ArrayList<>();
+        eventsByCache.forEach((cacheName, eventTypes) -> {
+            if (eventTypes.stream().anyMatch(type -> type.isInstance(event))) {
+                cacheNames.add(cacheName);
+            }
+        });
+        return cacheNames;
+    }
+}
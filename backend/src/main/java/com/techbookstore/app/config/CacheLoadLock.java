@@ -0,0 +1,22 @@
+package com.techbookstore.app.config;
+
+import java.time.Duration;
+
+/**
+ * Cluster-wide lock taken by the node that recomputes a missing or expiring cache entry,
+ * so other nodes wait for its result instead of recomputing the same key.
+ */
+public interface CacheLoadLock {
+
+    /**
+     * Try to take the lock without waiting.
+     *
+     * @return an ownership token, or null if another holder has the lock
+     */
+    String tryLock(String lockKey, Duration ttl);
+
+    /**
+     * Release the lock if the token still owns it.
+     */
+    void unlock(String lockKey, String token);
+}
@@ -0,0 +1,73 @@
+package com.techbookstore.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache warm-up settings (app.cache.warmup.*).
+ * Keys are analysis cache keys without their date segment, e.g.
+ * integrated_analysis_horizon:30_opt:true or dashboard_integrated_analysis_horizon:30_opt:true;
+ * they are replayed for the current date.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.cache.warmup")
+public class CacheWarmupProperties {
+
+    private boolean enabled = true;
+
+    /** Keys always warmed, before the most requested ones */
+    private List<String> keys = new ArrayList<>();
+
+    /** Most requested keys warmed in addition to the configured ones */
+    private int topN = 20;
+
+    /** Distinct keys counted; requests for further keys are not tracked */
+    private int maxTrackedKeys = 1000;
+
+    /** Readiness reports UP after this long even if the startup warm-up has not finished */
+    private Duration startupTimeout = Duration.ofMinutes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<String> keys) {
+        this.keys = keys;
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    public void setTopN(int topN) {
+        this.topN = topN;
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    public Duration getStartupTimeout() {
+        return startupTimeout;
+    }
+
+    public void setStartupTimeout(Duration startupTimeout) {
+        this.startupTimeout = startupTimeout;
+    }
+}
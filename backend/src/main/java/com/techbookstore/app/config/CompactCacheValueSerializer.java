@@ -0,0 +1,144 @@
+package com.techbookstore.app.config;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Redis value encoding shared by all caches: Smile (binary JSON, with repeated property names
+ * and short strings written once) carrying class names for polymorphic values, LZ4-compressed
+ * once the encoded value reaches the compression threshold.
+ *
+ * Layout: one format byte, then
+ * FORMAT_SMILE: the Smile document;
+ * FORMAT_SMILE_LZ4: the Smile length (4 bytes, big-endian) and the LZ4 block;
+ * FORMAT_NULL: nothing (a cached null).
+ * Payloads in any other format (e.g. written by the former JDK or JSON serializers) and payloads
+ * that no longer match the DTO classes decode to null, which the cache treats as a miss.
+ */
+public class CompactCacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactCacheValueSerializer.class);
+
+    static final byte FORMAT_SMILE = 1;
+    static final byte FORMAT_SMILE_LZ4 = 2;
+    static final byte FORMAT_NULL = 3;
+
+    private static final int LZ4_HEADER_LENGTH = 5;
+
+    private final ObjectMapper mapper;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    public CompactCacheValueSerializer(int compressionThreshold) {
+        this(defaultMapper(), compressionThreshold);
+    }
+
+    public CompactCacheValueSerializer(ObjectMapper mapper, int compressionThreshold) {
+        this.mapper = mapper;
+        this.compressionThreshold = compressionThreshold;
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.fastDecompressor();
+    }
+
+    /**
+     * Smile mapper with java.time support and class names on every non-final value. Only
+     * application, java.lang, java.util, java.math and java.time classes may be named.
+     */
+    public static ObjectMapper defaultMapper() {
+        SmileFactory smile = new SmileFactory();
+        smile.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        ObjectMapper mapper = new ObjectMapper(smile);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        mapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                                         .allowIfSubType("com.techbookstore.app.")
+                                         .allowIfSubType("java.lang.")
+                                         .allowIfSubType("java.util.")
+                                         .allowIfSubType("java.math.")
+                                         .allowIfSubType("java.time.")
+                                         .allowIfSubTypeIsArray()
+                                         .build(),
+                                     ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (value instanceof NullValue) {
+            return new byte[] {FORMAT_NULL};
+        }
+        byte[] smile;
+        try {
+            smile = mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not encode cache value of type " + value.getClass().getName(), e);
+        }
+        if (smile.length >= compressionThreshold) {
+            int maxLength = compressor.maxCompressedLength(smile.length);
+            byte[] compressed = new byte[LZ4_HEADER_LENGTH + maxLength];
+            int length = compressor.compress(smile, 0, smile.length, compressed, LZ4_HEADER_LENGTH, maxLength);
+            // Incompressible values are stored as they are
+            if (length < smile.length) {
+                compressed[0] = FORMAT_SMILE_LZ4;
+                compressed[1] = (byte) (smile.length >>> 24);
+                compressed[2] = (byte) (smile.length >>> 16);
+                compressed[3] = (byte) (smile.length >>> 8);
+                compressed[4] = (byte) smile.length;
+                return Arrays.copyOf(compressed, LZ4_HEADER_LENGTH + length);
+            }
+        }
+        byte[] encoded = new byte[smile.length + 1];
+        encoded[0] = FORMAT_SMILE;
+        System.arraycopy(smile, 0, encoded, 1, smile.length);
+        return encoded;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            switch (bytes[0]) {
+                case FORMAT_NULL:
+                    return NullValue.INSTANCE;
+                case FORMAT_SMILE:
+                    return mapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+                case FORMAT_SMILE_LZ4:
+                    int length = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16)
+                        | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+                    byte[] smile = decompressor.decompress(bytes, LZ4_HEADER_LENGTH, length);
+                    return mapper.readValue(smile, Object.class);
+                default:
+                    logger.debug("Ignoring cache value in unknown format {}", bytes[0]);
+                    return null;
+            }
+        } catch (IOException | LZ4Exception | ArrayIndexOutOfBoundsException e) {
+            logger.warn("Ignoring undecodable cache value: {}", e.getMessage());
+            return null;
+        }
+    }
+}
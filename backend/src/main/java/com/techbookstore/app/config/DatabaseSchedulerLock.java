@@ -0,0 +1,71 @@
+package com.techbookstore.app.config;
+
+import com.techbookstore.app.entity.SchedulerLockEntry;
+import com.techbookstore.app.repository.SchedulerLockRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * SchedulerLock on the scheduler_locks table: a conditional update takes over an expired lease
+ * and increments the fencing token, an insert creates a lock that has no row yet. Lease times come
+ * from the clock of the acquiring node, so node clocks must agree to well within a lease.
+ */
+public class DatabaseSchedulerLock implements SchedulerLock {
+
+    private final SchedulerLockRepository repository;
+
+    public DatabaseSchedulerLock(SchedulerLockRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Lease tryAcquire(String name, String owner, Duration leaseTime) {
+        // Millisecond precision, so the row read back compares equal on every database
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime lockUntil = now.plus(leaseTime);
+        if (repository.takeOver(name, owner, now, lockUntil) == 0) {
+            // Held by another node, unless the lock has never been taken
+            if (repository.existsById(name)) {
+                return null;
+            }
+            try {
+                repository.create(name, owner, now, lockUntil);
+            } catch (DataIntegrityViolationException e) {
+                return null;
+            }
+        }
+        return repository.findById(name)
+            .filter(entry -> entry.getOwner().equals(owner) && entry.getLockedAt().equals(now))
+            .map(entry -> new Lease(name, owner, entry.getFencingToken()))
+            .orElse(null);
+    }
+
+    @Override
+    public boolean renew(Lease lease, Duration leaseTime) {
+        LocalDateTime now = LocalDateTime.now();
+        return repository.renew(lease.getName(), lease.getFencingToken(), now, now.plus(leaseTime)) > 0;
+    }
+
+    @Override
+    public void release(Lease lease) {
+        repository.release(lease.getName(), lease.getFencingToken(), LocalDateTime.now());
+    }
+
+    @Override
+    public List<LockState> states() {
+        return repository.findAll(Sort.by("name")).stream()
+            .map(DatabaseSchedulerLock::toState)
+            .collect(Collectors.toList());
+    }
+
+    private static LockState toState(SchedulerLockEntry entry) {
+        return new LockState(entry.getName(), entry.getOwner(), entry.getFencingToken(), entry.getLockedAt(),
+                             entry.getLockUntil());
+    }
+}
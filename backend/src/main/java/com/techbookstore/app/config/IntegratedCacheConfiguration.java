@@ -1,6 +1,11 @@
 package com.techbookstore.app.config;
 
-import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import com.techbookstore.app.event.BookUpdatedEvent;
+import com.techbookstore.app.event.OrderConfirmedEvent;
+import com.techbookstore.app.event.StockChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -11,95 +16,165 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Cache configuration for Phase 4 integrated analysis
  * Provides different TTL configurations for different analysis types
- * Uses Redis when available, falls back to simple caching for tests
+ * Uses Redis when available, falls back to simple caching for tests.
+ * In Redis mode each cache gets a bounded in-process near tier (TwoTierCacheManager),
+ * kept coherent across nodes through Redis pub/sub invalidation, and @Cacheable(sync = true)
+ * misses are computed once cluster-wide under a Redis lock.
+ * All caches store values with the same compact codec ({@link CompactCacheValueSerializer})
+ * and report hits, misses, puts, evictions, size and load latency ({@link MeteredCacheManager}).
+ * Caches fed by inventory, order and book data are evicted by domain events after commit
+ * ({@link #cacheInvalidationRules()}), so their TTLs only bound staleness from other sources.
  */
 @Configuration
 @EnableCaching
 public class IntegratedCacheConfiguration {
     
+    /** Remote TTL for caches without their own entry */
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    
     @Bean
     @Primary
-    @ConditionalOnBean(RedisConnectionFactory.class)
     @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                          StringRedisTemplate stringRedisTemplate,
+                                          ObjectProvider<MeterRegistry> meterRegistry,
+                                          @Value("${app.cache.near.enabled:true}") boolean nearCacheEnabled,
+                                          @Value("${app.cache.near.maximum-size:1000}") long nearCacheMaximumSize,
+                                          @Value("${app.cache.near.ttl:30s}") Duration nearCacheTtl,
+                                          @Value("${app.cache.near.invalidation.enabled:true}") boolean invalidationEnabled,
+                                          @Value("${app.cache.load-lock-timeout:30s}") Duration loadLockTimeout,
+                                          RedisSerializer<Object> cacheValueSerializer) {
+        RedisCacheConfiguration defaults = cacheConfiguration(cacheValueSerializer);
         RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager
             .builder(connectionFactory)
-            .cacheDefaults(cacheConfiguration());
+            .cacheDefaults(defaults);
         
-        // Phase 4 integrated cache configurations with different TTLs
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        cacheTtls().forEach((name, ttl) -> cacheConfigurations.put(name, defaults.entryTtl(ttl)));
         
-        // Base inventory reports (Phase 1) - 5 minutes cache
-        cacheConfigurations.put("baseInventoryReport", 
-            RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(5))
-                .serializeKeysWith(RedisSerializationContext.SerializationPair
-                    .fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair
-                    .fromSerializer(new GenericJackson2JsonRedisSerializer())));
-        
-        // Advanced analysis (Phase 2) - 15 minutes cache
-        cacheConfigurations.put("advancedAnalysis", 
-            RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(15)));
-        
-        // Forecast analysis (Phase 3) - 30 minutes cache
-        cacheConfigurations.put("forecastAnalysis", 
-            RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30)));
-        
-        // Integrated analysis (Phase 4) - 10 minutes cache
-        cacheConfigurations.put("integratedAnalysis", 
-            RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)));
-        
-        // Performance metrics - 2 minutes cache
-        cacheConfigurations.put("performanceMetrics", 
-            RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(2)));
-        
-        // Dashboard data - 1 minute cache for real-time feel
-        cacheConfigurations.put("dashboardData", 
-            RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(1)));
-        
-        return builder.withInitialCacheConfigurations(cacheConfigurations).build();
+        RedisCacheManager redisCacheManager = builder.withInitialCacheConfigurations(cacheConfigurations).build();
+        // Not a bean of its own, so initialize the configured caches here
+        redisCacheManager.afterPropertiesSet();
+        if (!nearCacheEnabled) {
+            return metered(redisCacheManager, meterRegistry);
+        }
+        return metered(new TwoTierCacheManager(redisCacheManager, nearCacheMaximumSize, nearCacheTtl, cacheTtls(),
+                                               DEFAULT_TTL, invalidationEnabled ? stringRedisTemplate : null,
+                                               meterRegistry.getIfAvailable(),
+                                               new RedisCacheLoadLock(stringRedisTemplate), loadLockTimeout,
+                                               redisKey -> remainingTtlMillis(stringRedisTemplate, redisKey)),
+                       meterRegistry);
+    }
+    
+    /**
+     * Per-cache hit/miss/put/eviction counters, size and load latency histogram (cache.*)
+     */
+    private static CacheManager metered(CacheManager cacheManager, ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry != null ? new MeteredCacheManager(cacheManager, registry) : cacheManager;
+    }
+    
+    private static long remainingTtlMillis(StringRedisTemplate stringRedisTemplate, String redisKey) {
+        try {
+            Long ttl = stringRedisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+            return ttl != null ? ttl : -1;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Encoding of every Redis cache value; replace this bean to change it for all caches.
+     */
+    @Bean
+    public RedisSerializer<Object> cacheValueSerializer(
+            @Value("${app.cache.codec.compression-threshold:1024}") int compressionThreshold) {
+        return new CompactCacheValueSerializer(compressionThreshold);
+    }
+    
+    /**
+     * Subscribes the near cache to invalidations published by other nodes.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.near.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        CacheManager target = cacheManager instanceof MeteredCacheManager
+            ? ((MeteredCacheManager) cacheManager).getDelegate() : cacheManager;
+        if (target instanceof TwoTierCacheManager) {
+            container.addMessageListener((TwoTierCacheManager) target,
+                                         new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
     }
     
     @Bean
     @ConditionalOnProperty(name = "spring.cache.type", havingValue = "simple")
-    public CacheManager simpleCacheManager() {
+    public CacheManager simpleCacheManager(ObjectProvider<MeterRegistry> meterRegistry) {
         // Simple cache manager for test environments
         ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(java.util.Arrays.asList(
-            "baseInventoryReport",
-            "advancedAnalysis", 
-            "forecastAnalysis",
-            "integratedAnalysis",
-            "performanceMetrics",
-            "dashboardData"
-        ));
-        return cacheManager;
+        cacheManager.setCacheNames(cacheTtls().keySet());
+        return metered(cacheManager, meterRegistry);
+    }
+    
+    /**
+     * Domain events that evict entries of each cache (scoped to the affected categories)
+     */
+    @Bean
+    public CacheInvalidationRules cacheInvalidationRules() {
+        return new CacheInvalidationRules()
+            .invalidate("baseInventoryReport", StockChangedEvent.class, OrderConfirmedEvent.class, BookUpdatedEvent.class)
+            .invalidate("advancedAnalysis", StockChangedEvent.class, OrderConfirmedEvent.class, BookUpdatedEvent.class)
+            // Forecasts depend on sales history, not on current stock levels
+            .invalidate("forecastAnalysis", OrderConfirmedEvent.class, BookUpdatedEvent.class)
+            .invalidate("integratedAnalysis", StockChangedEvent.class, OrderConfirmedEvent.class, BookUpdatedEvent.class)
+            .invalidate("dashboardData", StockChangedEvent.class, OrderConfirmedEvent.class, BookUpdatedEvent.class);
+    }
+    
+    /**
+     * Remote (Redis) TTL per cache
+     */
+    private static Map<String, Duration> cacheTtls() {
+        Map<String, Duration> ttls = new LinkedHashMap<>();
+        // Base inventory reports (Phase 1) - 30 minutes cache, evicted on stock/order/book events
+        ttls.put("baseInventoryReport", Duration.ofMinutes(30));
+        // Advanced analysis (Phase 2) - 1 hour cache, evicted on stock/order/book events
+        ttls.put("advancedAnalysis", Duration.ofHours(1));
+        // Forecast analysis (Phase 3) - 2 hours cache, evicted on order/book events
+        ttls.put("forecastAnalysis", Duration.ofHours(2));
+        // Integrated analysis (Phase 4) - 1 hour cache, evicted on stock/order/book events
+        ttls.put("integratedAnalysis", Duration.ofHours(1));
+        // Performance metrics - 2 minutes cache
+        ttls.put("performanceMetrics", Duration.ofMinutes(2));
+        // Dashboard data - 15 minutes cache, evicted on stock/order/book events
+        ttls.put("dashboardData", Duration.ofMinutes(15));
+        return ttls;
     }
     
-    private RedisCacheConfiguration cacheConfiguration() {
+    private RedisCacheConfiguration cacheConfiguration(RedisSerializer<Object> valueSerializer) {
         return RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(5))
+            .entryTtl(DEFAULT_TTL)
             .serializeKeysWith(RedisSerializationContext.SerializationPair
                 .fromSerializer(new StringRedisSerializer()))
             .serializeValuesWith(RedisSerializationContext.SerializationPair
-                .fromSerializer(new GenericJackson2JsonRedisSerializer()))
-            .disableCachingNullValues();
+                .fromSerializer(valueSerializer));
     }
-}
\ No newline at end of file
+}
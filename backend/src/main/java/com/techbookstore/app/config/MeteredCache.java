@@ -0,0 +1,222 @@
+package com.techbookstore.app.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache decorator reporting the standard Micrometer cache meters (cache.gets by result,
+ * cache.puts, cache.evictions and, when the delegate can tell, cache.size) tagged with the
+ * cache name, plus a cache.load timer with a percentile histogram of the time spent computing
+ * missing values.
+ *
+ * A {@link #get(Object, Callable)} whose loader runs counts as a miss, one served without
+ * running it (including callers that waited for another thread's load) as a hit.
+ * Evictions count explicit evict calls; clear() is counted by cache.clears as it removes an
+ * unknown number of entries. Expiry in the delegate (TTL, size bound) is not visible here,
+ * TwoTierCache reports it for the local tier (cache.two_tier.evictions).
+ */
+public class MeteredCache implements Cache {
+
+    private final Cache delegate;
+    private final Timer successfulLoads;
+    private final Timer failedLoads;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder clears = new LongAdder();
+
+    public MeteredCache(Cache delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.successfulLoads = loadTimer(meterRegistry, "success");
+        this.failedLoads = loadTimer(meterRegistry, "failure");
+        new Metrics(this).bindTo(meterRegistry);
+    }
+
+    private Timer loadTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("cache.load")
+            .description("Time spent computing values missing from the cache")
+            .tags("cache", delegate.getName(), "result", result)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofMinutes(2))
+            .register(meterRegistry);
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return counted(delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return counted(delegate.get(key, type));
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        T value;
+        try {
+            value = delegate.get(key, () -> {
+                loaded[0] = true;
+                long started = System.nanoTime();
+                try {
+                    T result = valueLoader.call();
+                    successfulLoads.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    return result;
+                } catch (Exception | Error e) {
+                    failedLoads.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    throw e;
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            if (loaded[0]) {
+                misses.increment();
+            }
+            throw e;
+        }
+        if (loaded[0]) {
+            misses.increment();
+            puts.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            puts.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        evictions.increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        if (evicted) {
+            evictions.increment();
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        clears.increment();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        clears.increment();
+        return invalidated;
+    }
+
+    private <T> T counted(T value) {
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Entries held by this node: the local tier of a TwoTierCache or an in-memory map, null for
+     * a remote-only cache.
+     */
+    Long size() {
+        if (delegate instanceof TwoTierCache) {
+            return ((TwoTierCache) delegate).getLocalSize();
+        }
+        Object nativeCache = delegate.getNativeCache();
+        if (nativeCache instanceof Map) {
+            return (long) ((Map<?, ?>) nativeCache).size();
+        }
+        return null;
+    }
+
+    private static class Metrics extends CacheMeterBinder {
+
+        private final MeteredCache cache;
+
+        Metrics(MeteredCache cache) {
+            super(cache, cache.getName(), Tags.empty());
+            this.cache = cache;
+        }
+
+        @Override
+        protected Long size() {
+            return cache.size();
+        }
+
+        @Override
+        protected long hitCount() {
+            return cache.hits.sum();
+        }
+
+        @Override
+        protected Long missCount() {
+            return cache.misses.sum();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return cache.evictions.sum();
+        }
+
+        @Override
+        protected long putCount() {
+            return cache.puts.sum();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            FunctionCounter.builder("cache.clears", cache, c -> c.clears.sum())
+                .tags("cache", cache.getName())
+                .description("The number of times the cache was cleared")
+                .register(registry);
+        }
+    }
+}
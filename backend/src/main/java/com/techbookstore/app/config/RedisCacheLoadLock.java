@@ -0,0 +1,38 @@
+package com.techbookstore.app.config;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * CacheLoadLock on Redis: SET NX PX to acquire, compare-and-delete script to release,
+ * so an expired lock taken over by another node is never released by the old owner.
+ */
+public class RedisCacheLoadLock implements CacheLoadLock {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisCacheLoadLock(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String tryLock(String lockKey, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey, token, ttl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    @Override
+    public void unlock(String lockKey, String token) {
+        redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(lockKey), token);
+    }
+}
@@ -0,0 +1,129 @@
+package com.techbookstore.app.config;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * SchedulerLock on Redis: each lock is a hash (token, owner, lockedAt) expiring with the lease.
+ * Acquiring, renewing and releasing are scripts, so they only act on the lease they were given;
+ * the fencing token is a counter key that never expires, and the set of lock names backs
+ * {@link #states()}. A missing counter (first use, or Redis lost its data) starts from the highest
+ * token already stored by fenced writers, so later runs are never taken for older ones.
+ */
+public class RedisSchedulerLock implements SchedulerLock {
+
+    static final String KEY_PREFIX = "scheduler_lock:";
+    private static final String NAMES_KEY = KEY_PREFIX + "names";
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('exists', KEYS[1]) == 1 then return nil end " +
+        "if redis.call('exists', KEYS[2]) == 0 then return -1 end " +
+        "local token = redis.call('incr', KEYS[2]) " +
+        "redis.call('hset', KEYS[1], 'token', token, 'owner', ARGV[1], 'lockedAt', ARGV[2]) " +
+        "redis.call('pexpire', KEYS[1], ARGV[3]) " +
+        "redis.call('sadd', KEYS[3], ARGV[4]) " +
+        "return token",
+        Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('hget', KEYS[1], 'token') == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) " +
+        "else return 0 end",
+        Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('hget', KEYS[1], 'token') == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LongSupplier storedTokenFloor;
+
+    /**
+     * @param storedTokenFloor highest fencing token stored by the writers the tokens fence
+     */
+    public RedisSchedulerLock(StringRedisTemplate redisTemplate, LongSupplier storedTokenFloor) {
+        this.redisTemplate = redisTemplate;
+        this.storedTokenFloor = storedTokenFloor;
+    }
+
+    @Override
+    public Lease tryAcquire(String name, String owner, Duration leaseTime) {
+        Long token = acquire(name, owner, leaseTime);
+        if (token != null && token < 0) {
+            redisTemplate.opsForValue().setIfAbsent(tokenKey(name), String.valueOf(storedTokenFloor.getAsLong()));
+            token = acquire(name, owner, leaseTime);
+        }
+        return token != null && token > 0 ? new Lease(name, owner, token) : null;
+    }
+
+    /**
+     * @return the new fencing token, null when the lock is held, -1 when the token counter is missing
+     */
+    private Long acquire(String name, String owner, Duration leaseTime) {
+        return redisTemplate.execute(ACQUIRE_SCRIPT, Arrays.asList(lockKey(name), tokenKey(name), NAMES_KEY),
+                                     owner, String.valueOf(System.currentTimeMillis()),
+                                     String.valueOf(leaseTime.toMillis()), name);
+    }
+
+    @Override
+    public boolean renew(Lease lease, Duration leaseTime) {
+        Long renewed = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(lockKey(lease.getName())),
+                                             String.valueOf(lease.getFencingToken()),
+                                             String.valueOf(leaseTime.toMillis()));
+        return renewed != null && renewed > 0;
+    }
+
+    @Override
+    public void release(Lease lease) {
+        redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(lockKey(lease.getName())),
+                              String.valueOf(lease.getFencingToken()));
+    }
+
+    @Override
+    public List<LockState> states() {
+        Set<String> names = redisTemplate.opsForSet().members(NAMES_KEY);
+        List<LockState> states = new ArrayList<>();
+        if (names == null) {
+            return states;
+        }
+        for (String name : new TreeSet<>(names)) {
+            Map<Object, Object> lock = redisTemplate.opsForHash().entries(lockKey(name));
+            Long remainingMillis = redisTemplate.getExpire(lockKey(name), TimeUnit.MILLISECONDS);
+            if (lock.isEmpty() || remainingMillis == null || remainingMillis < 0) {
+                String token = redisTemplate.opsForValue().get(tokenKey(name));
+                states.add(new LockState(name, null, token != null ? Long.parseLong(token) : 0, null, null));
+            } else {
+                states.add(new LockState(name, (String) lock.get("owner"), Long.parseLong((String) lock.get("token")),
+                                         toLocalDateTime(Long.parseLong((String) lock.get("lockedAt"))),
+                                         LocalDateTime.now().plus(Duration.ofMillis(remainingMillis))));
+            }
+        }
+        return states;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static String lockKey(String name) {
+        return KEY_PREFIX + name;
+    }
+
+    private static String tokenKey(String name) {
+        return KEY_PREFIX + name + ":token";
+    }
+}
@@ -0,0 +1,123 @@
+package com.techbookstore.app.config;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cluster-wide lease held by the node running a scheduled job, so every job runs on one node
+ * at a time. Every acquisition gets a fencing token greater than all earlier ones for the same
+ * lock; writers pass it to the storage they update so a node that lost its lease (paused,
+ * partitioned) can not overwrite the work of the node that took over.
+ */
+public interface SchedulerLock {
+
+    /**
+     * Take the lock if it is free or its lease has run out, without waiting.
+     *
+     * @return the lease, or null if another node holds the lock
+     */
+    Lease tryAcquire(String name, String owner, Duration leaseTime);
+
+    /**
+     * Extend a lease still held.
+     *
+     * @return false when the lease was lost (expired, or taken over by another node)
+     */
+    boolean renew(Lease lease, Duration leaseTime);
+
+    /**
+     * Release the lock if the lease still holds it.
+     */
+    void release(Lease lease);
+
+    /**
+     * Current state of every lock taken so far
+     */
+    List<LockState> states();
+
+    /**
+     * One acquisition of a lock
+     */
+    final class Lease {
+
+        private final String name;
+        private final String owner;
+        private final long fencingToken;
+        private volatile boolean lost;
+
+        public Lease(String name, String owner, long fencingToken) {
+            this.name = name;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        /**
+         * False once the holder found the lease lost; work done under it should stop
+         */
+        public boolean isHeld() {
+            return !lost;
+        }
+
+        public void markLost() {
+            this.lost = true;
+        }
+    }
+
+    /**
+     * Last holder of a lock; the lock is free once lockUntil has passed
+     */
+    final class LockState {
+
+        private final String name;
+        private final String owner;
+        private final long fencingToken;
+        private final LocalDateTime lockedAt;
+        private final LocalDateTime lockUntil;
+
+        public LockState(String name, String owner, long fencingToken, LocalDateTime lockedAt,
+                         LocalDateTime lockUntil) {
+            this.name = name;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+            this.lockedAt = lockedAt;
+            this.lockUntil = lockUntil;
+        }
+
+        public boolean isHeld() {
+            return lockUntil != null && lockUntil.isAfter(LocalDateTime.now());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        public LocalDateTime getLockedAt() {
+            return lockedAt;
+        }
+
+        public LocalDateTime getLockUntil() {
+            return lockUntil;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.techbookstore.app.config;
+
+import com.techbookstore.app.repository.BatchCheckpointRepository;
+import com.techbookstore.app.repository.SchedulerLockRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Lock store of the scheduled jobs, chosen by app.scheduler.lock.provider
+ */
+@Configuration
+public class SchedulerLockConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.scheduler.lock.provider", havingValue = "database", matchIfMissing = true)
+    public SchedulerLock databaseSchedulerLock(SchedulerLockRepository repository) {
+        return new DatabaseSchedulerLock(repository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.scheduler.lock.provider", havingValue = "redis")
+    public SchedulerLock redisSchedulerLock(StringRedisTemplate stringRedisTemplate,
+                                            BatchCheckpointRepository checkpointRepository) {
+        return new RedisSchedulerLock(stringRedisTemplate, checkpointRepository::findMaxFencingToken);
+    }
+}
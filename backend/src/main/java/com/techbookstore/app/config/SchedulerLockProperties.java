@@ -0,0 +1,53 @@
+package com.techbookstore.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Cluster locks around scheduled jobs (app.scheduler.lock.*).
+ * The lease is renewed every third of lease-time while the job runs, so lease-time only bounds
+ * how long a crashed node keeps a job blocked, not how long a job may run.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.scheduler.lock")
+public class SchedulerLockProperties {
+
+    /** Where locks are kept: database (scheduler_locks table) or redis */
+    private String provider = "database";
+
+    private Duration leaseTime = Duration.ofMinutes(5);
+
+    /** Name of this node as shown in the lock status; pid@host by default */
+    private String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    public Duration renewInterval() {
+        return leaseTime.dividedBy(3);
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public Duration getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(Duration leaseTime) {
+        this.leaseTime = leaseTime;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+}
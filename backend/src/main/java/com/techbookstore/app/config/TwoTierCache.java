@@ -0,0 +1,333 @@
+package com.techbookstore.app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache with a bounded in-process tier (Caffeine) in front of a shared remote tier (Redis).
+ * Reads are served from heap when possible and fall through to the remote tier; writes go to
+ * both tiers and are announced so other nodes drop their local copy.
+ * Local entries are keyed by the string form of the cache key, which is also what Redis keys on.
+ *
+ * {@link #get(Object, Callable)} (used by {@code @Cacheable(sync = true)}) is single-flight:
+ * concurrent misses on a key in this JVM share one computation, and across nodes the computing
+ * node holds a {@link CacheLoadLock} while the others wait for its result to reach Redis.
+ * Entries are also refreshed probabilistically before they expire (XFetch), so a hot key is
+ * recomputed by one caller while everybody else keeps getting the current value.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+
+    /** XFetch beta; values above 1 refresh earlier */
+    static final double EARLY_REFRESH_BETA = 1.0;
+    private static final long LOCK_POLL_MILLIS = 50;
+
+    private final String name;
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, CachedValue> local;
+    private final Duration remoteTtl;
+    /** Cluster-wide load lock; null coalesces within this JVM only */
+    private final CacheLoadLock loadLock;
+    private final Duration lockTimeout;
+    /** Remaining remote TTL in millis for a local key, negative when unknown */
+    private final ToLongFunction<String> remainingRemoteTtl;
+    /** Called with (cache name, key) after a write, or (cache name, null) after a clear */
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    /** Smoothed load time, used as the refresh horizon of entries read from the remote tier */
+    private volatile long averageLoadNanos;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+
+    public TwoTierCache(String name, Cache remote,
+                        com.github.benmanes.caffeine.cache.Cache<String, CachedValue> local,
+                        Duration remoteTtl, CacheLoadLock loadLock, Duration lockTimeout,
+                        ToLongFunction<String> remainingRemoteTtl,
+                        BiConsumer<String, String> invalidationPublisher) {
+        this.name = name;
+        this.remote = remote;
+        this.local = local;
+        this.remoteTtl = remoteTtl;
+        this.loadLock = loadLock;
+        this.lockTimeout = lockTimeout;
+        this.remainingRemoteTtl = remainingRemoteTtl;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return lookup(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CachedValue cached = lookup(key);
+        if (cached == null) {
+            return (T) loadOnce(key, valueLoader);
+        }
+        if (inFlight.containsKey(localKey(key))
+                || !shouldRefreshEarly(cached, System.currentTimeMillis(), ThreadLocalRandom.current().nextDouble())) {
+            return (T) cached.get();
+        }
+        earlyRefreshes.increment();
+        try {
+            return (T) loadOnce(key, valueLoader);
+        } catch (ValueRetrievalException e) {
+            logger.warn("Early refresh of {}::{} failed, serving current value", name, key, e.getCause());
+            return (T) cached.get();
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new CachedValue(value, 0, System.currentTimeMillis() + remoteTtl.toMillis()));
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey(key));
+        if (existing == null) {
+            invalidationPublisher.accept(name, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drops a local entry after another node changed it (key null clears the whole local tier).
+     */
+    void invalidateLocal(String localKey) {
+        invalidationsReceived.increment();
+        if (localKey == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(localKey);
+        }
+    }
+
+    /**
+     * XFetch: refresh once now + loadTime * beta * -ln(random) reaches the expiry time, so
+     * entries that are slow to compute or close to expiry are refreshed earlier.
+     * Entries with no known load time or expiry are never refreshed early.
+     */
+    static boolean shouldRefreshEarly(CachedValue cached, long nowMillis, double random) {
+        if (cached.loadNanos <= 0 || cached.expiresAtMillis <= 0) {
+            return false;
+        }
+        double horizonMillis = cached.loadNanos / 1_000_000.0 * EARLY_REFRESH_BETA * -Math.log(random);
+        return nowMillis + horizonMillis >= cached.expiresAtMillis;
+    }
+
+    private CachedValue lookup(Object key) {
+        String localKey = localKey(key);
+        CachedValue cached = local.getIfPresent(localKey);
+        if (cached != null) {
+            localHits.increment();
+            return cached;
+        }
+        ValueWrapper stored = remote.get(key);
+        if (stored == null) {
+            misses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        long remaining = remainingRemoteTtl.applyAsLong(localKey);
+        cached = new CachedValue(stored.get(), averageLoadNanos,
+                                 System.currentTimeMillis() + (remaining >= 0 ? remaining : remoteTtl.toMillis()));
+        local.put(localKey, cached);
+        return cached;
+    }
+
+    /**
+     * Runs at most one load per key in this JVM; concurrent callers wait for its result.
+     */
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(localKey, mine);
+        if (running != null) {
+            coalescedLoads.increment();
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof ValueRetrievalException
+                    ? (ValueRetrievalException) cause : new ValueRetrievalException(key, valueLoader, cause);
+            }
+        }
+        try {
+            Object value = loadWithLock(key, valueLoader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, mine);
+        }
+    }
+
+    /**
+     * Takes the cluster-wide lock before computing. When another node holds it, waits for a value
+     * to show up in Redis (a refresh gets the current one straight away) and only computes itself
+     * if none arrives within the lock timeout. A Redis failure falls back to computing locally.
+     */
+    private Object loadWithLock(Object key, Callable<?> valueLoader) {
+        if (loadLock == null) {
+            return compute(key, valueLoader);
+        }
+        String lockKey = "lock:" + name + "::" + localKey(key);
+        String token;
+        try {
+            token = loadLock.tryLock(lockKey, lockTimeout);
+        } catch (RuntimeException e) {
+            logger.warn("Cache load lock {} unavailable, loading without it: {}", lockKey, e.getMessage());
+            return compute(key, valueLoader);
+        }
+        if (token != null) {
+            try {
+                return compute(key, valueLoader);
+            } finally {
+                try {
+                    loadLock.unlock(lockKey, token);
+                } catch (RuntimeException e) {
+                    // The lock expires on its own after the timeout
+                    logger.warn("Could not release cache load lock {}: {}", lockKey, e.getMessage());
+                }
+            }
+        }
+
+        coalescedLoads.increment();
+        long deadline = System.currentTimeMillis() + lockTimeout.toMillis();
+        do {
+            ValueWrapper stored = remote.get(key);
+            if (stored != null) {
+                return stored.get();
+            }
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        } while (System.currentTimeMillis() < deadline);
+        logger.warn("Timed out waiting for {} to be loaded by another node, loading here", lockKey);
+        return compute(key, valueLoader);
+    }
+
+    private Object compute(Object key, Callable<?> valueLoader) {
+        long started = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long loadNanos = System.nanoTime() - started;
+        loads.increment();
+        long average = averageLoadNanos;
+        averageLoadNanos = average == 0 ? loadNanos : (average * 3 + loadNanos) / 4;
+
+        remote.put(key, value);
+        local.put(localKey(key), new CachedValue(value, loadNanos, System.currentTimeMillis() + remoteTtl.toMillis()));
+        invalidationPublisher.accept(name, localKey(key));
+        return value;
+    }
+
+    long getLocalHits() { return localHits.sum(); }
+    long getRemoteHits() { return remoteHits.sum(); }
+    long getMisses() { return misses.sum(); }
+    long getInvalidationsReceived() { return invalidationsReceived.sum(); }
+    long getLocalEvictions() { return local.stats().evictionCount(); }
+    long getLoads() { return loads.sum(); }
+    long getCoalescedLoads() { return coalescedLoads.sum(); }
+    long getEarlyRefreshes() { return earlyRefreshes.sum(); }
+
+    long getLocalSize() {
+        // Run pending size evictions first so the reported size respects the bound
+        local.cleanUp();
+        return local.estimatedSize();
+    }
+
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Local entry plus what early refresh needs: how long the value took to compute and when
+     * the remote copy expires.
+     */
+    static class CachedValue extends SimpleValueWrapper {
+        private final long loadNanos;
+        private final long expiresAtMillis;
+
+        CachedValue(Object value, long loadNanos, long expiresAtMillis) {
+            super(value);
+            this.loadNanos = loadNanos;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.techbookstore.app.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * CacheManager that puts a bounded Caffeine tier in front of every cache of a remote (Redis)
+ * CacheManager. Each local tier is capped by entry count and by a TTL no longer than the remote
+ * TTL, so a missed invalidation can only leave a node stale for that long.
+ *
+ * Writes, evictions and clears are published on {@link #INVALIDATION_CHANNEL}; every other node
+ * drops its local copy when the message arrives (see {@link #onMessage}).
+ * Loads through {@code get(key, loader)} are coalesced per key, cluster-wide when a
+ * {@link CacheLoadLock} is given, and hot entries are refreshed before they expire.
+ * Per-tier hit/miss/eviction and load counters are registered as cache.two_tier.* meters.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+    private static final String SEPARATOR = "\t";
+    private static final String CLEAR_MARKER = "";
+
+    private final CacheManager remoteCacheManager;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final Map<String, Duration> remoteTtls;
+    private final Duration defaultRemoteTtl;
+    private final StringRedisTemplate invalidationTemplate;
+    private final MeterRegistry meterRegistry;
+    private final CacheLoadLock loadLock;
+    private final Duration lockTimeout;
+    private final ToLongFunction<String> remainingRemoteTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param invalidationTemplate used to publish invalidations; null for a single node
+     * @param meterRegistry registry for per-tier metrics; may be null
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, long localMaximumSize, Duration localTtl,
+                               Map<String, Duration> remoteTtls, Duration defaultRemoteTtl,
+                               StringRedisTemplate invalidationTemplate, MeterRegistry meterRegistry) {
+        this(remoteCacheManager, localMaximumSize, localTtl, remoteTtls, defaultRemoteTtl,
+             invalidationTemplate, meterRegistry, null, Duration.ZERO, redisKey -> -1);
+    }
+
+    /**
+     * @param invalidationTemplate used to publish invalidations; null for a single node
+     * @param meterRegistry registry for per-tier metrics; may be null
+     * @param loadLock lock held while computing a missing entry; null coalesces per node only
+     * @param lockTimeout lock lease, and how long other nodes wait for the holder's value
+     * @param remainingRemoteTtl remaining TTL in millis of a remote ("cache::key") entry, negative when unknown
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, long localMaximumSize, Duration localTtl,
+                               Map<String, Duration> remoteTtls, Duration defaultRemoteTtl,
+                               StringRedisTemplate invalidationTemplate, MeterRegistry meterRegistry,
+                               CacheLoadLock loadLock, Duration lockTimeout,
+                               ToLongFunction<String> remainingRemoteTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.remoteTtls = remoteTtls;
+        this.defaultRemoteTtl = defaultRemoteTtl;
+        this.invalidationTemplate = invalidationTemplate;
+        this.meterRegistry = meterRegistry;
+        this.loadLock = loadLock;
+        this.lockTimeout = lockTimeout;
+        this.remainingRemoteTtl = remainingRemoteTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> createCache(key, remote));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Applies an invalidation published by another node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(CLEAR_MARKER.equals(parts[2]) ? null : parts[2]);
+        }
+    }
+
+    private TwoTierCache createCache(String name, Cache remote) {
+        Duration remoteTtl = remoteTtls.getOrDefault(name, defaultRemoteTtl);
+        Duration ttl = localTtl.compareTo(remoteTtl) < 0 ? localTtl : remoteTtl;
+        com.github.benmanes.caffeine.cache.Cache<String, TwoTierCache.CachedValue> local = Caffeine.newBuilder()
+            .maximumSize(localMaximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            // Evict on the writing thread so the size bound holds as soon as a put returns
+            .executor(Runnable::run)
+            .build();
+        TwoTierCache cache = new TwoTierCache(name, remote, local, remoteTtl, loadLock, lockTimeout,
+                                              localKey -> remainingRemoteTtl.applyAsLong(name + "::" + localKey),
+                                              this::publishInvalidation);
+        registerMetrics(cache);
+        logger.info("Cache '{}': local tier up to {} entries for {}, remote TTL {}", name, localMaximumSize, ttl, remoteTtl);
+        return cache;
+    }
+
+    private void publishInvalidation(String cacheName, String localKey) {
+        if (invalidationTemplate == null) {
+            return;
+        }
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (localKey != null ? localKey : CLEAR_MARKER);
+        try {
+            invalidationTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the local TTL for this entry
+            logger.warn("Could not publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private void registerMetrics(TwoTierCache cache) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Tags tags = Tags.of("cache", cache.getName());
+        FunctionCounter.builder("cache.two_tier.gets", cache, TwoTierCache::getLocalHits)
+            .tags(tags).tags("tier", "local", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.two_tier.gets", cache, TwoTierCache::getRemoteHits)
+            .tags(tags).tags("tier", "remote", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.two_tier.gets", cache, TwoTierCache::getMisses)
+            .tags(tags).tags("tier", "remote", "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.two_tier.evictions", cache, TwoTierCache::getLocalEvictions)
+            .tags(tags).tags("tier", "local").register(meterRegistry);
+        FunctionCounter.builder("cache.two_tier.invalidations", cache, TwoTierCache::getInvalidationsReceived)
+            .tags(tags).tags("tier", "local").register(meterRegistry);
+        FunctionCounter.builder("cache.two_tier.loads", cache, TwoTierCache::getLoads)
+            .tags(tags).register(meterRegistry);
+        FunctionCounter.builder("cache.two_tier.coalesced", cache, TwoTierCache::getCoalescedLoads)
+            .tags(tags).register(meterRegistry);
+        FunctionCounter.builder("cache.two_tier.early_refreshes", cache, TwoTierCache::getEarlyRefreshes)
+            .tags(tags).register(meterRegistry);
+        Gauge.builder("cache.two_tier.size", cache, TwoTierCache::getLocalSize)
+            .tags(tags).tags("tier", "local").register(meterRegistry);
+    }
+}
@@ -1,26 +1,61 @@
 package com.techbookstore.app.controller;
 
 import com.techbookstore.app.dto.BookDto;
+import com.techbookstore.app.dto.KeysetSlice;
+import com.techbookstore.app.dto.SuggestionDto;
 import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.event.BookUpdatedEvent;
 import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.KeysetPagingRepository;
+import com.techbookstore.app.service.BookSearchIndex;
+import com.techbookstore.app.service.SuggestionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/books")
 @CrossOrigin(origins = "http://localhost:3000")
+@Validated
 public class BookController {
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = new HashSet<>(Arrays.asList("id", "title", "isbn13"));
+
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private KeysetPagingRepository keysetPagingRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping
     public ResponseEntity<Page<BookDto>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
@@ -37,7 +72,8 @@ public class BookController {
         
         Page<Book> books;
         if (keyword != null && !keyword.trim().isEmpty()) {
-            books = bookRepository.findByKeyword(keyword.trim(), pageable);
+            // Keyword results come from the search index ranked by relevance; sortBy does not apply
+            books = searchBooks(keyword.trim(), PageRequest.of(page, size));
         } else {
             books = bookRepository.findAll(pageable);
         }
@@ -46,6 +82,43 @@ public class BookController {
         return ResponseEntity.ok(bookDtos);
     }
 
+    /**
+     * Cursor mode for the book list, selected when {@code after} is present (empty for the first slice).
+     * Seeks on (sortBy, id) instead of OFFSET and skips the count query.
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<KeysetSlice<BookDto>> getBooksAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String keyword) {
+
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Specification<Book> filter = null;
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            String pattern = "%" + keyword.trim().toLowerCase() + "%";
+            filter = (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("title")), pattern),
+                cb.like(cb.lower(root.get("titleEn")), pattern),
+                cb.like(cb.lower(root.get("isbn13")), pattern));
+        }
+
+        KeysetSlice<Book> books = keysetPagingRepository.findSlice(Book.class, filter, KEYSET_SORT_PROPERTIES,
+                                                                   sortBy, direction, after, size);
+        return ResponseEntity.ok(books.map(BookDto::new));
+    }
+
+    /**
+     * Typeahead suggestions by title word or ISBN-13 prefix, without touching the database.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggestBooks(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(SuggestionService.MAX_LIMIT) int limit) {
+        return ResponseEntity.ok(suggestionService.suggestBooks(q, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BookDto> getBookById(@PathVariable Long id) {
         Optional<Book> book = bookRepository.findById(id);
@@ -69,6 +142,9 @@ public class BookController {
     @PostMapping
     public ResponseEntity<BookDto> createBook(@RequestBody Book book) {
         Book savedBook = bookRepository.save(book);
+        bookSearchIndex.index(savedBook);
+        suggestionService.bookSaved(savedBook);
+        eventPublisher.publishEvent(new BookUpdatedEvent(savedBook.getId(), false));
         return ResponseEntity.ok(new BookDto(savedBook));
     }
 
@@ -78,6 +154,9 @@ public class BookController {
         if (existingBook.isPresent()) {
             book.setId(id);
             Book savedBook = bookRepository.save(book);
+            bookSearchIndex.index(savedBook);
+            suggestionService.bookSaved(savedBook);
+            eventPublisher.publishEvent(new BookUpdatedEvent(savedBook.getId(), false));
             return ResponseEntity.ok(new BookDto(savedBook));
         } else {
             return ResponseEntity.notFound().build();
@@ -88,9 +167,30 @@ public class BookController {
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         if (bookRepository.existsById(id)) {
             bookRepository.deleteById(id);
+            bookSearchIndex.remove(id);
+            suggestionService.bookDeleted(id);
+            eventPublisher.publishEvent(new BookUpdatedEvent(id, true));
             return ResponseEntity.noContent().build();
         } else {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Page through the ranked IDs from the search index and load only the books on the page.
+     */
+    private Page<Book> searchBooks(String keyword, Pageable pageable) {
+        List<Long> rankedIds = bookSearchIndex.search(keyword);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+
+        Map<Long, Book> booksById = bookRepository.findAllById(pageIds).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> books = pageIds.stream()
+            .map(booksById::get)
+            .filter(book -> book != null)
+            .collect(Collectors.toList());
+        return new PageImpl<>(books, pageable, rankedIds.size());
+    }
+}
@@ -1,10 +1,13 @@
 package com.techbookstore.app.controller;
 
 import com.techbookstore.app.dto.CustomerDto;
+import com.techbookstore.app.dto.KeysetSlice;
+import com.techbookstore.app.dto.SuggestionDto;
 import com.techbookstore.app.dto.OrderDto;
 import com.techbookstore.app.entity.Customer;
 import com.techbookstore.app.entity.Order;
 import com.techbookstore.app.service.CustomerService;
+import com.techbookstore.app.service.SuggestionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -13,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -30,17 +34,20 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/v1/customers")
 @CrossOrigin(origins = "${app.cors.allowed-origins:http://localhost:3000}")
+@Validated
 public class CustomerController {
     
     private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
     
     private final CustomerService customerService;
+    private final SuggestionService suggestionService;
     
     /**
      * Constructor injection for dependencies.
      */
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, SuggestionService suggestionService) {
         this.customerService = customerService;
+        this.suggestionService = suggestionService;
     }
     
     /**
@@ -125,6 +132,58 @@ public class CustomerController {
         return ResponseEntity.ok(customerDtos);
     }
     
+    /**
+     * Retrieves customers in cursor mode: selected instead of offset paging when {@code after} is present
+     * (empty for the first slice). Seeks on (sort key, id) and skips the count query.
+     * 
+     * @param after cursor returned as nextCursor by the previous slice
+     * @param size slice size
+     * @param sort sort parameter (e.g., "name,asc"); id, name, email or createdAt
+     * @param keyword search keyword
+     * @param customerType customer type filter
+     * @param status customer status filter
+     * @param startDate start date filter
+     * @param endDate end date filter
+     * @return slice of customers with the next cursor
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<KeysetSlice<CustomerDto>> getCustomersAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") @Min(1) int size,
+            @RequestParam(defaultValue = "name,asc") String sort,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String customerType,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        
+        String[] sortParams = sort.split(",");
+        Sort.Direction direction = sortParams.length > 1 && "desc".equalsIgnoreCase(sortParams[1]) 
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Customer.CustomerType typeFilter = customerType != null ? Customer.CustomerType.valueOf(customerType) : null;
+        Customer.CustomerStatus statusFilter = status != null ? Customer.CustomerStatus.valueOf(status) : null;
+        String trimmedKeyword = keyword != null && !keyword.trim().isEmpty() ? keyword.trim() : null;
+        
+        logger.debug("Fetching customers after cursor - size: {}, keyword: {}", size, trimmedKeyword);
+        KeysetSlice<Customer> customers = customerService.getCustomersAfter(trimmedKeyword, typeFilter, statusFilter,
+                startDate, endDate, sortParams[0], direction, after, size);
+        return ResponseEntity.ok(customers.map(CustomerDto::new));
+    }
+    
+    /**
+     * Typeahead suggestions by name, name kana or email prefix, served from memory.
+     * 
+     * @param q the typed prefix
+     * @param limit maximum number of suggestions
+     * @return matching customers in key order, an exact match before its longer completions
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggestCustomers(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(SuggestionService.MAX_LIMIT) int limit) {
+        return ResponseEntity.ok(suggestionService.suggestCustomers(q, limit));
+    }
+    
     /**
      * Retrieves a specific customer by ID.
      * 
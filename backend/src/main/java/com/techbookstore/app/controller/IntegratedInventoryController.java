@@ -2,7 +2,11 @@ package com.techbookstore.app.controller;
 
 import com.techbookstore.app.dto.IntegratedAnalysisRequest;
 import com.techbookstore.app.dto.IntegratedAnalysisResult;
+import com.techbookstore.app.entity.AnalysisJob;
+import com.techbookstore.app.service.AnalysisJobService;
+import com.techbookstore.app.service.CacheWarmupService;
 import com.techbookstore.app.service.IntegratedInventoryAnalysisService;
+import com.techbookstore.app.service.PerformanceOptimizationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -28,6 +33,15 @@ public class IntegratedInventoryController {
     @Autowired
     private IntegratedInventoryAnalysisService integratedAnalysisService;
     
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+    
+    @Autowired
+    private PerformanceOptimizationService performanceService;
+    
+    @Autowired
+    private AnalysisJobService analysisJobService;
+    
     /**
      * Comprehensive integrated analysis endpoint
      * Combines Phase 1-3 functionalities with Phase 4 optimizations
@@ -49,6 +63,7 @@ public class IntegratedInventoryController {
                     integratedAnalysisService.executeAsyncIntegratedAnalysis(request);
                 result = futureResult.get(); // Wait for completion (for demo)
             } else {
+                cacheWarmupService.record(request, false);
                 result = integratedAnalysisService.executeIntegratedAnalysis(request);
             }
             
@@ -85,6 +100,7 @@ public class IntegratedInventoryController {
                 request = new IntegratedAnalysisRequest();
             }
             
+            cacheWarmupService.record(request, true);
             Map<String, Object> dashboardData = 
                 integratedAnalysisService.generateRealtimeDashboardData(request);
             
@@ -109,56 +125,39 @@ public class IntegratedInventoryController {
     
     /**
      * Batch optimization endpoint
-     * For processing large-scale optimization tasks
+     * For processing large-scale optimization tasks; queues a job and returns its ID
+     * (202 Accepted, 429 when the batch queue is full). Poll GET /jobs/{jobId} for the result.
      */
-    @PostMapping("/batch-optimization")
+    @PostMapping({"/batch-optimization", "/jobs"})
     public ResponseEntity<Map<String, Object>> batchOptimization(
             @Valid @RequestBody IntegratedAnalysisRequest request) {
         
-        logger.info("Starting batch optimization process");
+        logger.info("Submitting batch optimization job");
         
-        try {
-            // Set request for comprehensive analysis
-            request.setIncludeOptimization(true);
-            request.setAsyncExecution(true);
-            
-            // Execute async analysis for batch processing
-            CompletableFuture<IntegratedAnalysisResult> futureResult = 
-                integratedAnalysisService.executeAsyncIntegratedAnalysis(request);
-            
-            // For now, wait for completion (in production, return job ID)
-            IntegratedAnalysisResult result = futureResult.get();
-            
-            // Extract optimization data
-            Map<String, Object> batchResponse = new HashMap<>();
-            batchResponse.put("jobId", result.getAnalysisId());
-            batchResponse.put("status", result.getStatus());
-            batchResponse.put("executionTime", result.getExecutionTimeMs());
-            
-            if (result.getOptimization() != null) {
-                batchResponse.put("recommendations", result.getOptimization().getRecommendations());
-                batchResponse.put("potentialSavings", result.getOptimization().getPotentialCostSavings());
-                batchResponse.put("efficiencyImprovement", 
-                    result.getOptimization().getOptimizedEfficiency());
-            }
-            
-            // Performance metrics
-            batchResponse.put("performanceMetrics", result.getPerformanceMetrics());
-            batchResponse.put("processedAt", java.time.LocalDateTime.now());
-            
-            logger.info("Batch optimization completed successfully");
-            return ResponseEntity.ok(batchResponse);
-            
-        } catch (Exception e) {
-            logger.error("Batch optimization failed", e);
-            
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Batch optimization failed");
-            errorResponse.put("status", "error");
-            errorResponse.put("timestamp", java.time.LocalDateTime.now());
-            
-            return ResponseEntity.status(500).body(errorResponse);
-        }
+        AnalysisJob job = analysisJobService.submitBatchOptimization(request);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/inventory/integrated/jobs/" + job.getId()))
+            .body(analysisJobService.describe(job));
+    }
+    
+    /**
+     * Status, progress and partial or final result of a job
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        return analysisJobService.find(jobId)
+            .map(job -> ResponseEntity.ok(analysisJobService.describe(job)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Cancel a queued or running job
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String jobId) {
+        return analysisJobService.cancel(jobId)
+            .map(job -> ResponseEntity.ok(analysisJobService.describe(job)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
     /**
@@ -211,21 +210,24 @@ public class IntegratedInventoryController {
         try {
             Map<String, Object> metrics = new HashMap<>();
             
-            // Performance indicators
-            metrics.put("response_time_avg", "245ms");
-            metrics.put("cache_hit_rate", "85%");
-            metrics.put("concurrent_users", 12);
-            metrics.put("analysis_success_rate", "99.2%");
+            // Measured since startup; "-" until there is something to measure
+            metrics.put("response_time_avg", format(performanceService.averageResponseTimeMillis(), "%.0fms", 1));
+            metrics.put("cache_hit_rate", format(performanceService.cacheHitRate(), "%.1f%%", 100));
+            metrics.put("concurrent_users",
+                        Math.round(orZero(performanceService.gaugeValue("tomcat.sessions.active.current"))));
+            metrics.put("analysis_success_rate",
+                        format(performanceService.loadSuccessRate("integratedAnalysis"), "%.1f%%", 100));
             
             // Resource utilization
-            metrics.put("memory_usage", "68%");
-            metrics.put("cpu_usage", "42%");
-            metrics.put("thread_pool_utilization", "35%");
+            metrics.put("memory_usage", format(performanceService.heapUsage(), "%.0f%%", 100));
+            metrics.put("cpu_usage", format(performanceService.gaugeValue("process.cpu.usage"), "%.0f%%", 100));
             
-            // Business metrics
-            metrics.put("daily_analyses", 156);
-            metrics.put("optimization_recommendations", 45);
-            metrics.put("forecast_accuracy", "87.5%");
+            // Per-cache hits, misses, puts, evictions, size and load latency
+            Map<String, Map<String, Object>> caches = performanceService.cacheStatistics();
+            metrics.put("caches", caches);
+            Map<String, Object> integrated = caches.get("integratedAnalysis");
+            metrics.put("analyses", integrated != null
+                ? (Long) integrated.get("hits") + (Long) integrated.get("misses") : 0L);
             
             metrics.put("timestamp", java.time.LocalDateTime.now());
             
@@ -241,4 +243,12 @@ public class IntegratedInventoryController {
             return ResponseEntity.status(500).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+    
+    private static String format(Double value, String pattern, double scale) {
+        return value != null ? String.format(pattern, value * scale) : "-";
+    }
+    
+    private static double orZero(Double value) {
+        return value != null ? value : 0;
+    }
+}
@@ -4,13 +4,15 @@ import com.techbookstore.app.dto.InventoryDto;
 import com.techbookstore.app.dto.InventoryReservationDto;
 import com.techbookstore.app.dto.InventoryTransactionDto;
 import com.techbookstore.app.entity.Inventory;
+import com.techbookstore.app.exception.InsufficientInventoryException;
+import com.techbookstore.app.exception.InventoryNotFoundException;
 import com.techbookstore.app.repository.InventoryRepository;
 import com.techbookstore.app.service.AdvancedInventoryService;
+import com.techbookstore.app.service.StockMutationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -26,6 +28,9 @@ public class InventoryController {
     @Autowired
     private AdvancedInventoryService advancedInventoryService;
 
+    @Autowired
+    private StockMutationService stockMutationService;
+
     @GetMapping
     public ResponseEntity<List<InventoryDto>> getAllInventory() {
         List<Inventory> inventories = inventoryRepository.findAll();
@@ -65,58 +70,34 @@ public class InventoryController {
 
     @PostMapping("/receive")
     public ResponseEntity<InventoryDto> receiveStock(@RequestBody ReceiveStockRequest request) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByBookId(request.getBookId());
-        
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            
-            if ("STORE".equals(request.getLocation())) {
-                inventory.setStoreStock(inventory.getStoreStock() + request.getQuantity());
-            } else {
-                inventory.setWarehouseStock(inventory.getWarehouseStock() + request.getQuantity());
-            }
-            
-            inventory.setLastReceivedDate(LocalDate.now());
-            Inventory savedInventory = inventoryRepository.save(inventory);
-            return ResponseEntity.ok(new InventoryDto(savedInventory));
-        } else {
+        try {
+            Inventory inventory = stockMutationService.receive(
+                request.getBookId(), request.getQuantity(), "STORE".equals(request.getLocation()));
+            return ResponseEntity.ok(new InventoryDto(inventory));
+        } catch (InventoryNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PostMapping("/sell")
     public ResponseEntity<InventoryDto> sellStock(@RequestBody SellStockRequest request) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByBookId(request.getBookId());
-        
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            
-            // Fixed: Check if enough stock is available AND store stock is sufficient
-            if (inventory.getAvailableStock() >= request.getQuantity() &&
-                inventory.getStoreStock() >= request.getQuantity()) {
-                inventory.setStoreStock(inventory.getStoreStock() - request.getQuantity());
-                inventory.setLastSoldDate(LocalDate.now());
-                Inventory savedInventory = inventoryRepository.save(inventory);
-                return ResponseEntity.ok(new InventoryDto(savedInventory));
-            } else {
-                return ResponseEntity.badRequest().build(); // Insufficient stock
-            }
-        } else {
+        try {
+            Inventory inventory = stockMutationService.sell(request.getBookId(), request.getQuantity());
+            return ResponseEntity.ok(new InventoryDto(inventory));
+        } catch (InventoryNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (InsufficientInventoryException e) {
+            return ResponseEntity.badRequest().build(); // Insufficient stock
         }
     }
 
     @PutMapping("/adjust")
     public ResponseEntity<InventoryDto> adjustStock(@RequestBody AdjustStockRequest request) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByBookId(request.getBookId());
-        
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            inventory.setStoreStock(request.getStoreStock());
-            inventory.setWarehouseStock(request.getWarehouseStock());
-            Inventory savedInventory = inventoryRepository.save(inventory);
-            return ResponseEntity.ok(new InventoryDto(savedInventory));
-        } else {
+        try {
+            Inventory inventory = stockMutationService.adjust(request.getBookId(), request.getStoreStock(),
+                                                              request.getWarehouseStock(), request.getVersion());
+            return ResponseEntity.ok(new InventoryDto(inventory));
+        } catch (InventoryNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
     }
@@ -149,6 +130,7 @@ public class InventoryController {
         private Long bookId;
         private Integer storeStock;
         private Integer warehouseStock;
+        private Long version; // optional: reject the adjustment if the inventory changed since this version
 
         public Long getBookId() { return bookId; }
         public void setBookId(Long bookId) { this.bookId = bookId; }
@@ -156,6 +138,8 @@ public class InventoryController {
         public void setStoreStock(Integer storeStock) { this.storeStock = storeStock; }
         public Integer getWarehouseStock() { return warehouseStock; }
         public void setWarehouseStock(Integer warehouseStock) { this.warehouseStock = warehouseStock; }
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
     }
 
     // New endpoints for advanced inventory management
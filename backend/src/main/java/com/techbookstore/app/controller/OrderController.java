@@ -1,6 +1,8 @@
 package com.techbookstore.app.controller;
 
+import com.techbookstore.app.dto.KeysetSlice;
 import com.techbookstore.app.dto.OrderDto;
+import com.techbookstore.app.dto.OrderSummaryDto;
 import com.techbookstore.app.entity.Book;
 import com.techbookstore.app.entity.Order;
 import com.techbookstore.app.entity.OrderItem;
@@ -123,6 +125,85 @@ public class OrderController {
         return ResponseEntity.ok(orderDtos);
     }
     
+    /**
+     * Retrieves orders in cursor mode: selected instead of offset paging when {@code after} is present
+     * (empty for the first slice). Seeks on (sortBy, id) and skips the count query.
+     * 
+     * @param after cursor returned as nextCursor by the previous slice
+     * @param size slice size
+     * @param sortBy field to sort by (id, orderDate, orderNumber, totalAmount)
+     * @param sortDir sort direction (asc/desc)
+     * @param status filter by order status
+     * @param type filter by order type
+     * @param customerId filter by customer ID
+     * @param startDate filter by start date
+     * @param endDate filter by end date
+     * @param keyword search keyword
+     * @return slice of orders with the next cursor
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<KeysetSlice<OrderDto>> getOrdersAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            @RequestParam(defaultValue = "orderDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String keyword) {
+        
+        logger.debug("Fetching orders after cursor - size: {}, keyword: {}", size, keyword);
+        
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Order.OrderStatus orderStatus = status != null ? Order.OrderStatus.valueOf(status) : null;
+        Order.OrderType orderType = type != null ? Order.OrderType.valueOf(type) : null;
+        String trimmedKeyword = keyword != null && !keyword.trim().isEmpty() ? keyword.trim() : null;
+        
+        KeysetSlice<Order> orders = orderService.getOrdersAfter(orderStatus, orderType, customerId, startDate, endDate,
+                                                                trimmedKeyword, sortBy, direction, after, size);
+        return ResponseEntity.ok(orders.map(OrderDto::new));
+    }
+    
+    /**
+     * Retrieves order list rows without line items, projected in the database.
+     * 
+     * @param page page number (0-based)
+     * @param size page size
+     * @param sortBy field to sort by
+     * @param sortDir sort direction (asc/desc)
+     * @param status filter by order status
+     * @param type filter by order type
+     * @param customerId filter by customer ID
+     * @param startDate filter by start date
+     * @param endDate filter by end date
+     * @return page of order summaries
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<Page<OrderSummaryDto>> getOrderSummaries(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            @RequestParam(defaultValue = "orderDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        
+        logger.debug("Fetching order summaries - page: {}, size: {}", page, size);
+        
+        Sort sort = sortDir.equalsIgnoreCase("desc") 
+            ? Sort.by(sortBy).descending() 
+            : Sort.by(sortBy).ascending();
+        
+        Order.OrderStatus orderStatus = status != null ? Order.OrderStatus.valueOf(status) : null;
+        Order.OrderType orderType = type != null ? Order.OrderType.valueOf(type) : null;
+        return ResponseEntity.ok(orderService.getOrderSummaries(
+            orderStatus, orderType, customerId, startDate, endDate, PageRequest.of(page, size, sort)));
+    }
+    
     /**
      * Retrieves a specific order by ID.
      * 
@@ -190,6 +271,20 @@ public class OrderController {
         return ResponseEntity.ok(new OrderDto(order));
     }
     
+    /**
+     * Confirms many pending orders in a single transaction.
+     * 
+     * @param request the IDs of the orders to confirm
+     * @return per-order success or failure results
+     */
+    @PostMapping("/confirm-batch")
+    public ResponseEntity<List<OrderService.OrderConfirmationResult>> confirmOrders(
+            @Valid @RequestBody ConfirmBatchRequest request) {
+        logger.info("Confirming {} orders in batch", request.getOrderIds().size());
+        
+        return ResponseEntity.ok(orderService.confirmOrders(request.getOrderIds()));
+    }
+    
     /**
      * Marks an order as being picked.
      * 
@@ -300,6 +395,17 @@ public class OrderController {
         public void setOrderItems(List<OrderItemRequest> orderItems) { this.orderItems = orderItems; }
     }
     
+    /**
+     * Request DTO for batch order confirmation.
+     */
+    public static class ConfirmBatchRequest {
+        @NotEmpty(message = "At least one order ID is required")
+        private List<@NotNull Long> orderIds;
+        
+        public List<Long> getOrderIds() { return orderIds; }
+        public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+    }
+    
     /**
      * Response DTO for order status counts.
      */
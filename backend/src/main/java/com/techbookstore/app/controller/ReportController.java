@@ -1,6 +1,7 @@
 package com.techbookstore.app.controller;
 
 import com.techbookstore.app.dto.*;
+import com.techbookstore.app.exception.BatchAlreadyRunningException;
 import com.techbookstore.app.service.ReportService;
 import com.techbookstore.app.service.AnalyticsService;
 import com.techbookstore.app.service.CustomReportService;
@@ -8,8 +9,11 @@ import com.techbookstore.app.service.BatchProcessingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -21,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
 import org.springframework.validation.annotation.Validated;
 
 /**
@@ -262,6 +267,22 @@ public class ReportController {
         return ResponseEntity.ok(kpis);
     }
     
+    /**
+     * Get the daily KPI snapshot stored by the daily batch.
+     * 
+     * @param date snapshot date
+     * @return stored KPI data, or 404 if no snapshot is retained for the date
+     */
+    @GetMapping(value = "/dashboard/kpis", params = "date")
+    public ResponseEntity<DashboardKpiDto> getDailyKpis(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        logger.info("Getting daily KPI snapshot for {}", date);
+        
+        return reportService.findDailyKpis(date)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
     /**
      * Get trend summaries for dashboard.
      * 
@@ -612,30 +633,94 @@ public class ReportController {
             .body(export.getFileData());
     }
     
+    /**
+     * Stream order lines for a date range as CSV or JSON Lines.
+     * Rows are written while they are read from the database and the response is sent chunked
+     * (no Content-Length), so exports of any size run in constant memory.
+     * 
+     * @param startDate first order date (inclusive)
+     * @param endDate last order date (inclusive)
+     * @param format CSV or JSONL
+     * @param gzip compress the file (.gz download)
+     * @return streamed export file
+     */
+    @GetMapping("/export/order-lines")
+    public ResponseEntity<StreamingResponseBody> exportOrderLines(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @NotNull LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @NotNull LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        CustomReportService.StreamFormat streamFormat = CustomReportService.StreamFormat.fromParameter(format);
+        logger.info("Streaming order line export from {} to {} as {} (gzip: {})", startDate, endDate, streamFormat, gzip);
+        
+        String fileName = "order-lines_" + startDate + "_" + endDate + streamFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                customReportService.exportOrderLines(startDate, endDate, streamFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                customReportService.exportOrderLines(startDate, endDate, streamFormat, out);
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : streamFormat.getMimeType() + ";charset=UTF-8")
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .body(body);
+    }
+    
     /**
      * Trigger manual batch processing (for testing/emergency).
+     * Steps already completed today are skipped (status SKIPPED when all of them were);
+     * restart runs every step again.
      * 
      * @param batchType type of batch to run (daily, weekly, monthly)
-     * @return batch execution status
+     * @param restart drop today's checkpoints and run every step again
+     * @return batch execution status with the steps run and skipped
      */
     @PostMapping("/admin/batch/{batchType}")
-    public ResponseEntity<Map<String, String>> runManualBatch(@PathVariable String batchType) {
-        logger.info("Running manual batch: {}", batchType);
+    public ResponseEntity<Map<String, Object>> runManualBatch(@PathVariable String batchType,
+                                                              @RequestParam(defaultValue = "false") boolean restart) {
+        logger.info("Running manual batch: {} (restart: {})", batchType, restart);
         
         try {
-            batchProcessingService.runManualBatch(batchType);
+            Map<String, Object> result = batchProcessingService.runManualBatch(batchType, restart);
+            int stepsRun = (Integer) result.get("stepsRun");
+            int stepsSkipped = (Integer) result.get("stepsSkipped");
             
-            Map<String, String> response = new HashMap<>();
-            response.put("status", "SUCCESS");
-            response.put("message", "Batch " + batchType + " executed successfully");
+            Map<String, Object> response = new HashMap<>(result);
+            if (stepsRun == 0 && stepsSkipped > 0) {
+                response.put("status", "SKIPPED");
+                response.put("message", "Batch " + batchType + " already completed for " + result.get("runDate")
+                                        + "; all " + stepsSkipped + " steps were skipped (restart=true runs them again)");
+            } else {
+                response.put("status", "SUCCESS");
+                response.put("message", "Batch " + batchType + " executed: " + stepsRun + " steps run, "
+                                        + stepsSkipped + " skipped as already completed");
+            }
             response.put("timestamp", LocalDate.now().toString());
             
             return ResponseEntity.ok(response);
             
+        } catch (BatchAlreadyRunningException e) {
+            logger.info("Manual batch not started: {}", e.getMessage());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "ALREADY_RUNNING");
+            response.put("message", e.getMessage());
+            response.put("timestamp", LocalDate.now().toString());
+            
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            
         } catch (Exception e) {
             logger.error("Manual batch execution failed", e);
             
-            Map<String, String> response = new HashMap<>();
+            Map<String, Object> response = new HashMap<>();
             response.put("status", "FAILED");
             response.put("message", "Batch execution failed: " + e.getMessage());
             response.put("timestamp", LocalDate.now().toString());
@@ -644,6 +729,58 @@ public class ReportController {
         }
     }
     
+    /**
+     * Scheduler lock status of the batches: which node holds each lock and until when.
+     * 
+     * @return this node and the state of every scheduler lock
+     */
+    @GetMapping("/admin/batch/locks")
+    public ResponseEntity<Map<String, Object>> getBatchLockStatus() {
+        return ResponseEntity.ok(batchProcessingService.lockStatus());
+    }
+    
+    /**
+     * Batch run history: start and end time, items read and written, chunks, retries and
+     * failure cause of every run and step, newest first.
+     * 
+     * @param batchType only runs of this batch (daily, weekly, monthly), all batches when omitted
+     * @param limit maximum number of runs
+     * @return latest batch runs with their steps
+     */
+    @GetMapping("/admin/batch/history")
+    public ResponseEntity<List<Map<String, Object>>> getBatchHistory(
+            @RequestParam(required = false) String batchType,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(batchProcessingService.history(batchType, limit));
+    }
+    
+    /**
+     * Rebuild the daily sales fact table from orders for a date range.
+     * 
+     * @param startDate first sales date to rebuild
+     * @param endDate last sales date to rebuild
+     * @return rebuild status with the number of fact rows written
+     */
+    @PostMapping("/admin/sales-facts/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSalesFacts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        logger.info("Rebuilding sales facts from {} to {}", startDate, endDate);
+        
+        validateDateRange(startDate, endDate);
+        
+        int rowsWritten = batchProcessingService.rebuildSalesFacts(startDate, endDate);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "SUCCESS");
+        response.put("startDate", startDate.toString());
+        response.put("endDate", endDate.toString());
+        response.put("rowsWritten", rowsWritten);
+        
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Get enhanced sales analysis with tech category breakdown.
      * Phase 2: Enhanced sales analysis
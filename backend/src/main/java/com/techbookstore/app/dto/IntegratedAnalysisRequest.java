@@ -1,7 +1,9 @@
 package com.techbookstore.app.dto;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Request DTO for integrated inventory analysis
@@ -9,6 +11,10 @@ import java.util.List;
  */
 public class IntegratedAnalysisRequest {
     
+    /** Segment markers of {@link #cacheKey()}, in key order */
+    private static final String[] KEY_MARKERS =
+        {"_cat:", "_lvl:", "_pub:", "_stock:", "_price:", "_year:", "_horizon:", "_opt:", "_date:"};
+    
     // Common analysis parameters
     private String category;
     private String level;
@@ -51,6 +57,71 @@ public class IntegratedAnalysisRequest {
         return key.toString();
     }
     
+    /**
+     * Category filter encoded in a key built by {@link #cacheKey()} (possibly with a prefix),
+     * or null when the key covers all categories.
+     */
+    public static String categoryOf(String cacheKey) {
+        return keySegments(cacheKey).get("_cat:");
+    }
+    
+    /**
+     * Rebuild the request behind a key built by {@link #cacheKey()} for another analysis date.
+     * The date segment may be missing, so keys can be recorded once and replayed every day.
+     */
+    public static IntegratedAnalysisRequest fromCacheKey(String cacheKey, LocalDate analysisDate) {
+        Map<String, String> segments = keySegments(cacheKey);
+        IntegratedAnalysisRequest request = new IntegratedAnalysisRequest();
+        request.setCategory(segments.get("_cat:"));
+        request.setLevel(segments.get("_lvl:"));
+        request.setPublisher(segments.get("_pub:"));
+        request.setStockStatus(segments.get("_stock:"));
+        request.setPriceRange(segments.get("_price:"));
+        request.setPublicationYear(segments.get("_year:"));
+        String horizon = segments.get("_horizon:");
+        request.setForecastHorizon(horizon == null || "null".equals(horizon) ? null : Integer.valueOf(horizon));
+        String optimization = segments.get("_opt:");
+        request.setIncludeOptimization(optimization == null || "null".equals(optimization)
+            ? null : Boolean.valueOf(optimization));
+        request.setAnalysisDate(analysisDate);
+        return request;
+    }
+    
+    /**
+     * Key without its date segment, the same for every analysis date.
+     */
+    public static String withoutDate(String cacheKey) {
+        int date = cacheKey.lastIndexOf("_date:");
+        return date >= 0 ? cacheKey.substring(0, date) : cacheKey;
+    }
+    
+    /**
+     * Marker to value of every segment present in the key. A value runs up to the next marker
+     * found, so values may contain underscores (e.g. WEB_DEV).
+     */
+    private static Map<String, String> keySegments(String cacheKey) {
+        Map<String, String> segments = new LinkedHashMap<>();
+        String marker = null;
+        int valueStart = 0;
+        int from = 0;
+        for (String next : KEY_MARKERS) {
+            int index = cacheKey.indexOf(next, from);
+            if (index < 0) {
+                continue;
+            }
+            if (marker != null) {
+                segments.put(marker, cacheKey.substring(valueStart, index));
+            }
+            marker = next;
+            valueStart = index + next.length();
+            from = valueStart;
+        }
+        if (marker != null) {
+            segments.put(marker, cacheKey.substring(valueStart));
+        }
+        return segments;
+    }
+    
     // Getters and setters
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
@@ -19,6 +19,7 @@ public class InventoryDto {
     private Integer totalStock;
     private Integer availableStock;
     private boolean lowStock;
+    private Long version;
 
     // Constructors
     public InventoryDto() {}
@@ -39,6 +40,7 @@ public class InventoryDto {
         this.totalStock = inventory.getTotalStock();
         this.availableStock = inventory.getAvailableStock();
         this.lowStock = inventory.isLowStock();
+        this.version = inventory.getVersion();
     }
 
     // Getters and Setters
@@ -86,4 +88,7 @@ public class InventoryDto {
 
     public boolean isLowStock() { return lowStock; }
     public void setLowStock(boolean lowStock) { this.lowStock = lowStock; }
-}
\ No newline at end of file
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,41 @@
+package com.techbookstore.app.dto;
+
+import java.time.YearMonth;
+
+/**
+ * DTO for per-book, per-month demand aggregated in the database
+ * 書籍別・月別の需要集計結果
+ */
+public class MonthlyDemandDto {
+
+    private Long bookId;
+    private YearMonth month;
+    private Long quantity;
+    private Long orderLines;
+
+    // Constructors
+    public MonthlyDemandDto() {}
+
+    /**
+     * Constructor used by JPQL constructor expressions (GROUP BY book, year, month).
+     */
+    public MonthlyDemandDto(Long bookId, Integer year, Integer month, Long quantity, Long orderLines) {
+        this.bookId = bookId;
+        this.month = YearMonth.of(year, month);
+        this.quantity = quantity != null ? quantity : 0L;
+        this.orderLines = orderLines != null ? orderLines : 0L;
+    }
+
+    // Getters and setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public Long getQuantity() { return quantity; }
+    public void setQuantity(Long quantity) { this.quantity = quantity; }
+
+    public Long getOrderLines() { return orderLines; }
+    public void setOrderLines(Long orderLines) { this.orderLines = orderLines; }
+}
@@ -0,0 +1,76 @@
+package com.techbookstore.app.dto;
+
+import com.techbookstore.app.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for order list rows without line items, projected directly from the database
+ * 注文一覧（明細なし）の集計結果
+ */
+public class OrderSummaryDto {
+
+    private Long id;
+    private String orderNumber;
+    private Long customerId;
+    private String status;
+    private String type;
+    private String paymentMethod;
+    private BigDecimal totalAmount;
+    private LocalDateTime orderDate;
+    private Long itemCount;
+    private Long totalQuantity;
+
+    // Constructors
+    public OrderSummaryDto() {}
+
+    /**
+     * Constructor used by JPQL constructor expressions (one row per order, items aggregated).
+     */
+    public OrderSummaryDto(Long id, String orderNumber, Long customerId, Order.OrderStatus status,
+                           Order.OrderType type, Order.PaymentMethod paymentMethod, BigDecimal totalAmount,
+                           LocalDateTime orderDate, Long itemCount, Long totalQuantity) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.customerId = customerId;
+        this.status = status != null ? status.toString() : null;
+        this.type = type != null ? type.toString() : null;
+        this.paymentMethod = paymentMethod != null ? paymentMethod.toString() : null;
+        this.totalAmount = totalAmount;
+        this.orderDate = orderDate;
+        this.itemCount = itemCount != null ? itemCount : 0L;
+        this.totalQuantity = totalQuantity != null ? totalQuantity : 0L;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+
+    public Long getItemCount() { return itemCount; }
+    public void setItemCount(Long itemCount) { this.itemCount = itemCount; }
+
+    public Long getTotalQuantity() { return totalQuantity; }
+    public void setTotalQuantity(Long totalQuantity) { this.totalQuantity = totalQuantity; }
+}
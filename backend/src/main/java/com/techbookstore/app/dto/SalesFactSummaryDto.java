@@ -0,0 +1,70 @@
+package com.techbookstore.app.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for sales totals read from the daily_book_sales fact table
+ * 日次売上ファクトの集計結果
+ */
+public class SalesFactSummaryDto {
+
+    private LocalDate salesDate;
+    private Long bookId;
+    private String dimension;
+    private Long quantity;
+    private BigDecimal revenue;
+    private Long orderCount;
+
+    // Constructors
+    public SalesFactSummaryDto() {}
+
+    /**
+     * Summary grouped by sales date.
+     */
+    public SalesFactSummaryDto(LocalDate salesDate, Long quantity, BigDecimal revenue, Long orderCount) {
+        this.salesDate = salesDate;
+        setTotals(quantity, revenue, orderCount);
+    }
+
+    /**
+     * Summary grouped by book.
+     */
+    public SalesFactSummaryDto(Long bookId, Long quantity, BigDecimal revenue, Long orderCount) {
+        this.bookId = bookId;
+        setTotals(quantity, revenue, orderCount);
+    }
+
+    /**
+     * Summary grouped by a dimension such as order type or customer type.
+     */
+    public SalesFactSummaryDto(String dimension, Long quantity, BigDecimal revenue, Long orderCount) {
+        this.dimension = dimension;
+        setTotals(quantity, revenue, orderCount);
+    }
+
+    private void setTotals(Long quantity, BigDecimal revenue, Long orderCount) {
+        this.quantity = quantity != null ? quantity : 0L;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+        this.orderCount = orderCount != null ? orderCount : 0L;
+    }
+
+    // Getters and setters
+    public LocalDate getSalesDate() { return salesDate; }
+    public void setSalesDate(LocalDate salesDate) { this.salesDate = salesDate; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getDimension() { return dimension; }
+    public void setDimension(String dimension) { this.dimension = dimension; }
+
+    public Long getQuantity() { return quantity; }
+    public void setQuantity(Long quantity) { this.quantity = quantity; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    public Long getOrderCount() { return orderCount; }
+    public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+}
@@ -0,0 +1,31 @@
+package com.techbookstore.app.dto;
+
+/**
+ * DTO for a typeahead suggestion (book title / ISBN, customer name / email)
+ * 入力補完候補
+ */
+public class SuggestionDto {
+
+    private Long id;
+    private String label;
+    private String detail;
+
+    // Constructors
+    public SuggestionDto() {}
+
+    public SuggestionDto(Long id, String label, String detail) {
+        this.id = id;
+        this.label = label;
+        this.detail = detail;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public String getDetail() { return detail; }
+    public void setDetail(String detail) { this.detail = detail; }
+}
@@ -7,8 +7,16 @@ import javax.validation.constraints.Size;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * Cached aggregation row. Free-form entries keep their text in aggregation_data; typed entries
+ * written through AggregationStore carry a binary payload tagged with its schema version instead.
+ */
 @Entity
-@Table(name = "aggregation_cache")
+@Table(name = "aggregation_cache", indexes = {
+    @Index(name = "idx_aggregation_cache_type_date", columnList = "aggregation_type, aggregation_date"),
+    @Index(name = "idx_aggregation_cache_expires", columnList = "expires_at"),
+    @Index(name = "idx_aggregation_cache_type_access", columnList = "aggregation_type, last_accessed_at")
+})
 public class AggregationCache {
     
     @Id
@@ -29,10 +37,16 @@ public class AggregationCache {
     @NotNull(message = "Aggregation date is required")
     private LocalDate aggregationDate;
     
-    @Column(name = "aggregation_data", nullable = false, columnDefinition = "TEXT")
-    @NotBlank(message = "Aggregation data is required")
+    @Column(name = "aggregation_data", columnDefinition = "TEXT")
     private String aggregationData;
     
+    /** Unbounded binary (bytea); a bare byte[] would map to varbinary(255) on H2 */
+    @Column(name = "payload", columnDefinition = "BYTEA")
+    private byte[] payload;
+    
+    @Column(name = "payload_version")
+    private Short payloadVersion;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
@@ -40,9 +54,14 @@ public class AggregationCache {
     @NotNull(message = "Expires at is required")
     private LocalDateTime expiresAt;
     
+    /** Last read, for least-recently-used eviction; null counts as created_at */
+    @Column(name = "last_accessed_at")
+    private LocalDateTime lastAccessedAt;
+    
     // Constructors
     public AggregationCache() {
         this.createdAt = LocalDateTime.now();
+        this.lastAccessedAt = this.createdAt;
     }
     
     public AggregationCache(String cacheKey, String aggregationType, LocalDate aggregationDate, 
@@ -106,6 +125,22 @@ public class AggregationCache {
         this.aggregationData = aggregationData;
     }
     
+    public byte[] getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+    
+    public Short getPayloadVersion() {
+        return payloadVersion;
+    }
+    
+    public void setPayloadVersion(Short payloadVersion) {
+        this.payloadVersion = payloadVersion;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -122,6 +157,14 @@ public class AggregationCache {
         this.expiresAt = expiresAt;
     }
     
+    public LocalDateTime getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+    
+    public void setLastAccessedAt(LocalDateTime lastAccessedAt) {
+        this.lastAccessedAt = lastAccessedAt;
+    }
+    
     // Utility methods
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(this.expiresAt);
@@ -0,0 +1,97 @@
+package com.techbookstore.app.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Change-tracking watermark of one incrementally maintained aggregation: the nightly batch only
+ * re-aggregates source rows changed at or after the watermark and before pending_until, which the
+ * first attempt of a run fixes. Advanced in the transaction that completes the batch step, so a
+ * failed run is retried over the same window.
+ */
+@Entity
+@Table(name = "aggregation_watermarks")
+public class AggregationWatermark {
+
+    @Id
+    @Column(name = "aggregation_type", length = 50)
+    @NotBlank(message = "Aggregation type is required")
+    private String aggregationType;
+
+    /** Source rows changed at or after this time are read by the next run; null until a run completes */
+    @Column(name = "watermark")
+    private LocalDateTime watermark;
+
+    /** End (exclusive) of the window read by the run in progress; null between runs */
+    @Column(name = "pending_until")
+    private LocalDateTime pendingUntil;
+
+    @Column(name = "last_run_date")
+    private LocalDate lastRunDate;
+
+    /** Aggregate keys (customers, days) refreshed by the last run */
+    @Column(name = "last_refreshed_keys", nullable = false)
+    private int lastRefreshedKeys;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public AggregationWatermark() {
+    }
+
+    public AggregationWatermark(String aggregationType) {
+        this.aggregationType = aggregationType;
+    }
+
+    // Getters and Setters
+    public String getAggregationType() {
+        return aggregationType;
+    }
+
+    public void setAggregationType(String aggregationType) {
+        this.aggregationType = aggregationType;
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(LocalDateTime watermark) {
+        this.watermark = watermark;
+    }
+
+    public LocalDateTime getPendingUntil() {
+        return pendingUntil;
+    }
+
+    public void setPendingUntil(LocalDateTime pendingUntil) {
+        this.pendingUntil = pendingUntil;
+    }
+
+    public LocalDate getLastRunDate() {
+        return lastRunDate;
+    }
+
+    public void setLastRunDate(LocalDate lastRunDate) {
+        this.lastRunDate = lastRunDate;
+    }
+
+    public int getLastRefreshedKeys() {
+        return lastRefreshedKeys;
+    }
+
+    public void setLastRefreshedKeys(int lastRefreshedKeys) {
+        this.lastRefreshedKeys = lastRefreshedKeys;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,178 @@
+package com.techbookstore.app.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * Long-running analysis submitted through the jobs API. Progress and the partial or final
+ * result (JSON) are written as the job advances, so any node can report on it; the row is
+ * deleted once expires_at has passed.
+ */
+@Entity
+@Table(name = "analysis_jobs", indexes = {
+    @Index(name = "idx_analysis_jobs_expires", columnList = "expires_at")
+})
+public class AnalysisJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "job_type", nullable = false, length = 50)
+    @NotBlank(message = "Job type is required")
+    private String jobType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @NotNull(message = "Status is required")
+    private JobStatus status;
+
+    /** 0-100 */
+    @Column(nullable = false)
+    private int progress;
+
+    /** Last completed phase */
+    @Column(name = "current_phase", length = 50)
+    private String currentPhase;
+
+    @Column(columnDefinition = "TEXT")
+    private String parameters;
+
+    /** Partial result while running, final result once completed */
+    @Column(columnDefinition = "TEXT")
+    private String result;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    @NotNull(message = "Expires at is required")
+    private LocalDateTime expiresAt;
+
+    // Enums
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    // Constructors
+    public AnalysisJob() {
+        this.createdAt = LocalDateTime.now();
+        this.status = JobStatus.QUEUED;
+    }
+
+    public AnalysisJob(String id, String jobType, String parameters, LocalDateTime expiresAt) {
+        this();
+        this.id = id;
+        this.jobType = jobType;
+        this.parameters = parameters;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public void setJobType(String jobType) {
+        this.jobType = jobType;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public String getCurrentPhase() {
+        return currentPhase;
+    }
+
+    public void setCurrentPhase(String currentPhase) {
+        this.currentPhase = currentPhase;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
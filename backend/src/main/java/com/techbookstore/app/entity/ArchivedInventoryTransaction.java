@@ -0,0 +1,117 @@
+package com.techbookstore.app.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A settled inventory transaction moved out of inventory_transactions by the monthly archive step,
+ * with its original ID. Partitioned by executed_at on PostgreSQL; no foreign keys.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_transactions_archive", indexes = {
+    @Index(name = "idx_inventory_transactions_archive_executed_at", columnList = "executed_at"),
+    @Index(name = "idx_inventory_transactions_archive_archived_on", columnList = "archived_on"),
+    @Index(name = "idx_inventory_transactions_archive_inventory", columnList = "inventory_id")
+})
+public class ArchivedInventoryTransaction {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Inventory inventory;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType type;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "before_quantity", nullable = false)
+    private Integer beforeQuantity;
+
+    @Column(name = "after_quantity", nullable = false)
+    private Integer afterQuantity;
+
+    @Column(name = "reason", columnDefinition = "TEXT")
+    private String reason;
+
+    @Column(name = "batch_number", length = 50)
+    private String batchNumber;
+
+    @Column(name = "reference_number", length = 50)
+    private String referenceNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "executed_by", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private User executedBy;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "approved_by", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private User approvedBy;
+
+    @Column(name = "executed_at", nullable = false)
+    private LocalDateTime executedAt;
+
+    @Column(name = "approved_at")
+    private LocalDateTime approvedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private TransactionStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** Run date of the monthly batch that moved the row */
+    @Column(name = "archived_on", nullable = false)
+    private LocalDate archivedOn;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    protected ArchivedInventoryTransaction() {
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Inventory getInventory() { return inventory; }
+
+    public TransactionType getType() { return type; }
+
+    public Integer getQuantity() { return quantity; }
+
+    public Integer getBeforeQuantity() { return beforeQuantity; }
+
+    public Integer getAfterQuantity() { return afterQuantity; }
+
+    public String getReason() { return reason; }
+
+    public String getBatchNumber() { return batchNumber; }
+
+    public String getReferenceNumber() { return referenceNumber; }
+
+    public User getExecutedBy() { return executedBy; }
+
+    public User getApprovedBy() { return approvedBy; }
+
+    public LocalDateTime getExecutedAt() { return executedAt; }
+
+    public LocalDateTime getApprovedAt() { return approvedAt; }
+
+    public TransactionStatus getStatus() { return status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDate getArchivedOn() { return archivedOn; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -0,0 +1,145 @@
+package com.techbookstore.app.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An order moved out of orders by the monthly archive step (ArchiveStore), with its original ID.
+ * Rows are only ever inserted by INSERT ... SELECT from orders; on PostgreSQL the table is
+ * partitioned by order_date (see db/migration/data_archive_schema.sql).
+ */
+@Entity
+@Immutable
+@Table(name = "orders_archive", indexes = {
+    @Index(name = "idx_orders_archive_order_date", columnList = "order_date"),
+    @Index(name = "idx_orders_archive_archived_on", columnList = "archived_on"),
+    @Index(name = "idx_orders_archive_customer", columnList = "customer_id"),
+    @Index(name = "idx_orders_archive_order_number", columnList = "order_number")
+})
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_number", nullable = false, length = 32)
+    private String orderNumber;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", length = 20)
+    private Order.PaymentMethod paymentMethod;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(name = "confirmed_date")
+    private LocalDateTime confirmedDate;
+
+    @Column(name = "shipped_date")
+    private LocalDateTime shippedDate;
+
+    @Column(name = "delivered_date")
+    private LocalDateTime deliveredDate;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /** Run date of the monthly batch that moved the row */
+    @Column(name = "archived_on", nullable = false)
+    private LocalDate archivedOn;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    protected ArchivedOrder() {
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public Order.OrderType getType() {
+        return type;
+    }
+
+    public Order.PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public LocalDateTime getConfirmedDate() {
+        return confirmedDate;
+    }
+
+    public LocalDateTime getShippedDate() {
+        return shippedDate;
+    }
+
+    public LocalDateTime getDeliveredDate() {
+        return deliveredDate;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDate getArchivedOn() {
+        return archivedOn;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,182 @@
+package com.techbookstore.app.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one step of one batch run. committed_items is advanced in the transaction that
+ * writes each chunk, so after a failure the step resumes right behind the last committed chunk
+ * (or the key of its last item, last_key) when the batch is run again for the same run date. Updates carry the run's scheduler lock
+ * fencing token and are rejected once a run with a newer token has written the row.
+ */
+@Entity
+@Table(name = "batch_checkpoints",
+       uniqueConstraints = @UniqueConstraint(name = "uk_batch_checkpoints_step",
+                                             columnNames = {"job_name", "run_date", "step_name"}),
+       indexes = @Index(name = "idx_batch_checkpoints_run_date", columnList = "run_date"))
+public class BatchCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 50)
+    @NotBlank(message = "Job name is required")
+    private String jobName;
+
+    @Column(name = "run_date", nullable = false)
+    @NotNull(message = "Run date is required")
+    private LocalDate runDate;
+
+    @Column(name = "step_name", nullable = false, length = 50)
+    @NotBlank(message = "Step name is required")
+    private String stepName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @NotNull(message = "Status is required")
+    private StepStatus status;
+
+    /** Items written by committed chunks */
+    @Column(name = "committed_items", nullable = false)
+    private int committedItems;
+
+    @Column(name = "committed_chunks", nullable = false)
+    private int committedChunks;
+
+    /** Key of the last committed item, for steps resuming by key rather than by position */
+    @Column(name = "last_key", length = 100)
+    private String lastKey;
+
+    /** Scheduler lock fencing token of the latest run that wrote this row; older runs can not write it */
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Enums
+    public enum StepStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    // Constructors
+    public BatchCheckpoint() {
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = this.startedAt;
+        this.status = StepStatus.RUNNING;
+    }
+
+    public BatchCheckpoint(String jobName, LocalDate runDate, String stepName) {
+        this();
+        this.jobName = jobName;
+        this.runDate = runDate;
+        this.stepName = stepName;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    public void setRunDate(LocalDate runDate) {
+        this.runDate = runDate;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public void setStepName(String stepName) {
+        this.stepName = stepName;
+    }
+
+    public StepStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StepStatus status) {
+        this.status = status;
+    }
+
+    public int getCommittedItems() {
+        return committedItems;
+    }
+
+    public void setCommittedItems(int committedItems) {
+        this.committedItems = committedItems;
+    }
+
+    public String getLastKey() {
+        return lastKey;
+    }
+
+    public void setLastKey(String lastKey) {
+        this.lastKey = lastKey;
+    }
+
+    public int getCommittedChunks() {
+        return committedChunks;
+    }
+
+    public void setCommittedChunks(int committedChunks) {
+        this.committedChunks = committedChunks;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
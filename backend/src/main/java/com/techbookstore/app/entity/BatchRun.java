@@ -0,0 +1,154 @@
+package com.techbookstore.app.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One execution of a scheduled batch (BatchJobEngine job); its steps are BatchStepRun rows.
+ * A failed batch run again for the same run date is a new row, resuming from the checkpoints.
+ */
+@Entity
+@Table(name = "batch_runs", indexes = {
+    @Index(name = "idx_batch_runs_job_started", columnList = "job_name, started_at")
+})
+public class BatchRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 50)
+    @NotBlank(message = "Job name is required")
+    private String jobName;
+
+    @Column(name = "run_date", nullable = false)
+    @NotNull(message = "Run date is required")
+    private LocalDate runDate;
+
+    /** Node that ran the batch */
+    @Column(length = 255)
+    private String node;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @NotNull(message = "Status is required")
+    private RunStatus status;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "ended_at")
+    private LocalDateTime endedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    // Enums (SKIPPED: a step already completed by an earlier run of the same run date)
+    public enum RunStatus {
+        RUNNING, COMPLETED, FAILED, SKIPPED
+    }
+
+    // Constructors
+    public BatchRun() {
+        this.startedAt = LocalDateTime.now();
+        this.status = RunStatus.RUNNING;
+    }
+
+    public BatchRun(String jobName, LocalDate runDate, String node, long fencingToken) {
+        this();
+        this.jobName = jobName;
+        this.runDate = runDate;
+        this.node = node;
+        this.fencingToken = fencingToken;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    public void setRunDate(LocalDate runDate) {
+        this.runDate = runDate;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RunStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+
+    public void setEndedAt(LocalDateTime endedAt) {
+        this.endedAt = endedAt;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
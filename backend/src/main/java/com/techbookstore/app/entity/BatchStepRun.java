@@ -0,0 +1,182 @@
+package com.techbookstore.app.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * One step of a BatchRun: timing and item counts of this execution only. Items committed by an
+ * earlier run of the same run date are reported as resumed_from, not as written.
+ */
+@Entity
+@Table(name = "batch_step_runs", indexes = {
+    @Index(name = "idx_batch_step_runs_run", columnList = "run_id")
+})
+public class BatchStepRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    @NotNull(message = "Run is required")
+    private Long runId;
+
+    @Column(name = "step_name", nullable = false, length = 50)
+    @NotBlank(message = "Step name is required")
+    private String stepName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @NotNull(message = "Status is required")
+    private BatchRun.RunStatus status;
+
+    /** Items returned by the step's reader */
+    @Column(name = "items_read", nullable = false)
+    private int itemsRead;
+
+    /** Items written by chunks committed in this run */
+    @Column(name = "items_written", nullable = false)
+    private int itemsWritten;
+
+    @Column(name = "chunks", nullable = false)
+    private int chunks;
+
+    /** Chunk attempts repeated after a transient failure */
+    @Column(name = "retries", nullable = false)
+    private int retries;
+
+    /** Items already committed by an earlier run when this one started */
+    @Column(name = "resumed_from", nullable = false)
+    private int resumedFrom;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "ended_at")
+    private LocalDateTime endedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    // Constructors
+    public BatchStepRun() {
+        this.startedAt = LocalDateTime.now();
+        this.status = BatchRun.RunStatus.RUNNING;
+    }
+
+    public BatchStepRun(Long runId, String stepName) {
+        this();
+        this.runId = runId;
+        this.stepName = stepName;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public void setStepName(String stepName) {
+        this.stepName = stepName;
+    }
+
+    public BatchRun.RunStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BatchRun.RunStatus status) {
+        this.status = status;
+    }
+
+    public int getItemsRead() {
+        return itemsRead;
+    }
+
+    public void setItemsRead(int itemsRead) {
+        this.itemsRead = itemsRead;
+    }
+
+    public int getItemsWritten() {
+        return itemsWritten;
+    }
+
+    public void setItemsWritten(int itemsWritten) {
+        this.itemsWritten = itemsWritten;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public int getResumedFrom() {
+        return resumedFrom;
+    }
+
+    public void setResumedFrom(int resumedFrom) {
+        this.resumedFrom = resumedFrom;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+
+    public void setEndedAt(LocalDateTime endedAt) {
+        this.endedAt = endedAt;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
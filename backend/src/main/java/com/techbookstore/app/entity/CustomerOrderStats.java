@@ -0,0 +1,83 @@
+package com.techbookstore.app.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-customer order totals over live and archived orders, excluding cancelled ones.
+ * 顧客別購買集計（差分更新）
+ *
+ * Maintained by the daily batch for the customers whose orders or profile changed since the
+ * last run (IncrementalAggregationStore); customer segments are summarized from this table.
+ */
+@Entity
+@Immutable
+@Table(name = "customer_order_stats",
+       indexes = @Index(name = "idx_customer_order_stats_last_order", columnList = "last_order_at"))
+public class CustomerOrderStats {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "customer_type", nullable = false, length = 20)
+    private String customerType;
+
+    @Column(name = "customer_status", length = 20)
+    private String customerStatus;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "total_spent", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalSpent;
+
+    @Column(name = "first_order_at")
+    private LocalDateTime firstOrderAt;
+
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    // Constructors
+    protected CustomerOrderStats() {
+    }
+
+    // Getters
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerType() {
+        return customerType;
+    }
+
+    public String getCustomerStatus() {
+        return customerStatus;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getTotalSpent() {
+        return totalSpent;
+    }
+
+    public LocalDateTime getFirstOrderAt() {
+        return firstOrderAt;
+    }
+
+    public LocalDateTime getLastOrderAt() {
+        return lastOrderAt;
+    }
+
+    public LocalDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+}
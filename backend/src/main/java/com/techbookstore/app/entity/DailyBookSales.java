@@ -0,0 +1,136 @@
+package com.techbookstore.app.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Daily sales fact table, pre-aggregated per book and sales dimension.
+ * 日次売上ファクトテーブル（書籍・顧客種別・支払方法・注文種別ごとの事前集計）
+ *
+ * Rows with {@link #ALL_BOOKS} as book ID hold order-level totals for the same
+ * dimensions, so distinct order counts can be summed without double counting
+ * orders that contain several books.
+ */
+@Entity
+@Table(name = "daily_book_sales",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"sales_date", "book_id", "customer_type", "payment_method", "order_type"}),
+       indexes = @Index(name = "idx_daily_book_sales_date_book", columnList = "sales_date, book_id"))
+public class DailyBookSales {
+
+    /** Book ID used for order-level total rows */
+    public static final Long ALL_BOOKS = 0L;
+
+    /** Customer type used for orders without a registered customer */
+    public static final String GUEST = "GUEST";
+
+    /** Dimension value used when an order has no payment method */
+    public static final String UNKNOWN = "UNKNOWN";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "customer_type", nullable = false, length = 20)
+    private String customerType;
+
+    @Column(name = "payment_method", nullable = false, length = 20)
+    private String paymentMethod;
+
+    @Column(name = "order_type", nullable = false, length = 20)
+    private String orderType;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity = 0L;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public DailyBookSales() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public DailyBookSales(LocalDate salesDate, Long bookId, String customerType, String paymentMethod, String orderType) {
+        this();
+        this.salesDate = salesDate;
+        this.bookId = bookId;
+        this.customerType = customerType;
+        this.paymentMethod = paymentMethod;
+        this.orderType = orderType;
+    }
+
+    /**
+     * Constructor used by the rebuild aggregation queries on orders/order_items.
+     */
+    public DailyBookSales(Integer year, Integer month, Integer day, Long bookId,
+                          Customer.CustomerType customerType, Order.PaymentMethod paymentMethod, Order.OrderType orderType,
+                          Long quantity, BigDecimal revenue, Long orderCount) {
+        this(LocalDate.of(year, month, day), bookId != null ? bookId : ALL_BOOKS,
+             customerTypeOf(customerType), paymentMethodOf(paymentMethod), orderTypeOf(orderType));
+        this.quantity = quantity != null ? quantity : 0L;
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+        this.orderCount = orderCount != null ? orderCount : 0L;
+    }
+
+    // Dimension helpers
+    public static String customerTypeOf(Customer.CustomerType customerType) {
+        return customerType != null ? customerType.name() : GUEST;
+    }
+
+    public static String paymentMethodOf(Order.PaymentMethod paymentMethod) {
+        return paymentMethod != null ? paymentMethod.name() : UNKNOWN;
+    }
+
+    public static String orderTypeOf(Order.OrderType orderType) {
+        return orderType != null ? orderType.name() : UNKNOWN;
+    }
+
+    public boolean isOrderTotal() {
+        return ALL_BOOKS.equals(bookId);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getSalesDate() { return salesDate; }
+    public void setSalesDate(LocalDate salesDate) { this.salesDate = salesDate; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getCustomerType() { return customerType; }
+    public void setCustomerType(String customerType) { this.customerType = customerType; }
+
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public String getOrderType() { return orderType; }
+    public void setOrderType(String orderType) { this.orderType = orderType; }
+
+    public Long getQuantity() { return quantity; }
+    public void setQuantity(Long quantity) { this.quantity = quantity; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    public Long getOrderCount() { return orderCount; }
+    public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
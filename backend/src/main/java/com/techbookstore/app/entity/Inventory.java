@@ -67,6 +67,11 @@ public class Inventory {
     @Column(name = "days_since_last_sale")
     private Integer daysSinceLastSale;
 
+    // Optimistic locking; bulk stock updates in InventoryRepository increment it explicitly
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     // Constructors
     public Inventory() {}
 
@@ -163,4 +168,7 @@ public class Inventory {
 
     public Integer getDaysSinceLastSale() { return daysSinceLastSale; }
     public void setDaysSinceLastSale(Integer daysSinceLastSale) { this.daysSinceLastSale = daysSinceLastSale; }
-}
\ No newline at end of file
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
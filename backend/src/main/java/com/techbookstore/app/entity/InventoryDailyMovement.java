@@ -0,0 +1,70 @@
+package com.techbookstore.app.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Inventory transactions recorded per day and transaction type.
+ * 日次在庫移動集計（差分更新）
+ *
+ * The daily batch re-aggregates only the days that received transactions since the last run
+ * (IncrementalAggregationStore); days moved to the archive keep their rows.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_daily_movements",
+       uniqueConstraints = @UniqueConstraint(name = "uk_inventory_daily_movements_cell",
+                                             columnNames = {"movement_date", "transaction_type"}))
+public class InventoryDailyMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "movement_date", nullable = false)
+    private LocalDate movementDate;
+
+    @Column(name = "transaction_type", nullable = false, length = 20)
+    private String transactionType;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    // Constructors
+    protected InventoryDailyMovement() {
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getMovementDate() {
+        return movementDate;
+    }
+
+    public String getTransactionType() {
+        return transactionType;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public LocalDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+}
@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
  * Inventory transaction history for audit trail and tracking
  */
 @Entity
-@Table(name = "inventory_transactions")
+@Table(name = "inventory_transactions",
+       indexes = @Index(name = "idx_inventory_transactions_executed_at", columnList = "executed_at"))
 public class InventoryTransaction {
 
     @Id
@@ -8,14 +8,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_order_date", columnList = "order_date"),
+    @Index(name = "idx_orders_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_orders_customer", columnList = "customer_id")
+})
 public class Order {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(name = "order_number", unique = true, nullable = false, length = 20)
+    @Column(name = "order_number", unique = true, nullable = false, length = 32)
     private String orderNumber;
     
     @Column(name = "customer_id")
@@ -0,0 +1,79 @@
+package com.techbookstore.app.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * Row of a scheduler lock (DatabaseSchedulerLock). The row is kept after release so the
+ * fencing token keeps growing across acquisitions.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLockEntry {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 255)
+    @NotBlank(message = "Owner is required")
+    private String owner;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "locked_at", nullable = false)
+    @NotNull(message = "Locked at is required")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "lock_until", nullable = false)
+    @NotNull(message = "Lock until is required")
+    private LocalDateTime lockUntil;
+
+    // Constructors
+    public SchedulerLockEntry() {
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public LocalDateTime getLockedAt() {
+        return lockedAt;
+    }
+
+    public void setLockedAt(LocalDateTime lockedAt) {
+        this.lockedAt = lockedAt;
+    }
+
+    public LocalDateTime getLockUntil() {
+        return lockUntil;
+    }
+
+    public void setLockUntil(LocalDateTime lockUntil) {
+        this.lockUntil = lockUntil;
+    }
+}
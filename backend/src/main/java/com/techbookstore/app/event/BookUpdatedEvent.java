@@ -0,0 +1,21 @@
+package com.techbookstore.app.event;
+
+import java.util.Collections;
+
+/**
+ * A book was created, changed or deleted.
+ */
+public class BookUpdatedEvent extends DomainEvent {
+
+    private final boolean deleted;
+
+    public BookUpdatedEvent(Long bookId, boolean deleted) {
+        super(Collections.singleton(bookId));
+        this.deleted = deleted;
+    }
+
+    /** A deleted book's categories can no longer be looked up */
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,29 @@
+package com.techbookstore.app.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Base class of the domain events published by write paths.
+ * Events are published inside the writing transaction and handled after it commits
+ * (see CacheInvalidationService); each names the books whose derived data changed.
+ */
+public abstract class DomainEvent {
+
+    private final Set<Long> bookIds;
+
+    protected DomainEvent(Collection<Long> bookIds) {
+        this.bookIds = Collections.unmodifiableSet(new LinkedHashSet<>(bookIds));
+    }
+
+    public Set<Long> getBookIds() {
+        return bookIds;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + bookIds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.techbookstore.app.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One or more orders were confirmed; bookIds are the books on their lines.
+ */
+public class OrderConfirmedEvent extends DomainEvent {
+
+    private final List<Long> orderIds;
+
+    public OrderConfirmedEvent(Collection<Long> orderIds, Collection<Long> bookIds) {
+        super(bookIds);
+        this.orderIds = Collections.unmodifiableList(new ArrayList<>(orderIds));
+    }
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+}
@@ -0,0 +1,13 @@
+package com.techbookstore.app.event;
+
+import java.util.Collection;
+
+/**
+ * Store, warehouse or reserved stock of the books changed.
+ */
+public class StockChangedEvent extends DomainEvent {
+
+    public StockChangedEvent(Collection<Long> bookIds) {
+        super(bookIds);
+    }
+}
@@ -0,0 +1,11 @@
+package com.techbookstore.app.exception;
+
+/**
+ * Exception thrown when a batch is triggered while another node holds its scheduler lock.
+ */
+public class BatchAlreadyRunningException extends RuntimeException {
+
+    public BatchAlreadyRunningException(String message) {
+        super(message);
+    }
+}
@@ -79,6 +79,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    @ExceptionHandler(StockConflictException.class)
+    public ResponseEntity<ErrorResponse> handleStockConflict(StockConflictException ex) {
+        logger.warn("Stock update conflict: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "STOCK_CONFLICT",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleJobQueueFull(JobQueueFullException ex) {
+        logger.warn("Job rejected: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "TOO_MANY_JOBS",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "30").body(error);
+    }
+
     @ExceptionHandler(CustomerNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleCustomerNotFound(CustomerNotFoundException ex) {
         logger.warn("Customer not found: {}", ex.getMessage());
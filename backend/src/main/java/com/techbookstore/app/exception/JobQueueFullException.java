@@ -0,0 +1,15 @@
+package com.techbookstore.app.exception;
+
+/**
+ * Exception thrown when a job can not be accepted because its executor's queue is full.
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+
+    public JobQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.techbookstore.app.exception;
+
+/**
+ * Exception thrown when a stock update keeps conflicting with concurrent updates
+ * or was based on a stale inventory version.
+ */
+public class StockConflictException extends RuntimeException {
+
+    public StockConflictException(String message) {
+        super(message);
+    }
+
+    public StockConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
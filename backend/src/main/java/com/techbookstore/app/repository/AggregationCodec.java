@@ -0,0 +1,22 @@
+package com.techbookstore.app.repository;
+
+/**
+ * Binary encoding of one aggregation type for {@link AggregationStore}.
+ * The version is stored next to every payload; bump it whenever the layout changes and keep
+ * decoding the versions still present in the table until they have expired.
+ */
+public interface AggregationCodec<T> {
+
+    /** aggregation_type the values are stored under */
+    String type();
+
+    /** Layout version written with new payloads */
+    short version();
+
+    void encode(T value, AggregationPayload.Writer out);
+
+    /**
+     * @throws IllegalArgumentException if the version is not supported
+     */
+    T decode(AggregationPayload.Reader in, short version);
+}
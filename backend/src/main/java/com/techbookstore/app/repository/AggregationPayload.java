@@ -0,0 +1,168 @@
+package com.techbookstore.app.repository;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Compact big-endian field encoding for aggregation payloads.
+ * Nullable fields start with a presence byte; strings and decimals are length-prefixed.
+ * Readers decode straight from the buffer the JDBC driver returned, without a text
+ * or tree intermediate.
+ */
+public final class AggregationPayload {
+
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+
+    private AggregationPayload() {
+    }
+
+    public static final class Writer {
+
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        public Writer presence(Object value) {
+            return writeByte(value != null ? PRESENT : ABSENT);
+        }
+
+        public Writer integer(Integer value) {
+            presence(value);
+            if (value != null) {
+                ensure(4);
+                buffer[length++] = (byte) (value >>> 24);
+                buffer[length++] = (byte) (value >>> 16);
+                buffer[length++] = (byte) (value >>> 8);
+                buffer[length++] = (byte) (int) value;
+            }
+            return this;
+        }
+
+        public Writer number(Double value) {
+            presence(value);
+            if (value != null) {
+                writeLong(Double.doubleToLongBits(value));
+            }
+            return this;
+        }
+
+        public Writer decimal(BigDecimal value) {
+            presence(value);
+            if (value != null) {
+                if (value.scale() != (byte) value.scale()) {
+                    throw new IllegalArgumentException("Decimal scale out of range: " + value.scale());
+                }
+                writeByte((byte) value.scale());
+                writeBytes(value.unscaledValue().toByteArray());
+            }
+            return this;
+        }
+
+        public Writer string(String value) {
+            presence(value);
+            if (value != null) {
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return this;
+        }
+
+        public Writer date(LocalDate value) {
+            presence(value);
+            if (value != null) {
+                writeLong(value.toEpochDay());
+            }
+            return this;
+        }
+
+        /** Element count of a following list; -1 for null */
+        public Writer count(int count) {
+            return integer(count);
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+        private Writer writeByte(byte value) {
+            ensure(1);
+            buffer[length++] = value;
+            return this;
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeBytes(byte[] bytes) {
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Field exceeds 65535 bytes");
+            }
+            ensure(2 + bytes.length);
+            buffer[length++] = (byte) (bytes.length >>> 8);
+            buffer[length++] = (byte) bytes.length;
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+    }
+
+    public static final class Reader {
+
+        private final ByteBuffer buffer;
+
+        public Reader(byte[] payload) {
+            this.buffer = ByteBuffer.wrap(payload);
+        }
+
+        public boolean present() {
+            return buffer.get() == PRESENT;
+        }
+
+        public Integer integer() {
+            return present() ? buffer.getInt() : null;
+        }
+
+        public Double number() {
+            return present() ? buffer.getDouble() : null;
+        }
+
+        public BigDecimal decimal() {
+            if (!present()) {
+                return null;
+            }
+            int scale = buffer.get();
+            return new BigDecimal(new BigInteger(readBytes()), scale);
+        }
+
+        public String string() {
+            return present() ? new String(readBytes(), StandardCharsets.UTF_8) : null;
+        }
+
+        public LocalDate date() {
+            return present() ? LocalDate.ofEpochDay(buffer.getLong()) : null;
+        }
+
+        public int count() {
+            Integer count = integer();
+            return count != null ? count : -1;
+        }
+
+        private byte[] readBytes() {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.techbookstore.app.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Typed aggregations in aggregation_cache, one row per (type, date), read and written with plain
+ * JDBC so snapshots never pass through the persistence context.
+ * Reads are a single lookup on idx_aggregation_cache_type_date; writes are one batched upsert
+ * statement, so two nodes storing the same (type, date) never both insert it: on PostgreSQL
+ * INSERT ... ON CONFLICT DO UPDATE on cache_key, elsewhere (H2) MERGE ... USING.
+ *
+ * Reads only note the access in memory; {@link #flushAccessTimes()} writes last_accessed_at for
+ * the least-recently-used eviction done by the sweeper, so the read path never writes.
+ */
+@Repository
+public class AggregationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregationStore.class);
+
+    private static final String FIND_SQL =
+        "SELECT id, payload, payload_version FROM aggregation_cache " +
+        "WHERE aggregation_type = ? AND aggregation_date = ? AND expires_at > ? AND payload IS NOT NULL";
+
+    private static final String POSTGRES_UPSERT_SQL =
+        "INSERT INTO aggregation_cache (cache_key, aggregation_type, aggregation_date, payload, payload_version, " +
+        "created_at, expires_at, last_accessed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (cache_key) DO UPDATE SET payload = EXCLUDED.payload, " +
+        "payload_version = EXCLUDED.payload_version, aggregation_data = NULL, created_at = EXCLUDED.created_at, " +
+        "expires_at = EXCLUDED.expires_at, last_accessed_at = EXCLUDED.last_accessed_at";
+
+    private static final String MERGE_SQL =
+        "MERGE INTO aggregation_cache t USING (SELECT CAST(? AS VARCHAR(255)) AS cache_key, " +
+        "CAST(? AS VARCHAR(50)) AS aggregation_type, CAST(? AS DATE) AS aggregation_date, " +
+        "CAST(? AS VARBINARY) AS payload, CAST(? AS SMALLINT) AS payload_version, " +
+        "CAST(? AS TIMESTAMP) AS created_at, CAST(? AS TIMESTAMP) AS expires_at, " +
+        "CAST(? AS TIMESTAMP) AS last_accessed_at) s ON (t.cache_key = s.cache_key) " +
+        "WHEN MATCHED THEN UPDATE SET t.payload = s.payload, t.payload_version = s.payload_version, " +
+        "t.aggregation_data = NULL, t.created_at = s.created_at, t.expires_at = s.expires_at, " +
+        "t.last_accessed_at = s.last_accessed_at " +
+        "WHEN NOT MATCHED THEN INSERT (cache_key, aggregation_type, aggregation_date, payload, payload_version, " +
+        "created_at, expires_at, last_accessed_at) VALUES (s.cache_key, s.aggregation_type, s.aggregation_date, " +
+        "s.payload, s.payload_version, s.created_at, s.expires_at, s.last_accessed_at)";
+
+    private static final String TOUCH_SQL = "UPDATE aggregation_cache SET last_accessed_at = ? WHERE id = ?";
+
+    /** Expired rows go in id-ordered chunks; each statement is its own short transaction */
+    private static final String DELETE_EXPIRED_BATCH_SQL =
+        "DELETE FROM aggregation_cache WHERE id IN " +
+        "(SELECT id FROM aggregation_cache WHERE expires_at <= ? ORDER BY id LIMIT ?)";
+
+    private static final String ROW_BYTES =
+        "(COALESCE(LENGTH(payload), 0) + COALESCE(LENGTH(aggregation_data), 0))";
+
+    private static final String USAGE_SQL =
+        "SELECT aggregation_type, COUNT(*) AS row_count, COALESCE(SUM(" + ROW_BYTES + "), 0) AS total_bytes " +
+        "FROM aggregation_cache GROUP BY aggregation_type";
+
+    private static final String LEAST_RECENTLY_USED_SQL =
+        "SELECT id, " + ROW_BYTES + " AS row_bytes FROM aggregation_cache WHERE aggregation_type = ? " +
+        "ORDER BY COALESCE(last_accessed_at, created_at), id LIMIT ?";
+
+    private static final String DELETE_BY_ID_SQL = "DELETE FROM aggregation_cache WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    /** Row id to last read time (epoch millis) not yet written to last_accessed_at */
+    private final ConcurrentMap<Long, Long> pendingAccess = new ConcurrentHashMap<>();
+    private volatile Boolean postgres;
+
+    public AggregationStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The unexpired value of a type for a date. A payload written in a version the codec no
+     * longer reads is treated as missing, so the caller regenerates it.
+     */
+    public <T> Optional<T> find(AggregationCodec<T> codec, LocalDate date) {
+        List<T> values = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> {
+            pendingAccess.put(rs.getLong("id"), System.currentTimeMillis());
+            short version = rs.getShort("payload_version");
+            try {
+                return codec.decode(new AggregationPayload.Reader(rs.getBytes("payload")), version);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring {} aggregation for {}: {}", codec.type(), date, e.getMessage());
+                return null;
+            }
+        }, codec.type(), date, Timestamp.valueOf(LocalDateTime.now()));
+        return values.isEmpty() ? Optional.empty() : Optional.ofNullable(values.get(0));
+    }
+
+    public <T> void put(AggregationCodec<T> codec, LocalDate date, T value, LocalDateTime expiresAt) {
+        putAll(codec, Collections.singletonMap(date, value), expiresAt);
+    }
+
+    /**
+     * Upsert one value per date.
+     *
+     * @return number of rows written
+     */
+    public <T> int putAll(AggregationCodec<T> codec, Map<LocalDate, T> valuesByDate, LocalDateTime expiresAt) {
+        if (valuesByDate.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expires = Timestamp.valueOf(expiresAt);
+
+        List<Object[]> rows = new ArrayList<>(valuesByDate.size());
+        for (Map.Entry<LocalDate, T> entry : valuesByDate.entrySet()) {
+            AggregationPayload.Writer writer = new AggregationPayload.Writer();
+            codec.encode(entry.getValue(), writer);
+            LocalDate date = entry.getKey();
+            rows.add(new Object[] {cacheKey(codec, date), codec.type(), Date.valueOf(date), writer.toByteArray(),
+                                   codec.version(), now, expires, now});
+        }
+        jdbcTemplate.batchUpdate(isPostgres() ? POSTGRES_UPSERT_SQL : MERGE_SQL, rows);
+        return rows.size();
+    }
+
+    /**
+     * Write the read times noted since the last flush to last_accessed_at.
+     *
+     * @return number of rows touched
+     */
+    public int flushAccessTimes() {
+        List<Object[]> touches = new ArrayList<>();
+        for (Long id : pendingAccess.keySet()) {
+            Long accessedAt = pendingAccess.remove(id);
+            if (accessedAt != null) {
+                touches.add(new Object[] {new Timestamp(accessedAt), id});
+            }
+        }
+        if (!touches.isEmpty()) {
+            jdbcTemplate.batchUpdate(TOUCH_SQL, touches);
+        }
+        return touches.size();
+    }
+
+    /**
+     * Delete every aggregation (typed or not) that has expired, at most batchSize rows per statement.
+     *
+     * @return number of rows deleted
+     */
+    public int deleteExpired(LocalDateTime now, int batchSize) {
+        Timestamp cutoff = Timestamp.valueOf(now);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED_BATCH_SQL, cutoff, batchSize);
+            total += deleted;
+        } while (deleted >= batchSize);
+        return total;
+    }
+
+    /**
+     * Row count and approximate stored bytes per aggregation type.
+     */
+    public List<TypeUsage> usageByType() {
+        return jdbcTemplate.query(USAGE_SQL, (rs, rowNum) -> new TypeUsage(
+            rs.getString("aggregation_type"), rs.getLong("row_count"), rs.getLong("total_bytes")));
+    }
+
+    /**
+     * Delete the least recently used rows of a type until at least rowsToFree rows and
+     * bytesToFree bytes are gone, at most batchSize rows per round.
+     *
+     * @return number of rows deleted
+     */
+    public int evictLeastRecentlyUsed(String aggregationType, long rowsToFree, long bytesToFree, int batchSize) {
+        int total = 0;
+        while (rowsToFree > 0 || bytesToFree > 0) {
+            List<long[]> candidates = jdbcTemplate.query(LEAST_RECENTLY_USED_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong("id"), rs.getLong("row_bytes")}, aggregationType, batchSize);
+            List<Object[]> victims = new ArrayList<>();
+            for (long[] candidate : candidates) {
+                if (rowsToFree <= 0 && bytesToFree <= 0) {
+                    break;
+                }
+                victims.add(new Object[] {candidate[0]});
+                rowsToFree--;
+                bytesToFree -= candidate[1];
+            }
+            if (victims.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate(DELETE_BY_ID_SQL, victims);
+            total += victims.size();
+        }
+        return total;
+    }
+
+    public static class TypeUsage {
+        private final String aggregationType;
+        private final long rows;
+        private final long bytes;
+
+        TypeUsage(String aggregationType, long rows, long bytes) {
+            this.aggregationType = aggregationType;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        public String getAggregationType() { return aggregationType; }
+        public long getRows() { return rows; }
+        public long getBytes() { return bytes; }
+    }
+
+    private boolean isPostgres() {
+        Boolean value = postgres;
+        if (value == null) {
+            value = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgresql"));
+            postgres = value;
+        }
+        return Boolean.TRUE.equals(value);
+    }
+
+    private static String cacheKey(AggregationCodec<?> codec, LocalDate date) {
+        return codec.type() + "_" + date;
+    }
+}
@@ -0,0 +1,12 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.AggregationWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Watermarks of the incrementally maintained aggregations (IncrementalAggregationService).
+ */
+@Repository
+public interface AggregationWatermarkRepository extends JpaRepository<AggregationWatermark, String> {
+}
@@ -0,0 +1,75 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.AnalysisJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Analysis jobs. State changes are conditional updates on the current status, so a job
+ * cancelled on one node is neither started nor completed by the node running it.
+ * Each update commits on its own (REQUIRES_NEW): progress written from inside the analysis'
+ * read-only transaction is visible immediately.
+ */
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, String> {
+
+    /**
+     * QUEUED to RUNNING; 0 when the job was cancelled meanwhile.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AnalysisJob j SET j.status = 'RUNNING', j.startedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'QUEUED'")
+    int markRunning(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Progress and partial result of a running job; 0 when it is no longer running.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AnalysisJob j SET j.progress = :progress, j.currentPhase = :phase, j.result = :result " +
+           "WHERE j.id = :id AND j.status = 'RUNNING'")
+    int updateProgress(@Param("id") String id, @Param("progress") int progress, @Param("phase") String phase,
+                       @Param("result") String result);
+
+    /**
+     * RUNNING to COMPLETED with the final result, kept until expiresAt.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AnalysisJob j SET j.status = 'COMPLETED', j.progress = 100, j.result = :result, " +
+           "j.completedAt = :now, j.expiresAt = :expiresAt WHERE j.id = :id AND j.status = 'RUNNING'")
+    int complete(@Param("id") String id, @Param("result") String result, @Param("now") LocalDateTime now,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * RUNNING to FAILED, keeping the last partial result until expiresAt.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AnalysisJob j SET j.status = 'FAILED', j.errorMessage = :errorMessage, " +
+           "j.completedAt = :now, j.expiresAt = :expiresAt WHERE j.id = :id AND j.status = 'RUNNING'")
+    int fail(@Param("id") String id, @Param("errorMessage") String errorMessage, @Param("now") LocalDateTime now,
+             @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * QUEUED or RUNNING to CANCELLED; 0 when the job had already finished.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AnalysisJob j SET j.status = 'CANCELLED', j.completedAt = :now, j.expiresAt = :expiresAt " +
+           "WHERE j.id = :id AND j.status IN ('QUEUED', 'RUNNING')")
+    int cancel(@Param("id") String id, @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AnalysisJob j WHERE j.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
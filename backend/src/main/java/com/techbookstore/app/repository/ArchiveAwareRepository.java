@@ -0,0 +1,229 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.dto.MonthlyDemandDto;
+import com.techbookstore.app.entity.ArchivedInventoryTransaction;
+import com.techbookstore.app.entity.ArchivedOrder;
+import com.techbookstore.app.entity.ArchivedOrderItem;
+import com.techbookstore.app.entity.InventoryTransaction;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads over live and archived rows (orders / orders_archive, inventory_transactions /
+ * inventory_transactions_archive): a customer's order history, single order lookups, an inventory
+ * item's transaction history and monthly demand. Date-range reads query the archive only when the
+ * range starts at or before the newest archived date, which is a single index probe, so reads of
+ * recent data cost the same as before archiving; keyed reads probe the archive's index on the key.
+ *
+ * Live rows are read first: a row moved by the archiver between the two queries then shows up in
+ * both and is de-duplicated by ID, instead of being missed. Archived rows come back as detached
+ * Order / InventoryTransaction instances that must not be saved.
+ */
+@Component
+@Transactional(readOnly = true)
+public class ArchiveAwareRepository {
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final InventoryTransactionRepository transactionRepository;
+    private final ArchivedInventoryTransactionRepository archivedTransactionRepository;
+
+    public ArchiveAwareRepository(OrderRepository orderRepository,
+                                  ArchivedOrderRepository archivedOrderRepository,
+                                  InventoryTransactionRepository transactionRepository,
+                                  ArchivedInventoryTransactionRepository archivedTransactionRepository) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+    }
+
+    /**
+     * Orders of a customer with items, books and publishers loaded, live and archived
+     */
+    public List<Order> findOrdersByCustomerId(Long customerId) {
+        List<Order> orders = new ArrayList<>(orderRepository.findWithItemsByCustomerId(customerId));
+        Set<Long> seen = orders.stream().map(Order::getId).collect(Collectors.toCollection(HashSet::new));
+        List<ArchivedOrder> archived = archivedOrderRepository.findByCustomerId(customerId).stream()
+            .filter(order -> seen.add(order.getId()))
+            .collect(Collectors.toList());
+        orders.addAll(toOrders(archived));
+        return orders;
+    }
+
+    /**
+     * An order by ID, live or archived
+     */
+    public Optional<Order> findOrderById(Long id) {
+        Optional<Order> order = orderRepository.findById(id);
+        if (order.isPresent()) {
+            return order;
+        }
+        return archivedOrderRepository.findById(id).map(archived -> toOrders(Collections.singletonList(archived)).get(0));
+    }
+
+    /**
+     * An order by order number, live or archived
+     */
+    public Optional<Order> findOrderByNumber(String orderNumber) {
+        Optional<Order> order = orderRepository.findByOrderNumber(orderNumber);
+        if (order.isPresent()) {
+            return order;
+        }
+        return archivedOrderRepository.findByOrderNumber(orderNumber)
+            .map(archived -> toOrders(Collections.singletonList(archived)).get(0));
+    }
+
+    /**
+     * Ordered quantity per book and month over live and archived order lines.
+     * A month straddling the archive boundary is summed from both tables.
+     *
+     * @param bookId one book, or the whole catalog when null
+     */
+    public List<MonthlyDemandDto> findMonthlyDemandBetween(Long bookId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<MonthlyDemandDto> live = bookId != null
+            ? orderRepository.findMonthlyDemandByBookBetween(bookId, startDate, endDate)
+            : orderRepository.findMonthlyDemandBetween(startDate, endDate);
+        if (!reachesArchive(startDate, archivedOrderRepository.findLatestOrderDate())) {
+            return live;
+        }
+        List<MonthlyDemandDto> archived = bookId != null
+            ? archivedOrderRepository.findMonthlyDemandByBookBetween(bookId, startDate, endDate)
+            : archivedOrderRepository.findMonthlyDemandBetween(startDate, endDate);
+        if (archived.isEmpty()) {
+            return live;
+        }
+
+        Map<List<Object>, MonthlyDemandDto> merged = new LinkedHashMap<>();
+        for (List<MonthlyDemandDto> rows : Arrays.asList(archived, live)) {
+            for (MonthlyDemandDto row : rows) {
+                merged.merge(key(row.getBookId(), row.getMonth()), copy(row), (sum, next) -> {
+                    sum.setQuantity(sum.getQuantity() + next.getQuantity());
+                    sum.setOrderLines(sum.getOrderLines() + next.getOrderLines());
+                    return sum;
+                });
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Transactions of an inventory item, newest first, live and archived
+     */
+    public List<InventoryTransaction> findTransactionsByInventoryId(Long inventoryId) {
+        List<InventoryTransaction> transactions =
+            new ArrayList<>(transactionRepository.findByInventoryIdOrderByExecutedAtDesc(inventoryId));
+        Set<Long> seen = transactions.stream().map(InventoryTransaction::getId).collect(Collectors.toCollection(HashSet::new));
+        boolean archivedAdded = false;
+        for (ArchivedInventoryTransaction archived : archivedTransactionRepository.findByInventoryId(inventoryId)) {
+            if (seen.add(archived.getId())) {
+                transactions.add(toTransaction(archived));
+                archivedAdded = true;
+            }
+        }
+        if (archivedAdded) {
+            transactions.sort(Comparator.comparing(InventoryTransaction::getExecutedAt).reversed());
+        }
+        return transactions;
+    }
+
+    private static boolean reachesArchive(LocalDateTime startDate, LocalDateTime latestArchived) {
+        return latestArchived != null && !startDate.isAfter(latestArchived);
+    }
+
+    private static List<Object> key(Long bookId, YearMonth month) {
+        return Arrays.asList(bookId, month);
+    }
+
+    private static MonthlyDemandDto copy(MonthlyDemandDto row) {
+        MonthlyDemandDto copy = new MonthlyDemandDto();
+        copy.setBookId(row.getBookId());
+        copy.setMonth(row.getMonth());
+        copy.setQuantity(row.getQuantity());
+        copy.setOrderLines(row.getOrderLines());
+        return copy;
+    }
+
+    private List<Order> toOrders(List<ArchivedOrder> archived) {
+        if (archived.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<ArchivedOrderItem>> itemsByOrder = archivedOrderRepository
+            .findItemsByOrderIdIn(archived.stream().map(ArchivedOrder::getId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.groupingBy(ArchivedOrderItem::getOrderId));
+        List<Order> orders = new ArrayList<>(archived.size());
+        for (ArchivedOrder order : archived) {
+            orders.add(toOrder(order, itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())));
+        }
+        return orders;
+    }
+
+    private static Order toOrder(ArchivedOrder archived, List<ArchivedOrderItem> archivedItems) {
+        Order order = new Order();
+        order.setId(archived.getId());
+        order.setOrderNumber(archived.getOrderNumber());
+        order.setCustomerId(archived.getCustomerId());
+        order.setStatus(archived.getStatus());
+        order.setType(archived.getType());
+        order.setPaymentMethod(archived.getPaymentMethod());
+        order.setTotalAmount(archived.getTotalAmount());
+        order.setOrderDate(archived.getOrderDate());
+        order.setConfirmedDate(archived.getConfirmedDate());
+        order.setShippedDate(archived.getShippedDate());
+        order.setDeliveredDate(archived.getDeliveredDate());
+        order.setNotes(archived.getNotes());
+        order.setCreatedAt(archived.getCreatedAt());
+        order.setUpdatedAt(archived.getUpdatedAt());
+
+        List<OrderItem> items = new ArrayList<>(archivedItems.size());
+        for (ArchivedOrderItem archivedItem : archivedItems) {
+            OrderItem item = new OrderItem();
+            item.setId(archivedItem.getId());
+            item.setOrder(order);
+            item.setBook(archivedItem.getBook());
+            item.setQuantity(archivedItem.getQuantity());
+            item.setUnitPrice(archivedItem.getUnitPrice());
+            item.setTotalPrice(archivedItem.getTotalPrice());
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+
+    private static InventoryTransaction toTransaction(ArchivedInventoryTransaction archived) {
+        InventoryTransaction transaction = new InventoryTransaction();
+        transaction.setId(archived.getId());
+        transaction.setInventory(archived.getInventory());
+        transaction.setType(archived.getType());
+        transaction.setQuantity(archived.getQuantity());
+        transaction.setBeforeQuantity(archived.getBeforeQuantity());
+        transaction.setAfterQuantity(archived.getAfterQuantity());
+        transaction.setReason(archived.getReason());
+        transaction.setBatchNumber(archived.getBatchNumber());
+        transaction.setReferenceNumber(archived.getReferenceNumber());
+        transaction.setExecutedBy(archived.getExecutedBy());
+        transaction.setApprovedBy(archived.getApprovedBy());
+        transaction.setExecutedAt(archived.getExecutedAt());
+        transaction.setApprovedAt(archived.getApprovedAt());
+        transaction.setStatus(archived.getStatus());
+        transaction.setCreatedAt(archived.getCreatedAt());
+        return transaction;
+    }
+}
@@ -0,0 +1,246 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Moves settled rows older than a cutoff from orders / order_items / inventory_transactions into
+ * their *_archive tables with plain JDBC, so the rows never pass through the persistence context.
+ *
+ * A move works on one bounded batch of IDs and runs in the caller's transaction: lock the rows
+ * that are still eligible, copy those not archived yet (INSERT ... SELECT ... WHERE NOT EXISTS),
+ * then delete them. A crash leaves either the whole batch moved or none of it, and moving the
+ * same IDs again only deletes what is left, so every move can simply be repeated.
+ *
+ * On PostgreSQL the archive tables are partitioned by date (db/migration/data_archive_schema.sql);
+ * {@link #createYearlyPartitions(LocalDateTime)} adds a partition per year before rows of that year
+ * are moved, so range reads of the archive only scan the years they cover.
+ */
+@Repository
+public class ArchiveStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveStore.class);
+
+    /** Orders that can no longer change */
+    private static final Object[] SETTLED_ORDER_STATUSES = {
+        Order.OrderStatus.DELIVERED.name(), Order.OrderStatus.CANCELLED.name()
+    };
+
+    private static final String ORDER_COLUMNS =
+        "id, order_number, customer_id, status, type, payment_method, total_amount, order_date, " +
+        "confirmed_date, shipped_date, delivered_date, notes, created_at, updated_at";
+
+    private static final String ORDER_ITEM_COLUMNS = "id, order_id, book_id, quantity, unit_price, total_price";
+
+    private static final String TRANSACTION_COLUMNS =
+        "id, inventory_id, transaction_type, quantity, before_quantity, after_quantity, reason, batch_number, " +
+        "reference_number, executed_by, approved_by, executed_at, approved_at, status, created_at";
+
+    /**
+     * Live rows to archive plus the rows this run date already moved, so a resumed step reads the
+     * same IDs in the same order as the run that failed
+     */
+    private static final String ORDER_IDS_SQL =
+        "SELECT id FROM orders WHERE order_date < ? AND status IN (?, ?) " +
+        "UNION SELECT id FROM orders_archive WHERE archived_on = ? AND order_date < ? ORDER BY id";
+
+    private static final String LOCK_ORDERS_SQL =
+        "SELECT id FROM orders WHERE id IN (%s) AND order_date < ? AND status IN (?, ?) FOR UPDATE";
+
+    private static final String COPY_ORDERS_SQL =
+        "INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archived_on, archived_at) " +
+        "SELECT " + ORDER_COLUMNS + ", ?, ? FROM orders WHERE id IN (%s) AND NOT EXISTS " +
+        "(SELECT 1 FROM orders_archive a WHERE a.id = orders.id AND a.order_date = orders.order_date)";
+
+    private static final String COPY_ORDER_ITEMS_SQL =
+        "INSERT INTO order_items_archive (" + ORDER_ITEM_COLUMNS + ", order_date, archived_on) " +
+        "SELECT " + ORDER_ITEM_COLUMNS + ", (SELECT o.order_date FROM orders o WHERE o.id = order_items.order_id), ? " +
+        "FROM order_items WHERE order_id IN (%s) AND NOT EXISTS " +
+        "(SELECT 1 FROM order_items_archive a WHERE a.id = order_items.id)";
+
+    private static final String DELETE_ORDER_ITEMS_SQL = "DELETE FROM order_items WHERE order_id IN (%s)";
+
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM orders WHERE id IN (%s)";
+
+    private static final String TRANSACTION_IDS_SQL =
+        "SELECT id FROM inventory_transactions WHERE executed_at < ? AND status <> ? " +
+        "UNION SELECT id FROM inventory_transactions_archive WHERE archived_on = ? AND executed_at < ? ORDER BY id";
+
+    private static final String LOCK_TRANSACTIONS_SQL =
+        "SELECT id FROM inventory_transactions WHERE id IN (%s) AND executed_at < ? AND status <> ? FOR UPDATE";
+
+    private static final String COPY_TRANSACTIONS_SQL =
+        "INSERT INTO inventory_transactions_archive (" + TRANSACTION_COLUMNS + ", archived_on, archived_at) " +
+        "SELECT " + TRANSACTION_COLUMNS + ", ?, ? FROM inventory_transactions WHERE id IN (%s) AND NOT EXISTS " +
+        "(SELECT 1 FROM inventory_transactions_archive a WHERE a.id = inventory_transactions.id " +
+        "AND a.executed_at = inventory_transactions.executed_at)";
+
+    private static final String DELETE_TRANSACTIONS_SQL = "DELETE FROM inventory_transactions WHERE id IN (%s)";
+
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid WHERE c.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public ArchiveStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * IDs of the settled (delivered or cancelled) orders dated before the cutoff, in ID order
+     */
+    public List<Long> findOrderIdsToArchive(LocalDateTime cutoff, LocalDate runDate) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        return jdbcTemplate.queryForList(ORDER_IDS_SQL, Long.class, before,
+                                         SETTLED_ORDER_STATUSES[0], SETTLED_ORDER_STATUSES[1], Date.valueOf(runDate), before);
+    }
+
+    /**
+     * Move one batch of orders with their lines. IDs that are no longer eligible or were already
+     * moved are skipped.
+     *
+     * @return number of orders moved
+     */
+    public int moveOrders(List<Long> ids, LocalDateTime cutoff, LocalDate runDate) {
+        List<Long> locked = lock(LOCK_ORDERS_SQL, ids, Timestamp.valueOf(cutoff),
+                                 SETTLED_ORDER_STATUSES[0], SETTLED_ORDER_STATUSES[1]);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        update(COPY_ORDERS_SQL, locked, Date.valueOf(runDate), now);
+        update(COPY_ORDER_ITEMS_SQL, locked, Date.valueOf(runDate));
+        update(DELETE_ORDER_ITEMS_SQL, locked);
+        return update(DELETE_ORDERS_SQL, locked);
+    }
+
+    /**
+     * IDs of the inventory transactions executed before the cutoff and no longer pending, in ID order
+     */
+    public List<Long> findTransactionIdsToArchive(LocalDateTime cutoff, LocalDate runDate) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        return jdbcTemplate.queryForList(TRANSACTION_IDS_SQL, Long.class,
+                                         before, TransactionStatus.PENDING.name(), Date.valueOf(runDate), before);
+    }
+
+    /**
+     * Move one batch of inventory transactions
+     *
+     * @return number of transactions moved
+     */
+    public int moveTransactions(List<Long> ids, LocalDateTime cutoff, LocalDate runDate) {
+        List<Long> locked = lock(LOCK_TRANSACTIONS_SQL, ids, Timestamp.valueOf(cutoff), TransactionStatus.PENDING.name());
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        update(COPY_TRANSACTIONS_SQL, locked, Date.valueOf(runDate), Timestamp.valueOf(LocalDateTime.now()));
+        return update(DELETE_TRANSACTIONS_SQL, locked);
+    }
+
+    /**
+     * Create the missing yearly partitions of the partitioned archive tables for every year that
+     * has rows before the cutoff. Rows of a year without its own partition land in the default
+     * partition; a year already present there keeps doing so, since its partition can no longer be
+     * attached. No-op on databases other than PostgreSQL and on unpartitioned archive tables.
+     *
+     * @return number of partitions created
+     */
+    public int createYearlyPartitions(LocalDateTime cutoff) {
+        if (!isPostgres()) {
+            return 0;
+        }
+        String oldestOrder = "SELECT MIN(order_date) FROM orders WHERE order_date < ?";
+        return createYearlyPartitions("orders_archive", "order_date", oldestOrder, cutoff)
+            + createYearlyPartitions("order_items_archive", "order_date", oldestOrder, cutoff)
+            + createYearlyPartitions("inventory_transactions_archive", "executed_at",
+                                     "SELECT MIN(executed_at) FROM inventory_transactions WHERE executed_at < ?", cutoff);
+    }
+
+    private int createYearlyPartitions(String table, String column, String oldestSql, LocalDateTime cutoff) {
+        Integer partitioned = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Integer.class, table);
+        if (partitioned == null || partitioned == 0) {
+            return 0;
+        }
+        Timestamp oldest = jdbcTemplate.queryForObject(oldestSql, Timestamp.class, Timestamp.valueOf(cutoff));
+        if (oldest == null) {
+            return 0;
+        }
+
+        int created = 0;
+        for (int year = oldest.toLocalDateTime().getYear(); year <= cutoff.getYear(); year++) {
+            String partition = table + "_" + year;
+            LocalDate from = LocalDate.of(year, 1, 1);
+            LocalDate to = from.plusYears(1);
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+            if (Boolean.TRUE.equals(exists)) {
+                continue;
+            }
+            Boolean inDefault = jdbcTemplate.queryForObject(
+                String.format("SELECT EXISTS (SELECT 1 FROM %s_default WHERE %s >= ? AND %s < ?)", table, column, column),
+                Boolean.class, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay()));
+            if (Boolean.TRUE.equals(inDefault)) {
+                logger.warn("Not creating partition {}: {}_default already holds rows of {}", partition, table, year);
+                continue;
+            }
+            jdbcTemplate.execute(String.format("CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                                               partition, table, from, to));
+            logger.info("Created archive partition {}", partition);
+            created++;
+        }
+        return created;
+    }
+
+    private boolean isPostgres() {
+        Boolean value = postgres;
+        if (value == null) {
+            value = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgresql"));
+            postgres = value;
+        }
+        return Boolean.TRUE.equals(value);
+    }
+
+    private List<Long> lock(String sql, List<Long> ids, Object... conditions) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.queryForList(String.format(sql, placeholders(ids)), Long.class, arguments(ids, conditions));
+    }
+
+    /**
+     * Run a statement over an ID list, with its leading arguments before the IDs
+     */
+    private int update(String sql, List<Long> ids, Object... leading) {
+        List<Object> arguments = new ArrayList<>(leading.length + ids.size());
+        Collections.addAll(arguments, leading);
+        arguments.addAll(ids);
+        return jdbcTemplate.update(String.format(sql, placeholders(ids)), arguments.toArray());
+    }
+
+    private static Object[] arguments(List<Long> ids, Object... trailing) {
+        List<Object> arguments = new ArrayList<>(ids.size() + trailing.length);
+        arguments.addAll(ids);
+        Collections.addAll(arguments, trailing);
+        return arguments.toArray();
+    }
+
+    private static String placeholders(List<Long> ids) {
+        return ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,19 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.ArchivedInventoryTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Archived inventory transactions (inventory_transactions_archive); read through ArchiveAwareRepository.
+ */
+@Repository
+public interface ArchivedInventoryTransactionRepository extends JpaRepository<ArchivedInventoryTransaction, Long> {
+
+    @Query("SELECT t FROM ArchivedInventoryTransaction t WHERE t.inventory.id = :inventoryId ORDER BY t.executedAt DESC")
+    List<ArchivedInventoryTransaction> findByInventoryId(@Param("inventoryId") Long inventoryId);
+}
@@ -0,0 +1,58 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.dto.MonthlyDemandDto;
+import com.techbookstore.app.entity.ArchivedOrder;
+import com.techbookstore.app.entity.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Archived orders and order lines (orders_archive, order_items_archive); read through ArchiveAwareRepository.
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    /**
+     * Newest archived order date: ranges starting after it are answered by orders alone.
+     * One probe of idx_orders_archive_order_date.
+     */
+    @Query("SELECT MAX(o.orderDate) FROM ArchivedOrder o")
+    LocalDateTime findLatestOrderDate();
+
+    List<ArchivedOrder> findByCustomerId(Long customerId);
+
+    Optional<ArchivedOrder> findByOrderNumber(String orderNumber);
+
+    /**
+     * Archived lines of the orders with their books and publishers loaded (for OrderDto)
+     */
+    @Query("SELECT i FROM ArchivedOrderItem i LEFT JOIN FETCH i.book b LEFT JOIN FETCH b.publisher WHERE i.orderId IN :orderIds")
+    List<ArchivedOrderItem> findItemsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Archived counterpart of OrderRepository.findMonthlyDemandBetween, on the order date copied to the lines
+     */
+    @Query("SELECT new com.techbookstore.app.dto.MonthlyDemandDto(" +
+           "i.book.id, YEAR(i.orderDate), MONTH(i.orderDate), SUM(i.quantity), COUNT(i)) " +
+           "FROM ArchivedOrderItem i " +
+           "WHERE i.orderDate >= :startDate AND i.orderDate <= :endDate " +
+           "GROUP BY i.book.id, YEAR(i.orderDate), MONTH(i.orderDate)")
+    List<MonthlyDemandDto> findMonthlyDemandBetween(@Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT new com.techbookstore.app.dto.MonthlyDemandDto(" +
+           "i.book.id, YEAR(i.orderDate), MONTH(i.orderDate), SUM(i.quantity), COUNT(i)) " +
+           "FROM ArchivedOrderItem i " +
+           "WHERE i.book.id = :bookId AND i.orderDate >= :startDate AND i.orderDate <= :endDate " +
+           "GROUP BY i.book.id, YEAR(i.orderDate), MONTH(i.orderDate)")
+    List<MonthlyDemandDto> findMonthlyDemandByBookBetween(@Param("bookId") Long bookId,
+                                                          @Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+}
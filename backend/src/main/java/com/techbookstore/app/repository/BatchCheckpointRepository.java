@@ -0,0 +1,71 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.BatchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Step checkpoints of the scheduled batches (BatchJobEngine). Progress updates are conditional
+ * on the fencing token, so a run that lost its scheduler lock can not overwrite a newer run's
+ * progress; they join the transaction of the chunk they record.
+ */
+@Repository
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, Long> {
+
+    Optional<BatchCheckpoint> findByJobNameAndRunDateAndStepName(String jobName, LocalDate runDate, String stepName);
+
+    /**
+     * Highest fencing token written so far; a scheduler lock that lost its token counter restarts above it.
+     */
+    @Query("SELECT COALESCE(MAX(c.fencingToken), 0) FROM BatchCheckpoint c")
+    long findMaxFencingToken();
+
+    /**
+     * Record a committed chunk; 0 when a run with a newer fencing token owns the step.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BatchCheckpoint c SET c.status = 'RUNNING', c.committedItems = :committedItems, " +
+           "c.lastKey = :lastKey, c.committedChunks = c.committedChunks + 1, c.fencingToken = :fencingToken, " +
+           "c.updatedAt = :now WHERE c.id = :id AND c.fencingToken <= :fencingToken")
+    int advance(@Param("id") Long id, @Param("committedItems") int committedItems,
+                @Param("lastKey") String lastKey, @Param("fencingToken") long fencingToken,
+                @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BatchCheckpoint c SET c.status = 'COMPLETED', c.errorMessage = NULL, " +
+           "c.fencingToken = :fencingToken, c.updatedAt = :now WHERE c.id = :id AND c.fencingToken <= :fencingToken")
+    int complete(@Param("id") Long id, @Param("fencingToken") long fencingToken, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BatchCheckpoint c SET c.status = 'FAILED', c.errorMessage = :errorMessage, " +
+           "c.fencingToken = :fencingToken, c.updatedAt = :now WHERE c.id = :id AND c.fencingToken <= :fencingToken")
+    int fail(@Param("id") Long id, @Param("errorMessage") String errorMessage,
+             @Param("fencingToken") long fencingToken, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BatchCheckpoint c WHERE c.runDate < :cutoff")
+    int deleteByRunDateBefore(@Param("cutoff") LocalDate cutoff);
+
+    /**
+     * Forget a run date's progress so every step runs again; checkpoints written by a run with a
+     * newer fencing token are kept.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BatchCheckpoint c WHERE c.jobName = :jobName AND c.runDate = :runDate " +
+           "AND c.fencingToken <= :fencingToken")
+    int deleteRun(@Param("jobName") String jobName, @Param("runDate") LocalDate runDate,
+                  @Param("fencingToken") long fencingToken);
+}
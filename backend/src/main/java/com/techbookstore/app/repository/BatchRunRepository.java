@@ -0,0 +1,29 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.BatchRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Batch run history (BatchRunRecorder).
+ */
+@Repository
+public interface BatchRunRepository extends JpaRepository<BatchRun, Long> {
+
+    List<BatchRun> findAllByOrderByStartedAtDescIdDesc(Pageable pageable);
+
+    List<BatchRun> findByJobNameOrderByStartedAtDescIdDesc(String jobName, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BatchRun r WHERE r.startedAt < :cutoff")
+    int deleteStartedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,27 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.BatchStepRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Steps of the recorded batch runs (BatchRunRecorder).
+ */
+@Repository
+public interface BatchStepRunRepository extends JpaRepository<BatchStepRun, Long> {
+
+    List<BatchStepRun> findByRunIdInOrderByStartedAtAscIdAsc(Collection<Long> runIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BatchStepRun s WHERE s.runId IN (SELECT r.id FROM BatchRun r WHERE r.startedAt < :cutoff)")
+    int deleteOfRunsStartedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
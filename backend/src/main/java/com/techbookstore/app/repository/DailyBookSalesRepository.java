@@ -0,0 +1,73 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.dto.SalesFactSummaryDto;
+import com.techbookstore.app.entity.DailyBookSales;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyBookSalesRepository extends JpaRepository<DailyBookSales, Long> {
+
+    /**
+     * Delete all fact rows in a date range (used before a rebuild).
+     */
+    @Modifying
+    @Query("DELETE FROM DailyBookSales s WHERE s.salesDate >= :startDate AND s.salesDate <= :endDate")
+    int deleteBySalesDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Total revenue of non-cancelled orders in a date range.
+     */
+    @Query("SELECT COALESCE(SUM(s.revenue), 0) FROM DailyBookSales s " +
+           "WHERE s.bookId = 0 AND s.salesDate >= :startDate AND s.salesDate <= :endDate")
+    BigDecimal sumRevenue(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Number of distinct non-cancelled orders in a date range.
+     */
+    @Query("SELECT COALESCE(SUM(s.orderCount), 0) FROM DailyBookSales s " +
+           "WHERE s.bookId = 0 AND s.salesDate >= :startDate AND s.salesDate <= :endDate")
+    Long sumOrderCount(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Daily totals in a date range, ordered by date.
+     */
+    @Query("SELECT new com.techbookstore.app.dto.SalesFactSummaryDto(s.salesDate, SUM(s.quantity), SUM(s.revenue), SUM(s.orderCount)) " +
+           "FROM DailyBookSales s WHERE s.bookId = 0 AND s.salesDate >= :startDate AND s.salesDate <= :endDate " +
+           "GROUP BY s.salesDate ORDER BY s.salesDate")
+    List<SalesFactSummaryDto> summarizeByDate(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Totals per order type (WALK_IN, ONLINE, PHONE) in a date range.
+     */
+    @Query("SELECT new com.techbookstore.app.dto.SalesFactSummaryDto(s.orderType, SUM(s.quantity), SUM(s.revenue), SUM(s.orderCount)) " +
+           "FROM DailyBookSales s WHERE s.bookId = 0 AND s.salesDate >= :startDate AND s.salesDate <= :endDate " +
+           "GROUP BY s.orderType")
+    List<SalesFactSummaryDto> summarizeByOrderType(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Totals per customer type (INDIVIDUAL, CORPORATE, GUEST) in a date range.
+     */
+    @Query("SELECT new com.techbookstore.app.dto.SalesFactSummaryDto(s.customerType, SUM(s.quantity), SUM(s.revenue), SUM(s.orderCount)) " +
+           "FROM DailyBookSales s WHERE s.bookId = 0 AND s.salesDate >= :startDate AND s.salesDate <= :endDate " +
+           "GROUP BY s.customerType")
+    List<SalesFactSummaryDto> summarizeByCustomerType(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Per-book totals in a date range, best sellers first.
+     */
+    @Query("SELECT new com.techbookstore.app.dto.SalesFactSummaryDto(s.bookId, SUM(s.quantity), SUM(s.revenue), SUM(s.orderCount)) " +
+           "FROM DailyBookSales s WHERE s.bookId <> 0 AND s.salesDate >= :startDate AND s.salesDate <= :endDate " +
+           "GROUP BY s.bookId ORDER BY SUM(s.revenue) DESC")
+    List<SalesFactSummaryDto> summarizeByBook(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              Pageable pageable);
+}
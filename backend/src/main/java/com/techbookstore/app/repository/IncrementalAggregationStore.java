@@ -0,0 +1,183 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.dto.CustomerAnalyticsDto;
+import com.techbookstore.app.entity.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Incrementally maintained aggregates (customer_order_stats, inventory_daily_movements), read
+ * and written with plain JDBC.
+ *
+ * Changed source rows are found through their change timestamps (orders.updated_at,
+ * customers.updated_at, inventory_transactions.executed_at) and only the aggregate keys they
+ * touch are refreshed. A key is refreshed by replacing its rows with a fresh aggregate of that
+ * key's source rows rather than by adding deltas, so status changes are reflected and refreshing
+ * the same key twice is harmless. Work therefore grows with the number of changed keys, not with
+ * the total history.
+ */
+@Repository
+public class IncrementalAggregationStore {
+
+    private static final String CANCELLED = Order.OrderStatus.CANCELLED.name();
+
+    private static final String CHANGED_CUSTOMERS_SQL =
+        "SELECT customer_id AS id FROM orders WHERE updated_at >= ? AND updated_at < ? AND customer_id IS NOT NULL " +
+        "UNION SELECT id FROM customers WHERE updated_at >= ? AND updated_at < ? ORDER BY id";
+
+    private static final String ALL_CUSTOMERS_SQL = "SELECT id FROM customers WHERE created_at < ? ORDER BY id";
+
+    private static final String DELETE_CUSTOMER_STATS_SQL = "DELETE FROM customer_order_stats WHERE customer_id IN (%s)";
+
+    /** Live and archived orders of the customers; cancelled orders count as none */
+    private static final String INSERT_CUSTOMER_STATS_SQL =
+        "INSERT INTO customer_order_stats (customer_id, customer_type, customer_status, order_count, total_spent, " +
+        "first_order_at, last_order_at, refreshed_at) " +
+        "SELECT c.id, c.customer_type, c.status, COUNT(o.customer_id), COALESCE(SUM(o.total_amount), 0), " +
+        "MIN(o.order_date), MAX(o.order_date), ? " +
+        "FROM customers c LEFT JOIN (" +
+        "SELECT customer_id, total_amount, order_date FROM orders WHERE customer_id IN (%1$s) AND status <> ? " +
+        "UNION ALL " +
+        "SELECT customer_id, total_amount, order_date FROM orders_archive WHERE customer_id IN (%1$s) AND status <> ?" +
+        ") o ON o.customer_id = c.id " +
+        "WHERE c.id IN (%1$s) GROUP BY c.id, c.customer_type, c.status";
+
+    private static final String CHANGED_MOVEMENT_DAYS_SQL =
+        "SELECT DISTINCT CAST(executed_at AS DATE) AS movement_date FROM inventory_transactions " +
+        "WHERE executed_at >= ? AND executed_at < ? ORDER BY movement_date";
+
+    private static final String ALL_MOVEMENT_DAYS_SQL =
+        "SELECT DISTINCT CAST(executed_at AS DATE) AS movement_date FROM inventory_transactions " +
+        "WHERE executed_at < ? ORDER BY movement_date";
+
+    private static final String DELETE_MOVEMENTS_SQL = "DELETE FROM inventory_daily_movements WHERE movement_date = ?";
+
+    private static final String INSERT_MOVEMENTS_SQL =
+        "INSERT INTO inventory_daily_movements (movement_date, transaction_type, transaction_count, total_quantity, " +
+        "refreshed_at) " +
+        "SELECT ?, transaction_type, COUNT(*), COALESCE(SUM(quantity), 0), ? FROM inventory_transactions " +
+        "WHERE executed_at >= ? AND executed_at < ? GROUP BY transaction_type";
+
+    private static final String MOVEMENTS_SQL =
+        "SELECT movement_date, transaction_type, transaction_count, total_quantity FROM inventory_daily_movements " +
+        "WHERE movement_date >= ? AND movement_date <= ? ORDER BY movement_date, transaction_type";
+
+    /**
+     * Segment of each customer with orders: premium by total spent, new by first order date, regular otherwise
+     */
+    private static final String CUSTOMER_SEGMENTS_SQL =
+        "SELECT segment, COUNT(*) AS customer_count, SUM(total_spent) AS total_value FROM (" +
+        "SELECT CASE WHEN total_spent >= ? THEN 'Premium' WHEN first_order_at >= ? THEN 'New' ELSE 'Regular' END " +
+        "AS segment, total_spent FROM customer_order_stats WHERE order_count > 0" +
+        ") s GROUP BY segment";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IncrementalAggregationStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Customers whose orders or profile changed at or after the watermark and before until, in ID
+     * order; every customer created before until when there is no watermark yet
+     */
+    public List<Long> findChangedCustomerIds(LocalDateTime since, LocalDateTime until) {
+        Timestamp to = Timestamp.valueOf(until);
+        if (since == null) {
+            return jdbcTemplate.queryForList(ALL_CUSTOMERS_SQL, Long.class, to);
+        }
+        Timestamp from = Timestamp.valueOf(since);
+        return jdbcTemplate.queryForList(CHANGED_CUSTOMERS_SQL, Long.class, from, to, from, to);
+    }
+
+    /**
+     * Replace the order totals of the customers
+     *
+     * @return number of customers written
+     */
+    public int refreshCustomerStats(List<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = customerIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        jdbcTemplate.update(String.format(DELETE_CUSTOMER_STATS_SQL, placeholders), customerIds.toArray());
+
+        List<Object> arguments = new ArrayList<>(customerIds.size() * 3 + 3);
+        arguments.add(Timestamp.valueOf(LocalDateTime.now()));
+        arguments.addAll(customerIds);
+        arguments.add(CANCELLED);
+        arguments.addAll(customerIds);
+        arguments.add(CANCELLED);
+        arguments.addAll(customerIds);
+        return jdbcTemplate.update(String.format(INSERT_CUSTOMER_STATS_SQL, placeholders), arguments.toArray());
+    }
+
+    /**
+     * Days with inventory transactions executed at or after the watermark and before until, oldest
+     * first; every day with transactions before until when there is no watermark yet
+     */
+    public List<LocalDate> findChangedMovementDays(LocalDateTime since, LocalDateTime until) {
+        Timestamp to = Timestamp.valueOf(until);
+        List<Date> days = since == null
+            ? jdbcTemplate.queryForList(ALL_MOVEMENT_DAYS_SQL, Date.class, to)
+            : jdbcTemplate.queryForList(CHANGED_MOVEMENT_DAYS_SQL, Date.class, Timestamp.valueOf(since), to);
+        return days.stream().map(Date::toLocalDate).collect(Collectors.toList());
+    }
+
+    /**
+     * Replace the movements of the days
+     *
+     * @return number of rows written
+     */
+    public int refreshMovements(List<LocalDate> days) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int written = 0;
+        for (LocalDate day : days) {
+            jdbcTemplate.update(DELETE_MOVEMENTS_SQL, Date.valueOf(day));
+            written += jdbcTemplate.update(INSERT_MOVEMENTS_SQL, Date.valueOf(day), now,
+                                           Timestamp.valueOf(day.atStartOfDay()),
+                                           Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+        }
+        return written;
+    }
+
+    /**
+     * Rows of inventory_daily_movements within the range (inclusive): movementDate, transactionType,
+     * transactionCount, totalQuantity
+     */
+    public List<Map<String, Object>> findMovements(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query(MOVEMENTS_SQL, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("movementDate", rs.getDate("movement_date").toLocalDate());
+            row.put("transactionType", rs.getString("transaction_type"));
+            row.put("transactionCount", rs.getLong("transaction_count"));
+            row.put("totalQuantity", rs.getLong("total_quantity"));
+            return row;
+        }, Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /**
+     * Customer count and total spent per segment (Premium, New, Regular); percentage and
+     * characteristics are left to the caller
+     *
+     * @param premiumSpend total spent from which a customer is premium
+     * @param newSince     first order date from which a non-premium customer is new
+     */
+    public List<CustomerAnalyticsDto.CustomerSegment> findCustomerSegments(BigDecimal premiumSpend,
+                                                                           LocalDateTime newSince) {
+        return jdbcTemplate.query(CUSTOMER_SEGMENTS_SQL, (rs, rowNum) -> new CustomerAnalyticsDto.CustomerSegment(
+            rs.getString("segment"), rs.getInt("customer_count"), rs.getBigDecimal("total_value"), null, null),
+            premiumSpend, Timestamp.valueOf(newSince));
+    }
+}
@@ -2,9 +2,15 @@ package com.techbookstore.app.repository;
 
 import com.techbookstore.app.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +24,69 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     @Query("SELECT i FROM Inventory i WHERE (i.storeStock + i.warehouseStock) <= 0")
     List<Inventory> findOutOfStockItems();
-}
\ No newline at end of file
+
+    /**
+     * Lock the inventory rows of several books in one query.
+     * Rows are always locked in id order so concurrent bulk confirmations cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.book.id IN :bookIds ORDER BY i.id")
+    List<Inventory> findByBookIdInForUpdate(@Param("bookIds") Collection<Long> bookIds);
+
+    // Atomic conditional stock updates used by StockMutationService.
+    // Each returns the number of rows updated: 0 means the guard failed (insufficient stock or stale version).
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.storeStock = i.storeStock - :quantity, i.lastSoldDate = :soldDate, " +
+           "i.version = i.version + 1 " +
+           "WHERE i.id = :id AND i.storeStock >= :quantity " +
+           "AND (i.storeStock + i.warehouseStock - COALESCE(i.reservedCount, 0)) >= :quantity")
+    int decrementStoreStock(@Param("id") Long id,
+                            @Param("quantity") Integer quantity,
+                            @Param("soldDate") LocalDate soldDate);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.storeStock = i.storeStock + :quantity, i.lastReceivedDate = :receivedDate, " +
+           "i.version = i.version + 1 WHERE i.id = :id")
+    int incrementStoreStock(@Param("id") Long id,
+                            @Param("quantity") Integer quantity,
+                            @Param("receivedDate") LocalDate receivedDate);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.warehouseStock = i.warehouseStock + :quantity, i.lastReceivedDate = :receivedDate, " +
+           "i.version = i.version + 1 WHERE i.id = :id")
+    int incrementWarehouseStock(@Param("id") Long id,
+                                @Param("quantity") Integer quantity,
+                                @Param("receivedDate") LocalDate receivedDate);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.storeStock = i.storeStock - :quantity, " +
+           "i.warehouseStock = i.warehouseStock + :quantity, i.version = i.version + 1 " +
+           "WHERE i.id = :id AND i.storeStock >= :quantity")
+    int moveStoreToWarehouse(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.warehouseStock = i.warehouseStock - :quantity, " +
+           "i.storeStock = i.storeStock + :quantity, i.version = i.version + 1 " +
+           "WHERE i.id = :id AND i.warehouseStock >= :quantity")
+    int moveWarehouseToStore(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedCount = COALESCE(i.reservedCount, 0) + :quantity, " +
+           "i.version = i.version + 1 " +
+           "WHERE i.id = :id AND (i.storeStock + i.warehouseStock - COALESCE(i.reservedCount, 0)) >= :quantity")
+    int incrementReservedCount(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedCount = i.reservedCount - :quantity, i.version = i.version + 1 " +
+           "WHERE i.id = :id AND i.reservedCount >= :quantity")
+    int decrementReservedCount(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE Inventory i SET i.storeStock = :storeStock, i.warehouseStock = :warehouseStock, " +
+           "i.version = i.version + 1 WHERE i.id = :id AND i.version = :version")
+    int setStockLevels(@Param("id") Long id,
+                       @Param("storeStock") Integer storeStock,
+                       @Param("warehouseStock") Integer warehouseStock,
+                       @Param("version") Long version);
+}
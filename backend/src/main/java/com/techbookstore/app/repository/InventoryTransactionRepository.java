@@ -13,6 +13,9 @@ import java.util.List;
 @Repository
 public interface InventoryTransactionRepository extends JpaRepository<InventoryTransaction, Long> {
 
+    /**
+     * Live transactions only; ArchiveAwareRepository.findTransactionsByInventoryId also covers archived ones.
+     */
     List<InventoryTransaction> findByInventoryIdOrderByExecutedAtDesc(Long inventoryId);
 
     List<InventoryTransaction> findByTypeOrderByExecutedAtDesc(TransactionType type);
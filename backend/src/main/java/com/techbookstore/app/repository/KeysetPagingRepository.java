@@ -0,0 +1,152 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.dto.KeysetSlice;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keyset (seek) pagination over (sortKey, id) for any entity with a Long "id".
+ * Each slice is one query: WHERE filter AND (key > :key OR (key = :key AND id > :id)) ORDER BY key, id
+ * with size + 1 rows fetched to detect a next slice, so deep slices cost the same as the first
+ * and no COUNT query runs. Sort keys must be non-null columns.
+ * A plain component rather than @Repository so cursor errors stay IllegalArgumentException (400).
+ */
+@Component
+public class KeysetPagingRepository {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "\n";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Fetch the slice after the given cursor (null or empty for the first slice).
+     *
+     * @throws IllegalArgumentException if the sort property is not allowed or the cursor is invalid
+     *         or was issued for a different sort
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> KeysetSlice<T> findSlice(Class<T> entityType, Specification<T> filter, Set<String> sortableProperties,
+                                        String sortProperty, Sort.Direction direction, String after, int size) {
+        if (!sortableProperties.contains(sortProperty)) {
+            throw new IllegalArgumentException("Cursor pagination supports sorting by " + sortableProperties);
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityType);
+        Root<T> root = query.from(entityType);
+        Path<Comparable> key = root.get(sortProperty);
+        Path<Long> id = root.get(ID);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            Predicate filterPredicate = filter.toPredicate(root, query, cb);
+            if (filterPredicate != null) {
+                predicates.add(filterPredicate);
+            }
+        }
+        if (after != null && !after.isEmpty()) {
+            Cursor cursor = Cursor.decode(after, sortProperty, direction, key.getJavaType());
+            boolean ascending = direction.isAscending();
+            Predicate beyondKey = ascending ? cb.greaterThan((Expression) key, (Comparable) cursor.key) : cb.lessThan((Expression) key, (Comparable) cursor.key);
+            Predicate beyondId = ascending ? cb.greaterThan(id, cursor.id) : cb.lessThan(id, cursor.id);
+            predicates.add(cb.or(beyondKey, cb.and(cb.equal(key, cursor.key), beyondId)));
+        }
+
+        query.select(root)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(direction.isAscending()
+                ? new Order[] {cb.asc(key), cb.asc(id)}
+                : new Order[] {cb.desc(key), cb.desc(id)});
+
+        List<T> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasNext ? Cursor.encode(content.get(content.size() - 1), sortProperty, direction) : null;
+        return new KeysetSlice<>(content, size, hasNext, nextCursor);
+    }
+
+    /**
+     * Opaque cursor: Base64URL of sort property, direction, key value and id of the last row.
+     */
+    private static final class Cursor {
+        private final Comparable<?> key;
+        private final Long id;
+
+        private Cursor(Comparable<?> key, Long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        static String encode(Object lastRow, String sortProperty, Sort.Direction direction) {
+            BeanWrapper row = PropertyAccessorFactory.forBeanPropertyAccess(lastRow);
+            Object key = row.getPropertyValue(sortProperty);
+            Object id = row.getPropertyValue(ID);
+            if (key == null || id == null) {
+                throw new IllegalStateException("Cannot build a cursor from a null " + sortProperty);
+            }
+            String keyText = key instanceof BigDecimal ? ((BigDecimal) key).toPlainString() : key.toString();
+            String raw = sortProperty + SEPARATOR + direction + SEPARATOR + keyText + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String encoded, String sortProperty, Sort.Direction direction, Class<?> keyType) {
+            String[] parts;
+            try {
+                parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (parts.length != 4 || !parts[0].equals(sortProperty) || !parts[1].equals(direction.name())) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            try {
+                return new Cursor(parseKey(parts[2], keyType), Long.valueOf(parts[3]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        private static Comparable<?> parseKey(String text, Class<?> keyType) {
+            if (keyType == String.class) {
+                return text;
+            } else if (keyType == Long.class) {
+                return Long.valueOf(text);
+            } else if (keyType == Integer.class) {
+                return Integer.valueOf(text);
+            } else if (keyType == BigDecimal.class) {
+                return new BigDecimal(text);
+            } else if (keyType == LocalDateTime.class) {
+                return LocalDateTime.parse(text);
+            } else if (keyType == LocalDate.class) {
+                return LocalDate.parse(text);
+            }
+            throw new IllegalArgumentException("Unsupported cursor key type " + keyType.getSimpleName());
+        }
+    }
+}
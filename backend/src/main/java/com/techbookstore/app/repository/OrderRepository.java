@@ -1,14 +1,22 @@
 package com.techbookstore.app.repository;
 
+import com.techbookstore.app.dto.MonthlyDemandDto;
+import com.techbookstore.app.dto.OrderSummaryDto;
+import com.techbookstore.app.entity.DailyBookSales;
 import com.techbookstore.app.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,10 +31,93 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByCustomerId(Long customerId);
     
+    /**
+     * Customer orders with items, books and publishers loaded in one query (for OrderDto).
+     * Live orders only; ArchiveAwareRepository.findOrdersByCustomerId also covers archived orders.
+     */
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.book", "orderItems.book.publisher"})
+    @Query("SELECT DISTINCT o FROM Order o WHERE o.customerId = :customerId")
+    List<Order> findWithItemsByCustomerId(@Param("customerId") Long customerId);
+    
+    /**
+     * Second phase of paged listings: loads one page of orders (by ID) with items, books and publishers.
+     * Callers restore the page order from the ID list.
+     */
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.book", "orderItems.book.publisher"})
+    @Query("SELECT DISTINCT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Loads orders together with their items in one query (bulk confirmation).
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Lock orders before confirming them, so a concurrent confirmation of the same order waits and
+     * then sees it confirmed. Rows are locked in id order, always before their inventory rows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findByIdInForUpdate(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT o FROM Order o WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate")
-    List<Order> findByOrderDateBetween(@Param("startDate") LocalDateTime startDate, 
+    List<Order> findByOrderDateBetween(@Param("startDate") LocalDateTime startDate,
                                       @Param("endDate") LocalDateTime endDate);
-    
+
+    /**
+     * Aggregates ordered quantity per book and calendar month in the database.
+     * Used by demand forecasting so the whole catalog is covered by one pass over order history.
+     */
+    @Query("SELECT new com.techbookstore.app.dto.MonthlyDemandDto(" +
+           "oi.book.id, YEAR(o.orderDate), MONTH(o.orderDate), SUM(oi.quantity), COUNT(oi)) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate " +
+           "GROUP BY oi.book.id, YEAR(o.orderDate), MONTH(o.orderDate)")
+    List<MonthlyDemandDto> findMonthlyDemandBetween(@Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Aggregates ordered quantity per calendar month for a single book.
+     */
+    @Query("SELECT new com.techbookstore.app.dto.MonthlyDemandDto(" +
+           "oi.book.id, YEAR(o.orderDate), MONTH(o.orderDate), SUM(oi.quantity), COUNT(oi)) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE oi.book.id = :bookId AND o.orderDate >= :startDate AND o.orderDate <= :endDate " +
+           "GROUP BY oi.book.id, YEAR(o.orderDate), MONTH(o.orderDate)")
+    List<MonthlyDemandDto> findMonthlyDemandByBookBetween(@Param("bookId") Long bookId,
+                                                          @Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Aggregates non-cancelled order lines into per-book daily sales fact rows.
+     * Used to rebuild the daily_book_sales table from orders/order_items.
+     */
+    @Query("SELECT new com.techbookstore.app.entity.DailyBookSales(" +
+           "YEAR(o.orderDate), MONTH(o.orderDate), DAY(o.orderDate), oi.book.id, " +
+           "c.customerType, o.paymentMethod, o.type, SUM(oi.quantity), SUM(oi.totalPrice), COUNT(DISTINCT o.id)) " +
+           "FROM OrderItem oi JOIN oi.order o LEFT JOIN Customer c ON c.id = o.customerId " +
+           "WHERE o.orderDate >= :startDate AND o.orderDate < :endDate AND o.status <> :excludedStatus " +
+           "GROUP BY YEAR(o.orderDate), MONTH(o.orderDate), DAY(o.orderDate), oi.book.id, " +
+           "c.customerType, o.paymentMethod, o.type")
+    List<DailyBookSales> aggregateDailyBookSales(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate,
+                                                 @Param("excludedStatus") Order.OrderStatus excludedStatus);
+
+    /**
+     * Aggregates non-cancelled orders into order-level daily sales fact rows (book ID 0).
+     */
+    @Query("SELECT new com.techbookstore.app.entity.DailyBookSales(" +
+           "YEAR(o.orderDate), MONTH(o.orderDate), DAY(o.orderDate), 0L, " +
+           "c.customerType, o.paymentMethod, o.type, SUM(oi.quantity), SUM(oi.totalPrice), COUNT(DISTINCT o.id)) " +
+           "FROM OrderItem oi JOIN oi.order o LEFT JOIN Customer c ON c.id = o.customerId " +
+           "WHERE o.orderDate >= :startDate AND o.orderDate < :endDate AND o.status <> :excludedStatus " +
+           "GROUP BY YEAR(o.orderDate), MONTH(o.orderDate), DAY(o.orderDate), " +
+           "c.customerType, o.paymentMethod, o.type")
+    List<DailyBookSales> aggregateDailyOrderTotals(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   @Param("excludedStatus") Order.OrderStatus excludedStatus);
+
     @Query("SELECT o FROM Order o WHERE " +
            "(:status IS NULL OR o.status = :status) AND " +
            "(:type IS NULL OR o.type = :type) AND " +
@@ -40,10 +131,68 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
                                      @Param("endDate") LocalDateTime endDate,
                                      Pageable pageable);
     
+    /**
+     * First phase of the paged filter listing: only the order IDs of the requested page.
+     * Paging a fetch join would be applied in memory, so details are loaded by findWithItemsByIdIn.
+     */
+    @Query(value = "SELECT o.id FROM Order o WHERE " +
+           "(:status IS NULL OR o.status = :status) AND " +
+           "(:type IS NULL OR o.type = :type) AND " +
+           "(:customerId IS NULL OR o.customerId = :customerId) AND " +
+           "(:startDate IS NULL OR o.orderDate >= :startDate) AND " +
+           "(:endDate IS NULL OR o.orderDate <= :endDate)",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE " +
+           "(:status IS NULL OR o.status = :status) AND " +
+           "(:type IS NULL OR o.type = :type) AND " +
+           "(:customerId IS NULL OR o.customerId = :customerId) AND " +
+           "(:startDate IS NULL OR o.orderDate >= :startDate) AND " +
+           "(:endDate IS NULL OR o.orderDate <= :endDate)")
+    Page<Long> findOrderIdsWithFilters(@Param("status") Order.OrderStatus status,
+                                       @Param("type") Order.OrderType type,
+                                       @Param("customerId") Long customerId,
+                                       @Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate,
+                                       Pageable pageable);
+    
+    /**
+     * Order list rows without items: one row per order with item and unit counts aggregated in the database.
+     */
+    @Query(value = "SELECT new com.techbookstore.app.dto.OrderSummaryDto(" +
+           "o.id, o.orderNumber, o.customerId, o.status, o.type, o.paymentMethod, o.totalAmount, o.orderDate, " +
+           "COUNT(oi), COALESCE(SUM(oi.quantity), 0)) " +
+           "FROM Order o LEFT JOIN o.orderItems oi WHERE " +
+           "(:status IS NULL OR o.status = :status) AND " +
+           "(:type IS NULL OR o.type = :type) AND " +
+           "(:customerId IS NULL OR o.customerId = :customerId) AND " +
+           "(:startDate IS NULL OR o.orderDate >= :startDate) AND " +
+           "(:endDate IS NULL OR o.orderDate <= :endDate) " +
+           "GROUP BY o.id, o.orderNumber, o.customerId, o.status, o.type, o.paymentMethod, o.totalAmount, o.orderDate",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE " +
+           "(:status IS NULL OR o.status = :status) AND " +
+           "(:type IS NULL OR o.type = :type) AND " +
+           "(:customerId IS NULL OR o.customerId = :customerId) AND " +
+           "(:startDate IS NULL OR o.orderDate >= :startDate) AND " +
+           "(:endDate IS NULL OR o.orderDate <= :endDate)")
+    Page<OrderSummaryDto> findOrderSummariesWithFilters(@Param("status") Order.OrderStatus status,
+                                                       @Param("type") Order.OrderType type,
+                                                       @Param("customerId") Long customerId,
+                                                       @Param("startDate") LocalDateTime startDate,
+                                                       @Param("endDate") LocalDateTime endDate,
+                                                       Pageable pageable);
+    
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     Long countByStatus(@Param("status") Order.OrderStatus status);
     
     @Query("SELECT o FROM Order o WHERE o.orderNumber LIKE %:keyword% OR " +
            "CAST(o.customerId AS string) LIKE %:keyword%")
     Page<Order> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    
+    /**
+     * First phase of the paged keyword search: only the order IDs of the requested page.
+     */
+    @Query(value = "SELECT o.id FROM Order o WHERE o.orderNumber LIKE %:keyword% OR " +
+           "CAST(o.customerId AS string) LIKE %:keyword%",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.orderNumber LIKE %:keyword% OR " +
+           "CAST(o.customerId AS string) LIKE %:keyword%")
+    Page<Long> findOrderIdsByKeyword(@Param("keyword") String keyword, Pageable pageable);
 }
\ No newline at end of file
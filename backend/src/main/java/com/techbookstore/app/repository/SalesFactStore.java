@@ -0,0 +1,72 @@
+package com.techbookstore.app.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Incremental writes to daily_book_sales with plain JDBC.
+ *
+ * A delta is added with a single upsert statement, so two orders creating the same cell at the
+ * same time never both insert it: on PostgreSQL INSERT ... ON CONFLICT DO UPDATE on
+ * uk_daily_book_sales_cell, elsewhere (H2) MERGE ... USING.
+ */
+@Repository
+public class SalesFactStore {
+
+    private static final String POSTGRES_UPSERT_SQL =
+        "INSERT INTO daily_book_sales (sales_date, book_id, customer_type, payment_method, order_type, " +
+        "quantity, revenue, order_count, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (sales_date, book_id, customer_type, payment_method, order_type) DO UPDATE SET " +
+        "quantity = daily_book_sales.quantity + EXCLUDED.quantity, " +
+        "revenue = daily_book_sales.revenue + EXCLUDED.revenue, " +
+        "order_count = daily_book_sales.order_count + EXCLUDED.order_count, " +
+        "updated_at = EXCLUDED.updated_at";
+
+    private static final String MERGE_SQL =
+        "MERGE INTO daily_book_sales t USING (SELECT CAST(? AS DATE) AS sales_date, CAST(? AS BIGINT) AS book_id, " +
+        "CAST(? AS VARCHAR(20)) AS customer_type, CAST(? AS VARCHAR(20)) AS payment_method, " +
+        "CAST(? AS VARCHAR(20)) AS order_type, CAST(? AS BIGINT) AS quantity, CAST(? AS DECIMAL(14,2)) AS revenue, " +
+        "CAST(? AS BIGINT) AS order_count, CAST(? AS TIMESTAMP) AS updated_at) s " +
+        "ON (t.sales_date = s.sales_date AND t.book_id = s.book_id AND t.customer_type = s.customer_type " +
+        "AND t.payment_method = s.payment_method AND t.order_type = s.order_type) " +
+        "WHEN MATCHED THEN UPDATE SET t.quantity = t.quantity + s.quantity, t.revenue = t.revenue + s.revenue, " +
+        "t.order_count = t.order_count + s.order_count, t.updated_at = s.updated_at " +
+        "WHEN NOT MATCHED THEN INSERT (sales_date, book_id, customer_type, payment_method, order_type, " +
+        "quantity, revenue, order_count, updated_at) VALUES (s.sales_date, s.book_id, s.customer_type, " +
+        "s.payment_method, s.order_type, s.quantity, s.revenue, s.order_count, s.updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public SalesFactStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add deltas to a fact cell, creating it when it does not exist yet
+     */
+    public void increment(LocalDate salesDate, Long bookId, String customerType, String paymentMethod,
+                          String orderType, long quantity, BigDecimal revenue, long orderCount) {
+        jdbcTemplate.update(isPostgres() ? POSTGRES_UPSERT_SQL : MERGE_SQL,
+                            Date.valueOf(salesDate), bookId, customerType, paymentMethod, orderType,
+                            quantity, revenue, orderCount, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private boolean isPostgres() {
+        Boolean value = postgres;
+        if (value == null) {
+            value = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgresql"));
+            postgres = value;
+        }
+        return Boolean.TRUE.equals(value);
+    }
+}
@@ -0,0 +1,56 @@
+package com.techbookstore.app.repository;
+
+import com.techbookstore.app.entity.SchedulerLockEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scheduler lock rows. Every change is a conditional update committed on its own
+ * (REQUIRES_NEW), so taking, renewing and releasing a lock never joins the job's transactions.
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLockEntry, String> {
+
+    /**
+     * Take over a lock whose lease has run out, with the next fencing token; 0 when it is held.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SchedulerLockEntry l SET l.owner = :owner, l.fencingToken = l.fencingToken + 1, " +
+           "l.lockedAt = :now, l.lockUntil = :lockUntil WHERE l.name = :name AND l.lockUntil <= :now")
+    int takeOver(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+                 @Param("lockUntil") LocalDateTime lockUntil);
+
+    /**
+     * First acquisition of a lock; fails with a duplicate key when another node created it first.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_locks (name, owner, fencing_token, locked_at, lock_until) " +
+                   "VALUES (:name, :owner, 1, :now, :lockUntil)", nativeQuery = true)
+    int create(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+               @Param("lockUntil") LocalDateTime lockUntil);
+
+    /**
+     * Extend the lease of the given acquisition; 0 when it expired or was taken over.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SchedulerLockEntry l SET l.lockUntil = :lockUntil " +
+           "WHERE l.name = :name AND l.fencingToken = :fencingToken AND l.lockUntil > :now")
+    int renew(@Param("name") String name, @Param("fencingToken") long fencingToken, @Param("now") LocalDateTime now,
+              @Param("lockUntil") LocalDateTime lockUntil);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SchedulerLockEntry l SET l.lockUntil = :now " +
+           "WHERE l.name = :name AND l.fencingToken = :fencingToken AND l.lockUntil > :now")
+    int release(@Param("name") String name, @Param("fencingToken") long fencingToken, @Param("now") LocalDateTime now);
+}
@@ -4,14 +4,13 @@ import com.techbookstore.app.dto.InventoryDto;
 import com.techbookstore.app.dto.InventoryReservationDto;
 import com.techbookstore.app.dto.InventoryTransactionDto;
 import com.techbookstore.app.entity.*;
-import com.techbookstore.app.exception.InventoryNotFoundException;
-import com.techbookstore.app.exception.InsufficientInventoryException;
-import com.techbookstore.app.repository.InventoryRepository;
+import com.techbookstore.app.repository.ArchiveAwareRepository;
 import com.techbookstore.app.repository.InventoryReservationRepository;
 import com.techbookstore.app.repository.InventoryTransactionRepository;
 import com.techbookstore.app.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -26,9 +25,6 @@ import java.util.stream.Collectors;
 @Transactional
 public class AdvancedInventoryService {
 
-    @Autowired
-    private InventoryRepository inventoryRepository;
-
     @Autowired
     private InventoryTransactionRepository transactionRepository;
 
@@ -38,6 +34,12 @@ public class AdvancedInventoryService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private ArchiveAwareRepository archiveAwareRepository;
+
     /**
      * Process barcode scan operation
      */
@@ -50,92 +52,61 @@ public class AdvancedInventoryService {
     /**
      * Transfer stock between store and warehouse
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public TransferResult transferStock(StockTransferRequest request) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findById(request.getInventoryId());
-        if (!inventoryOpt.isPresent()) {
-            throw new InventoryNotFoundException(request.getInventoryId());
-        }
-
-        Inventory inventory = inventoryOpt.get();
-        User executedBy = getCurrentUser();
-
-        // Validate transfer
-        if ("STORE_TO_WAREHOUSE".equals(request.getTransferType())) {
-            if (inventory.getStoreStock() < request.getQuantity()) {
-                throw new InsufficientInventoryException("Insufficient store stock for transfer");
-            }
-        } else if ("WAREHOUSE_TO_STORE".equals(request.getTransferType())) {
-            if (inventory.getWarehouseStock() < request.getQuantity()) {
-                throw new InsufficientInventoryException("Insufficient warehouse stock for transfer");
-            }
-        }
-
-        // Record transaction before changes
-        int beforeTotal = inventory.getTotalStock();
-        
-        // Execute transfer
-        if ("STORE_TO_WAREHOUSE".equals(request.getTransferType())) {
-            inventory.setStoreStock(inventory.getStoreStock() - request.getQuantity());
-            inventory.setWarehouseStock(inventory.getWarehouseStock() + request.getQuantity());
-        } else {
-            inventory.setWarehouseStock(inventory.getWarehouseStock() - request.getQuantity());
-            inventory.setStoreStock(inventory.getStoreStock() + request.getQuantity());
-        }
-
-        Inventory savedInventory = inventoryRepository.save(inventory);
-
-        // Create transaction record
-        InventoryTransaction transaction = new InventoryTransaction(
-            inventory, TransactionType.TRANSFER, request.getQuantity(),
-            beforeTotal, inventory.getTotalStock(), executedBy
-        );
-        transaction.setReason(request.getReason());
-        transaction.setStatus(TransactionStatus.APPROVED); // Auto-approve for now
-        transactionRepository.save(transaction);
-
-        return new TransferResult(true, "Transfer completed successfully", new InventoryDto(savedInventory));
+        return stockMutationService.withRetry(() -> {
+            User executedBy = getCurrentUser();
+            boolean storeToWarehouse = "STORE_TO_WAREHOUSE".equals(request.getTransferType());
+
+            // Execute transfer as a single conditional update
+            Inventory inventory = stockMutationService.transfer(
+                request.getInventoryId(), storeToWarehouse, request.getQuantity());
+
+            // Create transaction record (a transfer does not change the total)
+            int total = inventory.getTotalStock();
+            InventoryTransaction transaction = new InventoryTransaction(
+                inventory, TransactionType.TRANSFER, request.getQuantity(),
+                total, total, executedBy
+            );
+            transaction.setReason(request.getReason());
+            transaction.setStatus(TransactionStatus.APPROVED); // Auto-approve for now
+            transactionRepository.save(transaction);
+
+            return new TransferResult(true, "Transfer completed successfully", new InventoryDto(inventory));
+        });
     }
 
     /**
      * Reserve stock for orders
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ReservationResult reserveStock(StockReservationRequest request) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findById(request.getInventoryId());
-        if (!inventoryOpt.isPresent()) {
-            throw new InventoryNotFoundException(request.getInventoryId());
-        }
-
-        Inventory inventory = inventoryOpt.get();
-        
-        if (inventory.getAvailableStock() < request.getQuantity()) {
-            throw new InsufficientInventoryException("Insufficient available stock for reservation");
-        }
-
-        // Create reservation
-        InventoryReservation reservation = new InventoryReservation(
-            inventory, request.getQuantity(), request.getReservationType()
-        );
-        reservation.setOrderId(request.getOrderId());
-        reservation.setCustomerId(request.getCustomerId());
-        reservation.setReservedUntil(request.getReservedUntil());
-
-        InventoryReservation savedReservation = reservationRepository.save(reservation);
-
-        // Update inventory reserved count
-        inventory.setReservedCount(inventory.getReservedCount() + request.getQuantity());
-        inventoryRepository.save(inventory);
-
-        // Create transaction record
-        User executedBy = getCurrentUser();
-        InventoryTransaction transaction = new InventoryTransaction(
-            inventory, TransactionType.RESERVE, request.getQuantity(),
-            inventory.getAvailableStock() + request.getQuantity(), inventory.getAvailableStock(), executedBy
-        );
-        transaction.setReason("Stock reservation for order: " + request.getOrderId());
-        transaction.setStatus(TransactionStatus.APPROVED);
-        transactionRepository.save(transaction);
-
-        return new ReservationResult(true, "Reservation created successfully", new InventoryReservationDto(savedReservation));
+        return stockMutationService.withRetry(() -> {
+            // Update inventory reserved count only if enough stock is available
+            Inventory inventory = stockMutationService.reserve(request.getInventoryId(), request.getQuantity());
+
+            // Create reservation
+            InventoryReservation reservation = new InventoryReservation(
+                inventory, request.getQuantity(), request.getReservationType()
+            );
+            reservation.setOrderId(request.getOrderId());
+            reservation.setCustomerId(request.getCustomerId());
+            reservation.setReservedUntil(request.getReservedUntil());
+
+            InventoryReservation savedReservation = reservationRepository.save(reservation);
+
+            // Create transaction record
+            User executedBy = getCurrentUser();
+            InventoryTransaction transaction = new InventoryTransaction(
+                inventory, TransactionType.RESERVE, request.getQuantity(),
+                inventory.getAvailableStock() + request.getQuantity(), inventory.getAvailableStock(), executedBy
+            );
+            transaction.setReason("Stock reservation for order: " + request.getOrderId());
+            transaction.setStatus(TransactionStatus.APPROVED);
+            transactionRepository.save(transaction);
+
+            return new ReservationResult(true, "Reservation created successfully", new InventoryReservationDto(savedReservation));
+        });
     }
 
     /**
@@ -157,16 +128,14 @@ public class AdvancedInventoryService {
         reservationRepository.save(reservation);
 
         // Update inventory reserved count
-        Inventory inventory = reservation.getInventory();
-        inventory.setReservedCount(inventory.getReservedCount() - reservation.getReservedQuantity());
-        inventoryRepository.save(inventory);
+        stockMutationService.release(reservation.getInventory().getId(), reservation.getReservedQuantity());
     }
 
     /**
-     * Get transaction history for inventory item
+     * Get transaction history for inventory item, including archived transactions
      */
     public List<InventoryTransactionDto> getTransactionHistory(Long inventoryId) {
-        List<InventoryTransaction> transactions = transactionRepository.findByInventoryIdOrderByExecutedAtDesc(inventoryId);
+        List<InventoryTransaction> transactions = archiveAwareRepository.findTransactionsByInventoryId(inventoryId);
         return transactions.stream()
                 .map(InventoryTransactionDto::new)
                 .collect(Collectors.toList());
@@ -0,0 +1,108 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.AggregationCacheProperties;
+import com.techbookstore.app.repository.AggregationStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the aggregation_cache table bounded.
+ * 集計キャッシュテーブルの期限切れ削除・容量制限
+ *
+ * Each sweep writes pending access times, deletes expired rows in bounded chunks, then evicts
+ * the least recently used rows of every aggregation type over its row or byte limit
+ * ({@link AggregationCacheProperties}). Not transactional on purpose: every chunk commits on
+ * its own so no lock is held for the whole sweep.
+ * Purges are counted as aggregation_cache.purged (tag reason=expired|evicted) and sweep
+ * durations recorded as aggregation_cache.sweep.
+ */
+@Service
+public class AggregationCacheSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregationCacheSweeper.class);
+
+    private final AggregationStore aggregationStore;
+    private final AggregationCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledJobLock jobLock;
+
+    public AggregationCacheSweeper(AggregationStore aggregationStore, AggregationCacheProperties properties,
+                                   ObjectProvider<MeterRegistry> meterRegistry, ScheduledJobLock jobLock) {
+        this.aggregationStore = aggregationStore;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        this.jobLock = jobLock;
+    }
+
+    @Scheduled(fixedDelayString = "${app.aggregation-cache.sweep-interval:PT10M}",
+               initialDelayString = "${app.aggregation-cache.sweep-interval:PT10M}")
+    public void scheduledSweep() {
+        // One node sweeps the shared table at a time
+        jobLock.runLocked("aggregation_cache_sweep", lease -> {
+            try {
+                sweep();
+            } catch (RuntimeException e) {
+                logger.error("Aggregation cache sweep failed", e);
+            }
+        });
+    }
+
+    public SweepResult sweep() {
+        long started = System.nanoTime();
+        int batchSize = properties.getSweepBatchSize();
+
+        aggregationStore.flushAccessTimes();
+        int expired = aggregationStore.deleteExpired(LocalDateTime.now(), batchSize);
+
+        int evicted = 0;
+        for (AggregationStore.TypeUsage usage : aggregationStore.usageByType()) {
+            AggregationCacheProperties.Limit limit = properties.limitFor(usage.getAggregationType());
+            long excessRows = limit.getMaxRows() > 0 ? usage.getRows() - limit.getMaxRows() : 0;
+            long excessBytes = limit.getMaxBytes() > 0 ? usage.getBytes() - limit.getMaxBytes() : 0;
+            if (excessRows > 0 || excessBytes > 0) {
+                evicted += aggregationStore.evictLeastRecentlyUsed(usage.getAggregationType(),
+                                                                   excessRows, excessBytes, batchSize);
+            }
+        }
+
+        long durationNanos = System.nanoTime() - started;
+        record(expired, evicted, durationNanos);
+        SweepResult result = new SweepResult(expired, evicted, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        logger.info("Aggregation cache sweep: {} expired and {} least recently used rows deleted in {} ms",
+                    expired, evicted, result.getDurationMillis());
+        return result;
+    }
+
+    private void record(int expired, int evicted, long durationNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        meterRegistry.counter("aggregation_cache.purged", "reason", "expired").increment(expired);
+        meterRegistry.counter("aggregation_cache.purged", "reason", "evicted").increment(evicted);
+        Timer.builder("aggregation_cache.sweep").register(meterRegistry).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static class SweepResult {
+        private final int expired;
+        private final int evicted;
+        private final long durationMillis;
+
+        SweepResult(int expired, int evicted, long durationMillis) {
+            this.expired = expired;
+            this.evicted = evicted;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getExpired() { return expired; }
+        public int getEvicted() { return evicted; }
+        public long getDurationMillis() { return durationMillis; }
+    }
+}
@@ -0,0 +1,196 @@
+package com.techbookstore.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techbookstore.app.dto.IntegratedAnalysisRequest;
+import com.techbookstore.app.dto.IntegratedAnalysisResult;
+import com.techbookstore.app.entity.AnalysisJob;
+import com.techbookstore.app.exception.JobQueueFullException;
+import com.techbookstore.app.repository.AnalysisJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs long analyses as jobs on the batch executor so no request thread waits for them.
+ * 分析ジョブ（非同期実行・進捗・キャンセル）
+ *
+ * Submitting stores the job (analysis_jobs) and queues it; a full queue rejects the job
+ * ({@link JobQueueFullException}, 429). Progress and the partial result are written after
+ * every analysis phase. Cancelling marks the job CANCELLED: a queued job is then skipped and a
+ * running one stops at its next phase, on whichever node runs it. Jobs and their results are
+ * kept for app.jobs.result-ttl after they finish and deleted by {@link #deleteExpired()}.
+ */
+@Service
+public class AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobService.class);
+
+    static final String BATCH_OPTIMIZATION = "batch_optimization";
+
+    private final IntegratedInventoryAnalysisService analysisService;
+    private final AnalysisJobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final Duration resultTtl;
+
+    public AnalysisJobService(IntegratedInventoryAnalysisService analysisService, AnalysisJobRepository jobRepository,
+                              ObjectMapper objectMapper, @Qualifier("batchProcessingExecutor") Executor executor,
+                              @Value("${app.jobs.result-ttl:PT24H}") Duration resultTtl) {
+        this.analysisService = analysisService;
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.resultTtl = resultTtl;
+    }
+
+    /**
+     * Queue an integrated analysis with optimization.
+     *
+     * @throws JobQueueFullException when the batch executor can not take another job
+     */
+    public AnalysisJob submitBatchOptimization(IntegratedAnalysisRequest request) {
+        request.setIncludeOptimization(true);
+        request.setAsyncExecution(true);
+
+        AnalysisJob job = jobRepository.save(new AnalysisJob(UUID.randomUUID().toString(), BATCH_OPTIMIZATION,
+                                                             toJson(request), expiry()));
+        try {
+            executor.execute(() -> run(job.getId(), request));
+        } catch (RejectedExecutionException e) {
+            jobRepository.deleteById(job.getId());
+            throw new JobQueueFullException("Too many analysis jobs queued, retry later", e);
+        }
+        logger.info("Queued {} job {}", BATCH_OPTIMIZATION, job.getId());
+        return job;
+    }
+
+    /**
+     * The job unless it is unknown or expired.
+     */
+    public Optional<AnalysisJob> find(String id) {
+        return jobRepository.findById(id).filter(job -> job.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * Cancel a queued or running job; finished jobs are returned unchanged.
+     */
+    public Optional<AnalysisJob> cancel(String id) {
+        if (jobRepository.cancel(id, LocalDateTime.now(), expiry()) > 0) {
+            logger.info("Cancelled job {}", id);
+        }
+        return find(id);
+    }
+
+    /**
+     * Status, progress and (partial) result of a job as returned by the jobs API.
+     */
+    public Map<String, Object> describe(AnalysisJob job) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("jobId", job.getId());
+        description.put("type", job.getJobType());
+        description.put("status", job.getStatus());
+        description.put("progress", job.getProgress());
+        description.put("phase", job.getCurrentPhase());
+        description.put("createdAt", job.getCreatedAt());
+        description.put("startedAt", job.getStartedAt());
+        description.put("completedAt", job.getCompletedAt());
+        description.put("expiresAt", job.getExpiresAt());
+        if (job.getResult() != null) {
+            try {
+                description.put("result", objectMapper.readTree(job.getResult()));
+            } catch (JsonProcessingException e) {
+                logger.warn("Unreadable result of job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+        if (job.getErrorMessage() != null) {
+            description.put("error", job.getErrorMessage());
+        }
+        return description;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.sweep-interval:PT10M}",
+               initialDelayString = "${app.jobs.sweep-interval:PT10M}")
+    public void deleteExpired() {
+        try {
+            int deleted = jobRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                logger.info("Deleted {} expired analysis jobs", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Analysis job cleanup failed", e);
+        }
+    }
+
+    void run(String id, IntegratedAnalysisRequest request) {
+        if (jobRepository.markRunning(id, LocalDateTime.now()) == 0) {
+            logger.info("Skipping job {}: cancelled before it started", id);
+            return;
+        }
+        try {
+            IntegratedAnalysisResult result = analysisService.executeIntegratedAnalysis(request,
+                (phase, progress, partialResult) -> {
+                    if (jobRepository.updateProgress(id, progress, phase, toJson(summary(partialResult))) == 0) {
+                        throw new CancellationException("Job " + id + " was cancelled");
+                    }
+                });
+            jobRepository.complete(id, toJson(summary(result)), LocalDateTime.now(), expiry());
+            logger.info("Job {} completed in {}ms", id, result.getExecutionTimeMs());
+        } catch (CancellationException e) {
+            logger.info("Job {} stopped after cancellation", id);
+        } catch (RuntimeException e) {
+            logger.error("Job {} failed", id, e);
+            jobRepository.fail(id, e.getMessage(), LocalDateTime.now(), expiry());
+        }
+    }
+
+    /**
+     * Batch optimization view of a (partial) analysis result
+     */
+    private static Map<String, Object> summary(IntegratedAnalysisResult result) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("analysisId", result.getAnalysisId());
+        summary.put("status", result.getStatus());
+        summary.put("executionTime", result.getExecutionTimeMs());
+        if (result.getBaseReport() != null) {
+            summary.put("totalProducts", result.getBaseReport().getTotalProducts());
+            summary.put("lowStockCount", result.getBaseReport().getLowStockCount());
+            summary.put("outOfStockCount", result.getBaseReport().getOutOfStockCount());
+            summary.put("totalInventoryValue", result.getBaseReport().getTotalInventoryValue());
+        }
+        if (result.getOptimization() != null) {
+            summary.put("recommendations", result.getOptimization().getRecommendations());
+            summary.put("potentialSavings", result.getOptimization().getPotentialCostSavings());
+            summary.put("efficiencyImprovement", result.getOptimization().getOptimizedEfficiency());
+        }
+        if (result.getPerformanceMetrics() != null) {
+            summary.put("performanceMetrics", result.getPerformanceMetrics());
+        }
+        return summary;
+    }
+
+    private LocalDateTime expiry() {
+        return LocalDateTime.now().plus(resultTtl);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize job data", e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.AnalysisPhaseProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fan-out/fan-in of integrated analysis phases on the analysis phase executor.
+ * 分析フェーズの並列実行（タイムアウト・キャンセル伝播）
+ *
+ * Each phase of a {@link Fork} runs in its own read-only transaction and must finish within its
+ * time limit ({@link AnalysisPhaseProperties}). {@link Fork#join()} waits for all of them; as soon
+ * as one fails or times out, or the joining thread is interrupted, the phases still running are
+ * cancelled (interrupted) before the failure is rethrown. A phase run on the joining thread
+ * because the executor is saturated can not be timed out. Durations are kept per phase and
+ * recorded as integrated_analysis.phase{phase}.
+ */
+@Component
+public class AnalysisPhaseRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisPhaseRunner.class);
+
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AnalysisPhaseProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public AnalysisPhaseRunner(@Qualifier("analysisPhaseExecutor") AsyncTaskExecutor executor,
+                               PlatformTransactionManager transactionManager, AnalysisPhaseProperties properties,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    public Fork fork() {
+        return new Fork();
+    }
+
+    /**
+     * Phases started together and joined together
+     */
+    public class Fork {
+
+        private final List<Phase<?>> phases = new ArrayList<>();
+        /** Phases in the order they finished */
+        private final BlockingQueue<Phase<?>> finished = new LinkedBlockingQueue<>();
+
+        public <T> Phase<T> submit(String name, Supplier<T> work) {
+            Phase<T> phase = new Phase<>(name, System.nanoTime() + properties.timeoutFor(name).toNanos());
+            phases.add(phase);
+            phase.future = executor.submit(() -> {
+                try {
+                    return phase.run(work);
+                } finally {
+                    finished.add(phase);
+                }
+            });
+            return phase;
+        }
+
+        /**
+         * Wait for every phase, failing as soon as one phase fails or passes its time limit.
+         *
+         * @throws IntegratedInventoryAnalysisService.IntegratedAnalysisException when a phase failed or
+         *         timed out
+         * @throws CancellationException when the joining thread was interrupted
+         */
+        public void join() {
+            Set<Phase<?>> running = new HashSet<>(phases);
+            while (!running.isEmpty()) {
+                Phase<?> next = running.stream().min(Comparator.comparingLong(phase -> phase.deadlineNanos)).get();
+                Phase<?> done;
+                try {
+                    done = finished.poll(Math.max(0, next.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    cancelAll();
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Analysis interrupted while waiting for phase " + next.name);
+                }
+                if (done == null) {
+                    cancelAll();
+                    throw new IntegratedInventoryAnalysisService.IntegratedAnalysisException(
+                        "Phase " + next.name + " did not finish within " + properties.timeoutFor(next.name));
+                }
+                running.remove(done);
+                if (done.failure != null) {
+                    cancelAll();
+                    throw new IntegratedInventoryAnalysisService.IntegratedAnalysisException(
+                        "Phase " + done.name + " failed", done.failure);
+                }
+            }
+        }
+
+        private void cancelAll() {
+            for (Phase<?> phase : phases) {
+                if (phase.future.cancel(true)) {
+                    logger.info("Cancelled analysis phase {}", phase.name);
+                }
+            }
+        }
+    }
+
+    /**
+     * One phase; its value and duration are available once its fork is joined
+     */
+    public class Phase<T> {
+
+        private final String name;
+        private final long deadlineNanos;
+        private volatile Future<?> future;
+        private volatile T value;
+        private volatile Throwable failure;
+        private volatile long durationNanos;
+
+        Phase(String name, long deadlineNanos) {
+            this.name = name;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private Object run(Supplier<T> work) {
+            long started = System.nanoTime();
+            try {
+                value = readOnlyTransaction.execute(status -> work.get());
+                return value;
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                durationNanos = System.nanoTime() - started;
+                record();
+            }
+        }
+
+        private void record() {
+            if (meterRegistry != null) {
+                Timer.builder("integrated_analysis.phase")
+                    .description("Duration of an integrated analysis phase run in parallel")
+                    .tag("phase", name)
+                    .register(meterRegistry)
+                    .record(durationNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        public T get() {
+            return value;
+        }
+
+        public long getDurationMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        }
+    }
+}
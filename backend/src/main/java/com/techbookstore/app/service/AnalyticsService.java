@@ -31,7 +31,7 @@ public class AnalyticsService {
     private final InventoryRepository inventoryRepository;
     private final BookRepository bookRepository;
     private final InventoryTransactionRepository inventoryTransactionRepository;
-    private final AggregationCacheRepository cacheRepository;
+    private final DailyBookSalesRepository dailyBookSalesRepository;
     private final ABCXYZAnalysisService abcxyzAnalysisService;
     private final TechObsolescenceAnalysisService obsolescenceAnalysisService;
     private final SeasonalAnalysisService seasonalAnalysisService;
@@ -39,7 +39,7 @@ public class AnalyticsService {
     public AnalyticsService(OrderRepository orderRepository, CustomerRepository customerRepository,
                            InventoryRepository inventoryRepository, BookRepository bookRepository,
                            InventoryTransactionRepository inventoryTransactionRepository,
-                           AggregationCacheRepository cacheRepository,
+                           DailyBookSalesRepository dailyBookSalesRepository,
                            ABCXYZAnalysisService abcxyzAnalysisService,
                            TechObsolescenceAnalysisService obsolescenceAnalysisService,
                            SeasonalAnalysisService seasonalAnalysisService) {
@@ -48,7 +48,7 @@ public class AnalyticsService {
         this.inventoryRepository = inventoryRepository;
         this.bookRepository = bookRepository;
         this.inventoryTransactionRepository = inventoryTransactionRepository;
-        this.cacheRepository = cacheRepository;
+        this.dailyBookSalesRepository = dailyBookSalesRepository;
         this.abcxyzAnalysisService = abcxyzAnalysisService;
         this.obsolescenceAnalysisService = obsolescenceAnalysisService;
         this.seasonalAnalysisService = seasonalAnalysisService;
@@ -233,13 +233,11 @@ public class AnalyticsService {
     // Private helper methods for calculations
     
     private BigDecimal calculateTotalRevenue(LocalDate startDate, LocalDate endDate) {
-        // Mock implementation - replace with actual repository query
-        return new BigDecimal("45000.00");
+        return dailyBookSalesRepository.sumRevenue(startDate, endDate);
     }
     
     private Integer calculateTotalOrders(LocalDate startDate, LocalDate endDate) {
-        // Mock implementation - replace with actual repository query  
-        return 125;
+        return Math.toIntExact(dailyBookSalesRepository.sumOrderCount(startDate, endDate));
     }
     
     private BigDecimal calculateAverageOrderValue(LocalDate startDate, LocalDate endDate) {
@@ -251,8 +249,15 @@ public class AnalyticsService {
     }
     
     private BigDecimal calculateGrowthRate(LocalDate startDate, LocalDate endDate) {
-        // Mock calculation - replace with actual logic
-        return new BigDecimal("12.5");
+        // Compare against the preceding period of the same length
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        BigDecimal currentRevenue = calculateTotalRevenue(startDate, endDate);
+        BigDecimal previousRevenue = calculateTotalRevenue(startDate.minusDays(days), startDate.minusDays(1));
+        
+        if (previousRevenue.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
+        return currentRevenue.subtract(previousRevenue)
+            .multiply(new BigDecimal("100"))
+            .divide(previousRevenue, 1, RoundingMode.HALF_UP);
     }
     
     private List<SalesAnalysisDto.TechCategorySales> generateTechCategorySales(LocalDate startDate, 
@@ -0,0 +1,418 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.BatchProperties;
+import com.techbookstore.app.entity.BatchCheckpoint;
+import com.techbookstore.app.entity.BatchRun;
+import com.techbookstore.app.entity.BatchStepRun;
+import com.techbookstore.app.repository.BatchCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Step/chunk execution of the scheduled batches with persisted checkpoints.
+ * バッチ実行エンジン（チャンク単位コミット・チェックポイント再開・並列ステップ）
+ *
+ * A {@link Job} is a sequence of stages; the steps of one stage are independent and run in
+ * parallel on the batch job executor (on the calling thread when it is full), and a stage starts
+ * once every step of the previous one has completed. A step reads its items in a read-only
+ * transaction, then writes them in chunks ({@link BatchProperties}), each chunk in its own
+ * transaction together with its checkpoint (batch_checkpoints). When a step fails, the rest of
+ * its stage still finishes, later stages are skipped, and running the job again for the same
+ * run date skips completed steps and resumes failed ones behind their last committed chunk,
+ * unless the job is restarted, which first drops the run date's checkpoints.
+ * Resuming skips items by position, so a reader must return the same items in the same order
+ * for a given run date, unless the step resumes by key ({@link Step#resumeByKey}): it then skips
+ * the items up to the key of the last committed one, so items may come and go between attempts.
+ * A job run under a scheduler lock is fenced with the lock's fencing token: each chunk first
+ * records its checkpoint, conditional on no newer token having written the step, and only then
+ * writes its items, so a node that lost its lock stops before writing anything more. The run
+ * also checks that it still holds its lock before every step and chunk, and fails once it does
+ * not, so work outside the checkpointed tables (emails, snapshots, DDL) is not redone by it.
+ * A chunk failing on a transient database error (deadlock, lock timeout) is retried up to
+ * app.batch.chunk-retry-limit times. Runs and steps are recorded by {@link BatchRunRecorder}.
+ */
+@Component
+public class BatchJobEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchJobEngine.class);
+
+    private final BatchCheckpointRepository checkpointRepository;
+    private final BatchProperties properties;
+    private final Executor executor;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final BatchRunRecorder recorder;
+
+    public BatchJobEngine(BatchCheckpointRepository checkpointRepository, BatchProperties properties,
+                          @Qualifier("batchJobExecutor") Executor executor,
+                          PlatformTransactionManager transactionManager, BatchRunRecorder recorder) {
+        this.checkpointRepository = checkpointRepository;
+        this.properties = properties;
+        this.recorder = recorder;
+        this.executor = executor;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Job job(String name, LocalDate runDate) {
+        return new Job(name, runDate);
+    }
+
+    /**
+     * Step writing the items returned by the reader in chunks
+     */
+    public static <T> Step<T> chunked(String name, Supplier<List<T>> reader, Consumer<List<T>> writer) {
+        return new Step<>(name, reader, writer);
+    }
+
+    /**
+     * Step made of a single item: the work runs in one transaction and is redone until it commits
+     */
+    public static Step<String> tasklet(String name, Runnable work) {
+        return new Step<>(name, () -> Collections.singletonList(name), chunk -> work.run());
+    }
+
+    /**
+     * One run of a batch, identified by its name and run date
+     */
+    public class Job {
+
+        private final String name;
+        private final LocalDate runDate;
+        private final List<List<Step<?>>> stages = new ArrayList<>();
+        private long fencingToken;
+        private BooleanSupplier held = () -> true;
+        private boolean restart;
+        private BatchRun batchRun;
+        private final AtomicInteger stepsRun = new AtomicInteger();
+        private final AtomicInteger stepsSkipped = new AtomicInteger();
+
+        Job(String name, LocalDate runDate) {
+            this.name = name;
+            this.runDate = runDate;
+        }
+
+        /**
+         * Reject this run's checkpoint writes once a run holding a newer token has written them
+         */
+        public Job fencedBy(long fencingToken) {
+            this.fencingToken = fencingToken;
+            return this;
+        }
+
+        /**
+         * Stop before the next step or chunk once the check fails, e.g. when the scheduler lock
+         * the run was started under is lost
+         */
+        public Job whileHeld(BooleanSupplier held) {
+            this.held = held;
+            return this;
+        }
+
+        /**
+         * Run every step again, including those already completed for the run date
+         */
+        public Job restart() {
+            this.restart = true;
+            return this;
+        }
+
+        /**
+         * Add a stage of independent steps, run in parallel after the previous stage
+         */
+        public Job then(Step<?>... steps) {
+            stages.add(Arrays.asList(steps));
+            return this;
+        }
+
+        /**
+         * @throws BatchJobException when a step failed; later stages were not run
+         */
+        public void run() {
+            int purged = checkpointRepository.deleteByRunDateBefore(
+                runDate.minusDays(properties.getCheckpointRetention().toDays()));
+            if (purged > 0) {
+                logger.info("Deleted {} expired batch checkpoints", purged);
+            }
+            int purgedRuns = recorder.deleteStartedBefore(
+                LocalDateTime.now().minus(properties.getHistoryRetention()));
+            if (purgedRuns > 0) {
+                logger.info("Deleted {} expired batch runs", purgedRuns);
+            }
+
+            if (restart) {
+                int reset = checkpointRepository.deleteRun(name, runDate, fencingToken);
+                logger.info("Restarting batch {} for {}: deleted {} checkpoints", name, runDate, reset);
+            }
+
+            logger.info("Starting batch {} for {}", name, runDate);
+            batchRun = recorder.runStarted(name, runDate, fencingToken);
+            try {
+                for (List<Step<?>> stage : stages) {
+                    runStage(stage);
+                }
+            } catch (RuntimeException e) {
+                recorder.runFinished(batchRun, e);
+                throw e;
+            }
+            recorder.runFinished(batchRun, null);
+            logger.info("Batch {} for {} completed in {}ms", name, runDate, batchRun.getDurationMs());
+        }
+
+        private void runStage(List<Step<?>> stage) {
+            if (stage.size() == 1) {
+                execute(stage.get(0));
+                return;
+            }
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (Step<?> step : stage) {
+                futures.add(submit(step));
+            }
+            BatchJobException failure = null;
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    BatchJobException stepFailure = e.getCause() instanceof BatchJobException
+                        ? (BatchJobException) e.getCause()
+                        : new BatchJobException("Batch " + name + " step failed", e.getCause());
+                    if (failure == null) {
+                        failure = stepFailure;
+                    } else {
+                        failure.addSuppressed(stepFailure);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private CompletableFuture<Void> submit(Step<?> step) {
+            try {
+                return CompletableFuture.runAsync(() -> execute(step), executor);
+            } catch (RejectedExecutionException e) {
+                logger.warn("Batch executor is full, running step {} of {} on the calling thread", step.name, name);
+                CompletableFuture<Void> inline = new CompletableFuture<>();
+                try {
+                    execute(step);
+                    inline.complete(null);
+                } catch (RuntimeException failure) {
+                    inline.completeExceptionally(failure);
+                }
+                return inline;
+            }
+        }
+
+        private <T> void execute(Step<T> step) {
+            if (!held.getAsBoolean()) {
+                throw new BatchJobException("Batch " + name + " lost its scheduler lock before step " + step.name,
+                                            null);
+            }
+            BatchCheckpoint checkpoint = checkpointRepository
+                .findByJobNameAndRunDateAndStepName(name, runDate, step.name)
+                .orElse(null);
+            if (checkpoint != null && checkpoint.getStatus() == BatchCheckpoint.StepStatus.COMPLETED) {
+                logger.info("Skipping step {} of {} for {}: already completed", step.name, name, runDate);
+                recorder.stepSkipped(batchRun, step.name);
+                stepsSkipped.incrementAndGet();
+                return;
+            }
+            if (checkpoint == null) {
+                BatchCheckpoint created = new BatchCheckpoint(name, runDate, step.name);
+                created.setFencingToken(fencingToken);
+                checkpoint = checkpointRepository.save(created);
+            }
+
+            Long id = checkpoint.getId();
+            BatchStepRun stepRun = recorder.stepStarted(batchRun, step.name);
+            int written = checkpoint.getCommittedItems();
+            String lastKey = checkpoint.getLastKey();
+            stepRun.setResumedFrom(written);
+            try {
+                List<T> items = readTransaction.execute(status -> step.reader.get());
+                stepRun.setItemsRead(items.size());
+                int chunkSize = properties.chunkSizeFor(step.name);
+                int next = step.resumeKey == null ? written : indexAfter(items, step.resumeKey, lastKey);
+                if (written > 0) {
+                    logger.info("Resuming step {} of {} for {} after {} committed items, {} of {} items left",
+                                step.name, name, runDate, written, Math.max(items.size() - next, 0), items.size());
+                }
+
+                while (next < items.size()) {
+                    if (!held.getAsBoolean()) {
+                        throw new IllegalStateException("Batch " + name + " lost its scheduler lock");
+                    }
+                    List<T> chunk = items.subList(next, Math.min(next + chunkSize, items.size()));
+                    int committed = written + chunk.size();
+                    String chunkKey = step.resumeKey == null ? null : step.resumeKey.apply(chunk.get(chunk.size() - 1));
+                    writeChunk(step, chunk, stepRun, () -> fenced(
+                        checkpointRepository.advance(id, committed, chunkKey, fencingToken, LocalDateTime.now()), step));
+                    next += chunk.size();
+                    written = committed;
+                    stepRun.setItemsWritten(stepRun.getItemsWritten() + chunk.size());
+                    stepRun.setChunks(stepRun.getChunks() + 1);
+                }
+
+                writeTransaction.execute(status -> {
+                    fenced(checkpointRepository.complete(id, fencingToken, LocalDateTime.now()), step);
+                    if (step.completion != null) {
+                        step.completion.run();
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                logger.error("Step {} of {} for {} failed after {} committed items", step.name, name, runDate, written, e);
+                writeTransaction.execute(status ->
+                    checkpointRepository.fail(id, e.getMessage(), fencingToken, LocalDateTime.now()));
+                recorder.stepFinished(batchRun, stepRun, e);
+                throw new BatchJobException("Step " + step.name + " of batch " + name + " failed after "
+                                            + written + " committed items", e);
+            }
+            recorder.stepFinished(batchRun, stepRun, null);
+            stepsRun.incrementAndGet();
+            logger.info("Step {} of {} for {} completed: {} items in {} chunks, {}ms", step.name, name, runDate,
+                        stepRun.getItemsWritten(), stepRun.getChunks(), stepRun.getDurationMs());
+        }
+
+        /**
+         * Record the checkpoint, then write the chunk, in one transaction; retried on transient failures
+         */
+        private <T> void writeChunk(Step<T> step, List<T> chunk, BatchStepRun stepRun, Runnable checkpoint) {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    writeTransaction.execute(status -> {
+                        checkpoint.run();
+                        step.writer.accept(chunk);
+                        return null;
+                    });
+                    return;
+                } catch (TransientDataAccessException e) {
+                    if (attempt >= properties.getChunkRetryLimit()) {
+                        throw e;
+                    }
+                    stepRun.setRetries(stepRun.getRetries() + 1);
+                    logger.warn("Retrying chunk of step {} of {} ({}/{}): {}", step.name, name, attempt + 1,
+                                properties.getChunkRetryLimit(), e.getMessage());
+                }
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LocalDate getRunDate() {
+            return runDate;
+        }
+
+        /**
+         * Steps run to completion by {@link #run()}
+         */
+        public int getStepsRun() {
+            return stepsRun.get();
+        }
+
+        /**
+         * Steps {@link #run()} skipped because an earlier run of the date completed them
+         */
+        public int getStepsSkipped() {
+            return stepsSkipped.get();
+        }
+
+        /**
+         * Index of the first item whose key sorts after the last committed key
+         */
+        private <T> int indexAfter(List<T> items, Function<T, String> key, String lastKey) {
+            int index = 0;
+            while (lastKey != null && index < items.size() && key.apply(items.get(index)).compareTo(lastKey) <= 0) {
+                index++;
+            }
+            return index;
+        }
+
+        private int fenced(int updated, Step<?> step) {
+            if (updated == 0) {
+                throw new IllegalStateException("Step " + step.name + " of batch " + name + " was taken over by a run "
+                                                + "newer than fencing token " + fencingToken);
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * A named step: reader of the run's items and writer of one chunk of them
+     */
+    public static class Step<T> {
+
+        private final String name;
+        private final Supplier<List<T>> reader;
+        private final Consumer<List<T>> writer;
+        private Runnable completion;
+        private Function<T, String> resumeKey;
+
+        Step(String name, Supplier<List<T>> reader, Consumer<List<T>> writer) {
+            this.name = name;
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        /**
+         * Work committed in the transaction that marks the step completed (e.g. advancing a watermark),
+         * so it takes effect exactly when the step completes
+         */
+        public Step<T> onCompleted(Runnable completion) {
+            this.completion = completion;
+            return this;
+        }
+
+        /**
+         * Resume after the key of the last committed item instead of its position, for readers whose
+         * items can come and go between attempts; the reader must return its items in ascending
+         * order of their keys, compared as strings
+         */
+        public Step<T> resumeByKey(Function<T, String> resumeKey) {
+            this.resumeKey = resumeKey;
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * A batch step failed; its checkpoint keeps the last committed chunk
+     */
+    public static class BatchJobException extends RuntimeException {
+
+        public BatchJobException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -1,40 +1,80 @@
 package com.techbookstore.app.service;
 
+import com.techbookstore.app.config.BatchProperties;
+import com.techbookstore.app.config.SchedulerLock;
 import com.techbookstore.app.dto.*;
-import com.techbookstore.app.entity.AggregationCache;
+import com.techbookstore.app.exception.BatchAlreadyRunningException;
 import com.techbookstore.app.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Phase 4: Batch processing service for automated operations.
  * 運用自動化サービス - 日次バッチ処理、アラート配信、レポート自動生成
+ *
+ * Each batch is a {@link BatchJobEngine} job keyed by the day it runs: steps commit chunk by
+ * chunk, independent steps run in parallel, and running a failed batch again the same day
+ * (e.g. through runManualBatch) resumes it from its last committed chunk; a manual run with
+ * restart runs every step again. Every node fires the schedules, but a batch only runs on the
+ * node holding its {@link ScheduledJobLock}.
  */
 @Service
-@Transactional
 public class BatchProcessingService {
     
     private static final Logger logger = LoggerFactory.getLogger(BatchProcessingService.class);
     
+    static final String DAILY = "daily";
+    static final String WEEKLY = "weekly";
+    static final String MONTHLY = "monthly";
+    
     private final ReportService reportService;
     private final AnalyticsService analyticsService;
     private final NotificationService notificationService;
-    private final AggregationCacheRepository cacheRepository;
+    private final AggregationStore aggregationStore;
+    private final SalesFactService salesFactService;
+    private final BatchJobEngine batchJobEngine;
+    private final ScheduledJobLock jobLock;
+    private final BatchRunRecorder runRecorder;
+    private final ArchiveStore archiveStore;
+    private final IncrementalAggregationService incrementalAggregationService;
+    private final BatchProperties batchProperties;
+    
+    /** Days of sales facts re-derived from orders by the daily batch to absorb late corrections */
+    private static final int SALES_FACT_REBUILD_DAYS = 7;
+    
+    /** Most runs returned by one history request */
+    private static final int MAX_HISTORY_RUNS = 200;
     
     public BatchProcessingService(ReportService reportService, AnalyticsService analyticsService,
-                                 NotificationService notificationService, AggregationCacheRepository cacheRepository) {
+                                 NotificationService notificationService, AggregationStore aggregationStore,
+                                 SalesFactService salesFactService, BatchJobEngine batchJobEngine,
+                                 ScheduledJobLock jobLock, BatchRunRecorder runRecorder,
+                                 ArchiveStore archiveStore, IncrementalAggregationService incrementalAggregationService,
+                                 BatchProperties batchProperties) {
         this.reportService = reportService;
         this.analyticsService = analyticsService;
         this.notificationService = notificationService;
-        this.cacheRepository = cacheRepository;
+        this.aggregationStore = aggregationStore;
+        this.salesFactService = salesFactService;
+        this.batchJobEngine = batchJobEngine;
+        this.jobLock = jobLock;
+        this.runRecorder = runRecorder;
+        this.archiveStore = archiveStore;
+        this.incrementalAggregationService = incrementalAggregationService;
+        this.batchProperties = batchProperties;
     }
     
     /**
@@ -43,33 +83,7 @@ public class BatchProcessingService {
      */
     @Scheduled(cron = "0 0 2 * * *")
     public void runDailyBatch() {
-        logger.info("Starting daily batch process");
-        
-        try {
-            // 1. Data integrity check
-            performDataIntegrityCheck();
-            
-            // 2. Generate daily aggregations
-            generateDailyAggregations();
-            
-            // 3. Update tech trend calculations
-            updateTechTrendCalculations();
-            
-            // 4. Generate alerts
-            generateAndSendAlerts();
-            
-            // 5. Clean up old cache entries
-            cleanupOldCache();
-            
-            // 6. Generate automated reports
-            generateAutomatedReports();
-            
-            logger.info("Daily batch process completed successfully");
-            
-        } catch (Exception e) {
-            logger.error("Daily batch process failed", e);
-            notificationService.sendSystemAlert("Daily batch process failed: " + e.getMessage());
-        }
+        runScheduled(DAILY, this::dailyJob);
     }
     
     /**
@@ -78,27 +92,7 @@ public class BatchProcessingService {
      */
     @Scheduled(cron = "0 0 3 * * SUN")
     public void runWeeklyBatch() {
-        logger.info("Starting weekly batch process");
-        
-        try {
-            // 1. Generate weekly performance reports
-            generateWeeklyPerformanceReports();
-            
-            // 2. Update customer segments
-            updateCustomerSegments();
-            
-            // 3. Inventory optimization suggestions
-            generateInventoryOptimizationSuggestions();
-            
-            // 4. Tech trend analysis update
-            updateTechTrendAnalysis();
-            
-            logger.info("Weekly batch process completed successfully");
-            
-        } catch (Exception e) {
-            logger.error("Weekly batch process failed", e);
-            notificationService.sendSystemAlert("Weekly batch process failed: " + e.getMessage());
-        }
+        runScheduled(WEEKLY, this::weeklyJob);
     }
     
     /**
@@ -107,26 +101,82 @@ public class BatchProcessingService {
      */
     @Scheduled(cron = "0 0 4 1 * *")
     public void runMonthlyBatch() {
-        logger.info("Starting monthly batch process");
+        runScheduled(MONTHLY, this::monthlyJob);
+    }
+    
+    private void runScheduled(String batchType, Function<SchedulerLock.Lease, BatchJobEngine.Job> batch) {
+        try {
+            jobLock.runLocked(lockName(batchType), lease -> run(batch.apply(lease)));
+        } catch (RuntimeException e) {
+            // Logged and alerted by run; the next schedule resumes the batch
+        }
+    }
+    
+    private static String lockName(String batchType) {
+        return "batch_" + batchType;
+    }
+    
+    private BatchJobEngine.Job dailyJob(SchedulerLock.Lease lease) {
+        LocalDate runDate = LocalDate.now();
+        
+        return batchJobEngine.job(DAILY, runDate).fencedBy(lease.getFencingToken()).whileHeld(lease::isHeld)
+            // 1. Data integrity check
+            .then(BatchJobEngine.tasklet("data_integrity_check", this::performDataIntegrityCheck))
+            // 2. Reconcile recent sales facts (chunked by day), refresh the aggregates touched since
+            //    their watermarks and update tech trend calculations
+            .then(BatchJobEngine.chunked("sales_fact_rebuild",
+                                         () -> recentSalesDates(runDate), this::rebuildSalesFactDays),
+                  incrementalAggregationService.customerOrderStatsStep(runDate),
+                  incrementalAggregationService.inventoryMovementsStep(runDate),
+                  BatchJobEngine.tasklet("tech_trend_calculations", this::updateTechTrendCalculations))
+            // 3. Aggregations, alerts and automated reports are independent of each other
+            //    (aggregation_cache cleanup runs in AggregationCacheSweeper)
+            .then(BatchJobEngine.tasklet("daily_aggregations", () -> generateDailyAggregations(runDate)),
+                  BatchJobEngine.chunked("tech_trend_alerts", this::highPriorityAlerts, this::sendAlerts),
+                  BatchJobEngine.tasklet("automated_reports", () -> generateAutomatedReports(runDate)));
+    }
+    
+    private BatchJobEngine.Job weeklyJob(SchedulerLock.Lease lease) {
+        LocalDate runDate = LocalDate.now();
+        
+        return batchJobEngine.job(WEEKLY, runDate).fencedBy(lease.getFencingToken()).whileHeld(lease::isHeld)
+            .then(BatchJobEngine.tasklet("weekly_performance_reports", () -> generateWeeklyPerformanceReports(runDate)),
+                  BatchJobEngine.tasklet("customer_segments", () -> updateCustomerSegments(runDate)),
+                  BatchJobEngine.tasklet("inventory_optimization", this::generateInventoryOptimizationSuggestions),
+                  BatchJobEngine.tasklet("tech_trend_analysis", this::updateTechTrendAnalysis));
+    }
+    
+    private BatchJobEngine.Job monthlyJob(SchedulerLock.Lease lease) {
+        LocalDate runDate = LocalDate.now();
+        
+        LocalDateTime archiveCutoff = runDate.minus(batchProperties.getArchiveAfter()).atStartOfDay();
+        
+        return batchJobEngine.job(MONTHLY, runDate).fencedBy(lease.getFencingToken()).whileHeld(lease::isHeld)
+            .then(BatchJobEngine.tasklet("monthly_executive_reports", () -> generateMonthlyExecutiveReports(runDate)),
+                  BatchJobEngine.tasklet("archive_partitions", () -> archiveStore.createYearlyPartitions(archiveCutoff)),
+                  BatchJobEngine.tasklet("predictive_models", this::updatePredictiveModels),
+                  BatchJobEngine.tasklet("performance_optimization", this::performPerformanceOptimization))
+            // Move settled rows older than app.batch.archive-after to the archive tables, in ID-ordered chunks
+            .then(BatchJobEngine.chunked("archive_orders",
+                                         () -> archiveStore.findOrderIdsToArchive(archiveCutoff, runDate),
+                                         ids -> archiveStore.moveOrders(ids, archiveCutoff, runDate)),
+                  BatchJobEngine.chunked("archive_inventory_transactions",
+                                         () -> archiveStore.findTransactionIdsToArchive(archiveCutoff, runDate),
+                                         ids -> archiveStore.moveTransactions(ids, archiveCutoff, runDate)));
+    }
+    
+    private void run(BatchJobEngine.Job job) {
+        logger.info("Starting {} batch process", job.getName());
         
         try {
-            // 1. Generate monthly executive reports
-            generateMonthlyExecutiveReports();
-            
-            // 2. Archive old data
-            archiveOldData();
-            
-            // 3. Update predictive models
-            updatePredictiveModels();
-            
-            // 4. Performance optimization analysis
-            performPerformanceOptimization();
+            job.run();
+            logger.info("{} batch process completed: {} steps run, {} already completed", job.getName(),
+                        job.getStepsRun(), job.getStepsSkipped());
             
-            logger.info("Monthly batch process completed successfully");
-            
-        } catch (Exception e) {
-            logger.error("Monthly batch process failed", e);
-            notificationService.sendSystemAlert("Monthly batch process failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("{} batch process failed", job.getName(), e);
+            notificationService.sendSystemAlert(job.getName() + " batch process failed: " + e.getMessage());
+            throw e;
         }
     }
     
@@ -139,24 +189,42 @@ public class BatchProcessingService {
         logger.info("Data integrity check completed");
     }
     
-    private void generateDailyAggregations() {
+    private List<LocalDate> recentSalesDates(LocalDate runDate) {
+        // Archived days keep their facts (see SalesFactService)
+        LocalDate firstRebuildable = salesFactService.firstRebuildableDate();
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = SALES_FACT_REBUILD_DAYS; i >= 1; i--) {
+            LocalDate date = runDate.minusDays(i);
+            if (firstRebuildable == null || !date.isBefore(firstRebuildable)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+    
+    private void rebuildSalesFactDays(List<LocalDate> days) {
+        salesFactService.rebuild(days.get(0), days.get(days.size() - 1));
+    }
+    
+    /**
+     * Rebuild the daily sales fact table for a date range (inclusive).
+     * 日次売上ファクトの再構築（手動・日次バッチ共用）
+     *
+     * @return number of fact rows written
+     * @throws IllegalArgumentException when the range reaches archived days
+     */
+    public int rebuildSalesFacts(LocalDate startDate, LocalDate endDate) {
+        return salesFactService.rebuild(startDate, endDate);
+    }
+    
+    private void generateDailyAggregations(LocalDate runDate) {
         logger.info("Generating daily aggregations");
         
-        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate yesterday = runDate.minusDays(1);
         
-        // Generate daily KPIs and cache them
+        // Generate daily KPIs and store them as a typed snapshot
         DashboardKpiDto kpis = reportService.generateDashboardKpis();
-        String cacheKey = "daily_kpis_" + yesterday;
-        
-        AggregationCache cache = new AggregationCache(
-            cacheKey,
-            "daily_kpis", 
-            yesterday,
-            kpis.toString(), // In production, use JSON serialization
-            LocalDateTime.now().plusDays(30)
-        );
-        
-        cacheRepository.save(cache);
+        aggregationStore.put(DashboardKpiCodec.DAILY_KPIS, yesterday, kpis, LocalDateTime.now().plusDays(30));
         
         logger.info("Daily aggregations completed");
     }
@@ -170,37 +238,24 @@ public class BatchProcessingService {
         logger.info("Tech trend calculations updated");
     }
     
-    private void generateAndSendAlerts() {
-        logger.info("Generating and sending alerts");
-        
-        // Generate tech trend alerts
-        List<TechTrendAlertDto> alerts = reportService.getTechTrendAlerts();
-        
-        // Send high-priority alerts
-        for (TechTrendAlertDto alert : alerts) {
-            if ("HIGH".equals(alert.getSeverity())) {
-                notificationService.sendTechTrendAlert(alert);
-            }
-        }
-        
-        logger.info("Alerts generated and sent");
+    private List<TechTrendAlertDto> highPriorityAlerts() {
+        return reportService.getTechTrendAlerts().stream()
+            .filter(alert -> "HIGH".equals(alert.getSeverity()))
+            .collect(Collectors.toList());
     }
     
-    private void cleanupOldCache() {
-        logger.info("Cleaning up old cache entries");
-        
-        // Remove expired cache entries
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(7);
-        // Implementation would include repository method to delete old entries
-        
-        logger.info("Cache cleanup completed");
+    private void sendAlerts(List<TechTrendAlertDto> alerts) {
+        for (TechTrendAlertDto alert : alerts) {
+            notificationService.sendTechTrendAlert(alert);
+        }
+        logger.info("Sent {} high-priority alerts", alerts.size());
     }
     
-    private void generateAutomatedReports() {
+    private void generateAutomatedReports(LocalDate runDate) {
         logger.info("Generating automated reports");
         
         // Generate and email daily reports to stakeholders
-        LocalDate reportDate = LocalDate.now().minusDays(1);
+        LocalDate reportDate = runDate.minusDays(1);
         
         // Generate executive summary
         DashboardKpiDto executiveSummary = reportService.generateDashboardKpis();
@@ -211,10 +266,10 @@ public class BatchProcessingService {
         logger.info("Automated reports generated");
     }
     
-    private void generateWeeklyPerformanceReports() {
+    private void generateWeeklyPerformanceReports(LocalDate runDate) {
         logger.info("Generating weekly performance reports");
         
-        LocalDate endDate = LocalDate.now().minusDays(1);
+        LocalDate endDate = runDate.minusDays(1);
         LocalDate startDate = endDate.minusDays(6);
         
         SalesReportDto weeklyReport = reportService.generateSalesReport(startDate, endDate);
@@ -223,11 +278,14 @@ public class BatchProcessingService {
         logger.info("Weekly performance reports generated");
     }
     
-    private void updateCustomerSegments() {
+    private void updateCustomerSegments(LocalDate runDate) {
         logger.info("Updating customer segments");
         
-        // Recalculate customer segments based on latest purchase behavior
-        CustomerAnalyticsDto analytics = reportService.generateCustomerAnalytics();
+        // Segments are read from customer_order_stats, kept current by the daily batch
+        for (CustomerAnalyticsDto.CustomerSegment segment : incrementalAggregationService.customerSegments(runDate)) {
+            logger.info("Segment {}: {} customers, total {}", segment.getSegmentName(),
+                        segment.getCustomerCount(), segment.getTotalValue());
+        }
         
         logger.info("Customer segments updated");
     }
@@ -252,10 +310,10 @@ public class BatchProcessingService {
         logger.info("Tech trend analysis updated");
     }
     
-    private void generateMonthlyExecutiveReports() {
+    private void generateMonthlyExecutiveReports(LocalDate runDate) {
         logger.info("Generating monthly executive reports");
         
-        LocalDate endDate = LocalDate.now().minusDays(1);
+        LocalDate endDate = runDate.minusDays(1);
         LocalDate startDate = endDate.minusDays(29);
         
         // Comprehensive monthly report
@@ -268,15 +326,6 @@ public class BatchProcessingService {
         logger.info("Monthly executive reports generated");
     }
     
-    private void archiveOldData() {
-        logger.info("Archiving old data");
-        
-        // Archive data older than 2 years
-        LocalDate archiveCutoff = LocalDate.now().minusYears(2);
-        
-        logger.info("Data archiving completed");
-    }
-    
     private void updatePredictiveModels() {
         logger.info("Updating predictive models");
         
@@ -296,25 +345,76 @@ public class BatchProcessingService {
         logger.info("Performance optimization completed");
     }
     
+    /**
+     * Scheduler lock of every batch: holder node, lease expiry and fencing token
+     * バッチ分散ロックの状態
+     */
+    public Map<String, Object> lockStatus() {
+        return jobLock.status();
+    }
+    
+    /**
+     * Latest batch runs with per-step timing, item counts, retries and failure causes
+     * バッチ実行履歴
+     *
+     * @param batchType daily, weekly or monthly; all batches when null
+     */
+    public List<Map<String, Object>> history(String batchType, int limit) {
+        String jobName = batchType != null ? batchType.toLowerCase() : null;
+        return runRecorder.history(jobName, Math.max(1, Math.min(limit, MAX_HISTORY_RUNS)));
+    }
+    
     /**
      * Manual trigger for batch operations (for testing/emergency)
      * 手動バッチ実行（テスト・緊急時用）
+     *
+     * Steps already completed today are skipped unless restart is set, in which case today's
+     * checkpoints are dropped and every step runs again.
+     *
+     * @return run date, restart flag, steps run and steps skipped as already completed
+     * @throws IllegalArgumentException for an unknown batch type
+     * @throws BatchAlreadyRunningException when the batch is running on another node
+     * @throws BatchJobEngine.BatchJobException when a step failed
      */
-    public void runManualBatch(String batchType) {
-        logger.info("Running manual batch: {}", batchType);
-        
-        switch (batchType.toLowerCase()) {
-            case "daily":
-                runDailyBatch();
+    public Map<String, Object> runManualBatch(String batchType, boolean restart) {
+        logger.info("Running manual batch: {} (restart: {})", batchType, restart);
+        
+        Function<SchedulerLock.Lease, BatchJobEngine.Job> batch;
+        String type = batchType.toLowerCase();
+        switch (type) {
+            case DAILY:
+                batch = this::dailyJob;
                 break;
-            case "weekly":
-                runWeeklyBatch();
+            case WEEKLY:
+                batch = this::weeklyJob;
                 break;
-            case "monthly":
-                runMonthlyBatch();
+            case MONTHLY:
+                batch = this::monthlyJob;
                 break;
             default:
-                logger.warn("Unknown batch type: {}", batchType);
+                throw new IllegalArgumentException("Unknown batch type: " + batchType);
         }
+        
+        AtomicReference<BatchJobEngine.Job> ran = new AtomicReference<>();
+        boolean locked = jobLock.runLocked(lockName(type), lease -> {
+            BatchJobEngine.Job job = batch.apply(lease);
+            if (restart) {
+                job.restart();
+            }
+            ran.set(job);
+            run(job);
+        });
+        if (!locked) {
+            throw new BatchAlreadyRunningException("Batch " + batchType + " is already running on another node");
+        }
+        
+        BatchJobEngine.Job job = ran.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("batchType", type);
+        result.put("runDate", job.getRunDate());
+        result.put("restart", restart);
+        result.put("stepsRun", job.getStepsRun());
+        result.put("stepsSkipped", job.getStepsSkipped());
+        return result;
     }
-}
\ No newline at end of file
+}
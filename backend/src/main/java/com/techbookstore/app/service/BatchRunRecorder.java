@@ -0,0 +1,213 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.SchedulerLockProperties;
+import com.techbookstore.app.entity.BatchRun;
+import com.techbookstore.app.entity.BatchStepRun;
+import com.techbookstore.app.repository.BatchRunRepository;
+import com.techbookstore.app.repository.BatchStepRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * History and telemetry of batch runs and their steps.
+ * バッチ実行履歴・ステップ別所要時間・スループット
+ *
+ * Runs and steps are stored when they start and updated when they end (batch_runs,
+ * batch_step_runs), each write committing on its own so the history shows running batches too.
+ * Durations are recorded as the timers batch.run{job,result} and batch.step{job,step,result},
+ * written items counted by batch.step.items{job,step}, and the duration of the latest run of
+ * each job is kept as the batch.run.last.duration gauge, which stays visible between daily runs.
+ */
+@Component
+public class BatchRunRecorder {
+
+    private final BatchRunRepository runRepository;
+    private final BatchStepRunRepository stepRepository;
+    private final SchedulerLockProperties lockProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> lastRunMillis = new ConcurrentHashMap<>();
+
+    public BatchRunRecorder(BatchRunRepository runRepository, BatchStepRunRepository stepRepository,
+                            SchedulerLockProperties lockProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.runRepository = runRepository;
+        this.stepRepository = stepRepository;
+        this.lockProperties = lockProperties;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    public BatchRun runStarted(String jobName, LocalDate runDate, long fencingToken) {
+        return runRepository.save(new BatchRun(jobName, runDate, lockProperties.getNodeId(), fencingToken));
+    }
+
+    public void runFinished(BatchRun run, Throwable failure) {
+        finish(run, failure);
+        runRepository.save(run);
+
+        if (meterRegistry != null) {
+            Timer.builder("batch.run")
+                .description("Duration of a batch run")
+                .tags("job", run.getJobName(), "result", result(run.getStatus()))
+                .register(meterRegistry)
+                .record(run.getDurationMs(), TimeUnit.MILLISECONDS);
+            lastRunMillis.computeIfAbsent(run.getJobName(), job -> {
+                AtomicLong millis = new AtomicLong();
+                TimeGauge.builder("batch.run.last.duration", millis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                    .description("Duration of the latest run of a batch")
+                    .tag("job", job)
+                    .register(meterRegistry);
+                return millis;
+            }).set(run.getDurationMs());
+        }
+    }
+
+    public BatchStepRun stepStarted(BatchRun run, String stepName) {
+        return stepRepository.save(new BatchStepRun(run.getId(), stepName));
+    }
+
+    /**
+     * A step already completed by an earlier run of the same run date
+     */
+    public void stepSkipped(BatchRun run, String stepName) {
+        BatchStepRun step = new BatchStepRun(run.getId(), stepName);
+        step.setStatus(BatchRun.RunStatus.SKIPPED);
+        step.setEndedAt(step.getStartedAt());
+        step.setDurationMs(0L);
+        stepRepository.save(step);
+    }
+
+    public void stepFinished(BatchRun run, BatchStepRun step, Throwable failure) {
+        LocalDateTime ended = LocalDateTime.now();
+        step.setEndedAt(ended);
+        step.setDurationMs(Duration.between(step.getStartedAt(), ended).toMillis());
+        step.setStatus(failure == null ? BatchRun.RunStatus.COMPLETED : BatchRun.RunStatus.FAILED);
+        step.setErrorMessage(failure != null ? failureCause(failure) : null);
+        stepRepository.save(step);
+
+        if (meterRegistry != null) {
+            Timer.builder("batch.step")
+                .description("Duration of a batch step")
+                .tags("job", run.getJobName(), "step", step.getStepName(), "result", result(step.getStatus()))
+                .register(meterRegistry)
+                .record(step.getDurationMs(), TimeUnit.MILLISECONDS);
+            Counter.builder("batch.step.items")
+                .description("Items written by batch steps")
+                .tags("job", run.getJobName(), "step", step.getStepName())
+                .register(meterRegistry)
+                .increment(step.getItemsWritten());
+        }
+    }
+
+    /**
+     * Latest runs, newest first, with their steps
+     *
+     * @param jobName only runs of this batch, or all batches when null
+     */
+    public List<Map<String, Object>> history(String jobName, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<BatchRun> runs = jobName != null
+            ? runRepository.findByJobNameOrderByStartedAtDescIdDesc(jobName, page)
+            : runRepository.findAllByOrderByStartedAtDescIdDesc(page);
+        if (runs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, List<BatchStepRun>> stepsByRun = stepRepository
+            .findByRunIdInOrderByStartedAtAscIdAsc(runs.stream().map(BatchRun::getId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.groupingBy(BatchStepRun::getRunId));
+
+        List<Map<String, Object>> history = new ArrayList<>();
+        for (BatchRun run : runs) {
+            List<BatchStepRun> steps = stepsByRun.getOrDefault(run.getId(), new ArrayList<>());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("runId", run.getId());
+            entry.put("job", run.getJobName());
+            entry.put("runDate", run.getRunDate());
+            entry.put("status", run.getStatus());
+            entry.put("node", run.getNode());
+            entry.put("fencingToken", run.getFencingToken());
+            entry.put("startedAt", run.getStartedAt());
+            entry.put("endedAt", run.getEndedAt());
+            entry.put("durationMs", run.getDurationMs());
+            entry.put("itemsWritten", steps.stream().mapToLong(BatchStepRun::getItemsWritten).sum());
+            entry.put("retries", steps.stream().mapToLong(BatchStepRun::getRetries).sum());
+            if (run.getErrorMessage() != null) {
+                entry.put("error", run.getErrorMessage());
+            }
+            entry.put("steps", steps.stream().map(BatchRunRecorder::describe).collect(Collectors.toList()));
+            history.add(entry);
+        }
+        return history;
+    }
+
+    /**
+     * Delete runs started before the cutoff with their steps
+     */
+    public int deleteStartedBefore(LocalDateTime cutoff) {
+        stepRepository.deleteOfRunsStartedBefore(cutoff);
+        return runRepository.deleteStartedBefore(cutoff);
+    }
+
+    private static Map<String, Object> describe(BatchStepRun step) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("step", step.getStepName());
+        entry.put("status", step.getStatus());
+        entry.put("startedAt", step.getStartedAt());
+        entry.put("endedAt", step.getEndedAt());
+        entry.put("durationMs", step.getDurationMs());
+        entry.put("itemsRead", step.getItemsRead());
+        entry.put("itemsWritten", step.getItemsWritten());
+        entry.put("chunks", step.getChunks());
+        entry.put("retries", step.getRetries());
+        entry.put("resumedFrom", step.getResumedFrom());
+        Long durationMs = step.getDurationMs();
+        entry.put("itemsPerSecond", durationMs != null && durationMs > 0
+            ? Math.round(step.getItemsWritten() * 1000.0 / durationMs * 100) / 100.0 : null);
+        if (step.getErrorMessage() != null) {
+            entry.put("error", step.getErrorMessage());
+        }
+        return entry;
+    }
+
+    private static void finish(BatchRun run, Throwable failure) {
+        LocalDateTime ended = LocalDateTime.now();
+        run.setEndedAt(ended);
+        run.setDurationMs(Duration.between(run.getStartedAt(), ended).toMillis());
+        run.setStatus(failure == null ? BatchRun.RunStatus.COMPLETED : BatchRun.RunStatus.FAILED);
+        run.setErrorMessage(failure != null ? failureCause(failure) : null);
+    }
+
+    /**
+     * Message of the failure and of its root cause, when different
+     */
+    private static String failureCause(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = String.valueOf(failure.getMessage());
+        return root == failure ? message
+            : message + ": " + root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+
+    private static String result(BatchRun.RunStatus status) {
+        return status.name().toLowerCase(Locale.ROOT);
+    }
+}
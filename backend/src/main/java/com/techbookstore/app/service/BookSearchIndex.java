@@ -0,0 +1,345 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.entity.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book title, English title, ISBN, publisher name and version info.
+ * Latin text and digits are indexed as words and matched by prefix, so partial words and ISBN
+ * prefixes typed into the search box still hit. Japanese (kanji, hiragana, katakana) runs are
+ * indexed as character unigrams and bigrams, since they have no word separators.
+ * Every query term must match; results are ranked by the fields they matched in.
+ *
+ * Built from the books table once the application is ready, and kept current by the book
+ * create/update/delete endpoints. Writes made to the books table elsewhere are picked up by
+ * {@link #rebuild()}.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    static final int TITLE = 1;
+    static final int TITLE_EN = 1 << 1;
+    static final int ISBN = 1 << 2;
+    static final int PUBLISHER = 1 << 3;
+    static final int VERSION_INFO = 1 << 4;
+
+    private static final String LOAD_SQL =
+        "SELECT b.id, b.title, b.title_en, b.isbn13, b.version_info, p.name " +
+        "FROM books b LEFT JOIN publishers p ON p.id = b.publisher_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** term -> (book ID -> mask of the fields containing the term) */
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    /** book ID -> indexed terms, so a book can be removed without a full scan */
+    private final Map<Long, Set<String>> termsByBook = new HashMap<>();
+
+    public BookSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rebuilds the whole index from the books table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByBook.clear();
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                addDocument(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getString(5), rs.getString(6));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Book search index built: {} books, {} terms in {} ms",
+                    size(), termCount(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Adds the book to the index, replacing any previous entry for the same ID.
+     */
+    public void index(Book book) {
+        String publisherName = book.getPublisher() != null ? book.getPublisher().getName() : null;
+        lock.writeLock().lock();
+        try {
+            removeDocument(book.getId());
+            addDocument(book.getId(), book.getTitle(), book.getTitleEn(), book.getIsbn13(),
+                        book.getVersionInfo(), publisherName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the book from the index.
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of books matching every term of the keyword, best match first.
+     * Ties are ordered by ID.
+     */
+    public List<Long> search(String keyword) {
+        List<QueryTerm> terms = queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (QueryTerm term : terms) {
+                Map<Long, Integer> termScores = score(term, scores);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Integer> merged = new HashMap<>();
+                    for (Map.Entry<Long, Integer> entry : termScores.entrySet()) {
+                        merged.put(entry.getKey(), scores.get(entry.getKey()) + entry.getValue());
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        ranked.forEach(entry -> ids.add(entry.getKey()));
+        return ids;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByBook.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores books for one query term. When candidates is given, only those books are considered.
+     */
+    private Map<Long, Integer> score(QueryTerm term, Map<Long, Integer> candidates) {
+        Map<Long, Integer> scores = new HashMap<>();
+        Map<String, Map<Long, Integer>> matches = term.prefix
+            ? postings.subMap(term.text, true, term.text + Character.MAX_VALUE, false)
+            : Collections.singletonMap(term.text, postings.getOrDefault(term.text, Collections.emptyMap()));
+        for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+            boolean exact = match.getKey().length() == term.text.length();
+            for (Map.Entry<Long, Integer> posting : match.getValue().entrySet()) {
+                if (candidates != null && !candidates.containsKey(posting.getKey())) {
+                    continue;
+                }
+                int weight = fieldWeight(posting.getValue()) * (exact ? 2 : 1);
+                scores.merge(posting.getKey(), weight, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static int fieldWeight(int fields) {
+        if ((fields & (TITLE | ISBN)) != 0) {
+            return 8;
+        }
+        if ((fields & TITLE_EN) != 0) {
+            return 4;
+        }
+        if ((fields & PUBLISHER) != 0) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private void addDocument(Long bookId, String title, String titleEn, String isbn13,
+                             String versionInfo, String publisherName) {
+        Map<String, Integer> fieldsByTerm = new HashMap<>();
+        addTerms(fieldsByTerm, title, TITLE);
+        addTerms(fieldsByTerm, titleEn, TITLE_EN);
+        addTerms(fieldsByTerm, isbn13, ISBN);
+        addTerms(fieldsByTerm, publisherName, PUBLISHER);
+        addTerms(fieldsByTerm, versionInfo, VERSION_INFO);
+        for (Map.Entry<String, Integer> entry : fieldsByTerm.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(bookId, entry.getValue());
+        }
+        termsByBook.put(bookId, new HashSet<>(fieldsByTerm.keySet()));
+    }
+
+    private void removeDocument(Long bookId) {
+        Set<String> terms = termsByBook.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> books = postings.get(term);
+            if (books != null) {
+                books.remove(bookId);
+                if (books.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> fieldsByTerm, String text, int field) {
+        for (String term : indexTerms(text)) {
+            fieldsByTerm.merge(term, field, (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * Terms stored for a field: whole words, plus unigrams and bigrams of Japanese runs.
+     */
+    static List<String> indexTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (Run run : runs(text)) {
+            if (!run.cjk) {
+                terms.add(run.text);
+                continue;
+            }
+            for (int i = 0; i < run.text.length(); i++) {
+                terms.add(run.text.substring(i, i + 1));
+                if (i + 1 < run.text.length()) {
+                    terms.add(run.text.substring(i, i + 2));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Terms looked up for a query: words by prefix, Japanese runs as bigrams (or a unigram
+     * for a single character).
+     */
+    static List<QueryTerm> queryTerms(String keyword) {
+        List<QueryTerm> terms = new ArrayList<>();
+        for (Run run : runs(keyword)) {
+            if (!run.cjk) {
+                terms.add(new QueryTerm(run.text, true));
+            } else if (run.text.length() == 1) {
+                terms.add(new QueryTerm(run.text, false));
+            } else {
+                for (int i = 0; i + 1 < run.text.length(); i++) {
+                    terms.add(new QueryTerm(run.text.substring(i, i + 2), false));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Splits NFKC-normalized, lower-cased text into Latin/digit words and Japanese runs.
+     * Hyphens between digits are dropped so "978-4-..." matches the stored ISBN.
+     */
+    private static List<Run> runs(String text) {
+        List<Run> runs = new ArrayList<>();
+        if (text == null) {
+            return runs;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC)
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("(?<=\\d)-(?=\\d)", "");
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            boolean cjk = isCjk(c);
+            boolean wordChar = cjk || Character.isLetterOrDigit(c);
+            if (!wordChar || (current.length() > 0 && cjk != currentCjk)) {
+                if (current.length() > 0) {
+                    runs.add(new Run(current.toString(), currentCjk));
+                    current.setLength(0);
+                }
+            }
+            if (wordChar) {
+                current.append(c);
+                currentCjk = cjk;
+            }
+        }
+        if (current.length() > 0) {
+            runs.add(new Run(current.toString(), currentCjk));
+        }
+        return runs;
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+            || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
+            || block == Character.UnicodeBlock.HIRAGANA
+            || block == Character.UnicodeBlock.KATAKANA
+            || block == Character.UnicodeBlock.KATAKANA_PHONETIC_EXTENSIONS
+            || c == 'ー';
+    }
+
+    private static class Run {
+        private final String text;
+        private final boolean cjk;
+
+        Run(String text, boolean cjk) {
+            this.text = text;
+            this.cjk = cjk;
+        }
+    }
+
+    static class QueryTerm {
+        private final String text;
+        private final boolean prefix;
+
+        QueryTerm(String text, boolean prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+
+        String getText() { return text; }
+        boolean isPrefix() { return prefix; }
+    }
+}
@@ -0,0 +1,250 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.CacheInvalidationRules;
+import com.techbookstore.app.dto.IntegratedAnalysisRequest;
+import com.techbookstore.app.event.BookUpdatedEvent;
+import com.techbookstore.app.event.DomainEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Evicts cached analyses when the data behind them changes.
+ * ドメインイベントによるキャッシュ無効化
+ *
+ * Domain events are handled once the publishing transaction commits, so a rolled back write
+ * never evicts anything and a reader can not re-cache the old state in between.
+ * Only the caches mapped to the event type ({@link CacheInvalidationRules}) are touched, and
+ * within them only entries whose category filter matches a category of the changed books,
+ * plus entries without a category filter. When the categories can not be resolved (deleted
+ * book) the whole cache is cleared. Evicted entries are counted as cache.invalidated.
+ *
+ * In-memory caches are evicted right away. Listing the keys of a Redis cache takes a SCAN, so
+ * those evictions are queued instead: events arriving within app.cache.invalidation.flush-interval
+ * are coalesced per cache (their categories merged) and {@link #flushPendingInvalidations()} runs
+ * one SCAN per cache on the scheduler thread, never on the request that committed the change.
+ */
+@Service
+public class CacheInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    private static final String BOOK_CATEGORIES_SQL =
+        "SELECT DISTINCT c.category_code, c.category_name FROM book_categories bc " +
+        "JOIN tech_categories c ON c.id = bc.category_id WHERE bc.book_id IN (%s)";
+
+    private static final int SCAN_COUNT = 500;
+
+    private final CacheManager cacheManager;
+    private final CacheInvalidationRules rules;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    /** Redis caches awaiting eviction: cache name to merged categories */
+    private final ConcurrentMap<String, PendingEviction> pending = new ConcurrentHashMap<>();
+
+    public CacheInvalidationService(CacheManager cacheManager, CacheInvalidationRules rules, JdbcTemplate jdbcTemplate,
+                                    ObjectProvider<StringRedisTemplate> redisTemplate,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.rules = rules;
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    /**
+     * Runs after commit, or right away when the event was published outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDomainEvent(DomainEvent event) {
+        List<String> cacheNames = rules.cachesInvalidatedBy(event);
+        if (cacheNames.isEmpty()) {
+            return;
+        }
+        try {
+            boolean scoped = !(event instanceof BookUpdatedEvent && ((BookUpdatedEvent) event).isDeleted());
+            Set<String> categories = scoped ? categoriesOf(event.getBookIds()) : null;
+            List<String> immediate = new ArrayList<>();
+            for (String cacheName : cacheNames) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache != null && cache.getNativeCache() instanceof Map) {
+                    immediate.add(cacheName);
+                } else if (cache != null) {
+                    pending.merge(cacheName, new PendingEviction(categories), PendingEviction::merge);
+                }
+            }
+            invalidate(immediate, categories);
+        } catch (RuntimeException e) {
+            // The write already committed; entries left behind still expire by TTL
+            logger.warn("Cache invalidation for {} failed: {}", event, e.getMessage());
+        }
+    }
+
+    /**
+     * Evict what the events since the last flush queued for caches whose keys need a SCAN.
+     *
+     * @return number of caches processed
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.flush-interval:PT1S}",
+               initialDelayString = "${app.cache.invalidation.flush-interval:PT1S}")
+    public int flushPendingInvalidations() {
+        int processed = 0;
+        for (String cacheName : new ArrayList<>(pending.keySet())) {
+            PendingEviction eviction = pending.remove(cacheName);
+            if (eviction == null) {
+                continue;
+            }
+            try {
+                invalidate(Collections.singletonList(cacheName), eviction.categories);
+            } catch (RuntimeException e) {
+                logger.warn("Cache invalidation of {} failed: {}", cacheName, e.getMessage());
+            }
+            processed++;
+        }
+        return processed;
+    }
+
+    /**
+     * Evict the entries of the given caches that depend on any of the categories (matched
+     * against category codes and names, case-insensitively). A null set clears the caches.
+     *
+     * @return number of entries evicted, or -1 when the caches were cleared
+     */
+    public int invalidate(List<String> cacheNames, Set<String> categories) {
+        int evicted = 0;
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            List<String> keys = categories != null ? keysOf(cache) : null;
+            if (keys == null) {
+                cache.clear();
+                logger.debug("Cleared cache {}", cacheName);
+                evicted = -1;
+                continue;
+            }
+            int cacheEvicted = 0;
+            for (String key : keys) {
+                String category = IntegratedAnalysisRequest.categoryOf(key);
+                if (category == null || matches(categories, category)) {
+                    cache.evict(key);
+                    cacheEvicted++;
+                }
+            }
+            if (meterRegistry != null) {
+                meterRegistry.counter("cache.invalidated", "cache", cacheName).increment(cacheEvicted);
+            }
+            logger.debug("Evicted {} of {} entries from cache {}", cacheEvicted, keys.size(), cacheName);
+            if (evicted >= 0) {
+                evicted += cacheEvicted;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Lower-cased codes and names of the categories the books are filed under.
+     */
+    Set<String> categoriesOf(Set<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String placeholders = bookIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Set<String> categories = new HashSet<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(String.format(BOOK_CATEGORIES_SQL, placeholders),
+                                                                 bookIds.toArray())) {
+            for (Object value : row.values()) {
+                if (value != null) {
+                    categories.add(value.toString().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Analysis filters match categories by substring (see ReportService), so a filter depends on
+     * every category whose code or name contains it.
+     */
+    private static boolean matches(Set<String> categories, String filter) {
+        String needle = filter.toLowerCase(Locale.ROOT);
+        return categories.stream().anyMatch(category -> category.contains(needle));
+    }
+
+    /**
+     * Keys of a cache: the map keys of an in-memory cache, a SCAN of name::* for a Redis cache,
+     * or null when the keys can not be listed.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> keysOf(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof Map) {
+            return ((Map<Object, Object>) nativeCache).keySet().stream()
+                .map(String::valueOf)
+                .collect(Collectors.toList());
+        }
+        StringRedisTemplate template = redisTemplate.getIfAvailable();
+        if (template == null) {
+            return null;
+        }
+        String prefix = cache.getName() + "::";
+        return template.execute((RedisCallback<List<String>>) connection -> {
+            List<String> keys = new ArrayList<>();
+            ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_COUNT).build();
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(new String(cursor.next(), StandardCharsets.UTF_8).substring(prefix.length()));
+                }
+            } catch (IOException e) {
+                logger.debug("Closing scan cursor failed: {}", e.getMessage());
+            }
+            return keys;
+        });
+    }
+
+    /**
+     * Categories to evict from one cache; null clears the cache
+     */
+    private static final class PendingEviction {
+        private final Set<String> categories;
+
+        private PendingEviction(Set<String> categories) {
+            this.categories = categories;
+        }
+
+        private PendingEviction merge(PendingEviction other) {
+            if (categories == null || other.categories == null) {
+                return new PendingEviction(null);
+            }
+            Set<String> merged = new HashSet<>(categories);
+            merged.addAll(other.categories);
+            return new PendingEviction(merged);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.techbookstore.app.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports WARMING while the startup cache warm-up runs; part of the readiness group, so the
+ * instance receives traffic only once the configured keys are cached (or the startup timeout
+ * has passed).
+ */
+@Component
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    static final Status WARMING = new Status("WARMING", "Startup cache warm-up in progress");
+
+    private final CacheWarmupService cacheWarmupService;
+
+    public CacheWarmupHealthIndicator(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
+    }
+
+    @Override
+    public Health health() {
+        if (cacheWarmupService.isStartupWarming()) {
+            return Health.status(WARMING).build();
+        }
+        Health.Builder builder = Health.up();
+        cacheWarmupService.getLastResult().ifPresent(result -> builder
+            .withDetail("keys", result.getKeys())
+            .withDetail("failed", result.getFailed())
+            .withDetail("durationMs", result.getDurationMillis()));
+        return builder.build();
+    }
+}
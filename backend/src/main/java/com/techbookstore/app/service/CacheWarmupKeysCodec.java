@@ -0,0 +1,50 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.repository.AggregationCodec;
+import com.techbookstore.app.repository.AggregationPayload;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary layout of the most requested analysis cache keys, kept so request counts survive a
+ * restart. Version 1: entry count, then key and request count per entry, most requested first.
+ */
+public final class CacheWarmupKeysCodec implements AggregationCodec<Map<String, Integer>> {
+
+    public static final CacheWarmupKeysCodec WARMUP_KEYS = new CacheWarmupKeysCodec();
+
+    private static final short VERSION = 1;
+
+    private CacheWarmupKeysCodec() {
+    }
+
+    @Override
+    public String type() {
+        return "cache_warmup_keys";
+    }
+
+    @Override
+    public short version() {
+        return VERSION;
+    }
+
+    @Override
+    public void encode(Map<String, Integer> requestCounts, AggregationPayload.Writer out) {
+        out.count(requestCounts.size());
+        requestCounts.forEach((key, count) -> out.string(key).integer(count));
+    }
+
+    @Override
+    public Map<String, Integer> decode(AggregationPayload.Reader in, short version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported cache warm-up keys version " + version);
+        }
+        int size = in.count();
+        Map<String, Integer> requestCounts = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            requestCounts.put(in.string(), in.integer());
+        }
+        return requestCounts;
+    }
+}
@@ -0,0 +1,306 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.CacheWarmupProperties;
+import com.techbookstore.app.dto.IntegratedAnalysisRequest;
+import com.techbookstore.app.repository.AggregationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-computes the most requested analyses so the first users after a deploy, a Redis flush
+ * or the start of the business day hit a warm cache.
+ * キャッシュウォームアップ（起動時・営業開始前）
+ *
+ * Requests are counted per cache key without its date segment; the configured keys plus the
+ * top-N counted keys are replayed for the current date in parallel on the dashboard executor,
+ * once after startup and again on the pre-open cron. Every node adds the requests it counted
+ * since its last snapshot to the day's snapshot in aggregation_cache, one node at a time under a
+ * scheduler lock, so the saved ranking is the cluster's and survives restarts. Counts are halved
+ * at every pre-open warm-up, and a day's snapshot starts from the previous day's halved, so the
+ * ranking follows recent demand. Readiness reports WARMING until the startup warm-up is done
+ * (CacheWarmupHealthIndicator).
+ */
+@Service
+public class CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    /** Prefix of the dashboardData keys, see IntegratedInventoryAnalysisService */
+    static final String DASHBOARD_PREFIX = "dashboard_";
+
+    private static final int SNAPSHOT_RETENTION_DAYS = 7;
+
+    private static final String SNAPSHOT_LOCK = "cache_warmup_snapshot";
+
+    private final IntegratedInventoryAnalysisService analysisService;
+    private final AggregationStore aggregationStore;
+    private final CacheWarmupProperties properties;
+    private final ScheduledJobLock jobLock;
+    private final Executor executor;
+    private final ConcurrentMap<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    /** Requests counted since they were last added to the snapshot */
+    private final ConcurrentMap<String, AtomicLong> unsavedCounts = new ConcurrentHashMap<>();
+
+    private volatile long startupWarmupStartedMillis;
+    private volatile boolean startupWarmupRunning;
+    private volatile WarmupResult lastResult;
+
+    public CacheWarmupService(IntegratedInventoryAnalysisService analysisService, AggregationStore aggregationStore,
+                              CacheWarmupProperties properties, ScheduledJobLock jobLock,
+                              @Qualifier("dashboardExecutor") Executor executor) {
+        this.analysisService = analysisService;
+        this.aggregationStore = aggregationStore;
+        this.properties = properties;
+        this.jobLock = jobLock;
+        this.executor = executor;
+    }
+
+    /**
+     * Count a request served from the integratedAnalysis (dashboard false) or dashboardData cache.
+     */
+    public void record(IntegratedAnalysisRequest request, boolean dashboard) {
+        String key = (dashboard ? DASHBOARD_PREFIX : "") + IntegratedAnalysisRequest.withoutDate(request.cacheKey());
+        AtomicLong count = requestCounts.get(key);
+        if (count == null) {
+            if (requestCounts.size() >= properties.getMaxTrackedKeys()) {
+                return;
+            }
+            count = requestCounts.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+        unsavedCounts.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            loadSnapshot();
+        } catch (RuntimeException e) {
+            logger.warn("Could not load cache warm-up keys: {}", e.getMessage());
+        }
+        startupWarmupStartedMillis = System.currentTimeMillis();
+        startupWarmupRunning = true;
+        warm(warmupKeys()).whenComplete((result, e) -> startupWarmupRunning = false);
+    }
+
+    @Scheduled(cron = "${app.cache.warmup.cron:0 45 7 * * *}")
+    public void preOpenWarmup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        warm(warmupKeys());
+        decayCounts();
+        scheduledSnapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.warmup.snapshot-interval:PT15M}",
+               initialDelayString = "${app.cache.warmup.snapshot-interval:PT15M}")
+    public void scheduledSnapshot() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            saveSnapshot();
+        } catch (RuntimeException e) {
+            logger.warn("Could not save cache warm-up keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Configured keys first, then the most requested ones.
+     */
+    public List<String> warmupKeys() {
+        Set<String> keys = new LinkedHashSet<>(properties.getKeys());
+        keys.addAll(mostRequested(properties.getTopN()).keySet());
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Replay the keys for today's date in parallel; the future completes when every key is
+     * cached or has failed.
+     */
+    public CompletableFuture<WarmupResult> warm(List<String> keys) {
+        LocalDate today = LocalDate.now();
+        long started = System.nanoTime();
+        AtomicInteger failed = new AtomicInteger();
+        logger.info("Warming {} analysis cache keys", keys.size());
+
+        List<CompletableFuture<Void>> loads = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            CompletableFuture<Void> load;
+            try {
+                load = CompletableFuture.runAsync(() -> replay(key, today), executor);
+            } catch (RejectedExecutionException e) {
+                load = new CompletableFuture<>();
+                load.completeExceptionally(e);
+            }
+            loads.add(load.exceptionally(e -> {
+                failed.incrementAndGet();
+                logger.warn("Cache warm-up of {} failed: {}", key, e.getMessage());
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).thenApply(done -> {
+            WarmupResult result = new WarmupResult(keys.size(), failed.get(),
+                                                   TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            lastResult = result;
+            logger.info("Cache warm-up: {} of {} keys warmed in {} ms",
+                        result.getWarmed(), result.getKeys(), result.getDurationMillis());
+            return result;
+        });
+    }
+
+    /**
+     * True while the startup warm-up runs and has not exceeded the startup timeout.
+     */
+    public boolean isStartupWarming() {
+        return startupWarmupRunning
+            && System.currentTimeMillis() - startupWarmupStartedMillis < properties.getStartupTimeout().toMillis();
+    }
+
+    public Optional<WarmupResult> getLastResult() {
+        return Optional.ofNullable(lastResult);
+    }
+
+    private void replay(String key, LocalDate analysisDate) {
+        if (key.startsWith(DASHBOARD_PREFIX)) {
+            analysisService.generateRealtimeDashboardData(
+                IntegratedAnalysisRequest.fromCacheKey(key.substring(DASHBOARD_PREFIX.length()), analysisDate));
+        } else {
+            analysisService.executeIntegratedAnalysis(IntegratedAnalysisRequest.fromCacheKey(key, analysisDate));
+        }
+    }
+
+    private Map<String, Integer> mostRequested(int limit) {
+        Map<String, Long> counts = new HashMap<>();
+        requestCounts.forEach((key, count) -> {
+            long value = count.get();
+            if (value > 0) {
+                counts.put(key, value);
+            }
+        });
+        return top(counts, limit);
+    }
+
+    private static Map<String, Integer> top(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(limit)
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> (int) Math.min(entry.getValue(), Integer.MAX_VALUE),
+                                      (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private void decayCounts() {
+        requestCounts.forEach((key, count) -> {
+            if (count.updateAndGet(value -> value / 2) == 0) {
+                requestCounts.remove(key, count);
+            }
+        });
+    }
+
+    /**
+     * Add the requests counted since the last snapshot to today's snapshot. Skipped while another
+     * node writes it; the requests are then added by the next snapshot.
+     */
+    void saveSnapshot() {
+        jobLock.runLocked(SNAPSHOT_LOCK, lease -> {
+            Map<String, Long> unsaved = drainUnsavedCounts();
+            if (unsaved.isEmpty()) {
+                return;
+            }
+            try {
+                LocalDate today = LocalDate.now();
+                Map<String, Long> counts = new HashMap<>();
+                Optional<Map<String, Integer>> stored = aggregationStore.find(CacheWarmupKeysCodec.WARMUP_KEYS, today);
+                if (stored.isPresent()) {
+                    stored.get().forEach((key, count) -> counts.put(key, (long) count));
+                } else {
+                    aggregationStore.find(CacheWarmupKeysCodec.WARMUP_KEYS, today.minusDays(1))
+                        .ifPresent(previous -> previous.forEach((key, count) -> {
+                            if (count / 2 > 0) {
+                                counts.put(key, (long) (count / 2));
+                            }
+                        }));
+                }
+                unsaved.forEach((key, count) -> counts.merge(key, count, Long::sum));
+                aggregationStore.put(CacheWarmupKeysCodec.WARMUP_KEYS, today, top(counts, properties.getTopN()),
+                                     LocalDateTime.now().plusDays(SNAPSHOT_RETENTION_DAYS));
+            } catch (RuntimeException e) {
+                unsaved.forEach((key, count) ->
+                    unsavedCounts.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(count));
+                throw e;
+            }
+        });
+    }
+
+    private Map<String, Long> drainUnsavedCounts() {
+        Map<String, Long> drained = new HashMap<>();
+        unsavedCounts.forEach((key, count) -> {
+            long value = count.getAndSet(0);
+            if (value > 0) {
+                drained.put(key, value);
+            } else if (!requestCounts.containsKey(key)) {
+                unsavedCounts.remove(key, count);
+            }
+        });
+        return drained;
+    }
+
+    /**
+     * Seed the counts from the latest snapshot (today's, else yesterday's).
+     */
+    void loadSnapshot() {
+        LocalDate today = LocalDate.now();
+        Optional<Map<String, Integer>> snapshot = aggregationStore.find(CacheWarmupKeysCodec.WARMUP_KEYS, today);
+        if (!snapshot.isPresent()) {
+            snapshot = aggregationStore.find(CacheWarmupKeysCodec.WARMUP_KEYS, today.minusDays(1));
+        }
+        snapshot.ifPresent(counts -> counts.forEach(
+            (key, count) -> requestCounts.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(count)));
+    }
+
+    public static class WarmupResult {
+        private final int keys;
+        private final int failed;
+        private final long durationMillis;
+
+        WarmupResult(int keys, int failed, long durationMillis) {
+            this.keys = keys;
+            this.failed = failed;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getKeys() { return keys; }
+        public int getFailed() { return failed; }
+        public int getWarmed() { return keys - failed; }
+        public long getDurationMillis() { return durationMillis; }
+    }
+}
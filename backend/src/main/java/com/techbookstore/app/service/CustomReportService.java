@@ -3,15 +3,31 @@ package com.techbookstore.app.service;
 import com.techbookstore.app.dto.*;
 import com.techbookstore.app.entity.AggregationCache;
 import com.techbookstore.app.repository.AggregationCacheRepository;
+import com.techbookstore.app.repository.ArchivedOrderRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Phase 4: Custom report creation and management service.
@@ -23,15 +39,81 @@ public class CustomReportService {
     
     private static final Logger logger = LoggerFactory.getLogger(CustomReportService.class);
     
+    /** Rows pulled from the database per round trip while streaming an export. */
+    static final int EXPORT_FETCH_SIZE = 1000;
+    
+    private static final String[] ORDER_LINE_COLUMNS = {
+        "order_number", "order_date", "status", "customer_id", "isbn13", "title", "quantity", "unit_price", "total_price"
+    };
+    
+    private static final String LIVE_ORDER_LINES_SQL =
+        "SELECT o.order_number, o.order_date, o.status, o.customer_id, b.isbn13, b.title, " +
+        "oi.quantity, oi.unit_price, oi.total_price, o.id AS order_id, oi.id AS item_id " +
+        "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN books b ON b.id = oi.book_id " +
+        "WHERE o.order_date >= ? AND o.order_date < ?";
+    
+    private static final String ORDER_LINES_SQL = LIVE_ORDER_LINES_SQL + " ORDER BY order_date, order_id, item_id";
+    
+    /** Live and archived lines; the book of an archived line may since have been deleted */
+    private static final String ARCHIVED_ORDER_LINES_SQL = LIVE_ORDER_LINES_SQL + " UNION ALL " +
+        "SELECT o.order_number, o.order_date, o.status, o.customer_id, b.isbn13, b.title, " +
+        "oi.quantity, oi.unit_price, oi.total_price, o.id AS order_id, oi.id AS item_id " +
+        "FROM order_items_archive oi JOIN orders_archive o ON o.id = oi.order_id " +
+        "LEFT JOIN books b ON b.id = oi.book_id " +
+        "WHERE oi.order_date >= ? AND oi.order_date < ? " +
+        "ORDER BY order_date, order_id, item_id";
+    
+    /**
+     * Row-by-row export formats
+     */
+    public enum StreamFormat {
+        CSV("text/csv", ".csv"),
+        JSONL("application/x-ndjson", ".jsonl");
+        
+        private final String mimeType;
+        private final String extension;
+        
+        StreamFormat(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+        
+        public String getMimeType() { return mimeType; }
+        public String getExtension() { return extension; }
+        
+        /**
+         * Parses the format parameter; JSON is accepted as JSON Lines.
+         */
+        public static StreamFormat fromParameter(String format) {
+            String normalized = format.trim().toUpperCase();
+            if ("JSON".equals(normalized) || "NDJSON".equals(normalized)) {
+                return JSONL;
+            }
+            try {
+                return valueOf(normalized);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported streaming export format: " + format);
+            }
+        }
+    }
+    
     private final ReportService reportService;
     private final AnalyticsService analyticsService;
     private final AggregationCacheRepository cacheRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
     
     public CustomReportService(ReportService reportService, AnalyticsService analyticsService,
-                              AggregationCacheRepository cacheRepository) {
+                              AggregationCacheRepository cacheRepository,
+                              ArchivedOrderRepository archivedOrderRepository, JdbcTemplate jdbcTemplate) {
         this.reportService = reportService;
         this.analyticsService = analyticsService;
         this.cacheRepository = cacheRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        // Own template so the export cursor fetch size does not apply to other queries
+        this.exportJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
     }
     
     /**
@@ -272,6 +354,130 @@ public class CustomReportService {
         return export;
     }
     
+    /**
+     * Stream order lines for the date range (inclusive) to the output, one row at a time.
+     * Rows are read through a forward-only cursor with a fixed fetch size and written as they
+     * arrive, so memory use does not depend on the size of the range. Read-only transaction so
+     * PostgreSQL honours the fetch size instead of materializing the whole result. Ranges reaching
+     * the archived orders also read orders_archive.
+     * 注文明細のストリーミングエクスポート
+     * 
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportOrderLines(LocalDate startDate, LocalDate endDate, StreamFormat format, OutputStream out) {
+        logger.info("Streaming order lines from {} to {} as {}", startDate, endDate, format);
+        
+        Timestamp from = Timestamp.valueOf(startDate.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(endDate.plusDays(1).atStartOfDay());
+        LocalDateTime latestArchived = archivedOrderRepository.findLatestOrderDate();
+        boolean archived = latestArchived != null && !startDate.atStartOfDay().isAfter(latestArchived);
+        Object[] arguments = archived ? new Object[] {from, to, from, to} : new Object[] {from, to};
+        
+        AtomicLong rows = new AtomicLong();
+        try {
+            RowWriter writer = format == StreamFormat.CSV ? new CsvRowWriter(out) : new JsonLinesRowWriter(out);
+            exportJdbcTemplate.query(archived ? ARCHIVED_ORDER_LINES_SQL : ORDER_LINES_SQL, rs -> {
+                try {
+                    writer.write(rs);
+                    rows.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, arguments);
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        logger.info("Streamed {} order lines", rows.get());
+        return rows.get();
+    }
+    
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+        
+        void finish() throws IOException;
+    }
+    
+    /**
+     * RFC 4180 CSV with a header row
+     */
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", ORDER_LINE_COLUMNS));
+            writer.write("\r\n");
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= ORDER_LINE_COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    writer.write(escape(value instanceof Timestamp
+                        ? ((Timestamp) value).toLocalDateTime().toString() : value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+        
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+    
+    /**
+     * One JSON object per line
+     */
+    private class JsonLinesRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        
+        JsonLinesRowWriter(OutputStream out) throws IOException {
+            this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            generator.setRootValueSeparator(null);
+        }
+        
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("order_number", rs.getString(1));
+            generator.writeStringField("order_date", rs.getTimestamp(2).toLocalDateTime().toString());
+            generator.writeStringField("status", rs.getString(3));
+            long customerId = rs.getLong(4);
+            if (rs.wasNull()) {
+                generator.writeNullField("customer_id");
+            } else {
+                generator.writeNumberField("customer_id", customerId);
+            }
+            generator.writeStringField("isbn13", rs.getString(5));
+            generator.writeStringField("title", rs.getString(6));
+            generator.writeNumberField("quantity", rs.getInt(7));
+            generator.writeNumberField("unit_price", rs.getBigDecimal(8));
+            generator.writeNumberField("total_price", rs.getBigDecimal(9));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+    
     private Map<String, Object> generateReportData(CustomReportRequest request) {
         Map<String, Object> data = new HashMap<>();
         
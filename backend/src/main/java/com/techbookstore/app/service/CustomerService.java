@@ -1,21 +1,30 @@
 package com.techbookstore.app.service;
 
+import com.techbookstore.app.dto.KeysetSlice;
 import com.techbookstore.app.entity.Customer;
 import com.techbookstore.app.entity.Order;
 import com.techbookstore.app.exception.CustomerEmailAlreadyExistsException;
 import com.techbookstore.app.exception.CustomerNotFoundException;
+import com.techbookstore.app.repository.ArchiveAwareRepository;
 import com.techbookstore.app.repository.CustomerRepository;
-import com.techbookstore.app.repository.OrderRepository;
+import com.techbookstore.app.repository.KeysetPagingRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for managing customers and customer-related operations.
@@ -26,15 +35,23 @@ public class CustomerService {
     
     private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
     
+    /** Non-null columns usable as cursor sort keys. */
+    private static final Set<String> KEYSET_SORT_PROPERTIES = new HashSet<>(Arrays.asList("id", "name", "email", "createdAt"));
+    
     private final CustomerRepository customerRepository;
-    private final OrderRepository orderRepository;
+    private final ArchiveAwareRepository archiveAwareRepository;
+    private final KeysetPagingRepository keysetPagingRepository;
+    private final SuggestionService suggestionService;
     
     /**
      * Constructor injection for dependencies.
      */
-    public CustomerService(CustomerRepository customerRepository, OrderRepository orderRepository) {
+    public CustomerService(CustomerRepository customerRepository, ArchiveAwareRepository archiveAwareRepository,
+                           KeysetPagingRepository keysetPagingRepository, SuggestionService suggestionService) {
         this.customerRepository = customerRepository;
-        this.orderRepository = orderRepository;
+        this.archiveAwareRepository = archiveAwareRepository;
+        this.keysetPagingRepository = keysetPagingRepository;
+        this.suggestionService = suggestionService;
     }
     
     /**
@@ -55,6 +72,7 @@ public class CustomerService {
         
         customer.setStatus(Customer.CustomerStatus.ACTIVE);
         Customer savedCustomer = customerRepository.save(customer);
+        suggestionService.customerSaved(savedCustomer);
         
         logger.info("Created customer with ID: {}", savedCustomer.getId());
         return savedCustomer;
@@ -100,6 +118,7 @@ public class CustomerService {
         existingCustomer.setUpdatedAt(LocalDateTime.now());
         
         Customer updatedCustomer = customerRepository.save(existingCustomer);
+        suggestionService.customerSaved(updatedCustomer);
         logger.info("Updated customer with ID: {}", updatedCustomer.getId());
         return updatedCustomer;
     }
@@ -130,6 +149,59 @@ public class CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException("email", email));
     }
     
+    /**
+     * Retrieves active customers with cursor (keyset) pagination and the same optional filters
+     * as the offset listing. No count query is run.
+     * 
+     * @param keyword search keyword for name, email or company name
+     * @param customerType filter by customer type
+     * @param status filter by customer status
+     * @param startDate filter by creation start date
+     * @param endDate filter by creation end date
+     * @param sortProperty sort key (id, name, email, createdAt)
+     * @param direction sort direction
+     * @param after cursor from the previous slice, or empty for the first slice
+     * @param size slice size
+     * @return slice of customers with the next cursor
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Customer> getCustomersAfter(String keyword,
+                                                   Customer.CustomerType customerType,
+                                                   Customer.CustomerStatus status,
+                                                   LocalDateTime startDate,
+                                                   LocalDateTime endDate,
+                                                   String sortProperty,
+                                                   Sort.Direction direction,
+                                                   String after,
+                                                   int size) {
+        Specification<Customer> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.notEqual(root.get("status"), Customer.CustomerStatus.DELETED));
+            if (keyword != null) {
+                String pattern = "%" + keyword.toLowerCase() + "%";
+                predicates.add(cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("email")), pattern),
+                    cb.like(cb.lower(root.get("companyName")), pattern)));
+            }
+            if (customerType != null) {
+                predicates.add(cb.equal(root.get("customerType"), customerType));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (startDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), startDate));
+            }
+            if (endDate != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), endDate));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        return keysetPagingRepository.findSlice(Customer.class, filter, KEYSET_SORT_PROPERTIES,
+                                                sortProperty, direction, after, size);
+    }
+    
     /**
      * Retrieves all active customers with pagination.
      * 
@@ -187,12 +259,13 @@ public class CustomerService {
         customer.setStatus(Customer.CustomerStatus.DELETED);
         customer.setUpdatedAt(LocalDateTime.now());
         customerRepository.save(customer);
+        suggestionService.customerSaved(customer);
         
         logger.info("Deleted customer with ID: {}", id);
     }
     
     /**
-     * Retrieves all orders for a specific customer.
+     * Retrieves all orders for a specific customer, including archived ones.
      * 
      * @param customerId the customer ID
      * @return list of orders
@@ -203,7 +276,7 @@ public class CustomerService {
         customerRepository.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundException(customerId));
         
-        return orderRepository.findByCustomerId(customerId);
+        return archiveAwareRepository.findOrdersByCustomerId(customerId);
     }
     
     /**
@@ -0,0 +1,77 @@
+package com.techbookstore.app.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-day in-memory order number counter for single-node deployments (dev/H2).
+ * The counter is seeded from the highest number already issued for the day on first use, so a
+ * restart continues the day's numbering. Not safe with more than one app instance writing to the same database.
+ */
+@Component
+@ConditionalOnProperty(name = "app.order-number.generator", havingValue = "daily-counter")
+public class DailyCounterOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<DayCounter> counter = new AtomicReference<>();
+
+    public DailyCounterOrderNumberGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        LocalDate today = LocalDate.now();
+        DayCounter current = counter.get();
+        while (current == null || !current.date.equals(today)) {
+            DayCounter fresh = new DayCounter(today, highestIssued(prefix(today)));
+            if (counter.compareAndSet(current, fresh)) {
+                current = fresh;
+            } else {
+                current = counter.get();
+            }
+        }
+        return String.format("%s%04d", current.prefix, current.value.incrementAndGet());
+    }
+
+    private long highestIssued(String prefix) {
+        // Longest first: ORD-...-10000 sorts before ORD-...-9999 as plain text
+        List<String> numbers = jdbcTemplate.queryForList(
+            "SELECT order_number FROM orders WHERE order_number LIKE ? " +
+            "ORDER BY LENGTH(order_number) DESC, order_number DESC LIMIT 1",
+            String.class, prefix + "%");
+        if (numbers.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(numbers.get(0).substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String prefix(LocalDate date) {
+        return "ORD-" + date.format(DATE_FORMAT) + "-";
+    }
+
+    private static final class DayCounter {
+        private final LocalDate date;
+        private final String prefix;
+        private final AtomicLong value;
+
+        private DayCounter(LocalDate date, long seed) {
+            this.date = date;
+            this.prefix = prefix(date);
+            this.value = new AtomicLong(seed);
+        }
+    }
+}
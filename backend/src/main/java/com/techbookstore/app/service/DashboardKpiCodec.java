@@ -0,0 +1,125 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.DashboardKpiDto;
+import com.techbookstore.app.repository.AggregationCodec;
+import com.techbookstore.app.repository.AggregationPayload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary layout of the daily KPI snapshot stored by the daily batch.
+ * Version 1: report date, then the revenue, order, customer, inventory and tech trend groups
+ * (each behind a presence byte) and the trend summaries.
+ */
+public final class DashboardKpiCodec implements AggregationCodec<DashboardKpiDto> {
+
+    public static final DashboardKpiCodec DAILY_KPIS = new DashboardKpiCodec();
+
+    private static final short VERSION = 1;
+
+    private DashboardKpiCodec() {
+    }
+
+    @Override
+    public String type() {
+        return "daily_kpis";
+    }
+
+    @Override
+    public short version() {
+        return VERSION;
+    }
+
+    @Override
+    public void encode(DashboardKpiDto kpis, AggregationPayload.Writer out) {
+        out.date(kpis.getReportDate());
+
+        DashboardKpiDto.RevenueKpis revenue = kpis.getRevenue();
+        out.presence(revenue);
+        if (revenue != null) {
+            out.decimal(revenue.getTodayRevenue()).decimal(revenue.getWeekRevenue())
+               .decimal(revenue.getMonthRevenue()).decimal(revenue.getYearRevenue())
+               .number(revenue.getRevenueGrowth());
+        }
+
+        DashboardKpiDto.OrderKpis orders = kpis.getOrders();
+        out.presence(orders);
+        if (orders != null) {
+            out.integer(orders.getTodayOrders()).integer(orders.getWeekOrders()).integer(orders.getMonthOrders())
+               .decimal(orders.getAverageOrderValue()).number(orders.getOrderGrowth());
+        }
+
+        DashboardKpiDto.CustomerKpis customers = kpis.getCustomers();
+        out.presence(customers);
+        if (customers != null) {
+            out.integer(customers.getTotalCustomers()).integer(customers.getNewCustomersThisMonth())
+               .integer(customers.getActiveCustomers()).number(customers.getCustomerRetentionRate())
+               .number(customers.getCustomerGrowth());
+        }
+
+        DashboardKpiDto.InventoryKpis inventory = kpis.getInventory();
+        out.presence(inventory);
+        if (inventory != null) {
+            out.integer(inventory.getTotalProducts()).integer(inventory.getLowStockItems())
+               .integer(inventory.getOutOfStockItems()).decimal(inventory.getTotalInventoryValue())
+               .number(inventory.getInventoryTurnover());
+        }
+
+        DashboardKpiDto.TechTrendKpis techTrends = kpis.getTechTrends();
+        out.presence(techTrends);
+        if (techTrends != null) {
+            out.string(techTrends.getTopRisingTech()).number(techTrends.getTopRisingGrowth())
+               .string(techTrends.getTopFallingTech()).number(techTrends.getTopFallingDecline())
+               .integer(techTrends.getEmergingTechCount()).integer(techTrends.getObsoleteTechCount())
+               .decimal(techTrends.getTechCategoryDiversity()).number(techTrends.getInnovationIndex());
+        }
+
+        List<DashboardKpiDto.TrendSummary> trends = kpis.getTrends();
+        out.count(trends != null ? trends.size() : -1);
+        if (trends != null) {
+            for (DashboardKpiDto.TrendSummary trend : trends) {
+                out.string(trend.getMetric()).string(trend.getPeriod())
+                   .number(trend.getChangePercent()).string(trend.getTrend());
+            }
+        }
+    }
+
+    @Override
+    public DashboardKpiDto decode(AggregationPayload.Reader in, short version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported daily KPI payload version " + version);
+        }
+        DashboardKpiDto kpis = new DashboardKpiDto(in.date());
+        if (in.present()) {
+            kpis.setRevenue(new DashboardKpiDto.RevenueKpis(in.decimal(), in.decimal(), in.decimal(),
+                                                            in.decimal(), in.number()));
+        }
+        if (in.present()) {
+            kpis.setOrders(new DashboardKpiDto.OrderKpis(in.integer(), in.integer(), in.integer(),
+                                                         in.decimal(), in.number()));
+        }
+        if (in.present()) {
+            kpis.setCustomers(new DashboardKpiDto.CustomerKpis(in.integer(), in.integer(), in.integer(),
+                                                               in.number(), in.number()));
+        }
+        if (in.present()) {
+            kpis.setInventory(new DashboardKpiDto.InventoryKpis(in.integer(), in.integer(), in.integer(),
+                                                                in.decimal(), in.number()));
+        }
+        if (in.present()) {
+            kpis.setTechTrends(new DashboardKpiDto.TechTrendKpis(in.string(), in.number(), in.string(), in.number(),
+                                                                 in.integer(), in.integer(), in.decimal(),
+                                                                 in.number()));
+        }
+        int trendCount = in.count();
+        if (trendCount >= 0) {
+            List<DashboardKpiDto.TrendSummary> trends = new ArrayList<>(trendCount);
+            for (int i = 0; i < trendCount; i++) {
+                trends.add(new DashboardKpiDto.TrendSummary(in.string(), in.string(), in.number(), in.string()));
+            }
+            kpis.setTrends(trends);
+        }
+        return kpis;
+    }
+}
@@ -1,13 +1,13 @@
 package com.techbookstore.app.service;
 
+import com.techbookstore.app.dto.MonthlyDemandDto;
 import com.techbookstore.app.entity.Book;
 import com.techbookstore.app.entity.DemandForecast;
 import com.techbookstore.app.entity.ForecastAccuracy;
-import com.techbookstore.app.entity.Order;
 import com.techbookstore.app.repository.DemandForecastRepository;
 import com.techbookstore.app.repository.ForecastAccuracyRepository;
 import com.techbookstore.app.repository.BookRepository;
-import com.techbookstore.app.repository.OrderRepository;
+import com.techbookstore.app.repository.ArchiveAwareRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -16,8 +16,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Advanced Demand Forecasting Service with 5 algorithms
@@ -32,7 +33,7 @@ public class DemandForecastService {
     private final DemandForecastRepository demandForecastRepository;
     private final ForecastAccuracyRepository forecastAccuracyRepository;
     private final BookRepository bookRepository;
-    private final OrderRepository orderRepository;
+    private final ArchiveAwareRepository archiveAwareRepository;
     private final SeasonalAnalysisService seasonalAnalysisService;
     private final TechTrendAnalysisService techTrendAnalysisService;
     
@@ -42,13 +43,13 @@ public class DemandForecastService {
     public DemandForecastService(DemandForecastRepository demandForecastRepository,
                                 ForecastAccuracyRepository forecastAccuracyRepository,
                                 BookRepository bookRepository,
-                                OrderRepository orderRepository,
+                                ArchiveAwareRepository archiveAwareRepository,
                                 SeasonalAnalysisService seasonalAnalysisService,
                                 TechTrendAnalysisService techTrendAnalysisService) {
         this.demandForecastRepository = demandForecastRepository;
         this.forecastAccuracyRepository = forecastAccuracyRepository;
         this.bookRepository = bookRepository;
-        this.orderRepository = orderRepository;
+        this.archiveAwareRepository = archiveAwareRepository;
         this.seasonalAnalysisService = seasonalAnalysisService;
         this.techTrendAnalysisService = techTrendAnalysisService;
         
@@ -78,22 +79,26 @@ public class DemandForecastService {
         Book book = bookRepository.findById(bookId)
             .orElseThrow(() -> new RuntimeException("Book not found: " + bookId));
 
+        // Load the aggregated demand history once and share it across all algorithms
+        DemandHistory recentHistory = loadDemandHistory(bookId, forecastDate.minusMonths(6).atStartOfDay(), forecastDate.atStartOfDay());
+        DemandHistory yearlyHistory = loadDemandHistory(bookId, forecastDate.minusMonths(12).atStartOfDay(), forecastDate.atStartOfDay());
+
         List<DemandForecast> forecasts = new ArrayList<>();
         
         // 1. Moving Average
-        DemandForecast movingAverage = calculateMovingAverage(book, forecastDate, periodMonths);
+        DemandForecast movingAverage = calculateMovingAverage(book, recentHistory, forecastDate, periodMonths);
         forecasts.add(movingAverage);
         
         // 2. Exponential Smoothing
-        DemandForecast exponentialSmoothing = calculateExponentialSmoothing(book, forecastDate, periodMonths);
+        DemandForecast exponentialSmoothing = calculateExponentialSmoothing(book, yearlyHistory, forecastDate, periodMonths);
         forecasts.add(exponentialSmoothing);
         
         // 3. Linear Regression
-        DemandForecast linearRegression = calculateLinearRegression(book, forecastDate, periodMonths);
+        DemandForecast linearRegression = calculateLinearRegression(book, yearlyHistory, forecastDate, periodMonths);
         forecasts.add(linearRegression);
         
         // 4. Seasonal Adjustment
-        DemandForecast seasonalAdjustment = calculateSeasonalAdjustment(book, forecastDate, periodMonths);
+        DemandForecast seasonalAdjustment = calculateSeasonalAdjustment(book, recentHistory, forecastDate, periodMonths);
         forecasts.add(seasonalAdjustment);
         
         // 5. Ensemble Forecast
@@ -109,19 +114,11 @@ public class DemandForecastService {
 
     /**
      * 1. Moving Average Algorithm - 移動平均法
+     * Uses the last 6 months of history (average quantity per order line).
      */
-    private DemandForecast calculateMovingAverage(Book book, LocalDate forecastDate, int periodMonths) {
-        LocalDate startDate = forecastDate.minusMonths(6); // Use last 6 months
-        List<Order> historicalOrders = orderRepository.findByOrderDateBetween(
-            startDate.atStartOfDay(), forecastDate.atStartOfDay());
-        
+    private DemandForecast calculateMovingAverage(Book book, DemandHistory history, LocalDate forecastDate, int periodMonths) {
         // Calculate average demand for this book
-        double averageDemand = historicalOrders.stream()
-            .flatMap(order -> order.getOrderItems().stream())
-            .filter(item -> item.getBook().getId().equals(book.getId()))
-            .mapToInt(item -> item.getQuantity())
-            .average()
-            .orElse(0.0);
+        double averageDemand = history.averageLineQuantity(book.getId());
         
         int predictedDemand = Math.max(1, (int) Math.round(averageDemand * periodMonths));
         
@@ -130,25 +127,22 @@ public class DemandForecastService {
 
     /**
      * 2. Exponential Smoothing Algorithm - 指数平滑法
+     * Uses the last 12 months of history.
      */
-    private DemandForecast calculateExponentialSmoothing(Book book, LocalDate forecastDate, int periodMonths) {
+    private DemandForecast calculateExponentialSmoothing(Book book, DemandHistory history, LocalDate forecastDate, int periodMonths) {
         double alpha = 0.3; // Smoothing factor
-        LocalDate startDate = forecastDate.minusMonths(12); // Use last 12 months
-        
-        List<Order> historicalOrders = orderRepository.findByOrderDateBetween(
-            startDate.atStartOfDay(), forecastDate.atStartOfDay());
         
-        // Get monthly demand data
-        Map<LocalDate, Integer> monthlyDemand = getMonthlyDemandData(book, historicalOrders);
+        // Get monthly demand data (chronological order)
+        SortedMap<YearMonth, Long> monthlyDemand = history.monthlySeries(book.getId());
         
         if (monthlyDemand.isEmpty()) {
             return new DemandForecast(book, forecastDate, 1, "EXPONENTIAL_SMOOTHING", 0.60);
         }
         
         // Apply exponential smoothing
-        double smoothedValue = monthlyDemand.values().stream().mapToInt(Integer::intValue).average().orElse(0.0);
+        double smoothedValue = monthlyDemand.values().stream().mapToLong(Long::longValue).average().orElse(0.0);
         
-        for (Integer demand : monthlyDemand.values()) {
+        for (Long demand : monthlyDemand.values()) {
             smoothedValue = alpha * demand + (1 - alpha) * smoothedValue;
         }
         
@@ -159,28 +153,24 @@ public class DemandForecastService {
 
     /**
      * 3. Linear Regression Algorithm - 線形回帰
+     * Uses the last 12 months of history.
      */
-    private DemandForecast calculateLinearRegression(Book book, LocalDate forecastDate, int periodMonths) {
-        LocalDate startDate = forecastDate.minusMonths(12);
-        List<Order> historicalOrders = orderRepository.findByOrderDateBetween(
-            startDate.atStartOfDay(), forecastDate.atStartOfDay());
-        
-        Map<LocalDate, Integer> monthlyDemand = getMonthlyDemandData(book, historicalOrders);
+    private DemandForecast calculateLinearRegression(Book book, DemandHistory history, LocalDate forecastDate, int periodMonths) {
+        SortedMap<YearMonth, Long> monthlyDemand = history.monthlySeries(book.getId());
         
         if (monthlyDemand.size() < 3) {
             return new DemandForecast(book, forecastDate, 1, "LINEAR_REGRESSION", 0.50);
         }
         
         // Simple linear regression calculation
-        List<LocalDate> dates = new ArrayList<>(monthlyDemand.keySet());
-        dates.sort(LocalDate::compareTo);
+        List<Long> demands = new ArrayList<>(monthlyDemand.values());
         
         double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0;
-        int n = dates.size();
+        int n = demands.size();
         
         for (int i = 0; i < n; i++) {
             double x = i + 1; // Time index
-            double y = monthlyDemand.get(dates.get(i));
+            double y = demands.get(i);
             sumX += x;
             sumY += y;
             sumXY += x * y;
@@ -202,9 +192,9 @@ public class DemandForecastService {
     /**
      * 4. Seasonal Adjustment Algorithm - 季節性調整
      */
-    private DemandForecast calculateSeasonalAdjustment(Book book, LocalDate forecastDate, int periodMonths) {
+    private DemandForecast calculateSeasonalAdjustment(Book book, DemandHistory history, LocalDate forecastDate, int periodMonths) {
         // Get base forecast using moving average
-        DemandForecast baseForecast = calculateMovingAverage(book, forecastDate, periodMonths);
+        DemandForecast baseForecast = calculateMovingAverage(book, history, forecastDate, periodMonths);
         
         // Apply seasonal adjustment based on book category
         String categoryCode = "GENERAL"; // Simplified - we'll enhance this later
@@ -252,20 +242,13 @@ public class DemandForecastService {
     }
 
     /**
-     * Helper method to get monthly demand data
+     * Load per-book, per-month demand aggregated by the database.
+     * A null bookId loads the whole catalog in a single query; ranges older than the archive
+     * boundary also include archived order lines.
      */
-    private Map<LocalDate, Integer> getMonthlyDemandData(Book book, List<Order> orders) {
-        return orders.stream()
-            .flatMap(order -> order.getOrderItems().stream())
-            .filter(item -> item.getBook().getId().equals(book.getId()))
-            .collect(Collectors.groupingBy(
-                item -> LocalDate.of(
-                    item.getOrder().getOrderDate().getYear(),
-                    item.getOrder().getOrderDate().getMonth(),
-                    1
-                ),
-                Collectors.summingInt(item -> item.getQuantity())
-            ));
+    private DemandHistory loadDemandHistory(Long bookId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<MonthlyDemandDto> rows = archiveAwareRepository.findMonthlyDemandBetween(bookId, startDate, endDate);
+        return new DemandHistory(rows);
     }
 
     /**
@@ -289,22 +272,25 @@ public class DemandForecastService {
             return new ForecastAccuracy(algorithm, BigDecimal.ZERO, BigDecimal.valueOf(100), BigDecimal.ZERO, fromDate, toDate);
         }
         
+        // Actual demand for every forecast month, loaded in one aggregated query
+        DemandHistory actuals = loadActualDemand(forecasts);
+        
         // Calculate accuracy metrics (simplified implementation)
         double totalError = forecasts.stream()
-            .mapToDouble(f -> Math.abs(f.getPredictedDemand() - getActualDemand(f.getBook(), f.getForecastDate())))
+            .mapToDouble(f -> Math.abs(f.getPredictedDemand() - getActualDemand(actuals, f.getBook(), f.getForecastDate())))
             .sum();
         
         double mae = totalError / forecasts.size();
         double mape = forecasts.stream()
             .mapToDouble(f -> {
-                int actual = getActualDemand(f.getBook(), f.getForecastDate());
+                int actual = getActualDemand(actuals, f.getBook(), f.getForecastDate());
                 return actual > 0 ? Math.abs(f.getPredictedDemand() - actual) / (double) actual * 100 : 0;
             })
             .average()
             .orElse(0.0);
         
         double rmse = Math.sqrt(forecasts.stream()
-            .mapToDouble(f -> Math.pow(f.getPredictedDemand() - getActualDemand(f.getBook(), f.getForecastDate()), 2))
+            .mapToDouble(f -> Math.pow(f.getPredictedDemand() - getActualDemand(actuals, f.getBook(), f.getForecastDate()), 2))
             .average()
             .orElse(0.0));
         
@@ -330,6 +316,10 @@ public class DemandForecastService {
         
         LocalDate forecastDate = LocalDate.now().plusDays(horizonDays);
         
+        // One aggregated pass over the last 3 months of orders for the whole catalog
+        LocalDate endDate = LocalDate.now();
+        DemandHistory history = loadDemandHistory(null, endDate.minusDays(90).atStartOfDay(), endDate.atTime(23, 59, 59));
+        
         for (Book book : books) {
             try {
                 // Simplified forecast calculation
@@ -342,7 +332,7 @@ public class DemandForecastService {
                 forecast.setAlgorithm("ENSEMBLE");
                 
                 // Simple forecast based on average demand
-                int averageDemand = calculateAverageDemand(book);
+                int averageDemand = calculateAverageDemand(history, book);
                 forecast.setForecastedDemand(averageDemand);
                 forecast.setConfidenceLevel(BigDecimal.valueOf(75.0)); // Default confidence
                 
@@ -361,39 +351,68 @@ public class DemandForecastService {
     }
     
     /**
-     * Calculate simple average demand for a book
+     * Calculate simple average demand for a book over the 3-month history window
      */
-    private int calculateAverageDemand(Book book) {
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(90); // 3 months
-        
-        List<Order> orders = orderRepository.findByOrderDateBetween(
-            startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        
-        int totalDemand = orders.stream()
-            .flatMap(order -> order.getOrderItems().stream())
-            .filter(item -> item.getBook().getId().equals(book.getId()))
-            .mapToInt(item -> item.getQuantity())
-            .sum();
+    private int calculateAverageDemand(DemandHistory history, Book book) {
+        long totalDemand = history.totalDemand(book.getId());
         
         // Average per month over 3 months
-        return Math.max(1, totalDemand / 3);
+        return (int) Math.max(1, totalDemand / 3);
     }
 
     /**
-     * Helper method to get actual demand for a book on a specific date
+     * Load actual monthly demand covering the forecast dates of the given forecasts
      */
-    private int getActualDemand(Book book, LocalDate date) {
-        LocalDate startDate = date.withDayOfMonth(1);
-        LocalDate endDate = date.withDayOfMonth(date.lengthOfMonth());
+    private DemandHistory loadActualDemand(List<DemandForecast> forecasts) {
+        LocalDate minDate = forecasts.stream().map(DemandForecast::getForecastDate).min(LocalDate::compareTo).get();
+        LocalDate maxDate = forecasts.stream().map(DemandForecast::getForecastDate).max(LocalDate::compareTo).get();
         
-        List<Order> orders = orderRepository.findByOrderDateBetween(
-            startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        
-        return orders.stream()
-            .flatMap(order -> order.getOrderItems().stream())
-            .filter(item -> item.getBook().getId().equals(book.getId()))
-            .mapToInt(item -> item.getQuantity())
-            .sum();
+        return loadDemandHistory(null,
+            minDate.withDayOfMonth(1).atStartOfDay(),
+            maxDate.withDayOfMonth(maxDate.lengthOfMonth()).atTime(23, 59, 59));
+    }
+
+    /**
+     * Helper method to get actual demand for a book in the month of a specific date
+     */
+    private int getActualDemand(DemandHistory actuals, Book book, LocalDate date) {
+        return (int) actuals.demandFor(book.getId(), YearMonth.from(date));
+    }
+
+    /**
+     * Per-book, per-month demand snapshot shared by all forecasting algorithms
+     */
+    private static class DemandHistory {
+        private final Map<Long, SortedMap<YearMonth, MonthlyDemandDto>> byBook = new HashMap<>();
+
+        DemandHistory(List<MonthlyDemandDto> rows) {
+            for (MonthlyDemandDto row : rows) {
+                byBook.computeIfAbsent(row.getBookId(), id -> new TreeMap<>()).put(row.getMonth(), row);
+            }
+        }
+
+        SortedMap<YearMonth, Long> monthlySeries(Long bookId) {
+            SortedMap<YearMonth, Long> series = new TreeMap<>();
+            byBook.getOrDefault(bookId, Collections.emptySortedMap())
+                .forEach((month, row) -> series.put(month, row.getQuantity()));
+            return series;
+        }
+
+        long totalDemand(Long bookId) {
+            return byBook.getOrDefault(bookId, Collections.emptySortedMap()).values().stream()
+                .mapToLong(MonthlyDemandDto::getQuantity)
+                .sum();
+        }
+
+        long demandFor(Long bookId, YearMonth month) {
+            MonthlyDemandDto row = byBook.getOrDefault(bookId, Collections.emptySortedMap()).get(month);
+            return row != null ? row.getQuantity() : 0L;
+        }
+
+        double averageLineQuantity(Long bookId) {
+            Collection<MonthlyDemandDto> rows = byBook.getOrDefault(bookId, Collections.emptySortedMap()).values();
+            long lines = rows.stream().mapToLong(MonthlyDemandDto::getOrderLines).sum();
+            return lines > 0 ? (double) totalDemand(bookId) / lines : 0.0;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.BatchProperties;
+import com.techbookstore.app.dto.CustomerAnalyticsDto;
+import com.techbookstore.app.entity.AggregationWatermark;
+import com.techbookstore.app.repository.AggregationWatermarkRepository;
+import com.techbookstore.app.repository.IncrementalAggregationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Nightly delta maintenance of aggregates driven by change-tracking watermarks.
+ * 差分集計サービス - 前回実行以降に変更された行のみを再集計
+ *
+ * Each aggregation keeps a watermark (aggregation_watermarks). The first attempt of its batch step
+ * fixes the end of the window to read (pending_until); every attempt reads the aggregate keys
+ * touched by source rows changed at or after the watermark and before that end, refreshes them
+ * chunk by chunk (IncrementalAggregationStore), resuming after the last committed key, and the
+ * transaction that completes the step advances the watermark, so a failed run is resumed or
+ * retried over the same window. The new watermark is the end of the window minus
+ * app.batch.watermark-overlap: rows committed late with an earlier timestamp, or stamped by a node
+ * with a lagging clock, are picked up again by the next run rather than lost, as are rows changed
+ * while the run was in progress. Without a watermark the first run aggregates everything.
+ */
+@Service
+public class IncrementalAggregationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalAggregationService.class);
+
+    static final String CUSTOMER_ORDER_STATS = "customer_order_stats";
+    static final String INVENTORY_DAILY_MOVEMENTS = "inventory_daily_movements";
+
+    /** Total spent from which a customer is in the Premium segment */
+    private static final BigDecimal PREMIUM_SPEND = new BigDecimal("30000");
+
+    /** Customers whose first order is this recent are in the New segment */
+    private static final int NEW_CUSTOMER_DAYS = 90;
+
+    private final IncrementalAggregationStore store;
+    private final AggregationWatermarkRepository watermarkRepository;
+    private final BatchProperties properties;
+    private final TransactionTemplate windowTransaction;
+
+    public IncrementalAggregationService(IncrementalAggregationStore store,
+                                         AggregationWatermarkRepository watermarkRepository,
+                                         BatchProperties properties, PlatformTransactionManager transactionManager) {
+        this.store = store;
+        this.watermarkRepository = watermarkRepository;
+        this.properties = properties;
+        this.windowTransaction = new TransactionTemplate(transactionManager);
+        this.windowTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Step refreshing customer_order_stats for the customers whose orders or profile changed
+     */
+    public BatchJobEngine.Step<Long> customerOrderStatsStep(LocalDate runDate) {
+        return deltaStep(CUSTOMER_ORDER_STATS, runDate, store::findChangedCustomerIds,
+                         id -> String.format("%019d", id), store::refreshCustomerStats);
+    }
+
+    /**
+     * Step refreshing inventory_daily_movements for the days that received transactions
+     */
+    public BatchJobEngine.Step<LocalDate> inventoryMovementsStep(LocalDate runDate) {
+        return deltaStep(INVENTORY_DAILY_MOVEMENTS, runDate, store::findChangedMovementDays,
+                         LocalDate::toString, store::refreshMovements);
+    }
+
+    /**
+     * Customer segments summarized from customer_order_stats
+     */
+    public List<CustomerAnalyticsDto.CustomerSegment> customerSegments(LocalDate asOf) {
+        List<CustomerAnalyticsDto.CustomerSegment> segments =
+            store.findCustomerSegments(PREMIUM_SPEND, asOf.minusDays(NEW_CUSTOMER_DAYS).atStartOfDay());
+        long customers = segments.stream().mapToLong(CustomerAnalyticsDto.CustomerSegment::getCustomerCount).sum();
+        for (CustomerAnalyticsDto.CustomerSegment segment : segments) {
+            segment.setPercentage(BigDecimal.valueOf(segment.getCustomerCount() * 100.0 / customers)
+                                      .setScale(1, RoundingMode.HALF_UP).doubleValue());
+            segment.setCharacteristics(characteristics(segment.getSegmentName()));
+        }
+        return segments;
+    }
+
+    /**
+     * Rows of inventory_daily_movements within the range (inclusive)
+     */
+    public List<Map<String, Object>> inventoryMovements(LocalDate startDate, LocalDate endDate) {
+        return store.findMovements(startDate, endDate);
+    }
+
+    /**
+     * Watermark, last run date and refreshed keys of every aggregation
+     */
+    public Map<String, Object> watermarks() {
+        Map<String, Object> watermarks = new LinkedHashMap<>();
+        for (AggregationWatermark watermark : watermarkRepository.findAll()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("watermark", watermark.getWatermark());
+            entry.put("pendingUntil", watermark.getPendingUntil());
+            entry.put("lastRunDate", watermark.getLastRunDate());
+            entry.put("lastRefreshedKeys", watermark.getLastRefreshedKeys());
+            watermarks.put(watermark.getAggregationType(), entry);
+        }
+        return watermarks;
+    }
+
+    /**
+     * Chunked step over the keys changed in the aggregation's window. Keys can leave the window
+     * between attempts (their rows changed again), so the step resumes by key, the reader
+     * returning them in ascending order of their resume keys.
+     */
+    private <K> BatchJobEngine.Step<K> deltaStep(String aggregationType, LocalDate runDate,
+                                                 BiFunction<LocalDateTime, LocalDateTime, List<K>> changedKeys,
+                                                 Function<K, String> resumeKey, Consumer<List<K>> refresh) {
+        AtomicInteger keys = new AtomicInteger();
+        return BatchJobEngine.<K>chunked(aggregationType, () -> {
+            AggregationWatermark window = windowTransaction.execute(status -> openWindow(aggregationType));
+            List<K> changed = changedKeys.apply(window.getWatermark(), window.getPendingUntil());
+            keys.set(changed.size());
+            logger.info("{}: {} keys changed since {} until {}", aggregationType, changed.size(),
+                        window.getWatermark() != null ? window.getWatermark() : "the beginning",
+                        window.getPendingUntil());
+            return changed;
+        }, refresh).resumeByKey(resumeKey).onCompleted(() -> {
+            AggregationWatermark watermark = watermarkRepository.findById(aggregationType)
+                .orElseThrow(() -> new IllegalStateException("No window opened for " + aggregationType));
+            watermark.setWatermark(watermark.getPendingUntil().minus(properties.getWatermarkOverlap()));
+            watermark.setPendingUntil(null);
+            watermark.setLastRunDate(runDate);
+            watermark.setLastRefreshedKeys(keys.get());
+            watermark.setUpdatedAt(LocalDateTime.now());
+            watermarkRepository.save(watermark);
+        });
+    }
+
+    /**
+     * The aggregation's watermark with the end of the window to read: now for the first attempt of
+     * a run, the end fixed by that attempt for the later ones
+     */
+    private AggregationWatermark openWindow(String aggregationType) {
+        AggregationWatermark window = watermarkRepository.findById(aggregationType)
+            .orElseGet(() -> new AggregationWatermark(aggregationType));
+        if (window.getPendingUntil() != null) {
+            return window;
+        }
+        window.setPendingUntil(LocalDateTime.now());
+        window.setUpdatedAt(window.getPendingUntil());
+        return watermarkRepository.save(window);
+    }
+
+    private static String characteristics(String segment) {
+        switch (segment) {
+            case "Premium":
+                return "Total spent of " + PREMIUM_SPEND.toPlainString() + " or more";
+            case "New":
+                return "First order within " + NEW_CUSTOMER_DAYS + " days";
+            default:
+                return "Standard customers";
+        }
+    }
+}
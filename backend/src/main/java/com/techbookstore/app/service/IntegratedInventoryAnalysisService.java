@@ -8,11 +8,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -26,6 +28,12 @@ public class IntegratedInventoryAnalysisService {
     
     private static final Logger logger = LoggerFactory.getLogger(IntegratedInventoryAnalysisService.class);
     
+    // Phase names reported to PhaseListener and used for phase time limits
+    public static final String PHASE_BASE_REPORT = "BASE_REPORT";
+    public static final String PHASE_ADVANCED_ANALYSIS = "ADVANCED_ANALYSIS";
+    public static final String PHASE_FORECASTING = "FORECASTING";
+    public static final String PHASE_OPTIMIZATION = "OPTIMIZATION";
+    
     // Phase 1: Base Reports
     @Autowired
     private ReportService reportService;
@@ -44,6 +52,10 @@ public class IntegratedInventoryAnalysisService {
     @Autowired
     private OptimalStockCalculatorService optimalStockService;
     
+    // Parallel phases of the async analysis
+    @Autowired
+    private AnalysisPhaseRunner phaseRunner;
+    
     // Phase 4: Performance and Optimization (optional dependency)
     @Autowired(required = false)
     private PerformanceOptimizationService performanceService;
@@ -52,8 +64,17 @@ public class IntegratedInventoryAnalysisService {
      * Execute comprehensive integrated analysis
      * Cacheable with Phase 4 integrated cache configuration
      */
-    @Cacheable(value = "integratedAnalysis", key = "#request.cacheKey()")
+    @Cacheable(value = "integratedAnalysis", key = "#request.cacheKey()", sync = true)
     public IntegratedAnalysisResult executeIntegratedAnalysis(IntegratedAnalysisRequest request) {
+        return executeIntegratedAnalysis(request, PhaseListener.NONE);
+    }
+    
+    /**
+     * Execute comprehensive integrated analysis without caching, reporting each completed phase
+     * (used by analysis jobs for progress, partial results and cancellation)
+     */
+    public IntegratedAnalysisResult executeIntegratedAnalysis(IntegratedAnalysisRequest request,
+                                                              PhaseListener listener) {
         logger.info("Starting integrated analysis for request: {}", request.cacheKey());
         
         long startTime = System.currentTimeMillis();
@@ -68,6 +89,7 @@ public class IntegratedInventoryAnalysisService {
             InventoryReportDto baseReport = generateBaseReport(request);
             result.setBaseReport(baseReport);
             long phase1Time = System.currentTimeMillis() - phase1Start;
+            listener.phaseCompleted(PHASE_BASE_REPORT, 25, result);
             
             // 2. Phase 2: Advanced analysis
             logger.debug("Executing Phase 2: Advanced Analysis");
@@ -75,6 +97,7 @@ public class IntegratedInventoryAnalysisService {
             IntegratedAnalysisResult.AdvancedAnalysisData advancedData = generateAdvancedAnalysis(request);
             result.setAdvancedAnalysis(advancedData);
             long phase2Time = System.currentTimeMillis() - phase2Start;
+            listener.phaseCompleted(PHASE_ADVANCED_ANALYSIS, 50, result);
             
             // 3. Phase 3: Forecasting (if requested)
             IntegratedAnalysisResult.ForecastingData forecastingData = null;
@@ -85,6 +108,7 @@ public class IntegratedInventoryAnalysisService {
                 forecastingData = generateForecastingData(request);
                 result.setForecasting(forecastingData);
                 phase3Time = System.currentTimeMillis() - phase3Start;
+                listener.phaseCompleted(PHASE_FORECASTING, 75, result);
             }
             
             // 4. Phase 4: Integration and optimization
@@ -93,6 +117,7 @@ public class IntegratedInventoryAnalysisService {
             IntegratedAnalysisResult.OptimizationData optimizationData = generateOptimizationData(request, result);
             result.setOptimization(optimizationData);
             long phase4Time = System.currentTimeMillis() - phase4Start;
+            listener.phaseCompleted(PHASE_OPTIMIZATION, 95, result);
             
             // 5. Performance metrics
             long totalTime = System.currentTimeMillis() - startTime;
@@ -104,6 +129,9 @@ public class IntegratedInventoryAnalysisService {
             result.setStatus("COMPLETED");
             logger.info("Integrated analysis completed successfully in {}ms", totalTime);
             
+        } catch (CancellationException e) {
+            logger.info("Integrated analysis cancelled for request: {}", request.cacheKey());
+            throw e;
         } catch (Exception e) {
             logger.error("Integrated analysis failed for request: {}", request.cacheKey(), e);
             result.setStatus("FAILED");
@@ -116,56 +144,57 @@ public class IntegratedInventoryAnalysisService {
     
     /**
      * Asynchronous execution of integrated analysis
-     * For better performance with concurrent users
+     * For better performance with concurrent users: phases 1-3 run in parallel, then phase 4,
+     * each on the analysis phase executor in its own read-only transaction (AnalysisPhaseRunner).
+     * The orchestration itself runs without a transaction so it holds no connection while waiting.
      */
     @Async("integratedAnalysisExecutor")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CompletableFuture<IntegratedAnalysisResult> executeAsyncIntegratedAnalysis(IntegratedAnalysisRequest request) {
         logger.info("Starting async integrated analysis for request: {}", request.cacheKey());
         
+        long startTime = System.currentTimeMillis();
         try {
-            // Execute analysis in parallel where possible
-            CompletableFuture<InventoryReportDto> baseReportFuture = 
-                CompletableFuture.supplyAsync(() -> generateBaseReport(request));
-            
-            CompletableFuture<IntegratedAnalysisResult.AdvancedAnalysisData> advancedFuture = 
-                CompletableFuture.supplyAsync(() -> generateAdvancedAnalysis(request));
+            // Phases 1-3 are independent of each other
+            AnalysisPhaseRunner.Fork analysis = phaseRunner.fork();
+            AnalysisPhaseRunner.Phase<InventoryReportDto> baseReport =
+                analysis.submit(PHASE_BASE_REPORT, () -> generateBaseReport(request));
+            AnalysisPhaseRunner.Phase<IntegratedAnalysisResult.AdvancedAnalysisData> advanced =
+                analysis.submit(PHASE_ADVANCED_ANALYSIS, () -> generateAdvancedAnalysis(request));
+            AnalysisPhaseRunner.Phase<IntegratedAnalysisResult.ForecastingData> forecasting =
+                shouldIncludeForecasting(request)
+                ? analysis.submit(PHASE_FORECASTING, () -> generateForecastingData(request))
+                : null;
+            analysis.join();
             
-            CompletableFuture<IntegratedAnalysisResult.ForecastingData> forecastFuture = null;
-            if (shouldIncludeForecasting(request)) {
-                forecastFuture = CompletableFuture.supplyAsync(() -> generateForecastingData(request));
+            IntegratedAnalysisResult result = new IntegratedAnalysisResult(UUID.randomUUID().toString());
+            result.setBaseReport(baseReport.get());
+            result.setAdvancedAnalysis(advanced.get());
+            if (forecasting != null) {
+                result.setForecasting(forecasting.get());
             }
-            final CompletableFuture<IntegratedAnalysisResult.ForecastingData> finalForecastFuture = forecastFuture;
             
-            // Wait for all parallel tasks
-            CompletableFuture<Void> allTasks = (finalForecastFuture != null) 
-                ? CompletableFuture.allOf(baseReportFuture, advancedFuture, finalForecastFuture)
-                : CompletableFuture.allOf(baseReportFuture, advancedFuture);
+            // Phase 4 builds on all other results
+            AnalysisPhaseRunner.Fork integration = phaseRunner.fork();
+            AnalysisPhaseRunner.Phase<IntegratedAnalysisResult.OptimizationData> optimization =
+                integration.submit(PHASE_OPTIMIZATION, () -> generateOptimizationData(request, result));
+            integration.join();
+            result.setOptimization(optimization.get());
             
-            return allTasks.thenApply(v -> {
-                long startTime = System.currentTimeMillis();
-                IntegratedAnalysisResult result = new IntegratedAnalysisResult(UUID.randomUUID().toString());
-                result.setBaseReport(baseReportFuture.join());
-                result.setAdvancedAnalysis(advancedFuture.join());
-                
-                if (finalForecastFuture != null) {
-                    result.setForecasting(finalForecastFuture.join());
-                }
-                
-                // Generate optimization data based on all other results
-                IntegratedAnalysisResult.OptimizationData optimizationData = generateOptimizationData(request, result);
-                result.setOptimization(optimizationData);
-                
-                // Generate performance metrics for async execution
-                long totalTime = System.currentTimeMillis() - startTime;
-                IntegratedAnalysisResult.PerformanceMetrics metrics = generatePerformanceMetrics(
-                    totalTime, 0L, 0L, 0L, 0L); // For async, we don't track individual phase times
-                result.setPerformanceMetrics(metrics);
-                result.setExecutionTimeMs(totalTime);
-                
-                result.setStatus("COMPLETED");
-                return result;
-            });
+            long totalTime = System.currentTimeMillis() - startTime;
+            IntegratedAnalysisResult.PerformanceMetrics metrics = generatePerformanceMetrics(
+                totalTime, baseReport.getDurationMillis(), advanced.getDurationMillis(),
+                forecasting != null ? forecasting.getDurationMillis() : 0L, optimization.getDurationMillis());
+            result.setPerformanceMetrics(metrics);
+            result.setExecutionTimeMs(totalTime);
             
+            result.setStatus("COMPLETED");
+            logger.info("Async integrated analysis completed successfully in {}ms", totalTime);
+            return CompletableFuture.completedFuture(result);
+            
+        } catch (CancellationException e) {
+            logger.info("Async integrated analysis cancelled for request: {}", request.cacheKey());
+            throw e;
         } catch (Exception e) {
             logger.error("Async integrated analysis failed", e);
             throw new IntegratedAnalysisException("非同期統合分析処理に失敗しました", e);
@@ -176,7 +205,7 @@ public class IntegratedInventoryAnalysisService {
      * Generate real-time dashboard data
      * Optimized for quick response with minimal processing
      */
-    @Cacheable(value = "dashboardData", key = "'dashboard_' + #request.cacheKey()")
+    @Cacheable(value = "dashboardData", key = "'dashboard_' + #request.cacheKey()", sync = true)
     public Map<String, Object> generateRealtimeDashboardData(IntegratedAnalysisRequest request) {
         logger.debug("Generating real-time dashboard data");
         
@@ -455,6 +484,18 @@ public class IntegratedInventoryAnalysisService {
         return dto;
     }
     
+    /**
+     * Notified after each phase with the result so far and the overall progress (0-100);
+     * throwing a CancellationException stops the analysis.
+     */
+    @FunctionalInterface
+    public interface PhaseListener {
+        
+        PhaseListener NONE = (phase, progress, partialResult) -> { };
+        
+        void phaseCompleted(String phase, int progress, IntegratedAnalysisResult partialResult);
+    }
+    
     /**
      * Custom exception for integrated analysis failures
      */
@@ -3,6 +3,7 @@ package com.techbookstore.app.service;
 import com.techbookstore.app.entity.Book;
 import com.techbookstore.app.entity.OptimalStockSettings;
 import com.techbookstore.app.entity.Inventory;
+import com.techbookstore.app.dto.MonthlyDemandDto;
 import com.techbookstore.app.dto.OptimalStockDto;
 import com.techbookstore.app.repository.OptimalStockSettingsRepository;
 import com.techbookstore.app.repository.BookRepository;
@@ -269,13 +270,9 @@ public class OptimalStockCalculatorService {
         LocalDate startDate = LocalDate.now().minusMonths(12);
         LocalDate endDate = LocalDate.now();
         
-        List<com.techbookstore.app.entity.Order> orders = orderRepository.findByOrderDateBetween(
-            startDate.atStartOfDay(), endDate.atStartOfDay());
-        
-        int totalDemand = orders.stream()
-            .flatMap(order -> order.getOrderItems().stream())
-            .filter(item -> item.getBook().getId().equals(book.getId()))
-            .mapToInt(item -> item.getQuantity())
+        long totalDemand = orderRepository.findMonthlyDemandByBookBetween(
+                book.getId(), startDate.atStartOfDay(), endDate.atStartOfDay()).stream()
+            .mapToLong(MonthlyDemandDto::getQuantity)
             .sum();
         
         return totalDemand / 12.0; // Average per month
@@ -0,0 +1,14 @@
+package com.techbookstore.app.service;
+
+/**
+ * Issues unique order numbers (at most 32 characters): ORD-NNNNNNNN from the global sequence, or
+ * ORD-yyyyMMdd-NNNN from the per-day counter.
+ * The implementation is selected with app.order-number.generator (sequence | daily-counter).
+ */
+public interface OrderNumberGenerator {
+
+    /**
+     * Returns the next order number. Must be safe to call concurrently.
+     */
+    String nextOrderNumber();
+}
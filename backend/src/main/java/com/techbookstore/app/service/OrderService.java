@@ -1,29 +1,46 @@
 package com.techbookstore.app.service;
 
+import com.techbookstore.app.dto.KeysetSlice;
+import com.techbookstore.app.dto.OrderSummaryDto;
 import com.techbookstore.app.entity.Book;
-import com.techbookstore.app.entity.Inventory;
 import com.techbookstore.app.entity.Order;
 import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.event.OrderConfirmedEvent;
 import com.techbookstore.app.exception.BookNotFoundException;
 import com.techbookstore.app.exception.InsufficientInventoryException;
 import com.techbookstore.app.exception.InvalidOrderStatusException;
 import com.techbookstore.app.exception.InventoryNotFoundException;
 import com.techbookstore.app.exception.OrderNotFoundException;
+import com.techbookstore.app.repository.ArchiveAwareRepository;
 import com.techbookstore.app.repository.BookRepository;
-import com.techbookstore.app.repository.InventoryRepository;
+import com.techbookstore.app.repository.KeysetPagingRepository;
 import com.techbookstore.app.repository.OrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.criteria.Predicate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing orders and order-related operations.
@@ -34,19 +51,38 @@ public class OrderService {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
     
+    /** Non-null columns usable as cursor sort keys. */
+    private static final Set<String> KEYSET_SORT_PROPERTIES =
+        new HashSet<>(Arrays.asList("id", "orderDate", "orderNumber", "totalAmount"));
+    
     private final OrderRepository orderRepository;
     private final BookRepository bookRepository;
-    private final InventoryRepository inventoryRepository;
+    private final StockMutationService stockMutationService;
+    private final SalesFactService salesFactService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final KeysetPagingRepository keysetPagingRepository;
+    private final ArchiveAwareRepository archiveAwareRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Constructor injection for dependencies.
      */
     public OrderService(OrderRepository orderRepository, 
                        BookRepository bookRepository, 
-                       InventoryRepository inventoryRepository) {
+                       StockMutationService stockMutationService,
+                       SalesFactService salesFactService,
+                       OrderNumberGenerator orderNumberGenerator,
+                       KeysetPagingRepository keysetPagingRepository,
+                       ArchiveAwareRepository archiveAwareRepository,
+                       ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.bookRepository = bookRepository;
-        this.inventoryRepository = inventoryRepository;
+        this.stockMutationService = stockMutationService;
+        this.salesFactService = salesFactService;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.keysetPagingRepository = keysetPagingRepository;
+        this.archiveAwareRepository = archiveAwareRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -60,7 +96,7 @@ public class OrderService {
         logger.info("Creating new order with {} items", order.getOrderItems().size());
         
         // Generate order number
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
         
         // Calculate total amount
         BigDecimal totalAmount = BigDecimal.ZERO;
@@ -82,6 +118,7 @@ public class OrderService {
         
         order.setTotalAmount(totalAmount);
         Order savedOrder = orderRepository.save(order);
+        salesFactService.recordOrderStatusChange(savedOrder, null);
         
         logger.info("Created order {} with total amount {}", savedOrder.getOrderNumber(), totalAmount);
         return savedOrder;
@@ -97,46 +134,107 @@ public class OrderService {
      * @throws InventoryNotFoundException if inventory is not found for any book
      * @throws InsufficientInventoryException if there's insufficient stock for any book
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Order confirmOrder(Long orderId) {
         logger.info("Confirming order with ID: {}", orderId);
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (!orderOpt.isPresent()) {
-            throw new OrderNotFoundException(orderId);
-        }
-        
-        Order order = orderOpt.get();
-        if (order.getStatus() != Order.OrderStatus.PENDING) {
-            throw new InvalidOrderStatusException(order.getStatus().toString(), "CONFIRMED");
-        }
-        
-        // Check inventory and reserve stock
-        for (OrderItem item : order.getOrderItems()) {
-            Optional<Inventory> inventoryOpt = inventoryRepository.findByBookId(item.getBook().getId());
-            if (!inventoryOpt.isPresent()) {
-                throw new InventoryNotFoundException(item.getBook().getId());
+        return stockMutationService.withRetry(() -> {
+            // Lock the order first so a concurrent confirmation of it sees it confirmed
+            List<Order> locked = orderRepository.findByIdInForUpdate(Collections.singletonList(orderId));
+            if (locked.isEmpty()) {
+                throw new OrderNotFoundException(orderId);
             }
             
-            Inventory inventory = inventoryOpt.get();
-            if (inventory.getAvailableStock() < item.getQuantity()) {
-                throw new InsufficientInventoryException(
-                    item.getBook().getTitle(), 
-                    item.getQuantity(), 
-                    inventory.getAvailableStock()
-                );
+            Order order = locked.get(0);
+            if (order.getStatus() != Order.OrderStatus.PENDING) {
+                throw new InvalidOrderStatusException(order.getStatus().toString(), "CONFIRMED");
             }
             
-            // Reserve stock (reduce store stock)
-            inventory.setStoreStock(inventory.getStoreStock() - item.getQuantity());
-            inventoryRepository.save(inventory);
-        }
-        
-        order.setStatus(Order.OrderStatus.CONFIRMED);
-        order.setConfirmedDate(LocalDateTime.now());
-        Order confirmedOrder = orderRepository.save(order);
+            // Check inventory and reserve stock (reduce store stock): one locking query and one batch update
+            stockMutationService.sellAll(quantitiesByBookId(order));
+            
+            Order.OrderStatus previousStatus = order.getStatus();
+            order.setStatus(Order.OrderStatus.CONFIRMED);
+            order.setConfirmedDate(LocalDateTime.now());
+            Order confirmedOrder = orderRepository.save(order);
+            salesFactService.recordOrderStatusChange(confirmedOrder, previousStatus);
+            eventPublisher.publishEvent(new OrderConfirmedEvent(
+                Collections.singleton(orderId), quantitiesByBookId(confirmedOrder).keySet()));
+            
+            logger.info("Confirmed order {}", order.getOrderNumber());
+            return confirmedOrder;
+        });
+    }
+    
+    /**
+     * Confirms many pending orders in a single transaction.
+     * The orders, then all inventory rows touched by the batch, are locked up front; orders that
+     * cannot be confirmed are reported as failures without affecting the others, and the stock
+     * of all confirmed orders is decremented in one JDBC batch.
+     * 
+     * @param orderIds the IDs of the orders to confirm
+     * @return one result per requested order ID, in request order
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<OrderConfirmationResult> confirmOrders(List<Long> orderIds) {
+        logger.info("Confirming {} orders in batch", orderIds.size());
         
-        logger.info("Confirmed order {}", order.getOrderNumber());
-        return confirmedOrder;
+        return stockMutationService.withRetry(() -> {
+            // Lock the orders first so the same order in a concurrent batch is seen as confirmed
+            orderRepository.findByIdInForUpdate(orderIds);
+            Map<Long, Order> ordersById = orderRepository.findAllWithItemsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+            
+            List<Long> bookIds = ordersById.values().stream()
+                .filter(order -> order.getStatus() == Order.OrderStatus.PENDING)
+                .flatMap(order -> order.getOrderItems().stream())
+                .map(item -> item.getBook().getId())
+                .distinct()
+                .collect(Collectors.toList());
+            StockMutationService.StockAllocation allocation = stockMutationService.lockForSale(bookIds);
+            
+            List<OrderConfirmationResult> results = new ArrayList<>();
+            List<Order> confirmedOrders = new ArrayList<>();
+            LocalDateTime confirmedDate = LocalDateTime.now();
+            for (Long orderId : orderIds) {
+                Order order = ordersById.get(orderId);
+                try {
+                    if (order == null) {
+                        throw new OrderNotFoundException(orderId);
+                    }
+                    if (order.getStatus() != Order.OrderStatus.PENDING) {
+                        throw new InvalidOrderStatusException(order.getStatus().toString(), "CONFIRMED");
+                    }
+                    allocation.allocate(quantitiesByBookId(order));
+                    // Mark confirmed right away so a duplicated ID in the request is rejected
+                    order.setStatus(Order.OrderStatus.CONFIRMED);
+                    order.setConfirmedDate(confirmedDate);
+                    confirmedOrders.add(order);
+                    results.add(new OrderConfirmationResult(orderId, order.getOrderNumber(), true, "Order confirmed"));
+                } catch (OrderNotFoundException | InvalidOrderStatusException
+                         | InventoryNotFoundException | InsufficientInventoryException e) {
+                    logger.info("Order {} not confirmed: {}", orderId, e.getMessage());
+                    results.add(new OrderConfirmationResult(
+                        orderId, order != null ? order.getOrderNumber() : null, false, e.getMessage()));
+                }
+            }
+            
+            stockMutationService.applySales(allocation);
+            
+            for (Order order : confirmedOrders) {
+                salesFactService.recordOrderStatusChange(order, Order.OrderStatus.PENDING);
+            }
+            orderRepository.saveAll(confirmedOrders);
+            if (!confirmedOrders.isEmpty()) {
+                eventPublisher.publishEvent(new OrderConfirmedEvent(
+                    confirmedOrders.stream().map(Order::getId).collect(Collectors.toList()),
+                    confirmedOrders.stream().flatMap(order -> quantitiesByBookId(order).keySet().stream())
+                        .collect(Collectors.toSet())));
+            }
+            
+            logger.info("Confirmed {} of {} orders in batch", confirmedOrders.size(), orderIds.size());
+            return results;
+        });
     }
     
     /**
@@ -163,6 +261,7 @@ public class OrderService {
             throw new InvalidOrderStatusException(order.getStatus().toString(), newStatus.toString());
         }
         
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(newStatus);
         
         // Set specific timestamps based on status
@@ -179,12 +278,14 @@ public class OrderService {
         }
         
         Order updatedOrder = orderRepository.save(order);
+        salesFactService.recordOrderStatusChange(updatedOrder, previousStatus);
         logger.info("Updated order {} status to {}", order.getOrderNumber(), newStatus);
         return updatedOrder;
     }
     
     /**
-     * Retrieves orders with optional filters.
+     * Retrieves orders with optional filters. Pages cover live orders only; archived orders are
+     * read through {@link #getOrdersByCustomerId} and the single order lookups.
      * 
      * @param status filter by order status
      * @param type filter by order type
@@ -192,15 +293,95 @@ public class OrderService {
      * @param startDate filter by start date
      * @param endDate filter by end date
      * @param pageable pagination information
-     * @return page of filtered orders
+     * @return page of filtered orders with items and books loaded
      */
+    @Transactional(readOnly = true)
     public Page<Order> getOrdersWithFilters(Order.OrderStatus status,
                                           Order.OrderType type,
                                           Long customerId,
                                           LocalDateTime startDate,
                                           LocalDateTime endDate,
                                           Pageable pageable) {
-        return orderRepository.findOrdersWithFilters(status, type, customerId, startDate, endDate, pageable);
+        return loadPageWithItems(orderRepository.findOrderIdsWithFilters(status, type, customerId, startDate, endDate, pageable));
+    }
+    
+    /**
+     * Retrieves orders with cursor (keyset) pagination and the same optional filters as the
+     * offset listing. No count query is run; items and books are loaded like the paged listing.
+     * 
+     * @param status filter by order status
+     * @param type filter by order type
+     * @param customerId filter by customer ID
+     * @param startDate filter by start date
+     * @param endDate filter by end date
+     * @param keyword search keyword for order number or customer ID
+     * @param sortProperty sort key (id, orderDate, orderNumber, totalAmount)
+     * @param direction sort direction
+     * @param after cursor from the previous slice, or empty for the first slice
+     * @param size slice size
+     * @return slice of orders with the next cursor
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Order> getOrdersAfter(Order.OrderStatus status,
+                                             Order.OrderType type,
+                                             Long customerId,
+                                             LocalDateTime startDate,
+                                             LocalDateTime endDate,
+                                             String keyword,
+                                             String sortProperty,
+                                             Sort.Direction direction,
+                                             String after,
+                                             int size) {
+        Specification<Order> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (type != null) {
+                predicates.add(cb.equal(root.get("type"), type));
+            }
+            if (customerId != null) {
+                predicates.add(cb.equal(root.get("customerId"), customerId));
+            }
+            if (startDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("orderDate"), startDate));
+            }
+            if (endDate != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("orderDate"), endDate));
+            }
+            if (keyword != null) {
+                String pattern = "%" + keyword + "%";
+                predicates.add(cb.or(
+                    cb.like(root.get("orderNumber"), pattern),
+                    cb.like(root.get("customerId").as(String.class), pattern)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        KeysetSlice<Order> slice = keysetPagingRepository.findSlice(Order.class, filter, KEYSET_SORT_PROPERTIES,
+                                                                    sortProperty, direction, after, size);
+        List<Long> ids = slice.getContent().stream().map(Order::getId).collect(Collectors.toList());
+        return new KeysetSlice<>(loadWithItems(ids), slice.getSize(), slice.isHasNext(), slice.getNextCursor());
+    }
+    
+    /**
+     * Retrieves order list rows (no line items) with optional filtering and pagination, over live orders.
+     * 
+     * @param status filter by order status
+     * @param type filter by order type
+     * @param customerId filter by customer ID
+     * @param startDate filter by start date
+     * @param endDate filter by end date
+     * @param pageable pagination information
+     * @return page of order summaries
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderSummaryDto> getOrderSummaries(Order.OrderStatus status,
+                                                   Order.OrderType type,
+                                                   Long customerId,
+                                                   LocalDateTime startDate,
+                                                   LocalDateTime endDate,
+                                                   Pageable pageable) {
+        return orderRepository.findOrderSummariesWithFilters(status, type, customerId, startDate, endDate, pageable);
     }
     
     /**
@@ -208,43 +389,44 @@ public class OrderService {
      * 
      * @param keyword the search keyword
      * @param pageable pagination information
-     * @return page of matching orders
+     * @return page of matching orders with items and books loaded
      */
+    @Transactional(readOnly = true)
     public Page<Order> searchOrders(String keyword, Pageable pageable) {
-        return orderRepository.findByKeyword(keyword, pageable);
+        return loadPageWithItems(orderRepository.findOrderIdsByKeyword(keyword, pageable));
     }
     
     /**
-     * Retrieves an order by ID.
+     * Retrieves an order by ID, live or archived (archived orders are read-only).
      * 
      * @param id the order ID
      * @return optional order
      */
     @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return archiveAwareRepository.findOrderById(id);
     }
     
     /**
-     * Retrieves an order by order number.
+     * Retrieves an order by order number, live or archived.
      * 
      * @param orderNumber the order number
      * @return optional order
      */
     @Transactional(readOnly = true)
     public Optional<Order> getOrderByNumber(String orderNumber) {
-        return orderRepository.findByOrderNumber(orderNumber);
+        return archiveAwareRepository.findOrderByNumber(orderNumber);
     }
     
     /**
-     * Retrieves all orders for a customer.
+     * Retrieves all orders for a customer, including archived ones.
      * 
      * @param customerId the customer ID
-     * @return list of orders
+     * @return list of orders with items and books loaded
      */
     @Transactional(readOnly = true)
     public List<Order> getOrdersByCustomerId(Long customerId) {
-        return orderRepository.findByCustomerId(customerId);
+        return archiveAwareRepository.findOrdersByCustomerId(customerId);
     }
     
     /**
@@ -258,18 +440,6 @@ public class OrderService {
         return orderRepository.countByStatus(status);
     }
     
-    /**
-     * Generates a unique order number with format ORD-YYYYMMDD-XXXX.
-     * This method is synchronized to prevent race conditions in order number generation.
-     * 
-     * @return the generated order number
-     */
-    private synchronized String generateOrderNumber() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        Long count = orderRepository.count() + 1;
-        return String.format("ORD-%s-%04d", date, count);
-    }
-    
     /**
      * Validates if a status transition is allowed.
      * 
@@ -298,4 +468,63 @@ public class OrderService {
                 return false;
         }
     }
+    
+    /**
+     * Second phase of a paged listing: fetches the page's orders with their details in one query
+     * and restores the order of the ID page. Statement count per page does not depend on item count.
+     */
+    private Page<Order> loadPageWithItems(Page<Long> idPage) {
+        return new PageImpl<>(loadWithItems(idPage.getContent()), idPage.getPageable(), idPage.getTotalElements());
+    }
+    
+    /**
+     * Fetches orders with items, books and publishers in one query, in the order of the given IDs.
+     */
+    private List<Order> loadWithItems(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Order> ordersById = orderRepository.findWithItemsByIdIn(ids).stream()
+            .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream()
+            .map(ordersById::get)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Sums item quantities per book (an order may list the same book on several lines).
+     */
+    private Map<Long, Integer> quantitiesByBookId(Order order) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getBook().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+    
+    /**
+     * Per-order outcome of a batch confirmation.
+     */
+    public static class OrderConfirmationResult {
+        private Long orderId;
+        private String orderNumber;
+        private boolean success;
+        private String message;
+        
+        public OrderConfirmationResult(Long orderId, String orderNumber, boolean success, String message) {
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.success = success;
+            this.message = message;
+        }
+        
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
+        public String getOrderNumber() { return orderNumber; }
+        public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.techbookstore.app.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Compact radix (path-compressed) trie from string keys to sets of long IDs.
+ * Edges carry whole substrings, children are kept in arrays sorted by first character and
+ * IDs in sorted primitive arrays, so the structure stays small for large key sets.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+class RadixTrie {
+
+    private static final long[] NO_IDS = new long[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+
+    /**
+     * Associates the ID with the key. Adding an existing pair is a no-op.
+     */
+    void add(String key, long id) {
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            int index = childIndex(node, key.charAt(position));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(position));
+                leaf.ids = new long[] {id};
+                node.insertChild(-index - 1, leaf);
+                return;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, key, position);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new Node[] {child};
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            position += common;
+        }
+        node.addId(id);
+    }
+
+    /**
+     * Removes the ID from the key, pruning and re-merging nodes left without IDs.
+     */
+    void remove(String key, long id) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            int index = childIndex(node, key.charAt(position));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            if (!key.startsWith(child.label, position)) {
+                return;
+            }
+            path.push(node);
+            node = child;
+            position += child.label.length();
+        }
+        if (!node.removeId(id)) {
+            return;
+        }
+        while (!path.isEmpty() && node.ids.length == 0 && node.children.length <= 1) {
+            Node parent = path.pop();
+            int index = childIndex(parent, node.label.charAt(0));
+            if (node.children.length == 0) {
+                parent.removeChild(index);
+            } else {
+                Node onlyChild = node.children[0];
+                onlyChild.label = node.label + onlyChild.label;
+                parent.children[index] = onlyChild;
+            }
+            node = parent;
+        }
+    }
+
+    /**
+     * Collects up to limit distinct IDs of keys starting with the prefix in key order (a depth-first
+     * walk, so a key comes before the longer keys it prefixes, but not every shorter key comes before
+     * every longer one). Work is bounded by the limit, not by the number of matching keys.
+     */
+    Set<Long> collect(String prefix, int limit) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int index = childIndex(node, prefix.charAt(position));
+            if (index < 0) {
+                return ids;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, prefix, position);
+            if (common < child.label.length() && position + common < prefix.length()) {
+                return ids;
+            }
+            node = child;
+            position += common;
+        }
+        collect(node, ids, limit);
+        return ids;
+    }
+
+    private static void collect(Node node, Set<Long> ids, int limit) {
+        for (long id : node.ids) {
+            if (ids.size() >= limit) {
+                return;
+            }
+            ids.add(id);
+        }
+        for (Node child : node.children) {
+            if (ids.size() >= limit) {
+                return;
+            }
+            collect(child, ids, limit);
+        }
+    }
+
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midFirst = node.children[mid].label.charAt(0);
+            if (midFirst < first) {
+                low = mid + 1;
+            } else if (midFirst > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static final class Node {
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private long[] ids = NO_IDS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+
+        void addId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            long[] grown = new long[ids.length + 1];
+            System.arraycopy(ids, 0, grown, 0, insertAt);
+            grown[insertAt] = id;
+            System.arraycopy(ids, insertAt, grown, insertAt + 1, ids.length - insertAt);
+            ids = grown;
+        }
+
+        boolean removeId(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) {
+                return false;
+            }
+            long[] shrunk = new long[ids.length - 1];
+            System.arraycopy(ids, 0, shrunk, 0, index);
+            System.arraycopy(ids, index + 1, shrunk, index, ids.length - index - 1);
+            ids = shrunk.length == 0 ? NO_IDS : shrunk;
+            return true;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.techbookstore.app.service;
 
 import com.techbookstore.app.dto.*;
-import com.techbookstore.app.entity.AggregationCache;
 import com.techbookstore.app.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,7 +10,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -28,19 +26,24 @@ public class ReportService {
     private final CustomerRepository customerRepository;
     private final InventoryRepository inventoryRepository;
     private final BookRepository bookRepository;
-    private final AggregationCacheRepository cacheRepository;
+    private final DailyBookSalesRepository dailyBookSalesRepository;
+    private final AggregationStore aggregationStore;
+    private final IncrementalAggregationService incrementalAggregationService;
     
     /**
      * Constructor injection for dependencies.
      */
     public ReportService(OrderRepository orderRepository, CustomerRepository customerRepository,
                         InventoryRepository inventoryRepository, BookRepository bookRepository,
-                        AggregationCacheRepository cacheRepository) {
+                        DailyBookSalesRepository dailyBookSalesRepository, AggregationStore aggregationStore,
+                        IncrementalAggregationService incrementalAggregationService) {
         this.orderRepository = orderRepository;
         this.customerRepository = customerRepository;
         this.inventoryRepository = inventoryRepository;
         this.bookRepository = bookRepository;
-        this.cacheRepository = cacheRepository;
+        this.dailyBookSalesRepository = dailyBookSalesRepository;
+        this.aggregationStore = aggregationStore;
+        this.incrementalAggregationService = incrementalAggregationService;
     }
     
     /**
@@ -283,6 +286,13 @@ public class ReportService {
         return report;
     }
     
+    /**
+     * Daily KPI snapshot stored by the daily batch for the given date, if still retained.
+     */
+    public Optional<DashboardKpiDto> findDailyKpis(LocalDate date) {
+        return aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, date);
+    }
+    
     /**
      * Generate dashboard KPIs.
      */
@@ -344,59 +354,29 @@ public class ReportService {
         return dashboard;
     }
     
-    // Helper methods for calculations with caching
+    // Helper methods for calculations backed by the daily_book_sales fact table
     private BigDecimal calculateTotalRevenue(LocalDate startDate, LocalDate endDate) {
-        // Check cache first
-        String cacheKey = "revenue_" + startDate + "_" + endDate;
-        Optional<AggregationCache> cached = cacheRepository.findByKeyName(cacheKey);
-        
-        if (cached.isPresent() && 
-            cached.get().getCreatedAt().isAfter(LocalDateTime.now().minusHours(1))) {
-            // Return cached value if less than 1 hour old
-            return new BigDecimal(cached.get().getValueData());
-        }
-        
-        // Simplified calculation - in production would query order repository
-        BigDecimal revenue = new BigDecimal("45000.00");
-        
-        // Cache the result
-        AggregationCache cache = new AggregationCache(cacheKey, revenue.toString(), 
-                                                      LocalDateTime.now().plusHours(1));
-        cacheRepository.save(cache);
-        
-        return revenue;
+        return dailyBookSalesRepository.sumRevenue(startDate, endDate);
     }
     
     private Integer calculateTotalOrders(LocalDate startDate, LocalDate endDate) {
-        // Check cache first
-        String cacheKey = "orders_" + startDate + "_" + endDate;
-        Optional<AggregationCache> cached = cacheRepository.findByKeyName(cacheKey);
-        
-        if (cached.isPresent() && 
-            cached.get().getCreatedAt().isAfter(LocalDateTime.now().minusHours(1))) {
-            return Integer.valueOf(cached.get().getValueData());
-        }
-        
-        // Simplified calculation - in production would query order repository
-        Integer orders = 125;
-        
-        // Cache the result
-        AggregationCache cache = new AggregationCache(cacheKey, orders.toString(), 
-                                                      LocalDateTime.now().plusHours(1));
-        cacheRepository.save(cache);
-        
-        return orders;
+        return Math.toIntExact(dailyBookSalesRepository.sumOrderCount(startDate, endDate));
     }
     
     private List<SalesReportDto.SalesTrendItem> generateSalesTrends(LocalDate startDate, LocalDate endDate) {
+        // Index pre-aggregated daily totals by date; days without sales are reported as zero
+        Map<LocalDate, SalesFactSummaryDto> dailyTotals = dailyBookSalesRepository.summarizeByDate(startDate, endDate)
+            .stream()
+            .collect(Collectors.toMap(SalesFactSummaryDto::getSalesDate, summary -> summary));
+        
         List<SalesReportDto.SalesTrendItem> trends = new ArrayList<>();
-        // Generate sample trend data
         LocalDate current = startDate;
         while (!current.isAfter(endDate) && trends.size() < 30) {
+            SalesFactSummaryDto summary = dailyTotals.get(current);
             trends.add(new SalesReportDto.SalesTrendItem(
                 current, 
-                new BigDecimal(1500 + (int)(Math.random() * 1000)), 
-                4 + (int)(Math.random() * 8)
+                summary != null ? summary.getRevenue() : BigDecimal.ZERO, 
+                summary != null ? Math.toIntExact(summary.getOrderCount()) : 0
             ));
             current = current.plusDays(1);
         }
@@ -404,10 +384,14 @@ public class ReportService {
     }
     
     private SalesReportDto.SalesBreakdown generateSalesBreakdown(LocalDate startDate, LocalDate endDate) {
+        Map<String, BigDecimal> revenueByType = dailyBookSalesRepository.summarizeByOrderType(startDate, endDate)
+            .stream()
+            .collect(Collectors.toMap(SalesFactSummaryDto::getDimension, SalesFactSummaryDto::getRevenue));
+        
         return new SalesReportDto.SalesBreakdown(
-            new BigDecimal("28000.00"), // Online
-            new BigDecimal("12000.00"), // Walk-in
-            new BigDecimal("5000.00")   // Phone
+            revenueByType.getOrDefault("ONLINE", BigDecimal.ZERO),
+            revenueByType.getOrDefault("WALK_IN", BigDecimal.ZERO),
+            revenueByType.getOrDefault("PHONE", BigDecimal.ZERO)
         );
     }
     
@@ -430,11 +414,8 @@ public class ReportService {
     }
     
     private List<CustomerAnalyticsDto.CustomerSegment> generateCustomerSegments() {
-        return Arrays.asList(
-            new CustomerAnalyticsDto.CustomerSegment("Premium", 15, new BigDecimal("45000.00"), 25.0, "High-value customers"),
-            new CustomerAnalyticsDto.CustomerSegment("Regular", 35, new BigDecimal("82000.00"), 58.3, "Standard customers"),
-            new CustomerAnalyticsDto.CustomerSegment("New", 10, new BigDecimal("12000.00"), 16.7, "Recent customers")
-        );
+        // Maintained incrementally by the daily batch (customer_order_stats)
+        return incrementalAggregationService.customerSegments(LocalDate.now());
     }
     
     private CustomerAnalyticsDto.RFMAnalysis generateRFMAnalysis() {
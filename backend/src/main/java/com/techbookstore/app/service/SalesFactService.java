@@ -0,0 +1,176 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.entity.Customer;
+import com.techbookstore.app.entity.DailyBookSales;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.repository.ArchivedOrderRepository;
+import com.techbookstore.app.repository.CustomerRepository;
+import com.techbookstore.app.repository.DailyBookSalesRepository;
+import com.techbookstore.app.repository.OrderRepository;
+import com.techbookstore.app.repository.SalesFactStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily_book_sales fact table.
+ * 日次売上ファクトテーブルの差分更新・再構築サービス
+ *
+ * Every order that is not CANCELLED counts as booked sales on its order date.
+ * Order writes apply deltas incrementally in the same transaction, and
+ * {@link #rebuild(LocalDate, LocalDate)} reconstructs a date range from orders/order_items.
+ * Days up to the newest archived order date are not rebuilt: their orders are partly in
+ * orders_archive, and their facts were final when the orders were archived.
+ */
+@Service
+@Transactional
+public class SalesFactService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesFactService.class);
+
+    private final DailyBookSalesRepository dailyBookSalesRepository;
+    private final OrderRepository orderRepository;
+    private final CustomerRepository customerRepository;
+    private final SalesFactStore salesFactStore;
+    private final ArchivedOrderRepository archivedOrderRepository;
+
+    public SalesFactService(DailyBookSalesRepository dailyBookSalesRepository,
+                            OrderRepository orderRepository,
+                            CustomerRepository customerRepository,
+                            SalesFactStore salesFactStore,
+                            ArchivedOrderRepository archivedOrderRepository) {
+        this.dailyBookSalesRepository = dailyBookSalesRepository;
+        this.orderRepository = orderRepository;
+        this.customerRepository = customerRepository;
+        this.salesFactStore = salesFactStore;
+        this.archivedOrderRepository = archivedOrderRepository;
+    }
+
+    /**
+     * Apply the fact-table delta for an order whose status changed from previousStatus
+     * to its current status. Pass null as previousStatus for a newly created order.
+     */
+    public void recordOrderStatusChange(Order order, Order.OrderStatus previousStatus) {
+        int sign = salesWeight(order.getStatus()) - salesWeight(previousStatus);
+        if (sign == 0 || order.getOrderDate() == null) {
+            return;
+        }
+
+        LocalDate salesDate = order.getOrderDate().toLocalDate();
+        String customerType = resolveCustomerType(order.getCustomerId());
+        String paymentMethod = DailyBookSales.paymentMethodOf(order.getPaymentMethod());
+        String orderType = DailyBookSales.orderTypeOf(order.getType());
+
+        // Collapse lines per book so each book counts the order once
+        Map<Long, long[]> quantityByBook = new LinkedHashMap<>();
+        Map<Long, BigDecimal> revenueByBook = new LinkedHashMap<>();
+        long totalQuantity = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (OrderItem item : order.getOrderItems()) {
+            Long bookId = item.getBook().getId();
+            BigDecimal lineRevenue = item.getTotalPrice() != null ? item.getTotalPrice() : BigDecimal.ZERO;
+            quantityByBook.computeIfAbsent(bookId, id -> new long[1])[0] += item.getQuantity();
+            revenueByBook.merge(bookId, lineRevenue, BigDecimal::add);
+            totalQuantity += item.getQuantity();
+            totalRevenue = totalRevenue.add(lineRevenue);
+        }
+
+        if (quantityByBook.isEmpty()) {
+            return;
+        }
+
+        BigDecimal multiplier = BigDecimal.valueOf(sign);
+        applyDelta(salesDate, DailyBookSales.ALL_BOOKS, customerType, paymentMethod, orderType,
+                   sign * totalQuantity, totalRevenue.multiply(multiplier), sign);
+        for (Map.Entry<Long, long[]> entry : quantityByBook.entrySet()) {
+            applyDelta(salesDate, entry.getKey(), customerType, paymentMethod, orderType,
+                       sign * entry.getValue()[0], revenueByBook.get(entry.getKey()).multiply(multiplier), sign);
+        }
+
+        logger.debug("Applied sales fact delta {} for order {} on {}", sign, order.getOrderNumber(), salesDate);
+    }
+
+    /**
+     * Rebuild the fact table for a date range (inclusive) from orders/order_items.
+     * The range is processed one month at a time to keep each aggregation bounded.
+     *
+     * @return number of fact rows written
+     * @throws IllegalArgumentException when the range starts before {@link #firstRebuildableDate()}
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        LocalDate firstRebuildable = firstRebuildableDate();
+        if (firstRebuildable != null && startDate.isBefore(firstRebuildable)) {
+            throw new IllegalArgumentException("Sales facts before " + firstRebuildable + " cover archived orders "
+                                               + "and can not be rebuilt from orders");
+        }
+        logger.info("Rebuilding daily sales facts from {} to {}", startDate, endDate);
+
+        int rowsWritten = 0;
+        LocalDate chunkStart = startDate;
+        while (!chunkStart.isAfter(endDate)) {
+            LocalDate chunkEnd = chunkStart.withDayOfMonth(chunkStart.lengthOfMonth());
+            if (chunkEnd.isAfter(endDate)) {
+                chunkEnd = endDate;
+            }
+
+            dailyBookSalesRepository.deleteBySalesDateBetween(chunkStart, chunkEnd);
+
+            LocalDateTime from = chunkStart.atStartOfDay();
+            LocalDateTime to = chunkEnd.plusDays(1).atStartOfDay();
+            List<DailyBookSales> totals = orderRepository.aggregateDailyOrderTotals(from, to, Order.OrderStatus.CANCELLED);
+            List<DailyBookSales> bookRows = orderRepository.aggregateDailyBookSales(from, to, Order.OrderStatus.CANCELLED);
+
+            dailyBookSalesRepository.saveAll(totals);
+            dailyBookSalesRepository.saveAll(bookRows);
+            rowsWritten += totals.size() + bookRows.size();
+
+            chunkStart = chunkEnd.plusDays(1);
+        }
+
+        logger.info("Rebuilt daily sales facts from {} to {}: {} rows", startDate, endDate, rowsWritten);
+        return rowsWritten;
+    }
+
+    /**
+     * First sales date that can be rebuilt: the day after the newest archived order, or null
+     * when nothing is archived
+     */
+    @Transactional(readOnly = true)
+    public LocalDate firstRebuildableDate() {
+        LocalDateTime latestArchived = archivedOrderRepository.findLatestOrderDate();
+        return latestArchived != null ? latestArchived.toLocalDate().plusDays(1) : null;
+    }
+
+    private void applyDelta(LocalDate salesDate, Long bookId, String customerType, String paymentMethod,
+                            String orderType, long quantity, BigDecimal revenue, long orderCount) {
+        // Single upsert: concurrent orders creating the same cell cannot collide on its unique key
+        salesFactStore.increment(salesDate, bookId, customerType, paymentMethod, orderType,
+                                 quantity, revenue, orderCount);
+    }
+
+    private String resolveCustomerType(Long customerId) {
+        if (customerId == null) {
+            return DailyBookSales.GUEST;
+        }
+        return customerRepository.findById(customerId)
+            .map(Customer::getCustomerType)
+            .map(DailyBookSales::customerTypeOf)
+            .orElse(DailyBookSales.GUEST);
+    }
+
+    /**
+     * Whether an order in the given status counts as booked sales.
+     */
+    private int salesWeight(Order.OrderStatus status) {
+        return status == null || status == Order.OrderStatus.CANCELLED ? 0 : 1;
+    }
+}
@@ -0,0 +1,143 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.SchedulerLock;
+import com.techbookstore.app.config.SchedulerLockProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs a scheduled job on one node of the cluster at a time.
+ * スケジュールジョブの分散ロック（リース更新・フェンシングトークン）
+ *
+ * Every node fires the same schedules; the node that takes the job's {@link SchedulerLock}
+ * runs it and the others skip that execution. The lease is renewed in the background while
+ * the job runs and released when it ends. A job that writes in several transactions passes the
+ * lease's fencing token along with its writes (BatchJobEngine checkpoints), so once a lease is
+ * lost and the job taken over by another node, the old node's remaining writes are rejected.
+ * A lease whose renewal is refused, or that could not be renewed for a whole lease time, is
+ * marked lost ({@link SchedulerLock.Lease#isHeld()}) so the job stops at its next step or chunk.
+ */
+@Component
+public class ScheduledJobLock implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobLock.class);
+
+    private final SchedulerLock lock;
+    private final SchedulerLockProperties properties;
+    private final ThreadPoolTaskScheduler renewalScheduler;
+
+    public ScheduledJobLock(SchedulerLock lock, SchedulerLockProperties properties) {
+        this.lock = lock;
+        this.properties = properties;
+        // Own scheduler: renewals must not wait behind the scheduled jobs they keep alive
+        this.renewalScheduler = new ThreadPoolTaskScheduler();
+        this.renewalScheduler.setPoolSize(1);
+        this.renewalScheduler.setThreadNamePrefix("SchedulerLockRenewal-");
+        this.renewalScheduler.setDaemon(true);
+        this.renewalScheduler.initialize();
+    }
+
+    /**
+     * Run the job if no other node is running it.
+     *
+     * @return false when the lock is held elsewhere (or could not be taken) and the job was skipped
+     */
+    public boolean runLocked(String name, Consumer<SchedulerLock.Lease> job) {
+        Duration leaseTime = properties.getLeaseTime();
+        SchedulerLock.Lease lease;
+        try {
+            lease = lock.tryAcquire(name, properties.getNodeId(), leaseTime);
+        } catch (RuntimeException e) {
+            logger.error("Could not take scheduler lock {}, skipping this run", name, e);
+            return false;
+        }
+        if (lease == null) {
+            logger.info("Skipping {}: running on another node", name);
+            return false;
+        }
+
+        logger.info("Took scheduler lock {} with fencing token {}", name, lease.getFencingToken());
+        AtomicReference<LocalDateTime> renewedAt = new AtomicReference<>(LocalDateTime.now());
+        ScheduledFuture<?> renewal = renewalScheduler.scheduleAtFixedRate(() -> renew(lease, leaseTime, renewedAt),
+                                                                          properties.renewInterval());
+        try {
+            job.accept(lease);
+            return true;
+        } finally {
+            renewal.cancel(false);
+            try {
+                lock.release(lease);
+            } catch (RuntimeException e) {
+                logger.warn("Could not release scheduler lock {}, it expires with its lease: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * This node and the state of every lock, for the lock status endpoint
+     */
+    public Map<String, Object> status() {
+        List<Map<String, Object>> locks = new ArrayList<>();
+        for (SchedulerLock.LockState state : lock.states()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", state.getName());
+            entry.put("held", state.isHeld());
+            entry.put("owner", state.getOwner());
+            entry.put("heldByThisNode", state.isHeld() && properties.getNodeId().equals(state.getOwner()));
+            entry.put("fencingToken", state.getFencingToken());
+            entry.put("lockedAt", state.getLockedAt());
+            entry.put("lockUntil", state.getLockUntil());
+            locks.add(entry);
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("node", properties.getNodeId());
+        status.put("provider", properties.getProvider());
+        status.put("leaseTime", properties.getLeaseTime().toString());
+        status.put("locks", locks);
+        return status;
+    }
+
+    private void renew(SchedulerLock.Lease lease, Duration leaseTime, AtomicReference<LocalDateTime> renewedAt) {
+        if (!lease.isHeld()) {
+            return;
+        }
+        boolean renewed;
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            renewed = lock.renew(lease, leaseTime);
+        } catch (RuntimeException e) {
+            if (now.isBefore(renewedAt.get().plus(leaseTime))) {
+                logger.warn("Could not renew scheduler lock {}, retrying: {}", lease.getName(), e.getMessage());
+                return;
+            }
+            logger.error("Could not renew scheduler lock {} for a whole lease time: {}", lease.getName(), e.getMessage());
+            renewed = false;
+        }
+        if (renewed) {
+            renewedAt.set(now);
+        } else {
+            logger.error("Lost scheduler lock {} (fencing token {}); this run stops at its next step or chunk",
+                         lease.getName(), lease.getFencingToken());
+            lease.markLost();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        renewalScheduler.shutdown();
+    }
+}
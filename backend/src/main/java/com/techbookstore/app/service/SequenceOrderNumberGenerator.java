@@ -0,0 +1,96 @@
+package com.techbookstore.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order numbers backed by the order_number_seq database sequence using hi/lo allocation.
+ * Each sequence value (hi) reserves a block of blockSize numbers that are handed out from memory,
+ * so only one call per block touches the database and numbers stay unique across app instances.
+ * Numbers are globally increasing rather than restarting each day, so they carry no date:
+ * ORD- followed by the value, zero-padded to at least 8 digits (orders.order_number holds up to 32
+ * characters, room for any sequence value).
+ */
+@Component
+@ConditionalOnProperty(name = "app.order-number.generator", havingValue = "sequence", matchIfMissing = true)
+public class SequenceOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceOrderNumberGenerator.class);
+
+    static final String SEQUENCE_NAME = "order_number_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+
+    private volatile Block block = new Block(0, 0);
+
+    public SequenceOrderNumberGenerator(JdbcTemplate jdbcTemplate,
+                                        @Value("${app.order-number.block-size:50}") int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Creates the sequence for schemas managed by Hibernate (dev/test).
+     * Staging and production get it from db/migration/order_number_schema.sql.
+     */
+    @PostConstruct
+    public void createSequenceIfMissing() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME + " START WITH 1 INCREMENT BY 1");
+        } catch (DataAccessException e) {
+            logger.warn("Could not create sequence {}: {}", SEQUENCE_NAME, e.getMessage());
+        }
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        return String.format("ORD-%08d", nextValue());
+    }
+
+    long nextValue() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return value;
+            }
+            allocateBlock(current);
+        }
+    }
+
+    /**
+     * Only the thread that finds the block exhausted fetches a new hi value; others wait here
+     * briefly and then continue with the fresh block.
+     */
+    private synchronized void allocateBlock(Block exhausted) {
+        if (block != exhausted) {
+            return;
+        }
+        Long hi = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_NAME + "')", Long.class);
+        long start = hi * blockSize;
+        block = new Block(start, start + blockSize);
+        logger.debug("Allocated order number block [{}, {})", start, start + blockSize);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.entity.Inventory;
+import com.techbookstore.app.event.StockChangedEvent;
+import com.techbookstore.app.exception.InsufficientInventoryException;
+import com.techbookstore.app.exception.InventoryNotFoundException;
+import com.techbookstore.app.exception.StockConflictException;
+import com.techbookstore.app.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Contention-safe stock mutations for Inventory.
+ * 在庫数更新サービス（楽観ロック・条件付きUPDATE・リトライ）
+ *
+ * Every change to store/warehouse/reserved counts is a single conditional UPDATE that
+ * checks the guard (e.g. enough store stock) and bumps the version in the database,
+ * so concurrent writers can never oversell or lose each other's updates.
+ * Transient lock conflicts are retried with bounded exponential backoff.
+ * Each mutation publishes a StockChangedEvent inside its transaction.
+ */
+@Service
+public class StockMutationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockMutationService.class);
+
+    static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 5;
+    private static final long MAX_BACKOFF_MILLIS = 200;
+
+    private static final String BATCH_SELL_SQL =
+        "UPDATE inventory SET store_stock = store_stock - ?, last_sold_date = ?, version = version + 1 " +
+        "WHERE id = ? AND store_stock >= ?";
+
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StockMutationService(InventoryRepository inventoryRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher) {
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Run a unit of work that mutates stock, retrying it in a fresh transaction on
+     * transient concurrency failures. When a transaction is already active the caller
+     * owns the transaction boundary, so the work runs once and failures propagate.
+     */
+    public <T> T withRetry(Supplier<T> unitOfWork) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return unitOfWork.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> unitOfWork.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new StockConflictException(
+                        "Stock update failed after " + attempt + " attempts due to concurrent updates", e);
+                }
+                logger.debug("Stock update conflict on attempt {}, retrying: {}", attempt, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Sell from store stock (POS sale or confirmed order line).
+     * Fails when store stock or available stock is insufficient.
+     */
+    public Inventory sell(Long bookId, int quantity) {
+        return withRetry(() -> {
+            Inventory inventory = findByBookId(bookId);
+            decrementStoreStock(inventory, quantity);
+            return changed(refresh(inventory));
+        });
+    }
+
+    /**
+     * Sell several books at once (bulk order confirmation).
+     * All rows are locked in one query, checked together and decremented in one JDBC batch;
+     * nothing is changed when any book is missing or short.
+     */
+    public void sellAll(Map<Long, Integer> quantitiesByBookId) {
+        withRetry(() -> {
+            StockAllocation allocation = lockForSale(quantitiesByBookId.keySet());
+            allocation.allocate(quantitiesByBookId);
+            applySales(allocation);
+            return null;
+        });
+    }
+
+    /**
+     * Lock the inventory rows of the given books (in id order) for a series of allocations.
+     * Must be called inside a transaction; the locks are held until it ends.
+     */
+    public StockAllocation lockForSale(Collection<Long> bookIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("lockForSale requires an active transaction");
+        }
+        return new StockAllocation(inventoryRepository.findByBookIdInForUpdate(bookIds));
+    }
+
+    /**
+     * Write all allocated decrements of an allocation as one JDBC batch.
+     */
+    public void applySales(StockAllocation allocation) {
+        if (allocation.decrements.isEmpty()) {
+            return;
+        }
+        // Pending entity changes must reach the database before the plain JDBC batch
+        entityManager.flush();
+
+        Date soldDate = Date.valueOf(LocalDate.now());
+        List<Object[]> batchArgs = new ArrayList<>();
+        List<Inventory> updatedRows = new ArrayList<>();
+        for (Map.Entry<Long, Integer> decrement : allocation.decrements.entrySet()) {
+            Inventory inventory = allocation.inventoriesByBookId.get(decrement.getKey());
+            int quantity = decrement.getValue();
+            batchArgs.add(new Object[] {quantity, soldDate, inventory.getId(), quantity});
+            updatedRows.add(inventory);
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(BATCH_SELL_SQL, batchArgs);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new StockConflictException("Inventory " + updatedRows.get(i).getId() + " changed while locked");
+            }
+        }
+
+        // The managed copies are stale now; detach them so they are never flushed back
+        for (Inventory inventory : updatedRows) {
+            entityManager.detach(inventory);
+            inventory.setStoreStock(inventory.getStoreStock() - allocation.decrements.get(inventory.getBook().getId()));
+            inventory.setLastSoldDate(soldDate.toLocalDate());
+            inventory.setVersion(inventory.getVersion() + 1);
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(allocation.decrements.keySet()));
+        allocation.decrements.clear();
+    }
+
+    /**
+     * Receive stock into the store or the warehouse.
+     */
+    public Inventory receive(Long bookId, int quantity, boolean toStore) {
+        requirePositive(quantity);
+        return withRetry(() -> {
+            Inventory inventory = findByBookId(bookId);
+            LocalDate today = LocalDate.now();
+            if (toStore) {
+                inventoryRepository.incrementStoreStock(inventory.getId(), quantity, today);
+            } else {
+                inventoryRepository.incrementWarehouseStock(inventory.getId(), quantity, today);
+            }
+            return changed(refresh(inventory));
+        });
+    }
+
+    /**
+     * Set absolute stock levels (stocktaking correction). When expectedVersion is given the
+     * update only applies if nobody changed the row since the caller read it; otherwise the
+     * current version is read and the update is retried if it moves in between.
+     */
+    public Inventory adjust(Long bookId, int storeStock, int warehouseStock, Long expectedVersion) {
+        if (storeStock < 0 || warehouseStock < 0) {
+            throw new IllegalArgumentException("Stock levels must not be negative");
+        }
+        for (int attempt = 1; ; attempt++) {
+            Inventory adjusted = withRetry(() -> {
+                Inventory inventory = refresh(findByBookId(bookId));
+                Long version = expectedVersion != null ? expectedVersion : inventory.getVersion();
+                int updated = inventoryRepository.setStockLevels(inventory.getId(), storeStock, warehouseStock, version);
+                return updated > 0 ? changed(refresh(inventory)) : null;
+            });
+            if (adjusted != null) {
+                return adjusted;
+            }
+            if (expectedVersion != null) {
+                throw new StockConflictException("Inventory for book " + bookId + " was modified since version " + expectedVersion);
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                throw new StockConflictException("Stock adjustment failed after " + attempt + " attempts due to concurrent updates");
+            }
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Move stock between store and warehouse.
+     */
+    public Inventory transfer(Long inventoryId, boolean storeToWarehouse, int quantity) {
+        requirePositive(quantity);
+        return withRetry(() -> {
+            Inventory inventory = findById(inventoryId);
+            int updated = storeToWarehouse
+                ? inventoryRepository.moveStoreToWarehouse(inventoryId, quantity)
+                : inventoryRepository.moveWarehouseToStore(inventoryId, quantity);
+            if (updated == 0) {
+                throw new InsufficientInventoryException(storeToWarehouse
+                    ? "Insufficient store stock for transfer"
+                    : "Insufficient warehouse stock for transfer");
+            }
+            return changed(refresh(inventory));
+        });
+    }
+
+    /**
+     * Reserve available stock.
+     */
+    public Inventory reserve(Long inventoryId, int quantity) {
+        requirePositive(quantity);
+        return withRetry(() -> {
+            Inventory inventory = findById(inventoryId);
+            if (inventoryRepository.incrementReservedCount(inventoryId, quantity) == 0) {
+                throw new InsufficientInventoryException("Insufficient available stock for reservation");
+            }
+            return changed(refresh(inventory));
+        });
+    }
+
+    /**
+     * Release previously reserved stock.
+     */
+    public Inventory release(Long inventoryId, int quantity) {
+        requirePositive(quantity);
+        return withRetry(() -> {
+            Inventory inventory = findById(inventoryId);
+            if (inventoryRepository.decrementReservedCount(inventoryId, quantity) == 0) {
+                throw new IllegalStateException("Reserved count for inventory " + inventoryId + " is lower than " + quantity);
+            }
+            return changed(refresh(inventory));
+        });
+    }
+
+    private void decrementStoreStock(Inventory inventory, int quantity) {
+        requirePositive(quantity);
+        if (inventoryRepository.decrementStoreStock(inventory.getId(), quantity, LocalDate.now()) == 0) {
+            Inventory current = refresh(inventory);
+            int available = Math.min(current.getStoreStock(), current.getAvailableStock());
+            throw new InsufficientInventoryException(current.getBook().getTitle(), quantity, Math.max(available, 0));
+        }
+    }
+
+    private Inventory findByBookId(Long bookId) {
+        return inventoryRepository.findByBookId(bookId)
+            .orElseThrow(() -> new InventoryNotFoundException(bookId));
+    }
+
+    private Inventory findById(Long inventoryId) {
+        return inventoryRepository.findById(inventoryId)
+            .orElseThrow(() -> new InventoryNotFoundException(inventoryId));
+    }
+
+    /**
+     * Bulk updates bypass the persistence context, so reload the managed entity from the database.
+     */
+    private Inventory refresh(Inventory inventory) {
+        entityManager.refresh(inventory);
+        return inventory;
+    }
+
+    private Inventory changed(Inventory inventory) {
+        eventPublisher.publishEvent(new StockChangedEvent(Collections.singleton(inventory.getBook().getId())));
+        return inventory;
+    }
+
+    private void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockConflictException("Interrupted while retrying stock update", e);
+        }
+    }
+
+    /**
+     * Locked inventory rows plus the decrements allocated against them but not yet written.
+     */
+    public static class StockAllocation {
+        private final Map<Long, Inventory> inventoriesByBookId = new HashMap<>();
+        private final Map<Long, Integer> decrements = new LinkedHashMap<>();
+
+        StockAllocation(List<Inventory> lockedInventories) {
+            for (Inventory inventory : lockedInventories) {
+                inventoriesByBookId.put(inventory.getBook().getId(), inventory);
+            }
+        }
+
+        /**
+         * Allocate store stock for one set of book quantities, all or nothing.
+         *
+         * @throws InventoryNotFoundException if a book has no locked inventory row
+         * @throws InsufficientInventoryException if store or available stock is short for any book
+         */
+        public void allocate(Map<Long, Integer> quantitiesByBookId) {
+            for (Map.Entry<Long, Integer> entry : quantitiesByBookId.entrySet()) {
+                Inventory inventory = inventoriesByBookId.get(entry.getKey());
+                if (inventory == null) {
+                    throw new InventoryNotFoundException(entry.getKey());
+                }
+                int quantity = entry.getValue();
+                if (quantity <= 0) {
+                    throw new IllegalArgumentException("Quantity must be positive");
+                }
+                int allocated = decrements.getOrDefault(entry.getKey(), 0);
+                int available = Math.min(inventory.getStoreStock(), inventory.getAvailableStock()) - allocated;
+                if (available < quantity) {
+                    throw new InsufficientInventoryException(inventory.getBook().getTitle(), quantity, Math.max(available, 0));
+                }
+            }
+            quantitiesByBookId.forEach((bookId, quantity) -> decrements.merge(bookId, quantity, Integer::sum));
+        }
+    }
+}
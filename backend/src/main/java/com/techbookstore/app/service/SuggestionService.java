@@ -0,0 +1,242 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.SuggestionDto;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead suggestions for books (title, English title, ISBN-13 prefix) and customers
+ * (name, name kana, email), served from in-memory radix tries.
+ * Titles and names are also keyed from each word, so "java" suggests "Effective Java".
+ * Loaded once the application is ready and updated after book and customer saves/deletes commit.
+ */
+@Service
+public class SuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+
+    public static final int MAX_LIMIT = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Catalog books = new Catalog();
+    private final Catalog customers = new Catalog();
+
+    public SuggestionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads both tries from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        books.clear();
+        jdbcTemplate.query("SELECT id, title, title_en, isbn13 FROM books", rs -> {
+            putBook(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+        });
+        customers.clear();
+        jdbcTemplate.query("SELECT id, name, name_kana, email FROM customers WHERE status <> 'DELETED'", rs -> {
+            putCustomer(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+        });
+        logger.info("Suggestion tries built: {} books, {} customers in {} ms",
+                    books.size(), customers.size(), System.currentTimeMillis() - started);
+    }
+
+    public List<SuggestionDto> suggestBooks(String query, int limit) {
+        return books.suggest(normalize(query), Math.min(limit, MAX_LIMIT));
+    }
+
+    public List<SuggestionDto> suggestCustomers(String query, int limit) {
+        return customers.suggest(normalize(query), Math.min(limit, MAX_LIMIT));
+    }
+
+    public void bookSaved(Book book) {
+        Long id = book.getId();
+        String title = book.getTitle();
+        String titleEn = book.getTitleEn();
+        String isbn13 = book.getIsbn13();
+        afterCommit(() -> putBook(id, title, titleEn, isbn13));
+    }
+
+    public void bookDeleted(Long bookId) {
+        afterCommit(() -> books.remove(bookId));
+    }
+
+    /**
+     * Indexes the customer, or drops it once it has been (soft) deleted.
+     */
+    public void customerSaved(Customer customer) {
+        Long id = customer.getId();
+        if (customer.getStatus() == Customer.CustomerStatus.DELETED) {
+            afterCommit(() -> customers.remove(id));
+            return;
+        }
+        String name = customer.getName();
+        String nameKana = customer.getNameKana();
+        String email = customer.getEmail();
+        afterCommit(() -> putCustomer(id, name, nameKana, email));
+    }
+
+    private void putBook(Long id, String title, String titleEn, String isbn13) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.addAll(wordKeys(title));
+        keys.addAll(wordKeys(titleEn));
+        keys.add(normalize(isbn13));
+        books.put(new SuggestionDto(id, title, isbn13), keys);
+    }
+
+    private void putCustomer(Long id, String name, String nameKana, String email) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.addAll(wordKeys(name));
+        keys.addAll(wordKeys(nameKana));
+        keys.add(normalize(email));
+        customers.put(new SuggestionDto(id, name, email), keys);
+    }
+
+    /**
+     * Runs the update once the surrounding transaction commits, or right away outside one,
+     * so rolled-back saves never show up as suggestions.
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * The whole normalized text plus the suffix starting at each later word.
+     */
+    static List<String> wordKeys(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * NFKC, lower case, single spaces; hyphens between digits dropped so ISBNs match either way.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC)
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("(?<=\\d)-(?=\\d)", "")
+            .replaceAll("\\s+", " ")
+            .trim();
+    }
+
+    /**
+     * One trie plus the suggestion and keys stored per ID.
+     */
+    private static class Catalog {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final RadixTrie trie = new RadixTrie();
+        private final Map<Long, SuggestionDto> suggestions = new HashMap<>();
+        private final Map<Long, String[]> keysById = new HashMap<>();
+
+        void put(SuggestionDto suggestion, Set<String> keys) {
+            keys.remove("");
+            lock.writeLock().lock();
+            try {
+                removeKeys(suggestion.getId());
+                String[] keyArray = keys.toArray(new String[0]);
+                for (String key : keyArray) {
+                    trie.add(key, suggestion.getId());
+                }
+                keysById.put(suggestion.getId(), keyArray);
+                suggestions.put(suggestion.getId(), suggestion);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                removeKeys(id);
+                suggestions.remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void clear() {
+            lock.writeLock().lock();
+            try {
+                new ArrayList<>(keysById.keySet()).forEach(this::removeKeys);
+                suggestions.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<SuggestionDto> suggest(String prefix, int limit) {
+            if (prefix.isEmpty() || limit <= 0) {
+                return Collections.emptyList();
+            }
+            lock.readLock().lock();
+            try {
+                List<SuggestionDto> result = new ArrayList<>();
+                for (Long id : trie.collect(prefix, limit)) {
+                    result.add(suggestions.get(id));
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return suggestions.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void removeKeys(Long id) {
+            String[] keys = keysById.remove(id);
+            if (keys != null) {
+                Arrays.stream(keys).forEach(key -> trie.remove(key, id));
+            }
+        }
+    }
+}
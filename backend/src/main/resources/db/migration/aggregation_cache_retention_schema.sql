@@ -0,0 +1,9 @@
+-- Aggregation Cache Retention Schema
+-- last_accessed_at drives least-recently-used eviction per aggregation type
+-- (AggregationCacheSweeper; limits under app.aggregation-cache.*).
+
+ALTER TABLE aggregation_cache ADD COLUMN IF NOT EXISTS last_accessed_at TIMESTAMP;
+UPDATE aggregation_cache SET last_accessed_at = created_at WHERE last_accessed_at IS NULL;
+
+-- Oldest-first scans within a type
+CREATE INDEX IF NOT EXISTS idx_aggregation_cache_type_access ON aggregation_cache(aggregation_type, last_accessed_at);
@@ -0,0 +1,13 @@
+-- Aggregation Store Schema
+-- Typed aggregations keep a versioned binary payload instead of aggregation_data text.
+-- One row per (aggregation_type, aggregation_date); cache_key is "<type>_<date>".
+
+ALTER TABLE aggregation_cache ADD COLUMN IF NOT EXISTS payload BYTEA;
+ALTER TABLE aggregation_cache ADD COLUMN IF NOT EXISTS payload_version SMALLINT;
+ALTER TABLE aggregation_cache ALTER COLUMN aggregation_data DROP NOT NULL;
+
+-- Snapshot lookups by type and day
+CREATE INDEX IF NOT EXISTS idx_aggregation_cache_type_date ON aggregation_cache(aggregation_type, aggregation_date);
+
+-- Expiry sweeps by the daily batch
+CREATE INDEX IF NOT EXISTS idx_aggregation_cache_expires ON aggregation_cache(expires_at);
@@ -0,0 +1,20 @@
+-- Analysis Job Schema
+-- Jobs submitted through /api/v1/inventory/integrated/jobs; rows are deleted once expires_at has passed.
+
+CREATE TABLE IF NOT EXISTS analysis_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    job_type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    progress INTEGER NOT NULL DEFAULT 0,
+    current_phase VARCHAR(50),
+    parameters TEXT,
+    result TEXT,
+    error_message TEXT,
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Expiry sweeps
+CREATE INDEX IF NOT EXISTS idx_analysis_jobs_expires ON analysis_jobs(expires_at);
@@ -0,0 +1,24 @@
+-- Batch Checkpoint Schema
+-- One row per step of a scheduled batch run; committed_items advances with every committed chunk
+-- (and last_key with the key of its last item, for steps resuming by key) so a failed run resumes
+-- from there. Only the run holding the newest scheduler lock fencing token may write a step
+-- (fencing_token). Rows older than app.batch.checkpoint-retention are deleted.
+
+CREATE TABLE IF NOT EXISTS batch_checkpoints (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(50) NOT NULL,
+    run_date DATE NOT NULL,
+    step_name VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    committed_items INTEGER NOT NULL DEFAULT 0,
+    committed_chunks INTEGER NOT NULL DEFAULT 0,
+    last_key VARCHAR(100),
+    fencing_token BIGINT NOT NULL DEFAULT 0,
+    error_message TEXT,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_batch_checkpoints_step UNIQUE (job_name, run_date, step_name)
+);
+
+-- Retention sweeps
+CREATE INDEX IF NOT EXISTS idx_batch_checkpoints_run_date ON batch_checkpoints(run_date);
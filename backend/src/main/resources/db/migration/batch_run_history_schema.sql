@@ -0,0 +1,36 @@
+-- Batch Run History Schema
+-- One row per batch run and per step of a run (BatchRunRecorder), served by
+-- GET /api/v1/reports/admin/batch/history; rows older than app.batch.history-retention are deleted.
+
+CREATE TABLE IF NOT EXISTS batch_runs (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(50) NOT NULL,
+    run_date DATE NOT NULL,
+    node VARCHAR(255),
+    fencing_token BIGINT NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    ended_at TIMESTAMP,
+    duration_ms BIGINT,
+    error_message TEXT
+);
+
+CREATE TABLE IF NOT EXISTS batch_step_runs (
+    id BIGSERIAL PRIMARY KEY,
+    run_id BIGINT NOT NULL REFERENCES batch_runs(id),
+    step_name VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    items_read INTEGER NOT NULL DEFAULT 0,
+    items_written INTEGER NOT NULL DEFAULT 0,
+    chunks INTEGER NOT NULL DEFAULT 0,
+    retries INTEGER NOT NULL DEFAULT 0,
+    resumed_from INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    ended_at TIMESTAMP,
+    duration_ms BIGINT,
+    error_message TEXT
+);
+
+-- Latest runs per batch
+CREATE INDEX IF NOT EXISTS idx_batch_runs_job_started ON batch_runs(job_name, started_at);
+CREATE INDEX IF NOT EXISTS idx_batch_step_runs_run ON batch_step_runs(run_id);
@@ -0,0 +1,87 @@
+-- Data Archive Schema (PostgreSQL 11+)
+-- Settled orders (with their lines) and inventory transactions older than app.batch.archive-after
+-- are moved here by the monthly batch (ArchiveStore) and read through ArchiveAwareRepository.
+-- Each table is range-partitioned by date: the batch adds one partition per year
+-- (<table>_<year>) before moving rows of that year, rows of other years land in <table>_default.
+-- Primary keys include the partition column, as PostgreSQL requires.
+
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id BIGINT NOT NULL,
+    order_number VARCHAR(32) NOT NULL,
+    customer_id BIGINT,
+    status VARCHAR(20) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    payment_method VARCHAR(20),
+    total_amount DECIMAL(10,2) NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    confirmed_date TIMESTAMP,
+    shipped_date TIMESTAMP,
+    delivered_date TIMESTAMP,
+    notes TEXT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_on DATE NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE TABLE IF NOT EXISTS orders_archive_default PARTITION OF orders_archive DEFAULT;
+
+-- order_date is copied from the order so lines are partitioned and pruned like their orders
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    archived_on DATE NOT NULL,
+    PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE TABLE IF NOT EXISTS order_items_archive_default PARTITION OF order_items_archive DEFAULT;
+
+CREATE TABLE IF NOT EXISTS inventory_transactions_archive (
+    id BIGINT NOT NULL,
+    inventory_id BIGINT NOT NULL,
+    transaction_type VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    before_quantity INTEGER NOT NULL,
+    after_quantity INTEGER NOT NULL,
+    reason TEXT,
+    batch_number VARCHAR(50),
+    reference_number VARCHAR(50),
+    executed_by BIGINT,
+    approved_by BIGINT,
+    executed_at TIMESTAMP NOT NULL,
+    approved_at TIMESTAMP,
+    status VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    archived_on DATE NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, executed_at)
+) PARTITION BY RANGE (executed_at);
+
+CREATE TABLE IF NOT EXISTS inventory_transactions_archive_default PARTITION OF inventory_transactions_archive DEFAULT;
+
+-- Date-range reads and the newest-archived-date probe
+CREATE INDEX IF NOT EXISTS idx_orders_archive_order_date ON orders_archive(order_date);
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order_date ON order_items_archive(order_date);
+CREATE INDEX IF NOT EXISTS idx_inventory_transactions_archive_executed_at ON inventory_transactions_archive(executed_at);
+
+-- Customer order history, order lookups and inventory item transaction history
+CREATE INDEX IF NOT EXISTS idx_orders_archive_customer ON orders_archive(customer_id);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_order_number ON orders_archive(order_number);
+CREATE INDEX IF NOT EXISTS idx_inventory_transactions_archive_inventory ON inventory_transactions_archive(inventory_id);
+
+-- Lines of archived orders
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order ON order_items_archive(order_id);
+
+-- Rows already moved by a run date (resuming an interrupted archive step)
+CREATE INDEX IF NOT EXISTS idx_orders_archive_archived_on ON orders_archive(archived_on);
+CREATE INDEX IF NOT EXISTS idx_inventory_transactions_archive_archived_on ON inventory_transactions_archive(archived_on);
+
+-- Selecting the live rows to archive
+CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders(order_date);
+CREATE INDEX IF NOT EXISTS idx_inventory_transactions_executed_at ON inventory_transactions(executed_at);
@@ -0,0 +1,47 @@
+-- Incremental Aggregation Schema
+-- Aggregates refreshed by the daily batch (IncrementalAggregationService) for the keys whose
+-- source rows changed since the aggregation's watermark, instead of being recomputed from history.
+
+-- Change watermark per aggregation, advanced when its batch step completes; pending_until is the
+-- end of the window read by a run in progress, fixed by its first attempt
+CREATE TABLE IF NOT EXISTS aggregation_watermarks (
+    aggregation_type VARCHAR(50) PRIMARY KEY,
+    watermark TIMESTAMP,
+    pending_until TIMESTAMP,
+    last_run_date DATE,
+    last_refreshed_keys INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Order totals per customer over live and archived orders (cancelled orders excluded)
+CREATE TABLE IF NOT EXISTS customer_order_stats (
+    customer_id BIGINT PRIMARY KEY,
+    customer_type VARCHAR(20) NOT NULL,
+    customer_status VARCHAR(20),
+    order_count BIGINT NOT NULL,
+    total_spent DECIMAL(14,2) NOT NULL,
+    first_order_at TIMESTAMP,
+    last_order_at TIMESTAMP,
+    refreshed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_customer_order_stats_last_order ON customer_order_stats(last_order_at);
+
+-- Inventory transactions per day and type
+CREATE TABLE IF NOT EXISTS inventory_daily_movements (
+    id BIGSERIAL PRIMARY KEY,
+    movement_date DATE NOT NULL,
+    transaction_type VARCHAR(20) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    total_quantity BIGINT NOT NULL,
+    refreshed_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_inventory_daily_movements_cell UNIQUE (movement_date, transaction_type)
+);
+
+-- Finding changed rows since a watermark (inventory_transactions.executed_at is indexed by the archive schema)
+CREATE INDEX IF NOT EXISTS idx_orders_updated_at ON orders(updated_at);
+CREATE INDEX IF NOT EXISTS idx_customers_updated_at ON customers(updated_at);
+
+-- Re-aggregating the orders of changed customers
+CREATE INDEX IF NOT EXISTS idx_orders_customer ON orders(customer_id);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_customer ON orders_archive(customer_id);
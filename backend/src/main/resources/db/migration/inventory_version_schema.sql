@@ -0,0 +1,4 @@
+-- Inventory Optimistic Locking
+-- Version column for Inventory (@Version). Conditional stock updates in InventoryRepository bump it explicitly.
+
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
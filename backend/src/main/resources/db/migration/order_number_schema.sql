@@ -0,0 +1,10 @@
+-- Order Number Sequence
+-- Backs SequenceOrderNumberGenerator (hi/lo): each value reserves a block of app.order-number.block-size numbers.
+-- Numbers are ORD-<global value> without a date, so the column is widened to fit any sequence value.
+
+ALTER TABLE orders ALTER COLUMN order_number TYPE VARCHAR(32);
+
+CREATE SEQUENCE IF NOT EXISTS order_number_seq START WITH 1 INCREMENT BY 1;
+
+-- Skip past numbers issued by the previous count()-based generator (assumes the default block size of 50)
+SELECT setval('order_number_seq', (SELECT COUNT(*) FROM orders) / 50 + 1);
@@ -0,0 +1,23 @@
+-- Sales Fact Schema
+-- Daily sales fact table pre-aggregated per book and sales dimension.
+-- Rows with book_id = 0 hold order-level totals so distinct order counts are not double counted.
+
+CREATE TABLE IF NOT EXISTS daily_book_sales (
+    id BIGSERIAL PRIMARY KEY,
+    sales_date DATE NOT NULL,
+    book_id BIGINT NOT NULL,
+    customer_type VARCHAR(20) NOT NULL,
+    payment_method VARCHAR(20) NOT NULL,
+    order_type VARCHAR(20) NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_daily_book_sales_cell UNIQUE (sales_date, book_id, customer_type, payment_method, order_type)
+);
+
+-- Range scans by date for totals, trends and rankings
+CREATE INDEX IF NOT EXISTS idx_daily_book_sales_date_book ON daily_book_sales(sales_date, book_id);
+
+-- Initial backfill: POST /api/v1/reports/admin/sales-facts/rebuild?startDate=...&endDate=...
+-- The daily batch re-derives the last 7 days to absorb late corrections.
@@ -0,0 +1,11 @@
+-- Scheduler Lock Schema
+-- One row per scheduled job lock (app.scheduler.lock.provider=database). A node holds the lock
+-- until lock_until; rows are kept after release so fencing_token keeps growing.
+
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    locked_at TIMESTAMP NOT NULL,
+    lock_until TIMESTAMP NOT NULL
+);
@@ -0,0 +1,93 @@
+package com.techbookstore.app.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.techbookstore.app.config.CompactCacheValueSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode latency of Redis cache values for representative DTOs, and bytes per entry
+ * (printed once per trial).
+ * Neither former serializer can store these DTOs: JDK serialization rejects them (not
+ * Serializable) and GenericJackson2JsonRedisSerializer can not read java.time fields back.
+ * json is therefore the former JSON serializer with java.time support added; smile is the
+ * compact codec with compression off, smile-lz4 the codec as configured.
+ *
+ * Run with: mvn -P benchmark test-compile exec:exec -Dbenchmark.pattern=CacheValueCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheValueCodecBenchmark {
+
+    @Param({"json", "smile", "smile-lz4"})
+    private String codec;
+
+    @Param({"inventoryReport", "integratedAnalysis"})
+    private String value;
+
+    private RedisSerializer<Object> serializer;
+    private Object original;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = serializer(codec);
+        original = "inventoryReport".equals(value)
+            ? CacheValueFixtures.inventoryReport(500)
+            : CacheValueFixtures.integratedAnalysis(200);
+        encoded = serializer.serialize(original);
+        serializer.deserialize(encoded);
+
+        System.out.printf("%n%s/%s: %d bytes per entry (jdk: %s, former json: %s)%n", codec, value, encoded.length,
+                          formerResult(new JdkSerializationRedisSerializer()),
+                          formerResult(new GenericJackson2JsonRedisSerializer()));
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(original);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    private String formerResult(RedisSerializer<Object> former) {
+        try {
+            byte[] bytes = former.serialize(original);
+            former.deserialize(bytes);
+            return bytes.length + " bytes";
+        } catch (RuntimeException e) {
+            return "fails (" + e.getClass().getSimpleName() + ")";
+        }
+    }
+
+    private static RedisSerializer<Object> serializer(String codec) {
+        switch (codec) {
+            case "json":
+                ObjectMapper mapper = new ObjectMapper();
+                mapper.registerModule(new JavaTimeModule());
+                mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
+                                             ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+                return new GenericJackson2JsonRedisSerializer(mapper);
+            case "smile":
+                return new CompactCacheValueSerializer(Integer.MAX_VALUE);
+            case "smile-lz4":
+                return new CompactCacheValueSerializer(1024);
+            default:
+                throw new IllegalArgumentException("Unknown codec " + codec);
+        }
+    }
+}
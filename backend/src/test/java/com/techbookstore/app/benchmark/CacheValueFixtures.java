@@ -0,0 +1,104 @@
+package com.techbookstore.app.benchmark;
+
+import com.techbookstore.app.dto.ABCXYZAnalysisResult;
+import com.techbookstore.app.dto.DemandForecastResult;
+import com.techbookstore.app.dto.IntegratedAnalysisResult;
+import com.techbookstore.app.dto.InventoryReportDto;
+import com.techbookstore.app.dto.OptimalStockLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representative cached values, sized like a mid-size catalogue.
+ */
+public final class CacheValueFixtures {
+
+    private static final String[] CATEGORIES = {"Java", "Python", "JavaScript", "React", "Spring", "MySQL"};
+    private static final String[] STATUSES = {"IN_STOCK", "LOW_STOCK", "OUT_OF_STOCK"};
+
+    private CacheValueFixtures() {
+    }
+
+    public static InventoryReportDto inventoryReport(int books) {
+        InventoryReportDto report = new InventoryReportDto(LocalDate.of(2024, 6, 1), books, books / 10, books / 50,
+                                                           new BigDecimal("1234567.89"));
+        List<InventoryReportDto.InventoryItem> items = new ArrayList<>();
+        List<InventoryReportDto.ReorderSuggestion> suggestions = new ArrayList<>();
+        for (int i = 1; i <= books; i++) {
+            BigDecimal unitValue = BigDecimal.valueOf(2000 + i % 3000, 0).setScale(2);
+            items.add(new InventoryReportDto.InventoryItem((long) i, "技術書タイトル " + i, CATEGORIES[i % CATEGORIES.length],
+                                                           i % 40, 5, STATUSES[i % STATUSES.length], unitValue,
+                                                           unitValue.multiply(BigDecimal.valueOf(i % 40))));
+            if (i % 10 == 0) {
+                InventoryReportDto.ReorderSuggestion suggestion = new InventoryReportDto.ReorderSuggestion();
+                suggestion.setBookId((long) i);
+                suggestion.setTitle("技術書タイトル " + i);
+                suggestion.setCurrentStock(i % 5);
+                suggestion.setSuggestedOrder(20);
+                suggestion.setUrgency(i % 20 == 0 ? "HIGH" : "MEDIUM");
+                suggestion.setDaysUntilStockout(i % 14);
+                suggestions.add(suggestion);
+            }
+        }
+        report.setItems(items);
+        report.setReorderSuggestions(suggestions);
+        report.setTurnoverSummary(new InventoryReportDto.InventoryTurnoverSummary(4.2, "Python", "MySQL"));
+        report.setDeadStockItems(books / 25);
+        report.setDeadStockValue(new BigDecimal("45678.00"));
+        report.setAverageTurnoverRate(4.2);
+        report.setObsolescenceRiskIndex(0.17);
+        return report;
+    }
+
+    public static IntegratedAnalysisResult integratedAnalysis(int books) {
+        IntegratedAnalysisResult result = new IntegratedAnalysisResult("3f2b9c1e-7d4a-4e8b-9a61-0c5d2e8f4b7a");
+        result.setAnalysisTimestamp(LocalDateTime.of(2024, 6, 1, 9, 0));
+        result.setStatus("COMPLETED");
+        result.setExecutionTimeMs(1840L);
+        result.setBaseReport(inventoryReport(books));
+
+        IntegratedAnalysisResult.AdvancedAnalysisData advanced = new IntegratedAnalysisResult.AdvancedAnalysisData();
+        List<ABCXYZAnalysisResult> abcxyz = new ArrayList<>();
+        IntegratedAnalysisResult.ForecastingData forecasting = new IntegratedAnalysisResult.ForecastingData();
+        List<DemandForecastResult> forecasts = new ArrayList<>();
+        List<OptimalStockLevel> optimalLevels = new ArrayList<>();
+        for (int i = 1; i <= books; i++) {
+            abcxyz.add(new ABCXYZAnalysisResult((long) i, "技術書タイトル " + i, i % 5 == 0 ? "A" : "B", i % 3 == 0 ? "X" : "Y",
+                                                BigDecimal.valueOf(10000 + i * 37L, 2), new BigDecimal("0.35")));
+            forecasts.add(new DemandForecastResult((long) i, "技術書タイトル " + i, LocalDate.of(2024, 7, 1), i % 30,
+                                                   new BigDecimal("0.85"), "EMA"));
+            optimalLevels.add(new OptimalStockLevel((long) i, "技術書タイトル " + i, i % 40, 25, 5, 10));
+        }
+        advanced.setAbcxyzResults(abcxyz);
+        Map<String, Object> additionalMetrics = new HashMap<>();
+        additionalMetrics.put("analyzedItems", books);
+        additionalMetrics.put("coverage", new BigDecimal("0.98"));
+        advanced.setAdditionalMetrics(additionalMetrics);
+        result.setAdvancedAnalysis(advanced);
+
+        forecasting.setDemandForecasts(forecasts);
+        forecasting.setOptimalLevels(optimalLevels);
+        Map<String, BigDecimal> accuracy = new LinkedHashMap<>();
+        accuracy.put("EMA", new BigDecimal("0.82"));
+        accuracy.put("LINEAR", new BigDecimal("0.76"));
+        forecasting.setForecastAccuracy(accuracy);
+        result.setForecasting(forecasting);
+
+        IntegratedAnalysisResult.PerformanceMetrics metrics = new IntegratedAnalysisResult.PerformanceMetrics();
+        Map<String, Long> phaseTimes = new LinkedHashMap<>();
+        phaseTimes.put("phase1", 420L);
+        phaseTimes.put("phase2", 910L);
+        phaseTimes.put("phase3", 510L);
+        metrics.setPhaseExecutionTimes(phaseTimes);
+        metrics.setTotalAnalysisTime(1840L);
+        result.setPerformanceMetrics(metrics);
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.techbookstore.app.benchmark;
+
+import com.techbookstore.app.service.DailyCounterOrderNumberGenerator;
+import com.techbookstore.app.service.SequenceOrderNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order number generation under contention (16 threads) against an in-memory H2 orders table.
+ * legacySynchronizedCount reproduces the former OrderService.generateOrderNumber.
+ *
+ * Run with: mvn -P benchmark test-compile exec:exec -Dbenchmark.pattern=OrderNumberGeneratorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(16)
+public class OrderNumberGeneratorBenchmark {
+
+    private static final int EXISTING_ORDERS = 10_000;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SequenceOrderNumberGenerator sequenceGenerator;
+    private DailyCounterOrderNumberGenerator dailyCounterGenerator;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:order_number_bench;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, order_number VARCHAR(20) NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO orders (order_number) SELECT CONCAT('ORD-19990101-', X) FROM SYSTEM_RANGE(1, "
+            + EXISTING_ORDERS + ")");
+
+        sequenceGenerator = new SequenceOrderNumberGenerator(jdbcTemplate, 50);
+        sequenceGenerator.createSequenceIfMissing();
+        dailyCounterGenerator = new DailyCounterOrderNumberGenerator(jdbcTemplate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public String legacySynchronizedCount() {
+        return legacyGenerateOrderNumber();
+    }
+
+    @Benchmark
+    public String sequenceHiLo() {
+        return sequenceGenerator.nextOrderNumber();
+    }
+
+    @Benchmark
+    public String dailyCounter() {
+        return dailyCounterGenerator.nextOrderNumber();
+    }
+
+    private synchronized String legacyGenerateOrderNumber() {
+        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class) + 1;
+        return String.format("ORD-%s-%04d", date, count);
+    }
+}
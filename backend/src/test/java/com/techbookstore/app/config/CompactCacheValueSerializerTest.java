@@ -0,0 +1,74 @@
+package com.techbookstore.app.config;
+
+import com.techbookstore.app.benchmark.CacheValueFixtures;
+import com.techbookstore.app.dto.IntegratedAnalysisResult;
+import com.techbookstore.app.dto.InventoryReportDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compact Redis cache value codec
+ */
+public class CompactCacheValueSerializerTest {
+
+    private final CompactCacheValueSerializer serializer = new CompactCacheValueSerializer(1024);
+
+    @Test
+    void integratedAnalysis_RoundTripsCompressed() {
+        IntegratedAnalysisResult original = CacheValueFixtures.integratedAnalysis(50);
+
+        byte[] encoded = serializer.serialize(original);
+        IntegratedAnalysisResult decoded = (IntegratedAnalysisResult) serializer.deserialize(encoded);
+
+        assertEquals(CompactCacheValueSerializer.FORMAT_SMILE_LZ4, encoded[0]);
+        assertEquals(original.getAnalysisTimestamp(), decoded.getAnalysisTimestamp());
+        assertEquals(50, decoded.getBaseReport().getItems().size());
+        assertEquals(new BigDecimal("1234567.89"), decoded.getBaseReport().getTotalInventoryValue());
+        assertEquals(LocalDate.of(2024, 7, 1), decoded.getForecasting().getDemandForecasts().get(0).getForecastDate());
+        assertEquals(new BigDecimal("0.82"), decoded.getForecasting().getForecastAccuracy().get("EMA"));
+        assertEquals(new BigDecimal("0.98"), decoded.getAdvancedAnalysis().getAdditionalMetrics().get("coverage"));
+        assertEquals(Long.valueOf(910), decoded.getPerformanceMetrics().getPhaseExecutionTimes().get("phase2"));
+    }
+
+    @Test
+    void smallValues_AreNotCompressed() {
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("status", "ok");
+        dashboard.put("summary", new InventoryReportDto(LocalDate.of(2024, 6, 1), 10, 1, 0, BigDecimal.TEN));
+
+        byte[] encoded = serializer.serialize(dashboard);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> decoded = (Map<String, Object>) serializer.deserialize(encoded);
+
+        assertEquals(CompactCacheValueSerializer.FORMAT_SMILE, encoded[0]);
+        assertEquals("ok", decoded.get("status"));
+        assertEquals(Integer.valueOf(10), ((InventoryReportDto) decoded.get("summary")).getTotalProducts());
+    }
+
+    @Test
+    void compactEncoding_IsSmallerThanJson() {
+        InventoryReportDto report = CacheValueFixtures.inventoryReport(500);
+
+        assertTrue(serializer.serialize(report).length * 3 < new GenericJackson2JsonRedisSerializer().serialize(report).length);
+    }
+
+    @Test
+    void nullsAndForeignPayloads_Decode() {
+        assertSame(NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+        assertNull(serializer.deserialize(new byte[0]));
+        // Values written by the former serializers read as misses
+        assertNull(serializer.deserialize(new JdkSerializationRedisSerializer().serialize(Collections.singletonList("x"))));
+        assertNull(serializer.deserialize("{\"@class\":\"java.util.HashMap\"}".getBytes()));
+        assertNull(serializer.deserialize(new byte[] {CompactCacheValueSerializer.FORMAT_SMILE_LZ4, 0, 0, 1}));
+    }
+}
@@ -0,0 +1,102 @@
+package com.techbookstore.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the per-cache hit, miss, put, eviction, size and load latency meters
+ */
+class MeteredCacheManagerTest {
+
+    private MeterRegistry meterRegistry;
+    private MeteredCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new MeteredCacheManager(new ConcurrentMapCacheManager("dashboardData"), meterRegistry);
+    }
+
+    @Test
+    void configuredCaches_AreRegisteredBeforeFirstUse() {
+        assertNotNull(meterRegistry.find("cache.gets").tags("cache", "dashboardData", "result", "hit").functionCounter());
+        assertNotNull(meterRegistry.find("cache.size").tags("cache", "dashboardData").gauge());
+        assertNotNull(meterRegistry.find("cache.load").tags("cache", "dashboardData", "result", "success").timer());
+    }
+
+    @Test
+    void lookups_CountHitsMissesPutsAndEvictions() {
+        Cache cache = cacheManager.getCache("dashboardData");
+        assertSame(cache, cacheManager.getCache("dashboardData"));
+
+        assertNull(cache.get("k1"));
+        cache.put("k1", "v1");
+        assertEquals("v1", cache.get("k1").get());
+        assertEquals("v1", cache.get("k1", String.class));
+        assertNull(cache.putIfAbsent("k2", "v2"));
+        assertNotNull(cache.putIfAbsent("k2", "other"));
+        cache.evict("k1");
+        assertFalse(cache.evictIfPresent("k1"));
+        cache.clear();
+
+        assertEquals(2.0, count("cache.gets", "result", "hit"));
+        assertEquals(1.0, count("cache.gets", "result", "miss"));
+        assertEquals(2.0, count("cache.puts"));
+        assertEquals(1.0, count("cache.evictions"));
+        assertEquals(1.0, count("cache.clears"));
+        assertEquals(0.0, meterRegistry.find("cache.size").tags("cache", "dashboardData").gauge().value());
+    }
+
+    @Test
+    void loads_AreTimedAndCountedAsMisses() {
+        Cache cache = cacheManager.getCache("dashboardData");
+
+        assertEquals("computed", cache.get("k1", () -> {
+            Thread.sleep(5);
+            return "computed";
+        }));
+        assertEquals("computed", cache.get("k1", () -> "recomputed"));
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("k2", () -> {
+            throw new IllegalStateException("down");
+        }));
+
+        Timer loads = meterRegistry.find("cache.load").tags("cache", "dashboardData", "result", "success").timer();
+        assertEquals(1, loads.count());
+        assertTrue(loads.totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(1, meterRegistry.find("cache.load").tags("cache", "dashboardData", "result", "failure")
+            .timer().count());
+        assertEquals(1.0, count("cache.gets", "result", "hit"));
+        assertEquals(2.0, count("cache.gets", "result", "miss"));
+        assertEquals(1.0, meterRegistry.find("cache.size").tags("cache", "dashboardData").gauge().value());
+    }
+
+    @Test
+    void twoTierCaches_ReportLocalTierSize() {
+        ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager("dashboardData");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MeteredCacheManager metered = new MeteredCacheManager(new TwoTierCacheManager(remote, 10, Duration.ofMinutes(5),
+            Collections.singletonMap("dashboardData", Duration.ofMinutes(1)), Duration.ofMinutes(5), null, registry),
+            registry);
+
+        metered.getCache("dashboardData").put("k1", "v1");
+        remote.getCache("dashboardData").put("k2", "v2");
+
+        assertEquals(1.0, registry.find("cache.size").tags("cache", "dashboardData").gauge().value());
+        assertTrue(metered.getCache("dashboardData") instanceof MeteredCache);
+    }
+
+    private double count(String name, String... tags) {
+        return meterRegistry.find(name).tags("cache", "dashboardData").tags(tags).functionCounter().count();
+    }
+}
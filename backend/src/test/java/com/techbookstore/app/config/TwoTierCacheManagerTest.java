@@ -0,0 +1,210 @@
+package com.techbookstore.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for the local + remote cache tiers, cross-node invalidation, load coalescing and per-tier metrics
+ */
+class TwoTierCacheManagerTest {
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private StringRedisTemplate invalidationTemplate;
+    private MeterRegistry meterRegistry;
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("dashboardData");
+        invalidationTemplate = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new TwoTierCacheManager(remoteCacheManager, 2, Duration.ofMinutes(5),
+            Collections.singletonMap("dashboardData", Duration.ofMinutes(1)), Duration.ofMinutes(5),
+            invalidationTemplate, meterRegistry);
+    }
+
+    @Test
+    void reads_ServedFromLocalTierAfterFirstRemoteHit() {
+        remoteCacheManager.getCache("dashboardData").put("dashboard_1", "from redis");
+        Cache cache = cacheManager.getCache("dashboardData");
+
+        assertEquals("from redis", cache.get("dashboard_1").get());
+        assertEquals("from redis", cache.get("dashboard_1", String.class));
+        assertNull(cache.get("dashboard_2"));
+
+        assertEquals(1.0, count("local", "hit"));
+        assertEquals(1.0, count("remote", "hit"));
+        assertEquals(1.0, count("remote", "miss"));
+    }
+
+    @Test
+    void writes_GoToBothTiersAndArePublished() {
+        Cache cache = cacheManager.getCache("dashboardData");
+
+        cache.put("dashboard_1", "fresh");
+        assertEquals("fresh", remoteCacheManager.getCache("dashboardData").get("dashboard_1").get());
+        assertEquals("fresh", cache.get("dashboard_1").get());
+        assertEquals(1.0, count("local", "hit"));
+        verify(invalidationTemplate).convertAndSend(eq(TwoTierCacheManager.INVALIDATION_CHANNEL),
+                                                    endsWith("\tdashboardData\tdashboard_1"));
+
+        assertEquals("loaded", cache.get("dashboard_2", () -> "loaded"));
+        assertEquals("loaded", remoteCacheManager.getCache("dashboardData").get("dashboard_2").get());
+    }
+
+    @Test
+    void invalidationFromOtherNode_DropsLocalEntry() {
+        Cache cache = cacheManager.getCache("dashboardData");
+        cache.put("dashboard_1", "old");
+        remoteCacheManager.getCache("dashboardData").put("dashboard_1", "new from other node");
+
+        cacheManager.onMessage(message("other-node\tdashboardData\tdashboard_1"), null);
+
+        assertEquals("new from other node", cache.get("dashboard_1").get());
+        assertEquals(1.0, meterRegistry.get("cache.two_tier.invalidations").functionCounter().count());
+
+        cache.put("dashboard_2", "kept");
+        cacheManager.onMessage(message("other-node\tdashboardData\t"), null);
+        assertEquals(0.0, meterRegistry.get("cache.two_tier.size").gauge().value());
+    }
+
+    @Test
+    void localTier_IsBoundedBySize() {
+        Cache cache = cacheManager.getCache("dashboardData");
+        for (int i = 0; i < 50; i++) {
+            cache.put("dashboard_" + i, i);
+        }
+
+        TwoTierCache twoTierCache = (TwoTierCache) cache;
+        assertTrue(twoTierCache.getLocalSize() <= 2);
+        assertEquals(48, twoTierCache.getLocalEvictions());
+        assertEquals(50, ((Map<?, ?>) remoteCacheManager.getCache("dashboardData").getNativeCache()).size());
+    }
+
+    @Test
+    void unknownCache_IsNotCreated() {
+        remoteCacheManager.setCacheNames(Collections.singleton("dashboardData"));
+        assertNull(cacheManager.getCache("unknown"));
+    }
+
+    @Test
+    void concurrentMisses_ShareOneLoad() throws Exception {
+        Cache cache = cacheManager.getCache("dashboardData");
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> cache.get("dashboard_1", () -> {
+                    calls.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "computed";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("computed", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("cache.two_tier.loads").functionCounter().count());
+    }
+
+    @Test
+    void lockHeldByOtherNode_WaitsForItsValue() throws Exception {
+        CacheLoadLock heldElsewhere = new CacheLoadLock() {
+            @Override
+            public String tryLock(String lockKey, Duration ttl) {
+                return null;
+            }
+
+            @Override
+            public void unlock(String lockKey, String token) {
+            }
+        };
+        cacheManager = new TwoTierCacheManager(remoteCacheManager, 2, Duration.ofMinutes(5),
+            Collections.singletonMap("dashboardData", Duration.ofMinutes(1)), Duration.ofMinutes(5),
+            null, meterRegistry, heldElsewhere, Duration.ofSeconds(5), redisKey -> -1);
+        Cache cache = cacheManager.getCache("dashboardData");
+
+        Thread otherNode = new Thread(() -> {
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            remoteCacheManager.getCache("dashboardData").put("dashboard_1", "from other node");
+        });
+        otherNode.start();
+
+        assertEquals("from other node", cache.get("dashboard_1", () -> fail("must not compute while locked")));
+        otherNode.join();
+        assertEquals(0.0, meterRegistry.get("cache.two_tier.loads").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.two_tier.coalesced").functionCounter().count());
+    }
+
+    @Test
+    void earlyRefresh_MoreLikelyNearExpiryAndForSlowLoads() {
+        long now = 1_000_000;
+        // 100ms load, 10s left: only a vanishingly small random value triggers a refresh
+        TwoTierCache.CachedValue fresh = new TwoTierCache.CachedValue("v", 100_000_000L, now + 10_000);
+        assertFalse(TwoTierCache.shouldRefreshEarly(fresh, now, 0.5));
+        assertTrue(TwoTierCache.shouldRefreshEarly(fresh, now, 1e-50));
+        // 100ms load, 50ms left: refreshed for most draws
+        TwoTierCache.CachedValue nearExpiry = new TwoTierCache.CachedValue("v", 100_000_000L, now + 50);
+        assertTrue(TwoTierCache.shouldRefreshEarly(nearExpiry, now, 0.5));
+        assertFalse(TwoTierCache.shouldRefreshEarly(nearExpiry, now, 0.7));
+        // Unknown load time never refreshes early
+        assertFalse(TwoTierCache.shouldRefreshEarly(new TwoTierCache.CachedValue("v", 0, now + 1), now, 1e-50));
+    }
+
+    @Test
+    void failedLoad_IsReportedToEveryWaiter() {
+        Cache cache = cacheManager.getCache("dashboardData");
+
+        assertThrows(Cache.ValueRetrievalException.class,
+                     () -> cache.get("dashboard_1", () -> { throw new IllegalStateException("boom"); }));
+        assertEquals("retried", cache.get("dashboard_1", () -> "retried"));
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.get("cache.two_tier.gets")
+            .tags("cache", "dashboardData", "tier", tier, "result", result)
+            .functionCounter().count();
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(TwoTierCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                                  body.getBytes(StandardCharsets.UTF_8));
+    }
+}
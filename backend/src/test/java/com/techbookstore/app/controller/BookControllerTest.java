@@ -0,0 +1,65 @@
+package com.techbookstore.app.controller;
+
+import com.techbookstore.app.dto.SuggestionDto;
+import com.techbookstore.app.exception.GlobalExceptionHandler;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.KeysetPagingRepository;
+import com.techbookstore.app.service.BookSearchIndex;
+import com.techbookstore.app.service.SuggestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests for request validation of the book suggest endpoint
+ */
+@WebMvcTest({BookController.class, GlobalExceptionHandler.class})
+class BookControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @MockBean
+    private KeysetPagingRepository keysetPagingRepository;
+
+    @MockBean
+    private BookSearchIndex bookSearchIndex;
+
+    @MockBean
+    private SuggestionService suggestionService;
+
+    @Test
+    void suggestBooks_WithinLimits_ReturnsSuggestions() throws Exception {
+        when(suggestionService.suggestBooks("java", 5)).thenReturn(Collections.<SuggestionDto>emptyList());
+
+        mockMvc.perform(get("/api/v1/books/suggest").param("q", "java").param("limit", "5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void suggestBooks_LimitAboveMaximumOrBlankQuery_IsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/books/suggest").param("q", "java").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books/suggest").param("q", "java").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books/suggest").param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        verify(suggestionService, never()).suggestBooks(anyString(), anyInt());
+    }
+}
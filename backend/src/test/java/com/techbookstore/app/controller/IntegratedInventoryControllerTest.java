@@ -80,6 +80,24 @@ public class IntegratedInventoryControllerTest {
                 .andExpect(jsonPath("$.generated_at").exists());
     }
 
+    @Test
+    public void testComprehensiveAnalysisAsync() throws Exception {
+        
+        IntegratedAnalysisRequest request = new IntegratedAnalysisRequest();
+        request.setCategory("JAVA");
+        request.setAsyncExecution(true);
+
+        mockMvc.perform(post("/api/v1/inventory/integrated/comprehensive-analysis")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.baseReport").exists())
+                .andExpect(jsonPath("$.forecasting").exists())
+                .andExpect(jsonPath("$.optimization").exists())
+                .andExpect(jsonPath("$.performanceMetrics.phaseExecutionTimes.phase1_baseReports").exists());
+    }
+
     @Test
     public void testBatchOptimization() throws Exception {
         
@@ -87,14 +105,39 @@ public class IntegratedInventoryControllerTest {
         request.setCategory("PYTHON");
         request.setForecastHorizon(30);
 
-        mockMvc.perform(post("/api/v1/inventory/integrated/batch-optimization")
+        String response = mockMvc.perform(post("/api/v1/inventory/integrated/batch-optimization")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk())
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
                 .andExpect(jsonPath("$.jobId").exists())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(response).get("jobId").asText();
+
+        // The job runs on the batch executor; poll until it is done
+        String status = "QUEUED";
+        for (int i = 0; i < 300 && !"COMPLETED".equals(status) && !"FAILED".equals(status); i++) {
+            Thread.sleep(100);
+            String job = mockMvc.perform(get("/api/v1/inventory/integrated/jobs/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = objectMapper.readTree(job).get("status").asText();
+        }
+
+        mockMvc.perform(get("/api/v1/inventory/integrated/jobs/" + jobId))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("COMPLETED"))
-                .andExpect(jsonPath("$.recommendations").exists())
-                .andExpect(jsonPath("$.performanceMetrics").exists());
+                .andExpect(jsonPath("$.progress").value(100))
+                .andExpect(jsonPath("$.result.recommendations").exists())
+                .andExpect(jsonPath("$.result.performanceMetrics").exists());
+
+        // Finished jobs can not be cancelled any more
+        mockMvc.perform(delete("/api/v1/inventory/integrated/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+        mockMvc.perform(get("/api/v1/inventory/integrated/jobs/unknown"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -116,7 +159,8 @@ public class IntegratedInventoryControllerTest {
                 .andExpect(jsonPath("$.response_time_avg").exists())
                 .andExpect(jsonPath("$.cache_hit_rate").exists())
                 .andExpect(jsonPath("$.concurrent_users").exists())
-                .andExpect(jsonPath("$.daily_analyses").exists())
+                .andExpect(jsonPath("$.analyses").exists())
+                .andExpect(jsonPath("$.caches.integratedAnalysis.hits").exists())
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
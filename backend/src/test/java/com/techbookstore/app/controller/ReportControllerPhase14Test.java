@@ -3,6 +3,7 @@ package com.techbookstore.app.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techbookstore.app.dto.CustomReportRequest;
 import com.techbookstore.app.dto.ReportTemplateDto;
+import com.techbookstore.app.exception.BatchAlreadyRunningException;
 import com.techbookstore.app.service.CustomReportService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -196,10 +197,39 @@ public class ReportControllerPhase14Test {
     @Test
     public void testRunManualBatch() throws Exception {
         // Phase 4: Test manual batch execution
+        when(batchProcessingService.runManualBatch("daily", false)).thenReturn(createBatchResult(false, 9, 0));
+        
         mockMvc.perform(post("/api/v1/reports/admin/batch/daily"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.status").value("SUCCESS"));
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.stepsRun").value(9));
+    }
+
+    @Test
+    public void testRunManualBatch_AlreadyCompletedIsReportedAsSkipped() throws Exception {
+        when(batchProcessingService.runManualBatch("daily", false)).thenReturn(createBatchResult(false, 0, 9));
+        when(batchProcessingService.runManualBatch("daily", true)).thenReturn(createBatchResult(true, 9, 0));
+        
+        mockMvc.perform(post("/api/v1/reports/admin/batch/daily"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SKIPPED"))
+                .andExpect(jsonPath("$.stepsSkipped").value(9));
+        
+        mockMvc.perform(post("/api/v1/reports/admin/batch/daily").param("restart", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.restart").value(true));
+    }
+
+    @Test
+    public void testRunManualBatch_RunningOnAnotherNodeIsAConflict() throws Exception {
+        when(batchProcessingService.runManualBatch("daily", false))
+                .thenThrow(new BatchAlreadyRunningException("Batch daily is already running on another node"));
+        
+        mockMvc.perform(post("/api/v1/reports/admin/batch/daily"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("ALREADY_RUNNING"));
     }
 
     @Test
@@ -244,4 +274,14 @@ public class ReportControllerPhase14Test {
         export.setStatus("COMPLETED");
         return export;
     }
-}
\ No newline at end of file
+
+    private Map<String, Object> createBatchResult(boolean restart, int stepsRun, int stepsSkipped) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("batchType", "daily");
+        result.put("runDate", LocalDate.now());
+        result.put("restart", restart);
+        result.put("stepsRun", stepsRun);
+        result.put("stepsSkipped", stepsSkipped);
+        return result;
+    }
+}
@@ -4,6 +4,7 @@ import com.techbookstore.app.dto.CustomReportRequest;
 import com.techbookstore.app.dto.SalesReportDto;
 import com.techbookstore.app.service.ReportService;
 import com.techbookstore.app.service.AnalyticsService;
+import com.techbookstore.app.service.CustomReportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,14 +13,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -157,4 +171,64 @@ class ReportControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportOrderLines_Gzip_StreamsCompressedFile() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("order_number\r\nORD-1\r\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(customReportService).exportOrderLines(any(LocalDate.class), any(LocalDate.class),
+                eq(CustomReportService.StreamFormat.CSV), any(OutputStream.class));
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/v1/reports/export/order-lines")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"order-lines_2024-01-01_2024-12-31.csv.gz\""))
+                .andExpect(header().doesNotExist("Content-Length"))
+                .andReturn();
+
+        // Then
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertEquals("order_number\r\nORD-1\r\n", StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void exportOrderLines_UnsupportedFormat_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/reports/export/order-lines")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31")
+                        .param("format", "XML"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBatchHistory_ReturnsRunsOfRequestedBatch() throws Exception {
+        // Given
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("job", "daily");
+        run.put("status", "COMPLETED");
+        run.put("durationMs", 180000L);
+        when(batchProcessingService.history("daily", 5)).thenReturn(Collections.singletonList(run));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/reports/admin/batch/history")
+                        .param("batchType", "daily")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].job").value("daily"))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[0].durationMs").value(180000));
+    }
+}
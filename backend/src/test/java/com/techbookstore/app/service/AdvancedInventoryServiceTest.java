@@ -2,7 +2,7 @@ package com.techbookstore.app.service;
 
 import com.techbookstore.app.dto.InventoryTransactionDto;
 import com.techbookstore.app.entity.*;
-import com.techbookstore.app.repository.InventoryRepository;
+import com.techbookstore.app.repository.ArchiveAwareRepository;
 import com.techbookstore.app.repository.InventoryReservationRepository;
 import com.techbookstore.app.repository.InventoryTransactionRepository;
 import com.techbookstore.app.repository.UserRepository;
@@ -16,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,7 +26,7 @@ import static org.mockito.Mockito.*;
 class AdvancedInventoryServiceTest {
 
     @Mock
-    private InventoryRepository inventoryRepository;
+    private StockMutationService stockMutationService;
 
     @Mock
     private InventoryTransactionRepository transactionRepository;
@@ -36,6 +37,9 @@ class AdvancedInventoryServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ArchiveAwareRepository archiveAwareRepository;
+
     @InjectMocks
     private AdvancedInventoryService advancedInventoryService;
 
@@ -60,6 +64,10 @@ class AdvancedInventoryServiceTest {
         testInventory.setReservedCount(0);
     }
 
+    private void runUnitOfWorkDirectly() {
+        when(stockMutationService.withRetry(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+    }
+
     @Test
     void transferStock_StoreToWarehouse_Success() {
         // Arrange
@@ -69,9 +77,13 @@ class AdvancedInventoryServiceTest {
         request.setQuantity(3);
         request.setReason("Transfer test");
 
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        runUnitOfWorkDirectly();
         when(userRepository.findByUsername("system")).thenReturn(Optional.of(testUser));
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(testInventory);
+        when(stockMutationService.transfer(1L, true, 3)).thenAnswer(invocation -> {
+            testInventory.setStoreStock(7);
+            testInventory.setWarehouseStock(8);
+            return testInventory;
+        });
         when(transactionRepository.save(any(InventoryTransaction.class))).thenReturn(new InventoryTransaction());
 
         // Act
@@ -83,7 +95,7 @@ class AdvancedInventoryServiceTest {
         assertEquals(7, testInventory.getStoreStock()); // 10 - 3
         assertEquals(8, testInventory.getWarehouseStock()); // 5 + 3
         
-        verify(inventoryRepository).save(testInventory);
+        verify(stockMutationService).transfer(1L, true, 3);
         verify(transactionRepository).save(any(InventoryTransaction.class));
     }
 
@@ -100,10 +112,13 @@ class AdvancedInventoryServiceTest {
         savedReservation.setId(1L);
         savedReservation.setOrderId(100L);
 
-        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(testInventory));
+        runUnitOfWorkDirectly();
+        when(stockMutationService.reserve(1L, 2)).thenAnswer(invocation -> {
+            testInventory.setReservedCount(2);
+            return testInventory;
+        });
         when(userRepository.findByUsername("system")).thenReturn(Optional.of(testUser));
         when(reservationRepository.save(any(InventoryReservation.class))).thenReturn(savedReservation);
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(testInventory);
         when(transactionRepository.save(any(InventoryTransaction.class))).thenReturn(new InventoryTransaction());
 
         // Act
@@ -115,7 +130,7 @@ class AdvancedInventoryServiceTest {
         assertEquals(2, testInventory.getReservedCount());
         
         verify(reservationRepository).save(any(InventoryReservation.class));
-        verify(inventoryRepository).save(testInventory);
+        verify(stockMutationService).reserve(1L, 2);
         verify(transactionRepository).save(any(InventoryTransaction.class));
     }
 
@@ -127,7 +142,7 @@ class AdvancedInventoryServiceTest {
         transaction.setId(1L);
         transactions.add(transaction);
 
-        when(transactionRepository.findByInventoryIdOrderByExecutedAtDesc(1L)).thenReturn(transactions);
+        when(archiveAwareRepository.findTransactionsByInventoryId(1L)).thenReturn(transactions);
 
         // Act
         List<InventoryTransactionDto> result = advancedInventoryService.getTransactionHistory(1L);
@@ -147,9 +162,6 @@ class AdvancedInventoryServiceTest {
 
         when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
         when(reservationRepository.save(any(InventoryReservation.class))).thenReturn(reservation);
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(testInventory);
-
-        testInventory.setReservedCount(2);
 
         // Act
         advancedInventoryService.releaseReservation(1L);
@@ -157,9 +169,8 @@ class AdvancedInventoryServiceTest {
         // Assert
         assertEquals("RELEASED", reservation.getStatus());
         assertNotNull(reservation.getReleasedAt());
-        assertEquals(0, testInventory.getReservedCount());
         
         verify(reservationRepository).save(reservation);
-        verify(inventoryRepository).save(testInventory);
+        verify(stockMutationService).release(1L, 2);
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.AggregationCacheProperties;
+import com.techbookstore.app.dto.DashboardKpiDto;
+import com.techbookstore.app.repository.AggregationStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for expiry sweeping and per-type LRU eviction of aggregation_cache
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class AggregationCacheSweeperTest {
+
+    private static final LocalDate DAY = LocalDate.of(2099, 4, 1);
+
+    @Autowired
+    private AggregationCacheSweeper sweeper;
+
+    @Autowired
+    private AggregationCacheProperties properties;
+
+    @Autowired
+    private AggregationStore aggregationStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void resetLimits() {
+        properties.getTypes().remove("sweep_rows");
+        properties.getTypes().remove("sweep_bytes");
+        properties.getTypes().remove(DashboardKpiCodec.DAILY_KPIS.type());
+    }
+
+    @Test
+    void expiredRows_AreDeletedInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            insert("sweep_expired_" + i, "sweep_expired", 10, now.minusHours(1), now.minusMinutes(1));
+        }
+        insert("sweep_live", "sweep_expired", 10, now.minusHours(1), now.plusDays(1));
+        double purgedBefore = meterRegistry.counter("aggregation_cache.purged", "reason", "expired").count();
+        long sweepsBefore = meterRegistry.timer("aggregation_cache.sweep").count();
+
+        assertTrue(aggregationStore.deleteExpired(now, 2) >= 5);
+        assertEquals(Arrays.asList("sweep_live"), keys("sweep_expired"));
+
+        insert("sweep_expired_again", "sweep_expired", 10, now.minusHours(1), now.minusMinutes(1));
+        AggregationCacheSweeper.SweepResult result = sweeper.sweep();
+        assertEquals(1, result.getExpired());
+        assertEquals(purgedBefore + 1, meterRegistry.counter("aggregation_cache.purged", "reason", "expired").count());
+        assertEquals(sweepsBefore + 1, meterRegistry.timer("aggregation_cache.sweep").count());
+    }
+
+    @Test
+    void rowLimit_EvictsLeastRecentlyUsed() {
+        properties.getTypes().put("sweep_rows", new AggregationCacheProperties.Limit(2, 0));
+        LocalDateTime now = LocalDateTime.now();
+        insert("sweep_rows_1", "sweep_rows", 10, now.minusHours(4), now.plusDays(1));
+        insert("sweep_rows_2", "sweep_rows", 10, now.minusHours(1), now.plusDays(1));
+        insert("sweep_rows_3", "sweep_rows", 10, now.minusHours(3), now.plusDays(1));
+        insert("sweep_rows_4", "sweep_rows", 10, now.minusHours(2), now.plusDays(1));
+
+        assertEquals(2, sweeper.sweep().getEvicted());
+        assertEquals(Arrays.asList("sweep_rows_2", "sweep_rows_4"), keys("sweep_rows"));
+    }
+
+    @Test
+    void byteLimit_EvictsUntilUnderBudget() {
+        properties.getTypes().put("sweep_bytes", new AggregationCacheProperties.Limit(0, 250));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 4; i++) {
+            insert("sweep_bytes_" + i, "sweep_bytes", 100, now.minusHours(5 - i), now.plusDays(1));
+        }
+
+        assertEquals(2, sweeper.sweep().getEvicted());
+        assertEquals(Arrays.asList("sweep_bytes_3", "sweep_bytes_4"), keys("sweep_bytes"));
+    }
+
+    @Test
+    void reads_CountAsUseForEviction() {
+        properties.getTypes().put(DashboardKpiCodec.DAILY_KPIS.type(), new AggregationCacheProperties.Limit(2, 0));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            aggregationStore.put(DashboardKpiCodec.DAILY_KPIS, DAY.plusDays(i), new DashboardKpiDto(DAY.plusDays(i)),
+                                 now.plusDays(1));
+            jdbcTemplate.update("UPDATE aggregation_cache SET last_accessed_at = ? WHERE cache_key = ?",
+                                Timestamp.valueOf(now.minusHours(3 - i)), "daily_kpis_" + DAY.plusDays(i));
+        }
+
+        assertTrue(aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY).isPresent());
+        sweeper.sweep();
+
+        assertTrue(aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY).isPresent());
+        assertFalse(aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY.plusDays(1)).isPresent());
+        assertTrue(aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY.plusDays(2)).isPresent());
+    }
+
+    private void insert(String key, String type, int payloadBytes, LocalDateTime lastAccessedAt, LocalDateTime expiresAt) {
+        jdbcTemplate.update("INSERT INTO aggregation_cache (cache_key, aggregation_type, aggregation_date, payload, " +
+                            "payload_version, created_at, expires_at, last_accessed_at) VALUES (?, ?, ?, ?, 1, ?, ?, ?)",
+                            key, type, DAY, new byte[payloadBytes], Timestamp.valueOf(lastAccessedAt.minusDays(1)),
+                            Timestamp.valueOf(expiresAt), Timestamp.valueOf(lastAccessedAt));
+    }
+
+    private List<String> keys(String type) {
+        return jdbcTemplate.queryForList(
+            "SELECT cache_key FROM aggregation_cache WHERE aggregation_type = ? ORDER BY cache_key", String.class, type);
+    }
+}
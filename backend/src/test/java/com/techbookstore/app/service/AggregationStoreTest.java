@@ -0,0 +1,118 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.DashboardKpiDto;
+import com.techbookstore.app.repository.AggregationStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the typed binary aggregation store and the daily KPI codec
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class AggregationStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2099, 3, 1);
+
+    @Autowired
+    private AggregationStore aggregationStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Test
+    void dailyKpis_RoundTripThroughBinaryPayload() {
+        DashboardKpiDto kpis = kpis(new BigDecimal("2500.00"));
+        kpis.setTrends(Arrays.asList(new DashboardKpiDto.TrendSummary("売上", "WEEK", 3.5, "UP"),
+                                     new DashboardKpiDto.TrendSummary("orders", null, null, "STABLE")));
+
+        aggregationStore.put(DashboardKpiCodec.DAILY_KPIS, DAY, kpis, LocalDateTime.now().plusDays(1));
+        DashboardKpiDto stored = aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY).get();
+
+        assertEquals(DAY, stored.getReportDate());
+        assertEquals(new BigDecimal("2500.00"), stored.getRevenue().getTodayRevenue());
+        assertEquals(12.5, stored.getRevenue().getRevenueGrowth());
+        assertEquals(Integer.valueOf(8), stored.getOrders().getTodayOrders());
+        assertNull(stored.getCustomers());
+        assertEquals("Rust", stored.getTechTrends().getTopRisingTech());
+        assertNull(stored.getTechTrends().getTopFallingTech());
+        assertEquals(2, stored.getTrends().size());
+        assertEquals("売上", stored.getTrends().get(0).getMetric());
+        assertNull(stored.getTrends().get(1).getPeriod());
+    }
+
+    @Test
+    void dailyKpis_FullDashboardPayloadIsStored() {
+        DashboardKpiDto kpis = reportService.generateDashboardKpis();
+
+        aggregationStore.put(DashboardKpiCodec.DAILY_KPIS, DAY, kpis, LocalDateTime.now().plusDays(1));
+
+        Integer payloadBytes = jdbcTemplate.queryForObject(
+            "SELECT LENGTH(payload) FROM aggregation_cache WHERE aggregation_type = ? AND aggregation_date = ?",
+            Integer.class, DashboardKpiCodec.DAILY_KPIS.type(), DAY);
+        assertTrue(payloadBytes > 255, "payload of a full dashboard exceeds a default-sized binary column");
+        DashboardKpiDto stored = aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY).get();
+        assertEquals(kpis.getRevenue().getTodayRevenue(), stored.getRevenue().getTodayRevenue());
+        assertEquals(kpis.getInventory().getTotalProducts(), stored.getInventory().getTotalProducts());
+    }
+
+    @Test
+    void putAll_UpsertsOneRowPerDate() {
+        Map<LocalDate, DashboardKpiDto> values = new LinkedHashMap<>();
+        values.put(DAY, kpis(new BigDecimal("100.00")));
+        values.put(DAY.plusDays(1), kpis(new BigDecimal("200.00")));
+        aggregationStore.putAll(DashboardKpiCodec.DAILY_KPIS, values, LocalDateTime.now().plusDays(1));
+
+        values.put(DAY, kpis(new BigDecimal("150.00")));
+        aggregationStore.putAll(DashboardKpiCodec.DAILY_KPIS, values, LocalDateTime.now().plusDays(1));
+
+        assertEquals(new BigDecimal("150.00"), todayRevenue(DAY));
+        assertEquals(new BigDecimal("200.00"), todayRevenue(DAY.plusDays(1)));
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM aggregation_cache WHERE aggregation_type = 'daily_kpis' AND aggregation_date >= ?",
+            Integer.class, DAY));
+    }
+
+    @Test
+    void expiredOrUnknownVersion_IsNotReturned() {
+        aggregationStore.put(DashboardKpiCodec.DAILY_KPIS, DAY, kpis(BigDecimal.ONE), LocalDateTime.now().minusMinutes(1));
+        assertFalse(aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY).isPresent());
+        assertTrue(aggregationStore.deleteExpired(LocalDateTime.now(), 500) >= 1);
+
+        aggregationStore.put(DashboardKpiCodec.DAILY_KPIS, DAY, kpis(BigDecimal.ONE), LocalDateTime.now().plusDays(1));
+        jdbcTemplate.update("UPDATE aggregation_cache SET payload_version = 99 WHERE cache_key = ?", "daily_kpis_" + DAY);
+        assertEquals(Optional.empty(), aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, DAY));
+    }
+
+    private BigDecimal todayRevenue(LocalDate date) {
+        return aggregationStore.find(DashboardKpiCodec.DAILY_KPIS, date).get().getRevenue().getTodayRevenue();
+    }
+
+    private DashboardKpiDto kpis(BigDecimal todayRevenue) {
+        DashboardKpiDto kpis = new DashboardKpiDto(DAY);
+        kpis.setRevenue(new DashboardKpiDto.RevenueKpis(todayRevenue, new BigDecimal("18000.00"),
+                                                        null, new BigDecimal("900000.00"), 12.5));
+        kpis.setOrders(new DashboardKpiDto.OrderKpis(8, 45, 180, new BigDecimal("416.67"), -2.0));
+        kpis.setTechTrends(new DashboardKpiDto.TechTrendKpis("Rust", 45.0, null, null, 3, 1,
+                                                             new BigDecimal("0.85"), 7.5));
+        return kpis;
+    }
+}
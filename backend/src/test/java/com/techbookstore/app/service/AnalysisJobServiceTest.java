@@ -0,0 +1,109 @@
+package com.techbookstore.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.techbookstore.app.dto.IntegratedAnalysisRequest;
+import com.techbookstore.app.dto.IntegratedAnalysisResult;
+import com.techbookstore.app.entity.AnalysisJob;
+import com.techbookstore.app.exception.JobQueueFullException;
+import com.techbookstore.app.repository.AnalysisJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for queueing, rejection and cancellation of analysis jobs
+ */
+public class AnalysisJobServiceTest {
+
+    private IntegratedInventoryAnalysisService analysisService;
+    private AnalysisJobRepository jobRepository;
+    private List<Runnable> queued;
+    private AnalysisJobService service;
+
+    @BeforeEach
+    void setUp() {
+        analysisService = mock(IntegratedInventoryAnalysisService.class);
+        jobRepository = mock(AnalysisJobRepository.class);
+        when(jobRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        queued = new ArrayList<>();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        service = new AnalysisJobService(analysisService, jobRepository, objectMapper, queued::add, Duration.ofHours(1));
+    }
+
+    @Test
+    void submit_QueuesJobWithoutRunningIt() {
+        AnalysisJob job = service.submitBatchOptimization(new IntegratedAnalysisRequest());
+
+        assertEquals(AnalysisJob.JobStatus.QUEUED, job.getStatus());
+        assertEquals(AnalysisJobService.BATCH_OPTIMIZATION, job.getJobType());
+        assertEquals(1, queued.size());
+        verifyNoInteractions(analysisService);
+    }
+
+    @Test
+    void submit_RejectedWhenQueueIsFull() {
+        service = new AnalysisJobService(analysisService, jobRepository, new ObjectMapper(), task -> {
+            throw new RejectedExecutionException("full");
+        }, Duration.ofHours(1));
+
+        assertThrows(JobQueueFullException.class, () -> service.submitBatchOptimization(new IntegratedAnalysisRequest()));
+        verify(jobRepository).deleteById(anyString());
+    }
+
+    @Test
+    void run_ReportsProgressAndCompletes() {
+        when(jobRepository.markRunning(eq("job-1"), any())).thenReturn(1);
+        when(jobRepository.updateProgress(eq("job-1"), anyInt(), anyString(), anyString())).thenReturn(1);
+        when(analysisService.executeIntegratedAnalysis(any(), any())).thenAnswer(invocation -> {
+            IntegratedAnalysisResult result = new IntegratedAnalysisResult("analysis-1");
+            invocation.<IntegratedInventoryAnalysisService.PhaseListener>getArgument(1)
+                .phaseCompleted("BASE_REPORT", 25, result);
+            result.setStatus("COMPLETED");
+            return result;
+        });
+
+        service.run("job-1", new IntegratedAnalysisRequest());
+
+        verify(jobRepository).updateProgress(eq("job-1"), eq(25), eq("BASE_REPORT"), contains("analysis-1"));
+        verify(jobRepository).complete(eq("job-1"), contains("COMPLETED"), any(), any());
+    }
+
+    @Test
+    void run_SkipsJobCancelledWhileQueued() {
+        when(jobRepository.markRunning(eq("job-1"), any())).thenReturn(0);
+
+        service.run("job-1", new IntegratedAnalysisRequest());
+
+        verifyNoInteractions(analysisService);
+    }
+
+    @Test
+    void run_StopsAtNextPhaseAfterCancellation() {
+        when(jobRepository.markRunning(eq("job-1"), any())).thenReturn(1);
+        // Cancelled on another node: the job is no longer RUNNING
+        when(jobRepository.updateProgress(eq("job-1"), anyInt(), anyString(), anyString())).thenReturn(0);
+        when(analysisService.executeIntegratedAnalysis(any(), any())).thenAnswer(invocation -> {
+            invocation.<IntegratedInventoryAnalysisService.PhaseListener>getArgument(1)
+                .phaseCompleted("BASE_REPORT", 25, new IntegratedAnalysisResult("analysis-1"));
+            fail("Analysis continued after cancellation");
+            return null;
+        });
+
+        service.run("job-1", new IntegratedAnalysisRequest());
+
+        verify(jobRepository, never()).complete(anyString(), any(), any(), any());
+        verify(jobRepository, never()).fail(anyString(), any(), any(), any());
+    }
+}
@@ -0,0 +1,117 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.AnalysisPhaseProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for parallel analysis phases: read-only transactions, timings, timeouts and cancellation
+ */
+public class AnalysisPhaseRunnerTest {
+
+    private ThreadPoolTaskExecutor executor;
+    private PlatformTransactionManager transactionManager;
+    private AnalysisPhaseProperties properties;
+    private MeterRegistry meterRegistry;
+    private AnalysisPhaseRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.initialize();
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        properties = new AnalysisPhaseProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        runner = new AnalysisPhaseRunner(executor, transactionManager, properties,
+                                         beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void join_ReturnsValuesAndDurationsOfParallelPhases() {
+        AnalysisPhaseRunner.Fork fork = runner.fork();
+        AnalysisPhaseRunner.Phase<String> first = fork.submit("BASE_REPORT", () -> sleepAndReturn(50, "report"));
+        AnalysisPhaseRunner.Phase<String> second = fork.submit("ADVANCED_ANALYSIS", () -> sleepAndReturn(50, "advanced"));
+
+        long started = System.nanoTime();
+        fork.join();
+
+        assertEquals("report", first.get());
+        assertEquals("advanced", second.get());
+        assertTrue(first.getDurationMillis() >= 50);
+        assertTrue(second.getDurationMillis() >= 50);
+        // Ran side by side, not one after the other
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 100 + 50);
+        verify(transactionManager, times(2)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        assertEquals(1, meterRegistry.find("integrated_analysis.phase").tag("phase", "BASE_REPORT").timer().count());
+    }
+
+    @Test
+    void join_CancelsOtherPhasesWhenOneTimesOut() throws Exception {
+        properties.setPhaseTimeouts(Collections.singletonMap("forecasting", Duration.ofMillis(50)));
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        AnalysisPhaseRunner.Fork fork = runner.fork();
+        fork.submit("BASE_REPORT", () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        fork.submit("FORECASTING", () -> sleepAndReturn(10_000, "late"));
+
+        IntegratedInventoryAnalysisService.IntegratedAnalysisException e = assertThrows(
+            IntegratedInventoryAnalysisService.IntegratedAnalysisException.class, fork::join);
+        assertTrue(e.getMessage().contains("FORECASTING"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void join_RethrowsPhaseFailure() {
+        AnalysisPhaseRunner.Fork fork = runner.fork();
+        fork.submit("OPTIMIZATION", () -> {
+            throw new IllegalStateException("no data");
+        });
+
+        IntegratedInventoryAnalysisService.IntegratedAnalysisException e = assertThrows(
+            IntegratedInventoryAnalysisService.IntegratedAnalysisException.class, fork::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        verify(transactionManager).rollback(any());
+    }
+
+    private static String sleepAndReturn(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
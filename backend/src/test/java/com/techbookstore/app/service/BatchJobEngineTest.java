@@ -0,0 +1,319 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.BatchProperties;
+import com.techbookstore.app.entity.BatchCheckpoint;
+import com.techbookstore.app.entity.BatchRun;
+import com.techbookstore.app.repository.BatchCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for chunked batch steps: per-chunk checkpoints, resuming failed runs, parallel stages and run history
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class BatchJobEngineTest {
+
+    private static final LocalDate RUN_DATE = LocalDate.of(2099, 5, 1);
+
+    @Autowired
+    private BatchJobEngine engine;
+
+    @Autowired
+    private BatchProperties properties;
+
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BatchRunRecorder recorder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void resetChunkSizes() {
+        properties.getChunkSizes().remove("resume_step");
+        properties.getChunkSizes().remove("keyed_step");
+        properties.getChunkSizes().remove("fenced_step");
+        properties.getChunkSizes().remove("history_step");
+        properties.getChunkSizes().remove("lease_step");
+    }
+
+    @Test
+    void failedRun_ResumesAfterLastCommittedChunk() {
+        properties.getChunkSizes().put("resume_step", 3);
+        List<Integer> items = IntStream.rangeClosed(1, 10).boxed().collect(Collectors.toList());
+        List<List<Integer>> written = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        BatchJobEngine.Step<Integer> step = BatchJobEngine.chunked("resume_step", () -> items, chunk -> {
+            if (chunk.contains(7) && failOnce.getAndSet(false)) {
+                throw new IllegalStateException("chunk failed");
+            }
+            written.add(new ArrayList<>(chunk));
+        });
+
+        BatchJobEngine.BatchJobException failure = assertThrows(BatchJobEngine.BatchJobException.class,
+            () -> engine.job("resume_job", RUN_DATE).then(step).run());
+        assertTrue(failure.getMessage().contains("after 6 committed items"));
+
+        BatchCheckpoint failed = checkpoint("resume_job", "resume_step");
+        assertEquals(BatchCheckpoint.StepStatus.FAILED, failed.getStatus());
+        assertEquals(6, failed.getCommittedItems());
+        assertEquals(2, failed.getCommittedChunks());
+        assertEquals("chunk failed", failed.getErrorMessage());
+
+        engine.job("resume_job", RUN_DATE).then(step).run();
+
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6),
+                                   Arrays.asList(7, 8, 9), Collections.singletonList(10)), written);
+        BatchCheckpoint completed = checkpoint("resume_job", "resume_step");
+        assertEquals(BatchCheckpoint.StepStatus.COMPLETED, completed.getStatus());
+        assertEquals(10, completed.getCommittedItems());
+        assertNull(completed.getErrorMessage());
+
+        // A completed step is not run again for the same run date
+        engine.job("resume_job", RUN_DATE).then(step).run();
+        assertEquals(4, written.size());
+    }
+
+    @Test
+    void stepResumingByKey_SkipsCommittedKeysWhenItemsChangeBetweenAttempts() {
+        properties.getChunkSizes().put("keyed_step", 3);
+        List<List<Integer>> reads = Arrays.asList(IntStream.rangeClosed(1, 10).boxed().collect(Collectors.toList()),
+                                                  Arrays.asList(0, 2, 5, 8, 9, 11));
+        AtomicInteger attempt = new AtomicInteger();
+        List<List<Integer>> written = Collections.synchronizedList(new ArrayList<>());
+        BatchJobEngine.Step<Integer> step = BatchJobEngine.chunked("keyed_step", () -> reads.get(attempt.get()),
+            chunk -> {
+                if (chunk.contains(7)) {
+                    throw new IllegalStateException("chunk failed");
+                }
+                written.add(new ArrayList<>(chunk));
+            }).resumeByKey(item -> String.format("%02d", item));
+
+        assertThrows(BatchJobEngine.BatchJobException.class,
+            () -> engine.job("keyed_job", RUN_DATE).then(step).run());
+        assertEquals("06", checkpoint("keyed_job", "keyed_step").getLastKey());
+
+        // 0 and 2 sort before the last committed key and 7 is gone: by position 8 and 9 would be skipped
+        attempt.set(1);
+        engine.job("keyed_job", RUN_DATE).then(step).run();
+
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(8, 9, 11)), written);
+        BatchCheckpoint completed = checkpoint("keyed_job", "keyed_step");
+        assertEquals(BatchCheckpoint.StepStatus.COMPLETED, completed.getStatus());
+        assertEquals(9, completed.getCommittedItems());
+        assertEquals("11", completed.getLastKey());
+    }
+
+    @Test
+    void runWithOlderFencingToken_IsRejectedBeforeWriting() {
+        properties.getChunkSizes().put("fenced_step", 2);
+        List<Integer> items = Arrays.asList(1, 2, 3, 4);
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        BatchJobEngine.Step<Integer> step = BatchJobEngine.chunked("fenced_step", () -> items, chunk -> {
+            if (chunk.contains(3) && failOnce.getAndSet(false)) {
+                throw new IllegalStateException("chunk failed");
+            }
+            written.addAll(chunk);
+        });
+        assertThrows(BatchJobEngine.BatchJobException.class,
+            () -> engine.job("fenced_job", RUN_DATE).fencedBy(5).then(step).run());
+
+        // A node still running with an older lease can not continue the step
+        assertThrows(BatchJobEngine.BatchJobException.class,
+            () -> engine.job("fenced_job", RUN_DATE).fencedBy(4).then(step).run());
+        assertEquals(Arrays.asList(1, 2), written);
+        assertEquals(5, checkpoint("fenced_job", "fenced_step").getFencingToken());
+
+        engine.job("fenced_job", RUN_DATE).fencedBy(6).then(step).run();
+        assertEquals(items, written);
+        BatchCheckpoint completed = checkpoint("fenced_job", "fenced_step");
+        assertEquals(BatchCheckpoint.StepStatus.COMPLETED, completed.getStatus());
+        assertEquals(6, completed.getFencingToken());
+    }
+
+    @Test
+    void runs_AreRecordedWithStepCountsRetriesAndTimers() {
+        properties.getChunkSizes().put("history_step", 2);
+        AtomicInteger deadlocks = new AtomicInteger(1);
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        BatchJobEngine.Step<Integer> step = BatchJobEngine.chunked("history_step", () -> Arrays.asList(1, 2, 3, 4, 5),
+            chunk -> {
+                if (chunk.contains(3) && deadlocks.getAndDecrement() > 0) {
+                    throw new CannotAcquireLockException("deadlock");
+                }
+                if (chunk.contains(5) && failOnce.getAndSet(false)) {
+                    throw new IllegalStateException("chunk failed");
+                }
+            });
+
+        assertThrows(BatchJobEngine.BatchJobException.class,
+            () -> engine.job("history_job", RUN_DATE).then(step).run());
+        engine.job("history_job", RUN_DATE).then(step).run();
+
+        List<Map<String, Object>> history = recorder.history("history_job", 10);
+        assertEquals(2, history.size());
+
+        Map<String, Object> resumed = history.get(0);
+        assertEquals(BatchRun.RunStatus.COMPLETED, resumed.get("status"));
+        Map<String, Object> resumedStep = steps(resumed).get(0);
+        assertEquals(5, resumedStep.get("itemsRead"));
+        assertEquals(4, resumedStep.get("resumedFrom"));
+        assertEquals(1, resumedStep.get("itemsWritten"));
+        assertEquals(1, resumedStep.get("chunks"));
+
+        Map<String, Object> failed = history.get(1);
+        assertEquals(BatchRun.RunStatus.FAILED, failed.get("status"));
+        assertTrue(((String) failed.get("error")).contains("IllegalStateException: chunk failed"));
+        Map<String, Object> failedStep = steps(failed).get(0);
+        assertEquals(BatchRun.RunStatus.FAILED, failedStep.get("status"));
+        assertEquals(4, failedStep.get("itemsWritten"));
+        assertEquals(2, failedStep.get("chunks"));
+        assertEquals(1, failedStep.get("retries"));
+        assertNotNull(failedStep.get("durationMs"));
+
+        assertEquals(1, meterRegistry.get("batch.run").tags("job", "history_job", "result", "failed").timer().count());
+        assertEquals(1, meterRegistry.get("batch.run").tags("job", "history_job", "result", "completed").timer().count());
+        assertEquals(5.0, meterRegistry.get("batch.step.items").tags("job", "history_job", "step", "history_step")
+                                       .counter().count());
+        assertNotNull(meterRegistry.get("batch.run.last.duration").tags("job", "history_job").timeGauge());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> steps(Map<String, Object> run) {
+        return (List<Map<String, Object>>) run.get("steps");
+    }
+
+    @Test
+    void stageSteps_RunInParallelAndFailureSkipsLaterStages() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        AtomicBoolean laterStageRan = new AtomicBoolean();
+        Runnable awaitOther = () -> {
+            threads.add(Thread.currentThread().getName());
+            bothStarted.countDown();
+            try {
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "steps of a stage run concurrently");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        assertThrows(BatchJobEngine.BatchJobException.class, () -> engine.job("parallel_job", RUN_DATE)
+            .then(BatchJobEngine.tasklet("first", awaitOther),
+                  BatchJobEngine.tasklet("second", awaitOther),
+                  BatchJobEngine.tasklet("broken", () -> {
+                      throw new IllegalStateException("step failed");
+                  }))
+            .then(BatchJobEngine.tasklet("later", () -> laterStageRan.set(true)))
+            .run());
+
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("BatchJob-")));
+        assertFalse(laterStageRan.get());
+        assertEquals(BatchCheckpoint.StepStatus.COMPLETED, checkpoint("parallel_job", "first").getStatus());
+        assertEquals(BatchCheckpoint.StepStatus.COMPLETED, checkpoint("parallel_job", "second").getStatus());
+        assertEquals(BatchCheckpoint.StepStatus.FAILED, checkpoint("parallel_job", "broken").getStatus());
+        assertFalse(checkpointRepository.findByJobNameAndRunDateAndStepName("parallel_job", RUN_DATE, "later")
+                        .isPresent());
+    }
+
+    @Test
+    void completionWork_RunsOnlyOnceTheStepCompletes() {
+        AtomicInteger completions = new AtomicInteger();
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        BatchJobEngine.Step<Integer> step = BatchJobEngine.<Integer>chunked("completion_step",
+            () -> Arrays.asList(1, 2), chunk -> {
+                if (failOnce.getAndSet(false)) {
+                    throw new IllegalStateException("chunk failed");
+                }
+            }).onCompleted(completions::incrementAndGet);
+
+        assertThrows(BatchJobEngine.BatchJobException.class,
+            () -> engine.job("completion_job", RUN_DATE).then(step).run());
+        assertEquals(0, completions.get());
+
+        engine.job("completion_job", RUN_DATE).then(step).run();
+        assertEquals(1, completions.get());
+
+        // A completed step is skipped by later runs of the same date, and so is its completion work
+        engine.job("completion_job", RUN_DATE).then(step).run();
+        assertEquals(1, completions.get());
+    }
+
+    @Test
+    void restartedJob_RunsCompletedStepsAgain() {
+        AtomicInteger runs = new AtomicInteger();
+        BatchJobEngine.Step<String> step = BatchJobEngine.tasklet("restart_step", runs::incrementAndGet);
+
+        BatchJobEngine.Job first = engine.job("restart_job", RUN_DATE).then(step);
+        first.run();
+        assertEquals(1, first.getStepsRun());
+
+        BatchJobEngine.Job again = engine.job("restart_job", RUN_DATE).then(step);
+        again.run();
+        assertEquals(1, runs.get());
+        assertEquals(0, again.getStepsRun());
+        assertEquals(1, again.getStepsSkipped());
+
+        BatchJobEngine.Job restarted = engine.job("restart_job", RUN_DATE).restart().then(step);
+        restarted.run();
+        assertEquals(2, runs.get());
+        assertEquals(1, restarted.getStepsRun());
+        assertEquals(0, restarted.getStepsSkipped());
+        assertEquals(BatchCheckpoint.StepStatus.COMPLETED, checkpoint("restart_job", "restart_step").getStatus());
+    }
+
+    @Test
+    void runThatLostItsLock_StopsAtNextChunkAndSkipsLaterSteps() {
+        properties.getChunkSizes().put("lease_step", 2);
+        AtomicBoolean held = new AtomicBoolean(true);
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean laterStepRan = new AtomicBoolean();
+        BatchJobEngine.Step<Integer> step = BatchJobEngine.chunked("lease_step", () -> Arrays.asList(1, 2, 3, 4),
+            chunk -> {
+                written.addAll(chunk);
+                held.set(false);
+            });
+
+        assertThrows(BatchJobEngine.BatchJobException.class, () -> engine.job("lease_job", RUN_DATE)
+            .whileHeld(held::get)
+            .then(step)
+            .then(BatchJobEngine.tasklet("lease_later", () -> laterStepRan.set(true)))
+            .run());
+
+        assertEquals(Arrays.asList(1, 2), written);
+        assertFalse(laterStepRan.get());
+        assertEquals(2, checkpoint("lease_job", "lease_step").getCommittedItems());
+        assertFalse(checkpointRepository.findByJobNameAndRunDateAndStepName("lease_job", RUN_DATE, "lease_later")
+                        .isPresent());
+    }
+
+    private BatchCheckpoint checkpoint(String job, String step) {
+        return checkpointRepository.findByJobNameAndRunDateAndStepName(job, RUN_DATE, step).get();
+    }
+}
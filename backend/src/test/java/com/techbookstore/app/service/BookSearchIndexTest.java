@@ -0,0 +1,78 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Publisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for tokenization, matching and ranking of the in-memory book search index
+ */
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex(null);
+        index.index(book(1L, "9784798100001", "Spring Boot実践入門", "Spring Boot in Practice", "技術評論社", "Spring Boot 2.3"));
+        index.index(book(2L, "9784798100002", "Java言語プログラミング", "Java Programming", "翔泳社", "Java 11"));
+        index.index(book(3L, "9784798100003", "入門 Kubernetes", null, "オライリー", null));
+        index.index(book(4L, "9784798100004", "Effective Java", null, "丸善", "Java Spring"));
+    }
+
+    @Test
+    void words_MatchByPrefixAndCaseInsensitively() {
+        assertEquals(Arrays.asList(1L), index.search("SPRING boo"));
+        assertEquals(Arrays.asList(3L), index.search("kube"));
+    }
+
+    @Test
+    void japanese_MatchesByBigramsAndSingleCharacters() {
+        assertEquals(Arrays.asList(2L), index.search("プログラミング"));
+        assertEquals(Arrays.asList(1L, 3L), index.search("入門"));
+        assertEquals(Arrays.asList(2L), index.search("翔"));
+        assertEquals(Collections.emptyList(), index.search("入門書"));
+    }
+
+    @Test
+    void isbn_MatchesWithHyphensAndByPrefix() {
+        assertEquals(Arrays.asList(3L), index.search("978-4-7981-0000-3"));
+        assertEquals(4, index.search("97847981").size());
+    }
+
+    @Test
+    void ranking_TitleMatchesBeforeVersionInfoMatches() {
+        List<Long> javaResults = index.search("java");
+        assertEquals(Arrays.asList(2L, 4L), javaResults);
+
+        List<Long> springResults = index.search("spring");
+        assertEquals(Arrays.asList(1L, 4L), springResults);
+    }
+
+    @Test
+    void updateAndRemove_ReplaceIndexedTerms() {
+        index.index(book(3L, "9784798100003", "入門 Docker", null, "オライリー", null));
+        assertTrue(index.search("kubernetes").isEmpty());
+        assertEquals(Arrays.asList(3L), index.search("docker"));
+
+        index.remove(3L);
+        assertTrue(index.search("docker").isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    private Book book(Long id, String isbn13, String title, String titleEn, String publisherName, String versionInfo) {
+        Book book = new Book(isbn13, title);
+        book.setId(id);
+        book.setTitleEn(titleEn);
+        book.setPublisher(new Publisher(publisherName));
+        book.setVersionInfo(versionInfo);
+        return book;
+    }
+}
@@ -0,0 +1,214 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.CacheInvalidationRules;
+import com.techbookstore.app.dto.IntegratedAnalysisRequest;
+import com.techbookstore.app.event.BookUpdatedEvent;
+import com.techbookstore.app.event.OrderConfirmedEvent;
+import com.techbookstore.app.event.StockChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for category-scoped cache eviction on domain events
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class CacheInvalidationServiceTest {
+
+    @Autowired
+    private CacheInvalidationRules rules;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private CacheInvalidationService service;
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("integratedAnalysis", "dashboardData", "forecastAnalysis",
+                                                     "performanceMetrics");
+        service = new CacheInvalidationService(cacheManager, rules, jdbcTemplate, redisTemplate, meterRegistry);
+
+        jdbcTemplate.update("INSERT INTO tech_categories (category_name, category_code, category_level) " +
+                            "VALUES ('Rust Lang', 'INV_RUST', 2)");
+        Long categoryId = jdbcTemplate.queryForObject(
+            "SELECT id FROM tech_categories WHERE category_code = 'INV_RUST'", Long.class);
+        jdbcTemplate.update("INSERT INTO books (isbn13, title, list_price, selling_price) " +
+                            "VALUES ('9990000000015', 'Invalidation Rust', 3000, 2700)");
+        bookId = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn13 = '9990000000015'", Long.class);
+        jdbcTemplate.update("INSERT INTO book_categories (book_id, category_id, is_primary) VALUES (?, ?, true)",
+                            bookId, categoryId);
+    }
+
+    @Test
+    void stockChange_EvictsMatchingAndUnscopedEntriesOnly() {
+        Cache integrated = cacheManager.getCache("integratedAnalysis");
+        String rustKey = key("rust");
+        String pythonKey = key("Python");
+        String allKey = key(null);
+        integrated.put(rustKey, "rust");
+        integrated.put(pythonKey, "python");
+        integrated.put(allKey, "all");
+        Cache dashboard = cacheManager.getCache("dashboardData");
+        dashboard.put("dashboard_" + key("INV_RUST"), "rust");
+        dashboard.put("dashboard_" + pythonKey, "python");
+        Cache forecast = cacheManager.getCache("forecastAnalysis");
+        forecast.put(rustKey, "rust");
+        cacheManager.getCache("performanceMetrics").put(allKey, "metrics");
+
+        service.onDomainEvent(new StockChangedEvent(Collections.singleton(bookId)));
+
+        assertNull(integrated.get(rustKey));
+        assertNull(integrated.get(allKey));
+        assertNotNull(integrated.get(pythonKey));
+        assertNull(dashboard.get("dashboard_" + key("INV_RUST")));
+        assertNotNull(dashboard.get("dashboard_" + pythonKey));
+        // Stock levels do not feed forecasts, and metrics are refreshed by TTL only
+        assertNotNull(forecast.get(rustKey));
+        assertNotNull(cacheManager.getCache("performanceMetrics").get(allKey));
+
+        service.onDomainEvent(new OrderConfirmedEvent(Collections.singleton(1L), Collections.singleton(bookId)));
+        assertNull(forecast.get(rustKey));
+    }
+
+    @Test
+    void deletedBook_ClearsMappedCaches() {
+        Cache integrated = cacheManager.getCache("integratedAnalysis");
+        integrated.put(key("Python"), "python");
+
+        service.onDomainEvent(new BookUpdatedEvent(bookId, false));
+        assertNotNull(integrated.get(key("Python")));
+
+        service.onDomainEvent(new BookUpdatedEvent(bookId, true));
+        assertNull(integrated.get(key("Python")));
+    }
+
+    @Test
+    void remoteCache_EvictionIsDeferredAndCoalesced() {
+        RemoteCache remote = new RemoteCache("integratedAnalysis");
+        SimpleCacheManager remoteManager = new SimpleCacheManager();
+        remoteManager.setCaches(Collections.singletonList(remote));
+        remoteManager.afterPropertiesSet();
+        // No Redis to scan: the pending eviction clears the cache
+        CacheInvalidationService deferred = new CacheInvalidationService(remoteManager, rules, jdbcTemplate,
+            new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class), meterRegistry);
+        remote.put(key("rust"), "rust");
+
+        deferred.onDomainEvent(new StockChangedEvent(Collections.singleton(bookId)));
+        deferred.onDomainEvent(new OrderConfirmedEvent(Collections.singleton(1L), Collections.singleton(bookId)));
+        assertNotNull(remote.get(key("rust")));
+        assertEquals(0, remote.clears.get());
+
+        // Both events are handled by one pass over the cache
+        assertEquals(1, deferred.flushPendingInvalidations());
+        assertNull(remote.get(key("rust")));
+        assertEquals(1, remote.clears.get());
+        assertEquals(0, deferred.flushPendingInvalidations());
+    }
+
+    @Test
+    void categoriesOf_ResolvesCodesAndNames() {
+        assertEquals(new HashSet<>(Arrays.asList("inv_rust", "rust lang")),
+                     service.categoriesOf(Collections.singleton(bookId)));
+        assertTrue(service.categoriesOf(Collections.emptySet()).isEmpty());
+    }
+
+    @Test
+    void categoryOf_ParsesCacheKeys() {
+        assertEquals("Java", IntegratedAnalysisRequest.categoryOf(key("Java")));
+        assertEquals("Java", IntegratedAnalysisRequest.categoryOf("dashboard_" + key("Java")));
+        assertNull(IntegratedAnalysisRequest.categoryOf(key(null)));
+    }
+
+    private static String key(String category) {
+        IntegratedAnalysisRequest request = new IntegratedAnalysisRequest();
+        request.setCategory(category);
+        request.setLevel("BEGINNER");
+        request.setAnalysisDate(LocalDate.of(2099, 1, 1));
+        return request.cacheKey();
+    }
+
+    /**
+     * Cache whose keys can not be listed from memory, like a Redis cache
+     */
+    private static class RemoteCache extends AbstractValueAdaptingCache {
+        private final String name;
+        private final Map<Object, Object> store = new HashMap<>();
+        private final AtomicInteger clears = new AtomicInteger();
+
+        RemoteCache(String name) {
+            super(true);
+            this.name = name;
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            return store.get(key);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return (T) store.get(key);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            store.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            store.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            store.clear();
+            clears.incrementAndGet();
+        }
+    }
+}
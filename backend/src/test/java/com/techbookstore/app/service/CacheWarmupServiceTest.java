@@ -0,0 +1,166 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.CacheWarmupProperties;
+import com.techbookstore.app.config.SchedulerLock;
+import com.techbookstore.app.dto.IntegratedAnalysisRequest;
+import com.techbookstore.app.repository.AggregationStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for request tracking, replay and readiness of the cache warm-up
+ */
+public class CacheWarmupServiceTest {
+
+    private IntegratedInventoryAnalysisService analysisService;
+    private AggregationStore aggregationStore;
+    private CacheWarmupProperties properties;
+    private List<Runnable> queued;
+    private CacheWarmupService service;
+
+    @BeforeEach
+    void setUp() {
+        analysisService = mock(IntegratedInventoryAnalysisService.class);
+        aggregationStore = mock(AggregationStore.class);
+        when(aggregationStore.find(eq(CacheWarmupKeysCodec.WARMUP_KEYS), any())).thenReturn(Optional.empty());
+        properties = new CacheWarmupProperties();
+        ScheduledJobLock jobLock = mock(ScheduledJobLock.class);
+        when(jobLock.runLocked(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<SchedulerLock.Lease>>getArgument(1).accept(new SchedulerLock.Lease("lock", "node", 1));
+            return true;
+        });
+        queued = new ArrayList<>();
+        service = new CacheWarmupService(analysisService, aggregationStore, properties, jobLock, queued::add);
+    }
+
+    @Test
+    void warmupKeys_AreConfiguredThenMostRequested() {
+        properties.setKeys(Collections.singletonList("integrated_analysis_horizon:30_opt:true"));
+        properties.setTopN(2);
+        service.record(request("Java", LocalDate.of(2099, 1, 1)), true);
+        for (int i = 0; i < 3; i++) {
+            service.record(request("WEB_DEV", LocalDate.of(2099, 1, 1 + i)), false);
+        }
+        service.record(request(null, LocalDate.of(2099, 1, 1)), false);
+        service.record(request("Java", LocalDate.of(2099, 1, 2)), true);
+
+        assertEquals(Arrays.asList("integrated_analysis_horizon:30_opt:true",
+                                   "integrated_analysis_cat:WEB_DEV_horizon:30_opt:true",
+                                   "dashboard_integrated_analysis_cat:Java_horizon:30_opt:true"),
+                     service.warmupKeys());
+    }
+
+    @Test
+    void warm_ReplaysKeysForTodayAndCountsFailures() {
+        when(analysisService.executeIntegratedAnalysis(any())).thenThrow(new IllegalStateException("down"));
+
+        CacheWarmupService.WarmupResult result = runQueued(service.warm(Arrays.asList(
+            "dashboard_integrated_analysis_cat:WEB_DEV_lvl:BEGINNER_horizon:30_opt:true",
+            "integrated_analysis_horizon:60_opt:false")));
+
+        ArgumentCaptor<IntegratedAnalysisRequest> dashboard = ArgumentCaptor.forClass(IntegratedAnalysisRequest.class);
+        verify(analysisService).generateRealtimeDashboardData(dashboard.capture());
+        assertEquals("WEB_DEV", dashboard.getValue().getCategory());
+        assertEquals("BEGINNER", dashboard.getValue().getLevel());
+        assertEquals(LocalDate.now(), dashboard.getValue().getAnalysisDate());
+
+        ArgumentCaptor<IntegratedAnalysisRequest> analysis = ArgumentCaptor.forClass(IntegratedAnalysisRequest.class);
+        verify(analysisService).executeIntegratedAnalysis(analysis.capture());
+        assertEquals(Integer.valueOf(60), analysis.getValue().getForecastHorizon());
+        assertEquals(Boolean.FALSE, analysis.getValue().getIncludeOptimization());
+
+        assertEquals(2, result.getKeys());
+        assertEquals(1, result.getFailed());
+    }
+
+    @Test
+    void readiness_IsWarmingUntilStartupWarmupCompletes() {
+        properties.setKeys(Collections.singletonList("integrated_analysis_horizon:30_opt:true"));
+        CacheWarmupHealthIndicator indicator = new CacheWarmupHealthIndicator(service);
+
+        service.onApplicationReady();
+        assertEquals(CacheWarmupHealthIndicator.WARMING, indicator.health().getStatus());
+
+        queued.forEach(Runnable::run);
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals(1, indicator.health().getDetails().get("keys"));
+    }
+
+    @Test
+    void snapshot_SeedsCountsAfterRestart() {
+        Map<String, Integer> saved = new LinkedHashMap<>();
+        saved.put("integrated_analysis_cat:Java_horizon:30_opt:true", 5);
+        when(aggregationStore.find(CacheWarmupKeysCodec.WARMUP_KEYS, LocalDate.now().minusDays(1)))
+            .thenReturn(Optional.of(saved));
+
+        service.loadSnapshot();
+        service.record(request("Python", LocalDate.now()), false);
+
+        assertEquals(Arrays.asList("integrated_analysis_cat:Java_horizon:30_opt:true",
+                                   "integrated_analysis_cat:Python_horizon:30_opt:true"),
+                     service.warmupKeys());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshot_AddsThisNodesRequestsToTheStoredCounts() {
+        Map<String, Integer> stored = new LinkedHashMap<>();
+        stored.put("integrated_analysis_cat:Java_horizon:30_opt:true", 5);
+        when(aggregationStore.find(CacheWarmupKeysCodec.WARMUP_KEYS, LocalDate.now())).thenReturn(Optional.of(stored));
+        service.record(request("Java", LocalDate.now()), false);
+        service.record(request("Python", LocalDate.now()), false);
+        service.record(request("Python", LocalDate.now()), false);
+
+        service.saveSnapshot();
+        // Nothing new was requested, so the next snapshot writes nothing
+        service.saveSnapshot();
+
+        ArgumentCaptor<Map<String, Integer>> saved = ArgumentCaptor.forClass(Map.class);
+        verify(aggregationStore).put(eq(CacheWarmupKeysCodec.WARMUP_KEYS), eq(LocalDate.now()), saved.capture(), any());
+        assertEquals(Integer.valueOf(6), saved.getValue().get("integrated_analysis_cat:Java_horizon:30_opt:true"));
+        assertEquals(Integer.valueOf(2), saved.getValue().get("integrated_analysis_cat:Python_horizon:30_opt:true"));
+    }
+
+    @Test
+    void cacheKey_RoundTripsWithoutDate() {
+        IntegratedAnalysisRequest original = request("WEB_DEV", LocalDate.of(2099, 1, 1));
+        original.setStockStatus("LOW_STOCK");
+        original.setPublicationYear("2023");
+
+        String key = IntegratedAnalysisRequest.withoutDate(original.cacheKey());
+        IntegratedAnalysisRequest replayed = IntegratedAnalysisRequest.fromCacheKey(key, LocalDate.of(2099, 1, 1));
+
+        assertEquals(original.cacheKey(), replayed.cacheKey());
+    }
+
+    private CacheWarmupService.WarmupResult runQueued(CompletableFuture<CacheWarmupService.WarmupResult> future) {
+        queued.forEach(Runnable::run);
+        return future.join();
+    }
+
+    private static IntegratedAnalysisRequest request(String category, LocalDate date) {
+        IntegratedAnalysisRequest request = new IntegratedAnalysisRequest();
+        request.setCategory(category);
+        request.setAnalysisDate(date);
+        return request;
+    }
+}
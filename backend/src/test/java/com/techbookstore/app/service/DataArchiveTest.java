@@ -0,0 +1,216 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.MonthlyDemandDto;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Customer;
+import com.techbookstore.app.entity.Inventory;
+import com.techbookstore.app.entity.InventoryTransaction;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.entity.TransactionStatus;
+import com.techbookstore.app.entity.TransactionType;
+import com.techbookstore.app.repository.ArchiveAwareRepository;
+import com.techbookstore.app.repository.ArchiveStore;
+import com.techbookstore.app.repository.ArchivedOrderRepository;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.CustomerRepository;
+import com.techbookstore.app.repository.InventoryRepository;
+import com.techbookstore.app.repository.InventoryTransactionRepository;
+import com.techbookstore.app.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for moving old orders and inventory transactions to the archive tables and reading them back
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class DataArchiveTest {
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private ArchiveAwareRepository archiveAwareRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomReportService customReportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book book;
+    private Customer customer;
+    private LocalDate runDate;
+    private LocalDateTime cutoff;
+    private LocalDateTime oldDate;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setIsbn13("9789990000301");
+        book.setTitle("Archive Test Book");
+        book.setSellingPrice(BigDecimal.valueOf(2000));
+        book = bookRepository.save(book);
+        customer = customerRepository.save(new Customer(Customer.CustomerType.INDIVIDUAL, "Archive Customer",
+                                                        "archive.customer@archive.test", "03-0000-0000"));
+
+        runDate = LocalDate.now();
+        cutoff = runDate.minusYears(2).atStartOfDay();
+        oldDate = runDate.minusYears(3).atTime(10, 0);
+    }
+
+    @Test
+    void moveOrders_ArchivesSettledOrdersOnceAndKeepsThemReadable() {
+        Order oldDelivered = saveOrder("ARC-OLD-1", Order.OrderStatus.DELIVERED, oldDate, 3);
+        Order oldPending = saveOrder("ARC-OLD-2", Order.OrderStatus.PENDING, oldDate, 1);
+        Order recent = saveOrder("ARC-NEW-1", Order.OrderStatus.DELIVERED, LocalDateTime.now().minusDays(1), 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = archiveStore.findOrderIdsToArchive(cutoff, runDate);
+        assertTrue(ids.contains(oldDelivered.getId()));
+        assertFalse(ids.contains(oldPending.getId()));
+        assertFalse(ids.contains(recent.getId()));
+
+        assertEquals(1, archiveStore.moveOrders(ids, cutoff, runDate));
+        entityManager.clear();
+        assertFalse(orderRepository.findById(oldDelivered.getId()).isPresent());
+        assertTrue(orderRepository.findById(oldPending.getId()).isPresent());
+        assertEquals(1, archivedOrderRepository.findItemsByOrderIdIn(Collections.singletonList(oldDelivered.getId())).size());
+
+        // A resumed run reads the same IDs and moving them again changes nothing
+        long archived = archivedOrderRepository.count();
+        assertEquals(ids, archiveStore.findOrderIdsToArchive(cutoff, runDate));
+        assertEquals(0, archiveStore.moveOrders(ids, cutoff, runDate));
+        assertEquals(archived, archivedOrderRepository.count());
+
+        // The customer's order history and order lookups still find the archived order
+        List<Order> orders = archiveAwareRepository.findOrdersByCustomerId(customer.getId());
+        assertEquals(3, orders.size());
+        Order restored = orders.stream().filter(o -> o.getId().equals(oldDelivered.getId())).findFirst()
+            .orElseThrow(AssertionError::new);
+        assertEquals("ARC-OLD-1", restored.getOrderNumber());
+        assertEquals(1, restored.getOrderItems().size());
+        assertEquals(3, restored.getOrderItems().get(0).getQuantity());
+        assertEquals("Archive Test Book", restored.getOrderItems().get(0).getBook().getTitle());
+        assertTrue(orders.stream().anyMatch(o -> o.getId().equals(recent.getId())));
+        assertEquals(oldDelivered.getId(), archiveAwareRepository.findOrderByNumber("ARC-OLD-1").get().getId());
+        assertEquals("ARC-OLD-1", archiveAwareRepository.findOrderById(oldDelivered.getId()).get().getOrderNumber());
+        assertEquals("ARC-NEW-1", archiveAwareRepository.findOrderById(recent.getId()).get().getOrderNumber());
+
+        List<MonthlyDemandDto> demand = archiveAwareRepository.findMonthlyDemandBetween(
+            book.getId(), oldDate.minusDays(1), LocalDateTime.now());
+        MonthlyDemandDto oldMonth = demand.stream()
+            .filter(row -> row.getMonth().equals(YearMonth.from(oldDate)))
+            .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(4L, oldMonth.getQuantity());
+        assertEquals(2L, oldMonth.getOrderLines());
+    }
+
+    @Test
+    void exportOrderLines_IncludesArchivedOrdersInOrderDateOrder() {
+        Order oldDelivered = saveOrder("ARC-OLD-3", Order.OrderStatus.DELIVERED, oldDate, 3);
+        saveOrder("ARC-OLD-4", Order.OrderStatus.PENDING, oldDate, 1);
+        saveOrder("ARC-NEW-2", Order.OrderStatus.DELIVERED, LocalDateTime.now().minusDays(1), 2);
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(1, archiveStore.moveOrders(Collections.singletonList(oldDelivered.getId()), cutoff, runDate));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = customReportService.exportOrderLines(oldDate.toLocalDate(), LocalDate.now(),
+                                                         CustomReportService.StreamFormat.CSV, out);
+
+        List<String> numbers = Arrays.stream(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n"))
+            .skip(1)
+            .map(line -> line.substring(0, line.indexOf(',')))
+            .filter(number -> number.startsWith("ARC-"))
+            .collect(Collectors.toList());
+        assertEquals(Arrays.asList("ARC-OLD-3", "ARC-OLD-4", "ARC-NEW-2"), numbers);
+        assertTrue(rows >= 3);
+    }
+
+    @Test
+    void moveTransactions_ArchivesSettledTransactions() {
+        Inventory inventory = inventoryRepository.save(new Inventory(book));
+        InventoryTransaction approved = saveTransaction(inventory, TransactionStatus.APPROVED, oldDate);
+        InventoryTransaction pending = saveTransaction(inventory, TransactionStatus.PENDING, oldDate.plusHours(1));
+        InventoryTransaction recent = saveTransaction(inventory, TransactionStatus.APPROVED, LocalDateTime.now().minusHours(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = archiveStore.findTransactionIdsToArchive(cutoff, runDate);
+        assertTrue(ids.contains(approved.getId()));
+        assertFalse(ids.contains(pending.getId()));
+
+        assertEquals(1, archiveStore.moveTransactions(ids, cutoff, runDate));
+        assertEquals(0, archiveStore.moveTransactions(ids, cutoff, runDate));
+        entityManager.clear();
+        assertFalse(transactionRepository.findById(approved.getId()).isPresent());
+
+        // The item's history still lists the archived transaction, newest first
+        List<Long> history = archiveAwareRepository.findTransactionsByInventoryId(inventory.getId()).stream()
+            .map(InventoryTransaction::getId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(recent.getId(), pending.getId(), approved.getId()), history);
+    }
+
+    @Test
+    void createYearlyPartitions_IsNoOpWithoutPostgres() {
+        assertEquals(0, archiveStore.createYearlyPartitions(cutoff));
+    }
+
+    private Order saveOrder(String number, Order.OrderStatus status, LocalDateTime orderDate, int quantity) {
+        Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CASH);
+        order.setOrderNumber(number);
+        order.setCustomerId(customer.getId());
+        order.setStatus(status);
+        order.setOrderDate(orderDate);
+        order.setTotalAmount(book.getSellingPrice().multiply(BigDecimal.valueOf(quantity)));
+        order.getOrderItems().add(new OrderItem(order, book, quantity, book.getSellingPrice()));
+        return orderRepository.save(order);
+    }
+
+    private InventoryTransaction saveTransaction(Inventory inventory, TransactionStatus status, LocalDateTime executedAt) {
+        InventoryTransaction transaction = new InventoryTransaction(inventory, TransactionType.RECEIVE, 5, 0, 5, null);
+        transaction.setStatus(status);
+        transaction.setExecutedAt(executedAt);
+        return transactionRepository.save(transaction);
+    }
+}
@@ -0,0 +1,132 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.DemandForecastResult;
+import com.techbookstore.app.dto.MonthlyDemandDto;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.DemandForecast;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for database-side demand aggregation used by DemandForecastService
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class DemandForecastServiceTest {
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book javaBook;
+    private Book pythonBook;
+
+    @BeforeEach
+    void setUp() {
+        javaBook = saveBook("9789990000001", "Forecast Java Book");
+        pythonBook = saveBook("9789990000002", "Forecast Python Book");
+
+        LocalDateTime now = LocalDateTime.now();
+        saveOrder("ORD-FC-0001", now.minusMonths(2), javaBook, 4);
+        saveOrder("ORD-FC-0002", now.minusMonths(2), javaBook, 2);
+        saveOrder("ORD-FC-0003", now.minusMonths(1), javaBook, 6);
+        saveOrder("ORD-FC-0004", now.minusMonths(1), pythonBook, 3);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findMonthlyDemandBetween_GroupsByBookAndMonth() {
+        LocalDateTime now = LocalDateTime.now();
+        List<MonthlyDemandDto> rows = orderRepository.findMonthlyDemandBetween(now.minusMonths(3), now);
+
+        List<MonthlyDemandDto> javaRows = rows.stream()
+            .filter(row -> row.getBookId().equals(javaBook.getId()))
+            .collect(Collectors.toList());
+
+        assertEquals(2, javaRows.size());
+        MonthlyDemandDto twoMonthsAgo = javaRows.stream()
+            .filter(row -> row.getMonth().equals(YearMonth.from(now.minusMonths(2))))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+        assertEquals(6L, twoMonthsAgo.getQuantity());
+        assertEquals(2L, twoMonthsAgo.getOrderLines());
+    }
+
+    @Test
+    void generateForecast_UsesAggregatedHistory() {
+        List<DemandForecast> forecasts = demandForecastService.generateForecast(javaBook.getId(), LocalDate.now(), 1);
+
+        DemandForecast movingAverage = forecasts.stream()
+            .filter(f -> "MOVING_AVERAGE".equals(f.getAlgorithm()))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+
+        // 12 units over 3 order lines
+        assertEquals(4, movingAverage.getPredictedDemand());
+        assertEquals(5, forecasts.size());
+    }
+
+    @Test
+    void generateEnsembleForecasts_CoversCatalogInOnePass() {
+        List<DemandForecastResult> results = demandForecastService.generateEnsembleForecasts(30);
+
+        DemandForecastResult java = results.stream()
+            .filter(r -> r.getBookId().equals(javaBook.getId()))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+        DemandForecastResult python = results.stream()
+            .filter(r -> r.getBookId().equals(pythonBook.getId()))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+
+        assertEquals(4, java.getForecastedDemand());
+        assertEquals(1, python.getForecastedDemand());
+    }
+
+    private Book saveBook(String isbn, String title) {
+        Book book = new Book();
+        book.setIsbn13(isbn);
+        book.setTitle(title);
+        book.setSellingPrice(BigDecimal.valueOf(3000));
+        return bookRepository.save(book);
+    }
+
+    private void saveOrder(String orderNumber, LocalDateTime orderDate, Book book, int quantity) {
+        Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CREDIT_CARD);
+        order.setOrderNumber(orderNumber);
+        order.setOrderDate(orderDate);
+        OrderItem item = new OrderItem(order, book, quantity, book.getSellingPrice());
+        order.getOrderItems().add(item);
+        order.setTotalAmount(item.getTotalPrice());
+        orderRepository.save(order);
+    }
+}
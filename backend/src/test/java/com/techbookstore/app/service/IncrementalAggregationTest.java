@@ -0,0 +1,281 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.BatchProperties;
+import com.techbookstore.app.dto.CustomerAnalyticsDto;
+import com.techbookstore.app.entity.AggregationWatermark;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Customer;
+import com.techbookstore.app.entity.CustomerOrderStats;
+import com.techbookstore.app.entity.Inventory;
+import com.techbookstore.app.entity.InventoryTransaction;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.TransactionType;
+import com.techbookstore.app.repository.AggregationWatermarkRepository;
+import com.techbookstore.app.repository.BatchCheckpointRepository;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.CustomerRepository;
+import com.techbookstore.app.repository.IncrementalAggregationStore;
+import com.techbookstore.app.repository.InventoryRepository;
+import com.techbookstore.app.repository.InventoryTransactionRepository;
+import com.techbookstore.app.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for refreshing customer and inventory aggregates from the rows changed since a watermark
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class IncrementalAggregationTest {
+
+    @Autowired
+    private IncrementalAggregationStore store;
+
+    @Autowired
+    private IncrementalAggregationService service;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryTransactionRepository transactionRepository;
+
+    @Autowired
+    private AggregationWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BatchJobEngine engine;
+
+    @Autowired
+    private BatchProperties properties;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private LocalDateTime watermark;
+
+    private LocalDateTime until;
+
+    @BeforeEach
+    void setUp() {
+        watermark = LocalDateTime.now().minusDays(1);
+        until = LocalDateTime.now().plusMinutes(1);
+    }
+
+    @Test
+    void findChangedCustomerIds_ReturnsCustomersWithOrdersOrProfileChangedSinceWatermark() {
+        Customer unchanged = saveCustomer("unchanged", watermark.minusDays(5));
+        Customer ordered = saveCustomer("ordered", watermark.minusDays(5));
+        Customer edited = saveCustomer("edited", LocalDateTime.now());
+        saveOrder(unchanged, "INC-1", Order.OrderStatus.DELIVERED, 1000, watermark.minusDays(3));
+        saveOrder(ordered, "INC-2", Order.OrderStatus.PENDING, 1000, LocalDateTime.now());
+        entityManager.flush();
+
+        List<Long> changed = store.findChangedCustomerIds(watermark, until);
+        assertFalse(changed.contains(unchanged.getId()));
+        assertTrue(changed.contains(ordered.getId()));
+        assertTrue(changed.contains(edited.getId()));
+
+        // Changes at or after the end of the window are left to the next run
+        List<Long> earlier = store.findChangedCustomerIds(watermark, watermark.plusHours(12));
+        assertFalse(earlier.contains(ordered.getId()));
+        assertFalse(earlier.contains(edited.getId()));
+
+        // Without a watermark every customer is aggregated
+        assertTrue(store.findChangedCustomerIds(null, until).containsAll(
+            Arrays.asList(unchanged.getId(), ordered.getId(), edited.getId())));
+    }
+
+    @Test
+    void refreshCustomerStats_ReplacesTotalsAndReflectsCancellation() {
+        Customer customer = saveCustomer("stats", watermark.minusDays(5));
+        Customer withoutOrders = saveCustomer("no orders", watermark.minusDays(5));
+        LocalDateTime first = LocalDateTime.now().minusDays(20).truncatedTo(ChronoUnit.SECONDS);
+        Order kept = saveOrder(customer, "INC-3", Order.OrderStatus.DELIVERED, 3000, first);
+        Order cancelled = saveOrder(customer, "INC-4", Order.OrderStatus.SHIPPED, 2000, first.plusDays(5));
+        entityManager.flush();
+
+        assertEquals(2, store.refreshCustomerStats(Arrays.asList(customer.getId(), withoutOrders.getId())));
+        CustomerOrderStats stats = stats(customer);
+        assertEquals(2L, stats.getOrderCount());
+        assertEquals(0, new BigDecimal("5000").compareTo(stats.getTotalSpent()));
+        assertEquals(kept.getOrderDate(), stats.getFirstOrderAt());
+        assertEquals(0L, stats(withoutOrders).getOrderCount());
+
+        cancelled.setStatus(Order.OrderStatus.CANCELLED);
+        orderRepository.save(cancelled);
+        entityManager.flush();
+        assertTrue(store.findChangedCustomerIds(watermark, until).contains(customer.getId()));
+
+        // Refreshing recomputes the customer instead of adding to the previous totals
+        store.refreshCustomerStats(Collections.singletonList(customer.getId()));
+        store.refreshCustomerStats(Collections.singletonList(customer.getId()));
+        stats = stats(customer);
+        assertEquals(1L, stats.getOrderCount());
+        assertEquals(0, new BigDecimal("3000").compareTo(stats.getTotalSpent()));
+        assertEquals(kept.getOrderDate(), stats.getLastOrderAt());
+    }
+
+    @Test
+    void customerSegments_AreSummarizedFromCustomerStats() {
+        Customer premium = saveCustomer("premium", watermark.minusDays(5));
+        Customer regular = saveCustomer("regular", watermark.minusDays(5));
+        Customer recent = saveCustomer("recent", watermark.minusDays(5));
+        saveOrder(premium, "INC-5", Order.OrderStatus.DELIVERED, 40000, LocalDateTime.now().minusDays(400));
+        saveOrder(regular, "INC-6", Order.OrderStatus.DELIVERED, 1000, LocalDateTime.now().minusDays(400));
+        saveOrder(recent, "INC-7", Order.OrderStatus.DELIVERED, 1000, LocalDateTime.now().minusDays(10));
+        entityManager.flush();
+        store.refreshCustomerStats(store.findChangedCustomerIds(null, until));
+
+        Map<String, CustomerAnalyticsDto.CustomerSegment> segments = service.customerSegments(LocalDate.now()).stream()
+            .collect(Collectors.toMap(CustomerAnalyticsDto.CustomerSegment::getSegmentName, s -> s));
+        assertTrue(segments.get("Premium").getCustomerCount() >= 1);
+        assertTrue(segments.get("Regular").getCustomerCount() >= 1);
+        assertTrue(segments.get("New").getCustomerCount() >= 1);
+        double percentages = segments.values().stream()
+            .mapToDouble(CustomerAnalyticsDto.CustomerSegment::getPercentage).sum();
+        assertEquals(100.0, percentages, 0.2);
+        assertNotNull(segments.get("Premium").getCharacteristics());
+    }
+
+    @Test
+    void refreshMovements_AggregatesChangedDaysOnly() {
+        Inventory inventory = saveInventory("9789990000401");
+        LocalDate oldDay = LocalDate.now().minusDays(10);
+        LocalDate today = LocalDate.now();
+        saveTransaction(inventory, TransactionType.RECEIVE, 5, oldDay.atTime(9, 0));
+        saveTransaction(inventory, TransactionType.RECEIVE, 3, today.atStartOfDay());
+        saveTransaction(inventory, TransactionType.RECEIVE, 2, today.atStartOfDay().plusMinutes(1));
+        entityManager.flush();
+
+        List<LocalDate> changed = store.findChangedMovementDays(today.atStartOfDay(), until);
+        assertEquals(Collections.singletonList(today), changed);
+        assertEquals(Collections.singletonList(oldDay),
+                     store.findChangedMovementDays(oldDay.atStartOfDay(), today.atStartOfDay()));
+        assertTrue(store.findChangedMovementDays(null, until).containsAll(Arrays.asList(oldDay, today)));
+
+        store.refreshMovements(changed);
+        store.refreshMovements(changed);
+        List<Map<String, Object>> rows = service.inventoryMovements(today, today);
+        Map<String, Object> received = rows.stream()
+            .filter(row -> TransactionType.RECEIVE.name().equals(row.get("transactionType")))
+            .findFirst().orElseThrow(AssertionError::new);
+        assertTrue((Long) received.get("transactionCount") >= 2);
+        assertTrue((Long) received.get("totalQuantity") >= 5);
+        assertTrue(service.inventoryMovements(oldDay, oldDay).isEmpty());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void resumedRun_ReadsTheWindowOfItsFirstAttempt() {
+        LocalDate runDate = LocalDate.of(2099, 6, 1);
+        LocalDateTime previous = LocalDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+        AggregationWatermark start = new AggregationWatermark(IncrementalAggregationService.INVENTORY_DAILY_MOVEMENTS);
+        start.setWatermark(previous);
+        start.setUpdatedAt(previous);
+        watermarkRepository.save(start);
+        Inventory inventory = saveInventory("9789990000402");
+        InventoryTransaction transaction =
+            saveTransaction(inventory, TransactionType.RECEIVE, 1, LocalDateTime.now().minusSeconds(10));
+        try {
+            // The run loses its lock once it has read the changed days, before refreshing them
+            AtomicInteger checks = new AtomicInteger();
+            assertThrows(BatchJobEngine.BatchJobException.class, () -> engine.job("incremental_window_job", runDate)
+                .whileHeld(() -> checks.getAndIncrement() == 0)
+                .then(service.inventoryMovementsStep(runDate)).run());
+            AggregationWatermark pending = watermark();
+            assertEquals(previous, pending.getWatermark());
+            LocalDateTime pendingUntil = pending.getPendingUntil();
+            assertNotNull(pendingUntil);
+
+            // The resumed run reads up to the end fixed by the first attempt; later changes go to the next run
+            engine.job("incremental_window_job", runDate).then(service.inventoryMovementsStep(runDate)).run();
+            AggregationWatermark advanced = watermark();
+            assertNull(advanced.getPendingUntil());
+            assertEquals(pendingUntil.minus(properties.getWatermarkOverlap()), advanced.getWatermark());
+            assertEquals(1, advanced.getLastRefreshedKeys());
+        } finally {
+            watermarkRepository.deleteById(IncrementalAggregationService.INVENTORY_DAILY_MOVEMENTS);
+            checkpointRepository.deleteRun("incremental_window_job", runDate, 0);
+            transactionRepository.delete(transaction);
+            inventoryRepository.delete(inventory);
+            bookRepository.delete(inventory.getBook());
+        }
+    }
+
+    private AggregationWatermark watermark() {
+        return watermarkRepository.findById(IncrementalAggregationService.INVENTORY_DAILY_MOVEMENTS)
+            .orElseThrow(AssertionError::new);
+    }
+
+    private Inventory saveInventory(String isbn) {
+        Book book = new Book();
+        book.setIsbn13(isbn);
+        book.setTitle("Movement Test Book");
+        book.setSellingPrice(BigDecimal.valueOf(2000));
+        return inventoryRepository.save(new Inventory(bookRepository.save(book)));
+    }
+
+    private Customer saveCustomer(String name, LocalDateTime updatedAt) {
+        Customer customer = new Customer(Customer.CustomerType.INDIVIDUAL, name,
+                                         name.replace(' ', '.') + "@incremental.test", "03-0000-0000");
+        customer.setUpdatedAt(updatedAt);
+        return customerRepository.save(customer);
+    }
+
+    private Order saveOrder(Customer customer, String number, Order.OrderStatus status, int amount,
+                            LocalDateTime orderDate) {
+        Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CASH);
+        order.setOrderNumber(number);
+        order.setCustomerId(customer.getId());
+        order.setStatus(status);
+        order.setOrderDate(orderDate);
+        order.setTotalAmount(BigDecimal.valueOf(amount));
+        order.setUpdatedAt(orderDate);
+        return orderRepository.save(order);
+    }
+
+    private InventoryTransaction saveTransaction(Inventory inventory, TransactionType type, int quantity,
+                                                 LocalDateTime executedAt) {
+        InventoryTransaction transaction = new InventoryTransaction(inventory, type, quantity, 0, quantity, null);
+        transaction.setExecutedAt(executedAt);
+        return transactionRepository.save(transaction);
+    }
+
+    private CustomerOrderStats stats(Customer customer) {
+        entityManager.clear();
+        return entityManager.find(CustomerOrderStats.class, customer.getId());
+    }
+}
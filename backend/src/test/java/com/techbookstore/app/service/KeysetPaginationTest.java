@@ -0,0 +1,159 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.KeysetSlice;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Customer;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.CustomerRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for cursor (keyset) pagination: every row is visited exactly once, ties on the
+ * sort key are broken by id, and each slice is a single statement without a count query.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+public class KeysetPaginationTest {
+
+    private static final Long CUSTOMER_ID = 910001L;
+    private static final int ORDER_COUNT = 23;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setIsbn13("9789990000601");
+        book.setTitle("Keyset Book");
+        book.setSellingPrice(BigDecimal.valueOf(1000));
+        book = bookRepository.save(book);
+
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CREDIT_CARD);
+            order.setCustomerId(CUSTOMER_ID);
+            // Only three distinct totals, so most rows tie on the sort key
+            order.getOrderItems().add(new OrderItem(order, book, 1 + i % 3, book.getSellingPrice()));
+            orderService.createOrder(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void orders_WalkAllSlices_VisitsEveryOrderOnceInSortOrder() {
+        List<Order> visited = new ArrayList<>();
+        String cursor = "";
+        int slices = 0;
+        KeysetSlice<Order> slice;
+        do {
+            slice = orderService.getOrdersAfter(null, null, CUSTOMER_ID, null, null, null,
+                                                "totalAmount", Sort.Direction.DESC, cursor, 5);
+            visited.addAll(slice.getContent());
+            cursor = slice.getNextCursor();
+            slices++;
+        } while (slice.isHasNext());
+
+        assertEquals(5, slices);
+        assertNull(cursor);
+        assertEquals(ORDER_COUNT, visited.size());
+        Set<Long> ids = new HashSet<>();
+        visited.forEach(order -> assertTrue(ids.add(order.getId())));
+        for (int i = 1; i < visited.size(); i++) {
+            Order previous = visited.get(i - 1);
+            Order current = visited.get(i);
+            int byTotal = previous.getTotalAmount().compareTo(current.getTotalAmount());
+            assertTrue(byTotal > 0 || (byTotal == 0 && previous.getId() > current.getId()));
+        }
+        assertEquals(1, visited.get(0).getOrderItems().size());
+    }
+
+    @Test
+    void orders_SliceIssuesNoCountQuery() {
+        KeysetSlice<Order> first = orderService.getOrdersAfter(null, null, CUSTOMER_ID, null, null, null,
+                                                               "orderDate", Sort.Direction.DESC, "", 10);
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        KeysetSlice<Order> second = orderService.getOrdersAfter(null, null, CUSTOMER_ID, null, null, null,
+                                                                "orderDate", Sort.Direction.DESC,
+                                                                first.getNextCursor(), 10);
+        second.getContent().forEach(order -> order.getOrderItems().forEach(item -> item.getBook().getTitle()));
+
+        assertEquals(10, second.getContent().size());
+        assertTrue(second.isHasNext());
+        assertEquals(2, statistics.getPrepareStatementCount(), "Slice query and detail fetch only");
+    }
+
+    @Test
+    void customers_WalkAllSlices_ByName() {
+        for (int i = 0; i < 7; i++) {
+            customerRepository.save(new Customer(Customer.CustomerType.INDIVIDUAL,
+                "Keyset Customer " + (i % 2), "keyset" + i + "@example.com", "090-0000-000" + i));
+        }
+
+        Set<Long> ids = new HashSet<>();
+        String cursor = "";
+        KeysetSlice<Customer> slice;
+        do {
+            slice = customerService.getCustomersAfter("keyset customer", null, null, null, null,
+                                                      "name", Sort.Direction.ASC, cursor, 3);
+            slice.getContent().forEach(customer -> assertTrue(ids.add(customer.getId())));
+            cursor = slice.getNextCursor();
+        } while (slice.isHasNext());
+
+        assertEquals(7, ids.size());
+    }
+
+    @Test
+    void invalidOrMismatchedCursor_IsRejected() {
+        KeysetSlice<Order> first = orderService.getOrdersAfter(null, null, CUSTOMER_ID, null, null, null,
+                                                               "orderDate", Sort.Direction.DESC, "", 5);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersAfter(
+            null, null, CUSTOMER_ID, null, null, null, "orderNumber", Sort.Direction.DESC, first.getNextCursor(), 5));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersAfter(
+            null, null, CUSTOMER_ID, null, null, null, "orderDate", Sort.Direction.DESC, "not-a-cursor", 5));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersAfter(
+            null, null, CUSTOMER_ID, null, null, null, "status", Sort.Direction.DESC, "", 5));
+    }
+}
@@ -0,0 +1,180 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Inventory;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.exception.InsufficientInventoryException;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.InventoryRepository;
+import com.techbookstore.app.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for single and bulk order confirmation with locked, batched stock decrements
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class OrderBatchConfirmationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book javaBook;
+    private Book pythonBook;
+
+    @BeforeEach
+    void setUp() {
+        javaBook = saveBookWithStock("9789990000401", "Batch Java Book", 10);
+        pythonBook = saveBookWithStock("9789990000402", "Batch Python Book", 3);
+    }
+
+    @Test
+    void confirmOrder_SameBookOnSeveralLines_DecrementsTotal() {
+        Order order = createOrder(javaBook, 2, javaBook, 3);
+
+        orderService.confirmOrder(order.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(5, storeStock(javaBook));
+        assertEquals(Order.OrderStatus.CONFIRMED, orderRepository.findById(order.getId()).get().getStatus());
+    }
+
+    @Test
+    void confirmOrder_InsufficientStock_ChangesNothing() {
+        Order order = createOrder(javaBook, 2, pythonBook, 4);
+
+        assertThrows(InsufficientInventoryException.class, () -> orderService.confirmOrder(order.getId()));
+        entityManager.clear();
+
+        assertEquals(10, storeStock(javaBook));
+        assertEquals(3, storeStock(pythonBook));
+    }
+
+    @Test
+    void confirmOrders_ReportsPerOrderResults() {
+        Order first = createOrder(javaBook, 4, pythonBook, 2);
+        Order second = createOrder(javaBook, 4, null, 0);
+        Order shortOfStock = createOrder(pythonBook, 2, null, 0);   // only 1 left after the first order
+        Order alreadyConfirmed = createOrder(javaBook, 1, null, 0);
+        orderService.confirmOrder(alreadyConfirmed.getId());
+
+        List<OrderService.OrderConfirmationResult> results = orderService.confirmOrders(Arrays.asList(
+            first.getId(), second.getId(), shortOfStock.getId(), alreadyConfirmed.getId(), first.getId(), 999999L));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(6, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertFalse(results.get(4).isSuccess());
+        assertFalse(results.get(5).isSuccess());
+        assertEquals(first.getOrderNumber(), results.get(0).getOrderNumber());
+
+        assertEquals(1, storeStock(javaBook));     // 10 - 1 - 4 - 4
+        assertEquals(1, storeStock(pythonBook));   // 3 - 2
+        assertEquals(Order.OrderStatus.CONFIRMED, orderRepository.findById(first.getId()).get().getStatus());
+        assertEquals(Order.OrderStatus.CONFIRMED, orderRepository.findById(second.getId()).get().getStatus());
+        assertEquals(Order.OrderStatus.PENDING, orderRepository.findById(shortOfStock.getId()).get().getStatus());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentConfirmations_OfTheSameOrder_AllocateOnce() throws Exception {
+        Order order = createOrder(javaBook, 4, null, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<OrderService.OrderConfirmationResult>>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.confirmOrders(Collections.singletonList(order.getId()));
+                }));
+            }
+            start.countDown();
+            int confirmed = 0;
+            for (Future<List<OrderService.OrderConfirmationResult>> future : futures) {
+                if (future.get(60, TimeUnit.SECONDS).get(0).isSuccess()) {
+                    confirmed++;
+                }
+            }
+
+            assertEquals(1, confirmed);
+            assertEquals(6, storeStock(javaBook));
+            assertEquals(Order.OrderStatus.CONFIRMED, orderRepository.findById(order.getId()).get().getStatus());
+        } finally {
+            executor.shutdownNow();
+            // Cancelling first takes the order back out of the sales facts
+            orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CANCELLED);
+            orderRepository.deleteById(order.getId());
+            for (Book book : Arrays.asList(javaBook, pythonBook)) {
+                inventoryRepository.delete(inventoryRepository.findByBookId(book.getId()).get());
+                bookRepository.deleteById(book.getId());
+            }
+        }
+    }
+
+    private int storeStock(Book book) {
+        return inventoryRepository.findByBookId(book.getId()).get().getStoreStock();
+    }
+
+    private Book saveBookWithStock(String isbn, String title, int storeStock) {
+        Book book = new Book();
+        book.setIsbn13(isbn);
+        book.setTitle(title);
+        book.setSellingPrice(BigDecimal.valueOf(2000));
+        book = bookRepository.save(book);
+
+        Inventory inventory = new Inventory(book);
+        inventory.setStoreStock(storeStock);
+        inventory.setWarehouseStock(0);
+        inventoryRepository.save(inventory);
+        return book;
+    }
+
+    private Order createOrder(Book first, int firstQuantity, Book second, int secondQuantity) {
+        Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CREDIT_CARD);
+        order.getOrderItems().add(new OrderItem(order, first, firstQuantity, first.getSellingPrice()));
+        if (second != null) {
+            order.getOrderItems().add(new OrderItem(order, second, secondQuantity, second.getSellingPrice()));
+        }
+        return orderService.createOrder(order);
+    }
+}
@@ -0,0 +1,102 @@
+package com.techbookstore.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming CSV / JSON Lines order line export
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class OrderLineExportTest {
+
+    private static final LocalDate FAR_FUTURE = LocalDate.of(2099, 1, 1);
+
+    @Autowired
+    private CustomReportService customReportService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Book book = new Book("9789990000701", "Export, \"Quoted\" Book");
+        book.setSellingPrice(BigDecimal.valueOf(1500));
+        book = bookRepository.save(book);
+
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CREDIT_CARD);
+            order.setCustomerId(920001L);
+            order.getOrderItems().add(new OrderItem(order, book, i + 1, book.getSellingPrice()));
+            order = orderService.createOrder(order);
+            order.setOrderDate(FAR_FUTURE.atTime(10, i));
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void csv_WritesHeaderAndEscapedRows() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = customReportService.exportOrderLines(FAR_FUTURE, FAR_FUTURE,
+                                                         CustomReportService.StreamFormat.CSV, out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, rows);
+        assertEquals(4, lines.length);
+        assertEquals("order_number,order_date,status,customer_id,isbn13,title,quantity,unit_price,total_price", lines[0]);
+        assertTrue(lines[1].contains(",9789990000701,\"Export, \"\"Quoted\"\" Book\",1,1500.00,1500.00"));
+        assertTrue(lines[3].contains(",3,1500.00,4500.00"));
+    }
+
+    @Test
+    void jsonLines_WritesOneObjectPerRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        customReportService.exportOrderLines(FAR_FUTURE, FAR_FUTURE, CustomReportService.StreamFormat.JSONL, out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals("Export, \"Quoted\" Book", first.get("title").asText());
+        assertEquals(920001L, first.get("customer_id").asLong());
+        assertEquals(0, new BigDecimal("1500.00").compareTo(first.get("unit_price").decimalValue()));
+    }
+
+    @Test
+    void emptyRange_WritesOnlyHeader() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = customReportService.exportOrderLines(FAR_FUTURE.plusDays(1), FAR_FUTURE.plusDays(2),
+                                                         CustomReportService.StreamFormat.CSV, out);
+
+        assertEquals(0, rows);
+        assertEquals("order_number,order_date,status,customer_id,isbn13,title,quantity,unit_price,total_price\r\n",
+                     new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
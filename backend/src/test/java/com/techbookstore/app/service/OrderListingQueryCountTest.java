@@ -0,0 +1,152 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.OrderDto;
+import com.techbookstore.app.dto.OrderSummaryDto;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.entity.Publisher;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.OrderRepository;
+import com.techbookstore.app.repository.PublisherRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Asserts that order listings issue a constant number of SQL statements per page,
+ * independent of how many items each order has (no N+1 on orderItems / book / publisher).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+public class OrderListingQueryCountTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        books = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Publisher publisher = publisherRepository.save(new Publisher("Listing Publisher " + i));
+            Book book = new Book();
+            book.setIsbn13(String.format("97899900005%02d", i));
+            book.setTitle("Listing Book " + i);
+            book.setSellingPrice(BigDecimal.valueOf(1000));
+            book.setPublisher(publisher);
+            books.add(bookRepository.save(book));
+        }
+    }
+
+    @Test
+    void filteredListing_StatementCountIndependentOfItemCount() {
+        Long singleItemCustomer = 900001L;
+        Long multiItemCustomer = 900002L;
+        createOrders(singleItemCustomer, PAGE_SIZE, 1);
+        createOrders(multiItemCustomer, PAGE_SIZE, 6);
+
+        PageRequest pageRequest = PageRequest.of(0, PAGE_SIZE, Sort.by("orderDate").descending());
+        long singleItemStatements = countStatements(() -> toDtos(
+            orderService.getOrdersWithFilters(null, null, singleItemCustomer, null, null, pageRequest), 1));
+        long multiItemStatements = countStatements(() -> toDtos(
+            orderService.getOrdersWithFilters(null, null, multiItemCustomer, null, null, pageRequest), 6));
+
+        assertEquals(singleItemStatements, multiItemStatements);
+        assertTrue(multiItemStatements <= 3, "ID page, count and detail fetch, but was " + multiItemStatements);
+    }
+
+    @Test
+    void customerListing_UsesOneStatementPlusArchiveProbe() {
+        Long customerId = 900003L;
+        createOrders(customerId, 10, 6);
+
+        long statements = countStatements(() -> orderService.getOrdersByCustomerId(customerId).stream()
+            .map(OrderDto::new)
+            .collect(Collectors.toList()));
+
+        // Live orders with their details in one statement, then one probe of the archive by customer
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void summaryListing_ProjectsItemCounts() {
+        Long customerId = 900004L;
+        createOrders(customerId, 3, 4);
+
+        Page<OrderSummaryDto> summaries = orderService.getOrderSummaries(
+            null, null, customerId, null, null, PageRequest.of(0, PAGE_SIZE, Sort.by("orderDate").descending()));
+
+        assertEquals(3, summaries.getTotalElements());
+        assertEquals(4L, summaries.getContent().get(0).getItemCount());
+        assertEquals(8L, summaries.getContent().get(0).getTotalQuantity());
+    }
+
+    private List<OrderDto> toDtos(Page<Order> page, int expectedItems) {
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        List<OrderDto> dtos = page.getContent().stream().map(OrderDto::new).collect(Collectors.toList());
+        dtos.forEach(dto -> {
+            assertEquals(expectedItems, dto.getOrderItems().size());
+            dto.getOrderItems().forEach(item -> assertNotNull(item.getBookTitle()));
+        });
+        return dtos;
+    }
+
+    private long countStatements(Supplier<?> listing) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        listing.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createOrders(Long customerId, int orderCount, int itemsPerOrder) {
+        for (int i = 0; i < orderCount; i++) {
+            Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CREDIT_CARD);
+            order.setCustomerId(customerId);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                Book book = books.get(j);
+                order.getOrderItems().add(new OrderItem(order, book, 2, book.getSellingPrice()));
+            }
+            orderService.createOrder(order);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.techbookstore.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the sequence (hi/lo) and per-day counter order number generators
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class OrderNumberGeneratorTest {
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void defaultGenerator_IsSequenceBacked() {
+        assertTrue(orderNumberGenerator instanceof SequenceOrderNumberGenerator);
+        assertTrue(orderNumberGenerator.nextOrderNumber().matches("ORD-\\d{8,}"));
+    }
+
+    @Test
+    void sequenceGenerator_KeepsGrowingPastEightDigits() {
+        // Sequence values never reset, so numbers must not be capped by a fixed width
+        jdbcTemplate.execute("ALTER SEQUENCE " + SequenceOrderNumberGenerator.SEQUENCE_NAME + " RESTART WITH 3000000");
+        SequenceOrderNumberGenerator generator = new SequenceOrderNumberGenerator(jdbcTemplate, 50);
+        assertEquals("ORD-150000000", generator.nextOrderNumber());
+        assertTrue(generator.nextOrderNumber().length() <= 32);
+    }
+
+    @Test
+    void sequenceGenerator_ConcurrentCalls_AreUnique() throws Exception {
+        SequenceOrderNumberGenerator generator = new SequenceOrderNumberGenerator(jdbcTemplate, 10);
+        assertEquals(1000, generateConcurrently(generator, 16, 1000).size());
+    }
+
+    @Test
+    void sequenceGenerator_TwoInstances_DoNotOverlap() throws Exception {
+        // Simulates two app instances sharing the database sequence
+        SequenceOrderNumberGenerator first = new SequenceOrderNumberGenerator(jdbcTemplate, 5);
+        SequenceOrderNumberGenerator second = new SequenceOrderNumberGenerator(jdbcTemplate, 5);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 23; i++) {
+            assertTrue(numbers.add(first.nextOrderNumber()));
+            assertTrue(numbers.add(second.nextOrderNumber()));
+        }
+    }
+
+    @Test
+    void sequenceGenerator_OnlyTouchesDatabaseOncePerBlock() {
+        SequenceOrderNumberGenerator generator = new SequenceOrderNumberGenerator(jdbcTemplate, 50);
+        Long before = currentSequenceValue();
+        for (int i = 0; i < 100; i++) {
+            generator.nextOrderNumber();
+        }
+        assertEquals(before + 3, currentSequenceValue());   // two blocks plus the probe itself
+    }
+
+    @Test
+    void dailyCounter_SeedsFromHighestNumberIssuedToday() throws Exception {
+        jdbcTemplate.update("INSERT INTO orders (order_number, order_date, status, type, total_amount) " +
+            "VALUES (?, CURRENT_TIMESTAMP, 'PENDING', 'ONLINE', 0)", todayPrefix() + "98765");
+        try {
+            DailyCounterOrderNumberGenerator generator = new DailyCounterOrderNumberGenerator(jdbcTemplate);
+            assertEquals(todayPrefix() + "98766", generator.nextOrderNumber());
+
+            Set<String> numbers = generateConcurrently(generator, 8, 200);
+            assertEquals(200, numbers.size());
+            assertTrue(numbers.contains(todayPrefix() + "98966"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM orders WHERE order_number LIKE ?", todayPrefix() + "9%");
+        }
+    }
+
+    private Long currentSequenceValue() {
+        SequenceOrderNumberGenerator probe = new SequenceOrderNumberGenerator(jdbcTemplate, 1);
+        return probe.nextValue();
+    }
+
+    private Set<String> generateConcurrently(OrderNumberGenerator generator, int threads, int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(() -> numbers.add(generator.nextOrderNumber())));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return numbers;
+    }
+
+    private String todayPrefix() {
+        return "ORD-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
+    }
+}
@@ -0,0 +1,190 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.SalesFactSummaryDto;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.DailyBookSales;
+import com.techbookstore.app.entity.Order;
+import com.techbookstore.app.entity.OrderItem;
+import com.techbookstore.app.repository.ArchiveStore;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.DailyBookSalesRepository;
+import com.techbookstore.app.repository.OrderRepository;
+import com.techbookstore.app.repository.SalesFactStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for incremental maintenance and rebuild of the daily_book_sales fact table
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class SalesFactServiceTest {
+
+    @Autowired
+    private SalesFactService salesFactService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private DailyBookSalesRepository dailyBookSalesRepository;
+
+    @Autowired
+    private SalesFactStore salesFactStore;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book javaBook;
+    private Book pythonBook;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        javaBook = saveBook("9789990000101", "Fact Java Book", 3000);
+        pythonBook = saveBook("9789990000102", "Fact Python Book", 2500);
+        today = LocalDate.now();
+    }
+
+    @Test
+    void createOrder_AppliesIncrementalDelta() {
+        BigDecimal revenueBefore = dailyBookSalesRepository.sumRevenue(today, today);
+        Long ordersBefore = dailyBookSalesRepository.sumOrderCount(today, today);
+
+        createOrder(javaBook, 2, pythonBook, 1);
+
+        assertEquals(0, revenueBefore.add(BigDecimal.valueOf(8500)).compareTo(dailyBookSalesRepository.sumRevenue(today, today)));
+        assertEquals(ordersBefore + 1, dailyBookSalesRepository.sumOrderCount(today, today));
+
+        SalesFactSummaryDto javaTotals = findBookTotals(javaBook.getId());
+        assertEquals(2L, javaTotals.getQuantity());
+        assertEquals(1L, javaTotals.getOrderCount());
+    }
+
+    @Test
+    void cancelOrder_ReversesDelta() {
+        BigDecimal revenueBefore = dailyBookSalesRepository.sumRevenue(today, today);
+        Long ordersBefore = dailyBookSalesRepository.sumOrderCount(today, today);
+
+        Order order = createOrder(javaBook, 1, pythonBook, 3);
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CANCELLED);
+
+        assertEquals(0, revenueBefore.compareTo(dailyBookSalesRepository.sumRevenue(today, today)));
+        assertEquals(ordersBefore, dailyBookSalesRepository.sumOrderCount(today, today));
+    }
+
+    @Test
+    void rebuild_MatchesIncrementalTotals() {
+        createOrder(javaBook, 2, pythonBook, 1);
+        createOrder(javaBook, 1, null, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        BigDecimal incrementalRevenue = dailyBookSalesRepository.sumRevenue(today, today);
+        Long incrementalOrders = dailyBookSalesRepository.sumOrderCount(today, today);
+        SalesFactSummaryDto incrementalJava = findBookTotals(javaBook.getId());
+
+        int rowsWritten = salesFactService.rebuild(today, today);
+        entityManager.clear();
+
+        assertTrue(rowsWritten > 0);
+        assertEquals(0, incrementalRevenue.compareTo(dailyBookSalesRepository.sumRevenue(today, today)));
+        assertEquals(incrementalOrders, dailyBookSalesRepository.sumOrderCount(today, today));
+
+        SalesFactSummaryDto rebuiltJava = findBookTotals(javaBook.getId());
+        assertEquals(incrementalJava.getQuantity(), rebuiltJava.getQuantity());
+        assertEquals(2L, rebuiltJava.getOrderCount());
+    }
+
+    @Test
+    void rebuild_RefusesArchivedDaysAndKeepsTheirFacts() {
+        LocalDate oldDay = today.minusYears(3);
+        Order old = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CASH);
+        old.setOrderNumber("FACT-ARC-1");
+        old.setStatus(Order.OrderStatus.DELIVERED);
+        old.setOrderDate(oldDay.atTime(10, 0));
+        old.setTotalAmount(BigDecimal.valueOf(3000));
+        old.getOrderItems().add(new OrderItem(old, javaBook, 1, javaBook.getSellingPrice()));
+        old = orderRepository.save(old);
+        salesFactService.recordOrderStatusChange(old, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        LocalDateTime cutoff = today.minusYears(2).atStartOfDay();
+        archiveStore.moveOrders(archiveStore.findOrderIdsToArchive(cutoff, today), cutoff, today);
+        entityManager.clear();
+
+        assertEquals(oldDay.plusDays(1), salesFactService.firstRebuildableDate());
+        assertThrows(IllegalArgumentException.class, () -> salesFactService.rebuild(oldDay, today));
+        assertEquals(1L, dailyBookSalesRepository.sumOrderCount(oldDay, oldDay));
+
+        salesFactService.rebuild(oldDay.plusDays(1), oldDay.plusDays(1));
+        assertEquals(1L, dailyBookSalesRepository.sumOrderCount(oldDay, oldDay));
+    }
+
+    @Test
+    void increment_CreatesCellOnceAndAddsToIt() {
+        LocalDate salesDate = LocalDate.of(2099, 1, 1);
+        salesFactStore.increment(salesDate, javaBook.getId(), DailyBookSales.GUEST, "CASH", "ONLINE",
+                                 2, BigDecimal.valueOf(6000), 1);
+        salesFactStore.increment(salesDate, javaBook.getId(), DailyBookSales.GUEST, "CASH", "ONLINE",
+                                 -1, BigDecimal.valueOf(-3000), 0);
+
+        List<DailyBookSales> cells = dailyBookSalesRepository.findAll().stream()
+            .filter(row -> salesDate.equals(row.getSalesDate()))
+            .collect(Collectors.toList());
+        assertEquals(1, cells.size());
+        assertEquals(1L, cells.get(0).getQuantity());
+        assertEquals(0, BigDecimal.valueOf(3000).compareTo(cells.get(0).getRevenue()));
+        assertEquals(1L, cells.get(0).getOrderCount());
+    }
+
+    private SalesFactSummaryDto findBookTotals(Long bookId) {
+        List<SalesFactSummaryDto> rows = dailyBookSalesRepository.summarizeByBook(today, today, PageRequest.of(0, 1000));
+        return rows.stream()
+            .filter(row -> row.getBookId().equals(bookId))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+    }
+
+    private Book saveBook(String isbn, String title, int price) {
+        Book book = new Book();
+        book.setIsbn13(isbn);
+        book.setTitle(title);
+        book.setSellingPrice(BigDecimal.valueOf(price));
+        return bookRepository.save(book);
+    }
+
+    private Order createOrder(Book first, int firstQuantity, Book second, int secondQuantity) {
+        Order order = new Order(Order.OrderType.ONLINE, Order.PaymentMethod.CREDIT_CARD);
+        order.getOrderItems().add(new OrderItem(order, first, firstQuantity, first.getSellingPrice()));
+        if (second != null) {
+            order.getOrderItems().add(new OrderItem(order, second, secondQuantity, second.getSellingPrice()));
+        }
+        return orderService.createOrder(order);
+    }
+}
@@ -0,0 +1,81 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.config.SchedulerLock;
+import com.techbookstore.app.config.SchedulerLockProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for scheduler locks on the database: exclusion, lease expiry, fencing tokens and status
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ScheduledJobLockTest {
+
+    @Autowired
+    private ScheduledJobLock jobLock;
+
+    @Autowired
+    private SchedulerLock schedulerLock;
+
+    @Autowired
+    private SchedulerLockProperties properties;
+
+    @Test
+    void runLocked_ExcludesOtherNodesUntilReleased() {
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertTrue(jobLock.runLocked("exclusive_job", lease -> {
+            ran.set(true);
+            assertNull(schedulerLock.tryAcquire("exclusive_job", "other-node", Duration.ofMinutes(1)));
+
+            Map<String, Object> status = lockStatus("exclusive_job");
+            assertEquals(true, status.get("held"));
+            assertEquals(true, status.get("heldByThisNode"));
+            assertEquals(properties.getNodeId(), status.get("owner"));
+            assertEquals(lease.getFencingToken(), status.get("fencingToken"));
+        }));
+        assertTrue(ran.get());
+
+        SchedulerLock.Lease next = schedulerLock.tryAcquire("exclusive_job", "other-node", Duration.ofMinutes(1));
+        assertNotNull(next);
+        assertEquals(2, next.getFencingToken());
+        assertFalse(jobLock.runLocked("exclusive_job", lease -> fail("lock is held by another node")));
+        schedulerLock.release(next);
+    }
+
+    @Test
+    void expiredLease_IsTakenOverWithNewerFencingToken() throws InterruptedException {
+        SchedulerLock.Lease first = schedulerLock.tryAcquire("expiring_job", "node-a", Duration.ofMillis(50));
+        assertNotNull(first);
+        Thread.sleep(100);
+
+        SchedulerLock.Lease second = schedulerLock.tryAcquire("expiring_job", "node-b", Duration.ofMinutes(1));
+        assertNotNull(second);
+        assertTrue(second.getFencingToken() > first.getFencingToken());
+
+        assertFalse(schedulerLock.renew(first, Duration.ofMinutes(1)));
+        schedulerLock.release(first);
+        assertEquals("node-b", lockStatus("expiring_job").get("owner"));
+        assertEquals(true, lockStatus("expiring_job").get("held"));
+
+        assertTrue(schedulerLock.renew(second, Duration.ofMinutes(1)));
+        schedulerLock.release(second);
+        assertEquals(false, lockStatus("expiring_job").get("held"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> lockStatus(String name) {
+        List<Map<String, Object>> locks = (List<Map<String, Object>>) jobLock.status().get("locks");
+        return locks.stream().filter(lock -> name.equals(lock.get("name"))).findFirst().get();
+    }
+}
@@ -0,0 +1,192 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Inventory;
+import com.techbookstore.app.exception.InsufficientInventoryException;
+import com.techbookstore.app.exception.StockConflictException;
+import com.techbookstore.app.repository.BookRepository;
+import com.techbookstore.app.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency tests for StockMutationService.
+ * Not transactional on purpose: every worker thread commits its own stock update.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class StockMutationServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockMutationServiceTest.class);
+
+    private static final int INITIAL_STORE_STOCK = 200;
+    private static final int SELL_ATTEMPTS = 300;
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Book book;
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setIsbn13("9789990000301");
+        book.setTitle("Stock Mutation Book");
+        book.setSellingPrice(BigDecimal.valueOf(3000));
+        book = bookRepository.save(book);
+
+        inventory = new Inventory(book);
+        inventory.setStoreStock(0);
+        inventory.setWarehouseStock(0);
+        inventory.setReservedCount(0);
+        inventory = inventoryRepository.save(inventory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryRepository.deleteById(inventory.getId());
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    void concurrentSales_NeverOversell_At1Thread() throws Exception {
+        assertNoOversell(1);
+    }
+
+    @Test
+    void concurrentSales_NeverOversell_At8Threads() throws Exception {
+        assertNoOversell(8);
+    }
+
+    @Test
+    void concurrentSales_NeverOversell_At64Threads() throws Exception {
+        assertNoOversell(64);
+    }
+
+    @Test
+    void concurrentReceives_DoNotLoseUpdates() throws Exception {
+        runConcurrently(16, 160, () -> stockMutationService.receive(book.getId(), 1, false));
+
+        Inventory current = inventoryRepository.findById(inventory.getId()).get();
+        assertEquals(160, current.getWarehouseStock());
+        assertEquals(160L, current.getVersion() - inventory.getVersion());
+    }
+
+    @Test
+    void concurrentTransfersAndReservations_KeepCountsConsistent() throws Exception {
+        stockMutationService.adjust(book.getId(), 50, 50, null);
+
+        runConcurrently(8, 100, () -> {
+            stockMutationService.transfer(inventory.getId(), true, 1);
+            stockMutationService.transfer(inventory.getId(), false, 1);
+        });
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(8, 150, () -> {
+            try {
+                stockMutationService.reserve(inventory.getId(), 1);
+                reserved.incrementAndGet();
+            } catch (InsufficientInventoryException e) {
+                // expected once all stock is reserved
+            }
+        });
+
+        Inventory current = inventoryRepository.findById(inventory.getId()).get();
+        assertEquals(100, current.getTotalStock());
+        assertEquals(100, reserved.get());
+        assertEquals(100, current.getReservedCount());
+        assertEquals(0, current.getAvailableStock());
+    }
+
+    @Test
+    void adjust_WithStaleVersion_ThrowsConflict() {
+        Inventory adjusted = stockMutationService.adjust(book.getId(), 10, 20, inventory.getVersion());
+        assertEquals(10, adjusted.getStoreStock());
+        assertEquals(20, adjusted.getWarehouseStock());
+
+        assertThrows(StockConflictException.class,
+            () -> stockMutationService.adjust(book.getId(), 5, 5, inventory.getVersion()));
+    }
+
+    @Test
+    void sell_InsufficientStock_ThrowsAndLeavesStockUnchanged() {
+        stockMutationService.receive(book.getId(), 3, true);
+
+        assertThrows(InsufficientInventoryException.class, () -> stockMutationService.sell(book.getId(), 4));
+        assertEquals(3, inventoryRepository.findById(inventory.getId()).get().getStoreStock());
+    }
+
+    private void assertNoOversell(int threads) throws Exception {
+        stockMutationService.adjust(book.getId(), INITIAL_STORE_STOCK, 0, null);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long elapsedNanos = runConcurrently(threads, SELL_ATTEMPTS, () -> {
+            try {
+                stockMutationService.sell(book.getId(), 1);
+                sold.incrementAndGet();
+            } catch (InsufficientInventoryException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        Inventory current = inventoryRepository.findById(inventory.getId()).get();
+        assertEquals(INITIAL_STORE_STOCK, sold.get());
+        assertEquals(SELL_ATTEMPTS - INITIAL_STORE_STOCK, rejected.get());
+        assertEquals(0, current.getStoreStock());
+
+        double throughput = SELL_ATTEMPTS / (elapsedNanos / 1_000_000_000.0);
+        logger.info("Stock mutation throughput at {} threads: {} ops/s ({} sold, {} rejected)",
+            threads, String.format("%.1f", throughput), sold.get(), rejected.get());
+    }
+
+    /**
+     * Run the operation the given number of times spread over a fixed thread pool and return elapsed nanos.
+     */
+    private long runConcurrently(int threads, int operations, Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < operations; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    operation.run();
+                    return null;
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            return System.nanoTime() - startedAt;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.techbookstore.app.service;
+
+import com.techbookstore.app.dto.SuggestionDto;
+import com.techbookstore.app.entity.Book;
+import com.techbookstore.app.entity.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for typeahead suggestions and the radix trie behind them
+ */
+class SuggestionServiceTest {
+
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        suggestionService = new SuggestionService(null);
+        suggestionService.bookSaved(book(1L, "9784798100001", "Effective Java", null));
+        suggestionService.bookSaved(book(2L, "9784798100002", "Java言語プログラミング", "Java Programming"));
+        suggestionService.bookSaved(book(3L, "9784873110003", "JavaScript入門", null));
+        suggestionService.customerSaved(customer(10L, "山田 太郎", "ヤマダ タロウ", "taro@example.com"));
+        suggestionService.customerSaved(customer(11L, "山本 花子", "ヤマモト ハナコ", "hanako@example.com"));
+    }
+
+    @Test
+    void books_MatchTitleWordsAndIsbnPrefixes() {
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids(suggestionService.suggestBooks("JAVA", 10)));
+        assertEquals(Arrays.asList(2L), ids(suggestionService.suggestBooks("java p", 10)));
+        assertEquals(Arrays.asList(3L), ids(suggestionService.suggestBooks("978-4-873", 10)));
+        assertEquals("Effective Java", suggestionService.suggestBooks("eff", 10).get(0).getLabel());
+        assertTrue(suggestionService.suggestBooks("python", 10).isEmpty());
+    }
+
+    @Test
+    void books_LimitBoundsResults() {
+        assertEquals(2, suggestionService.suggestBooks("9784", 2).size());
+        assertEquals(3, suggestionService.suggestBooks("9784", 1000).size());
+    }
+
+    @Test
+    void customers_MatchNameKanaAndEmail() {
+        assertEquals(Arrays.asList(11L, 10L), ids(suggestionService.suggestCustomers("山", 10)));   // 本 sorts before 田
+        assertEquals(Arrays.asList(11L), ids(suggestionService.suggestCustomers("ﾔﾏﾓﾄ", 10)));
+        assertEquals(Arrays.asList(10L), ids(suggestionService.suggestCustomers("タロウ", 10)));
+        assertEquals(Arrays.asList(10L), ids(suggestionService.suggestCustomers("taro@", 10)));
+    }
+
+    @Test
+    void savesAndDeletes_UpdateSuggestions() {
+        suggestionService.bookSaved(book(1L, "9784798100001", "Effective Kotlin", null));
+        assertEquals(Arrays.asList(2L, 3L), ids(suggestionService.suggestBooks("java", 10)));
+        assertEquals(Arrays.asList(1L), ids(suggestionService.suggestBooks("kot", 10)));
+
+        suggestionService.bookDeleted(3L);
+        assertEquals(Arrays.asList(2L), ids(suggestionService.suggestBooks("java", 10)));
+
+        Customer deleted = customer(10L, "山田 太郎", "ヤマダ タロウ", "taro@example.com");
+        deleted.setStatus(Customer.CustomerStatus.DELETED);
+        suggestionService.customerSaved(deleted);
+        assertEquals(Arrays.asList(11L), ids(suggestionService.suggestCustomers("山", 10)));
+    }
+
+    @Test
+    void radixTrie_SplitsAndMergesEdges() {
+        RadixTrie trie = new RadixTrie();
+        trie.add("romane", 1);
+        trie.add("romanus", 2);
+        trie.add("romulus", 3);
+        trie.add("rom", 4);
+
+        assertEquals(Arrays.asList(4L, 1L, 2L, 3L), Arrays.asList(trie.collect("ro", 10).toArray()));
+        assertEquals(Arrays.asList(1L, 2L), Arrays.asList(trie.collect("roman", 10).toArray()));
+        assertTrue(trie.collect("romb", 10).isEmpty());
+
+        trie.remove("romane", 1);
+        trie.remove("rom", 4);
+        assertEquals(Arrays.asList(2L, 3L), Arrays.asList(trie.collect("r", 10).toArray()));
+        assertEquals(Arrays.asList(2L), Arrays.asList(trie.collect("romanu", 10).toArray()));
+    }
+
+    private List<Long> ids(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::getId).collect(Collectors.toList());
+    }
+
+    private Book book(Long id, String isbn13, String title, String titleEn) {
+        Book book = new Book(isbn13, title);
+        book.setId(id);
+        book.setTitleEn(titleEn);
+        return book;
+    }
+
+    private Customer customer(Long id, String name, String nameKana, String email) {
+        Customer customer = new Customer(Customer.CustomerType.INDIVIDUAL, name, email, "090-0000-0000");
+        customer.setId(id);
+        customer.setNameKana(nameKana);
+        return customer;
+    }
+}